@@ -0,0 +1,152 @@
+// SPDX-FileCopyrightText: 2020 Roberto Posenato <roberto.posenato@univr.it>
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+package it.univr.di.cstnu.algorithms;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import it.univr.di.cstnu.algorithms.AbstractCSTN.CSTNCheckStatus;
+import it.univr.di.cstnu.graph.CSTNEdge;
+import it.univr.di.cstnu.graph.CSTNPSUEdge;
+import it.univr.di.cstnu.graph.CSTNUEdge;
+import it.univr.di.cstnu.graph.EdgeSupplier;
+import it.univr.di.cstnu.graph.TNGraph;
+
+/**
+ * JMH benchmark of the DC checking of {@link CSTN}, {@link CSTNU} and {@link CSTNPSU}.
+ * <p>
+ * Instances are the DC CSTNs built by {@link CSTNRandomGenerator} with a fixed seed.
+ * For CSTNU and CSTNPSU, the instances are copied with the proper edge class (they have no contingent links).
+ * Each invocation checks a fresh copy of the next instance because the check modifies the network.
+ *
+ * @author posenato
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CSTNBenchmark {
+
+	/**
+	 * Kind of network to check.
+	 */
+	public static enum NetworkKind {
+		/**
+		 * {@link CSTN#dynamicConsistencyCheck()}
+		 */
+		CSTN,
+		/**
+		 * {@link CSTNU#dynamicControllabilityCheck()}
+		 */
+		CSTNU,
+		/**
+		 * {@link CSTNPSU#dynamicControllabilityCheck()}
+		 */
+		CSTNPSU
+	}
+
+	/**
+	 * Kind of network.
+	 */
+	@Param
+	public NetworkKind kind;
+
+	/**
+	 * Number of nodes of each instance.
+	 */
+	@Param({ "30" })
+	public int nodes;
+
+	/**
+	 * Number of propositions of each instance.
+	 */
+	@Param({ "4" })
+	public int propositions;
+
+	/**
+	 * Seed of the instance generator.
+	 */
+	@Param({ "20220101" })
+	public long seed;
+
+	/**
+	 * Number of different instances checked round-robin.
+	 */
+	static final int INSTANCES = 5;
+
+	/**
+	 *
+	 */
+	private TNGraph<CSTNEdge>[] instances;
+
+	/**
+	 *
+	 */
+	private int next;
+
+	/**
+	 *
+	 */
+	private AbstractCSTN<?> checker;
+
+	/**
+	 * Builds the instances.
+	 */
+	@SuppressWarnings("unchecked")
+	@Setup(Level.Trial)
+	public void buildInstances() {
+		STNUBenchmark.quietLogging();
+		final CSTNRandomGenerator generator = new CSTNRandomGenerator(INSTANCES, 0, this.nodes, this.propositions, 1, 4, 1, .2, 150);
+		generator.setSeed(this.seed);
+		this.instances = new TNGraph[INSTANCES];
+		for (int i = 0; i < INSTANCES;) {
+			final TNGraph<CSTNEdge> g = generator.buildAPairRndCSTNInstances(false).getFirst();
+			if (g != null) {
+				g.setName("cstn" + i);
+				this.instances[i++] = g;
+			}
+		}
+		this.next = 0;
+	}
+
+	/**
+	 * Prepares a fresh copy of the next instance.
+	 */
+	@SuppressWarnings("unchecked")
+	@Setup(Level.Invocation)
+	public void prepareInstance() {
+		final TNGraph<CSTNEdge> g = this.instances[this.next];
+		switch (this.kind) {
+		case CSTNU:
+			this.checker = new CSTNU(new TNGraph<>((TNGraph<CSTNUEdge>) (TNGraph<?>) g, EdgeSupplier.DEFAULT_CSTNU_EDGE_CLASS));
+			break;
+		case CSTNPSU:
+			this.checker = new CSTNPSU(new TNGraph<>((TNGraph<CSTNPSUEdge>) (TNGraph<?>) g, EdgeSupplier.DEFAULT_CSTNPSU_EDGE_CLASS));
+			break;
+		case CSTN:
+		default:
+			this.checker = new CSTN(new TNGraph<>(g, EdgeSupplier.DEFAULT_CSTN_EDGE_CLASS));
+			break;
+		}
+		this.next = (this.next + 1) % INSTANCES;
+	}
+
+	/**
+	 * @return the status of the check.
+	 * @throws WellDefinitionException if the instance is not well defined.
+	 */
+	@Benchmark
+	public CSTNCheckStatus dynamicConsistencyCheck() throws WellDefinitionException {
+		return this.checker.dynamicConsistencyCheck();
+	}
+}
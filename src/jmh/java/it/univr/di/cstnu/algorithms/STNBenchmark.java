@@ -0,0 +1,108 @@
+// SPDX-FileCopyrightText: 2020 Roberto Posenato <roberto.posenato@univr.it>
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+package it.univr.di.cstnu.algorithms;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import it.univr.di.cstnu.algorithms.STN.CheckAlgorithm;
+import it.univr.di.cstnu.algorithms.STN.STNCheckStatus;
+import it.univr.di.cstnu.graph.EdgeSupplier;
+import it.univr.di.cstnu.graph.STNEdge;
+import it.univr.di.cstnu.graph.TNGraph;
+
+/**
+ * JMH benchmark of {@link STN#consistencyCheck(CheckAlgorithm)} for every {@link STN.CheckAlgorithm}.
+ * <p>
+ * Instances are the DC STNUs built by {@link STNURandomGenerator} with a fixed seed, where contingent links are considered as ordinary
+ * constraints.
+ * Each invocation checks a fresh copy of the next instance because the check modifies the network.
+ *
+ * @author posenato
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class STNBenchmark {
+
+	/**
+	 * Check algorithm.
+	 */
+	@Param
+	public CheckAlgorithm algorithm;
+
+	/**
+	 * Number of nodes of each instance.
+	 */
+	@Param({ "200" })
+	public int nodes;
+
+	/**
+	 * Seed of the instance generator.
+	 */
+	@Param({ "20220101" })
+	public long seed;
+
+	/**
+	 * Number of different instances checked round-robin.
+	 */
+	static final int INSTANCES = 5;
+
+	/**
+	 *
+	 */
+	private TNGraph<STNEdge>[] instances;
+
+	/**
+	 *
+	 */
+	private int next;
+
+	/**
+	 *
+	 */
+	private STN stn;
+
+	/**
+	 * Builds the instances.
+	 */
+	@SuppressWarnings("unchecked")
+	@Setup(Level.Trial)
+	public void buildInstances() {
+		STNUBenchmark.quietLogging();
+		final TNGraph<?>[] stnus = STNUBenchmark.buildInstances(INSTANCES, this.nodes, this.nodes / 10, this.seed);
+		this.instances = new TNGraph[INSTANCES];
+		for (int i = 0; i < INSTANCES; i++) {
+			this.instances[i] = new TNGraph<>((TNGraph<STNEdge>) stnus[i], EdgeSupplier.DEFAULT_STN_EDGE_CLASS);
+		}
+		this.next = 0;
+	}
+
+	/**
+	 * Prepares a fresh copy of the next instance.
+	 */
+	@Setup(Level.Invocation)
+	public void prepareInstance() {
+		this.stn = new STN(new TNGraph<>(this.instances[this.next], EdgeSupplier.DEFAULT_STN_EDGE_CLASS));
+		this.next = (this.next + 1) % INSTANCES;
+	}
+
+	/**
+	 * @return the status of the check.
+	 */
+	@Benchmark
+	public STNCheckStatus consistencyCheck() {
+		return this.stn.consistencyCheck(this.algorithm);
+	}
+}
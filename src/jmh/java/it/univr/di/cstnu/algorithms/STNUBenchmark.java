@@ -0,0 +1,158 @@
+// SPDX-FileCopyrightText: 2020 Roberto Posenato <roberto.posenato@univr.it>
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+package it.univr.di.cstnu.algorithms;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import it.univr.di.cstnu.algorithms.STNU.CheckAlgorithm;
+import it.univr.di.cstnu.algorithms.STNU.STNUCheckStatus;
+import it.univr.di.cstnu.graph.EdgeSupplier;
+import it.univr.di.cstnu.graph.STNUEdge;
+import it.univr.di.cstnu.graph.TNGraph;
+
+/**
+ * JMH benchmark of {@link STNU#dynamicControllabilityCheck()} for every {@link STNU.CheckAlgorithm}.
+ * <p>
+ * Instances are the DC STNUs built by {@link STNURandomGenerator} with a fixed seed.
+ * Each invocation checks a fresh copy of the next instance because the check modifies the network.
+ *
+ * @author posenato
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class STNUBenchmark {
+
+	/**
+	 * Check algorithm.
+	 */
+	@Param
+	public CheckAlgorithm algorithm;
+
+	/**
+	 * Number of nodes of each instance.
+	 */
+	@Param({ "200" })
+	public int nodes;
+
+	/**
+	 * Number of contingent nodes of each instance.
+	 */
+	@Param({ "20" })
+	public int contingents;
+
+	/**
+	 * Seed of the instance generator.
+	 */
+	@Param({ "20220101" })
+	public long seed;
+
+	/**
+	 * Number of different instances checked round-robin.
+	 */
+	static final int INSTANCES = 5;
+
+	/**
+	 * Edge probability used by the generator.
+	 */
+	static final double EDGE_PROBABILITY = .2;
+
+	/**
+	 * Max edge weight used by the generator.
+	 */
+	static final int MAX_WEIGHT = 150;
+
+	/**
+	 * Max contingent duration used by the generator.
+	 */
+	static final int MAX_CONTINGENT_WEIGHT = 50;
+
+	/**
+	 *
+	 */
+	private TNGraph<STNUEdge>[] instances;
+
+	/**
+	 *
+	 */
+	private int next;
+
+	/**
+	 *
+	 */
+	private STNU stnu;
+
+	/**
+	 * Checkers log at INFO level some messages at the end of each check. They are suppressed for not perturbing the measures.
+	 */
+	static void quietLogging() {
+		Logger.getLogger("").setLevel(java.util.logging.Level.WARNING);
+	}
+
+	/**
+	 * Builds <code>n</code> DC STNU instances using a {@link STNURandomGenerator} initialized with <code>seed</code>.
+	 * Instances that the generator could not complete are skipped.
+	 *
+	 * @param n number of instances
+	 * @param nNodes number of nodes
+	 * @param nCtg number of contingent nodes
+	 * @param seed seed of the generator
+	 * @return the instances
+	 */
+	@SuppressWarnings("unchecked")
+	static TNGraph<STNUEdge>[] buildInstances(int n, int nNodes, int nCtg, long seed) {
+		final STNURandomGenerator generator = new STNURandomGenerator(n, 0, nNodes, nCtg, EDGE_PROBABILITY, MAX_WEIGHT, MAX_CONTINGENT_WEIGHT);
+		generator.setSeed(seed);
+		final TNGraph<STNUEdge>[] result = new TNGraph[n];
+		for (int i = 0; i < n;) {
+			final TNGraph<STNUEdge> g = generator.buildAPairRndTNInstances(false).getFirst();
+			if (g != null) {
+				g.setName("stnu" + i);
+				result[i++] = g;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Builds the instances.
+	 */
+	@Setup(Level.Trial)
+	public void buildInstances() {
+		quietLogging();
+		this.instances = buildInstances(INSTANCES, this.nodes, this.contingents, this.seed);
+		this.next = 0;
+	}
+
+	/**
+	 * Prepares a fresh copy of the next instance.
+	 */
+	@Setup(Level.Invocation)
+	public void prepareInstance() {
+		this.stnu = new STNU(new TNGraph<>(this.instances[this.next], EdgeSupplier.DEFAULT_STNU_EDGE_CLASS));
+		this.stnu.setDefaultConsistencyCheckAlg(this.algorithm);
+		this.next = (this.next + 1) % INSTANCES;
+	}
+
+	/**
+	 * @return the status of the check.
+	 * @throws WellDefinitionException if the instance is not well defined.
+	 */
+	@Benchmark
+	public STNUCheckStatus dynamicControllabilityCheck() throws WellDefinitionException {
+		return this.stnu.dynamicControllabilityCheck();
+	}
+}
@@ -0,0 +1,143 @@
+// SPDX-FileCopyrightText: 2020 Roberto Posenato <roberto.posenato@univr.it>
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+package it.univr.di.labeledvalue;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmark of the {@link LabeledIntMap} implementations.
+ * <p>
+ * The labeled values are random labels over the first {@link #propositions} propositions (each proposition is absent, straight or negated)
+ * and random values in [-{@link #MAX_VALUE}, {@link #MAX_VALUE}], built with a fixed seed.
+ *
+ * @author posenato
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LabeledIntMapBenchmark {
+
+	/**
+	 * Implementation class (simple name in package {@code it.univr.di.labeledvalue}).
+	 */
+	@Param({ "LabeledIntTreeMap", "LabeledIntSimpleMap", "LabeledIntHierarchyMap" })
+	public String implementation;
+
+	/**
+	 * Number of labeled values put in the map.
+	 */
+	@Param({ "200" })
+	public int values;
+
+	/**
+	 * Number of propositions used in labels.
+	 */
+	@Param({ "6" })
+	public int propositions;
+
+	/**
+	 * Seed of the label generator.
+	 */
+	@Param({ "20220101" })
+	public long seed;
+
+	/**
+	 * Max absolute value.
+	 */
+	static final int MAX_VALUE = 1000;
+
+	/**
+	 *
+	 */
+	private LabeledIntMapSupplier<? extends LabeledIntMap> factory;
+
+	/**
+	 *
+	 */
+	private Label[] labels;
+
+	/**
+	 *
+	 */
+	private int[] ints;
+
+	/**
+	 * Map filled with all labeled values, used by the read benchmarks.
+	 */
+	private LabeledIntMap filled;
+
+	/**
+	 * Builds the random labeled values and the map filled with them.
+	 *
+	 * @throws ClassNotFoundException if {@link #implementation} is not a class of this package.
+	 */
+	@Setup
+	public void buildValues() throws ClassNotFoundException {
+		this.factory = new LabeledIntMapSupplier<>(
+				Class.forName(LabeledIntMap.class.getPackageName() + "." + this.implementation).asSubclass(LabeledIntMap.class));
+		final Random rnd = new Random(this.seed);
+		this.labels = new Label[this.values];
+		this.ints = new int[this.values];
+		for (int i = 0; i < this.values; i++) {
+			Label l = Label.emptyLabel;
+			for (int p = 0; p < this.propositions; p++) {
+				switch (rnd.nextInt(3)) {
+				case 1:
+					l = l.conjunction(Literal.charValue(p), Literal.STRAIGHT);
+					break;
+				case 2:
+					l = l.conjunction(Literal.charValue(p), Literal.NEGATED);
+					break;
+				default:
+					break;
+				}
+			}
+			this.labels[i] = l;
+			this.ints[i] = rnd.nextInt(2 * MAX_VALUE + 1) - MAX_VALUE;
+		}
+		this.filled = this.put();
+	}
+
+	/**
+	 * @return a new map containing all the labeled values.
+	 */
+	@Benchmark
+	public LabeledIntMap put() {
+		final LabeledIntMap map = this.factory.get();
+		for (int i = 0; i < this.values; i++) {
+			map.put(this.labels[i], this.ints[i]);
+		}
+		return map;
+	}
+
+	/**
+	 * @param bh black hole
+	 */
+	@Benchmark
+	public void get(Blackhole bh) {
+		for (int i = 0; i < this.values; i++) {
+			bh.consume(this.filled.get(this.labels[i]));
+		}
+	}
+
+	/**
+	 * @return the min value of the filled map.
+	 */
+	@Benchmark
+	public int getMinValue() {
+		return this.filled.getMinValue();
+	}
+}
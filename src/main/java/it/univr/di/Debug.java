@@ -12,7 +12,8 @@ package it.univr.di;
  */
 public final class Debug {
 	/**
-	 * set to false to allow compiler to identify and eliminate debug code.
+	 * set to false to allow compiler to identify and eliminate debug code.<br>
+	 * The Maven build sets it to false unless the property 'debug' is given (see BUILDING.md).
 	 */
-	public static final boolean ON = true;
+	public static final boolean ON = false;
 }
\ No newline at end of file
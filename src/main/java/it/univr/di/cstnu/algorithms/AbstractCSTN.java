@@ -7,6 +7,7 @@ package it.univr.di.cstnu.algorithms;
 import java.io.File;
 import java.io.IOException;
 import java.time.Instant;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Iterator;
@@ -20,11 +21,12 @@ import org.kohsuke.args4j.Option;
 import org.kohsuke.args4j.OptionHandlerFilter;
 
 import it.unimi.dsi.fastutil.PriorityQueue;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.ObjectIterators;
 import it.unimi.dsi.fastutil.objects.ObjectList;
-import it.unimi.dsi.fastutil.objects.ObjectRBTreeSet;
 import it.unimi.dsi.fastutil.objects.ObjectSet;
 import it.univr.di.Debug;
 import it.univr.di.cstnu.algorithms.STN.STNCheckStatus;
@@ -163,65 +165,150 @@ public abstract class AbstractCSTN<E extends CSTNEdge> {
 	}
 
 	/**
+	 * Set of edges that have to be checked by a propagation cycle.<br>
+	 * An edge is identified by the int <code>s * n + d</code>, where <code>s</code> and <code>d</code> are the indexes of its end-points in the
+	 * graph (see {@link TNGraph#getNodeIndex(LabeledNode)}) and <code>n</code> is the number of nodes.
+	 * The membership is a bitset on such ids and the edges are kept in insertion (FIFO) order, so that no edge name is compared while
+	 * edges are added.<br>
+	 * If {@link #isOrderedByName()}, the edges are iterated in the ascending order of their names, as the previous tree-based
+	 * implementation did; the order is determined once for each iteration.<br>
+	 * The graph is given to {@link #EdgesToCheck(TNGraph)} or it is bound at the first
+	 * {@link #add(Edge, LabeledNode, LabeledNode, LabeledNode, TNGraph, boolean)}.
+	 * Nodes cannot be removed from the graph while the set is in use and the graph cannot have more than {@value #MAX_NODES} nodes.
+	 * 
 	 * @author posenato
 	 * @param <E> Type of edge
 	 */
 	public static class EdgesToCheck<E extends Edge> implements Iterable<E> {
+		/**
+		 * Maximum number of nodes of the graph such that each ordered pair of nodes has a distinct int id.
+		 */
+		public static final int MAX_NODES = 46340;
+
 		/**
 		 * 
 		 */
 		public boolean alreadyAddAllIncidentsToZ;
+
 		/**
-		 * It must be a set because an edge could be added more times!
+		 * Edges in insertion order. Parallel to {@link #ids}.
 		 */
-		public ObjectRBTreeSet<E> edgesToCheck;
+		private ObjectArrayList<E> edges;
 
 		/**
-		 * 
+		 * Graph the node indexes are taken from.
+		 */
+		private TNGraph<E> graph;
+
+		/**
+		 * Ids of the edges in insertion order.
+		 */
+		private IntArrayList ids;
+
+		/**
+		 * Bit <code>id</code> is set if the edge having such id is in the set.
+		 */
+		private BitSet member;
+
+		/**
+		 * Number of nodes used for determining the ids.
+		 */
+		private int n;
+
+		/**
+		 * True if the iteration has to follow the name order.
+		 */
+		private boolean orderedByName;
+
+		/**
+		 * An empty set.
 		 */
 		public EdgesToCheck() {
-			this.edgesToCheck = new ObjectRBTreeSet<>();
+			this.edges = new ObjectArrayList<>();
+			this.ids = new IntArrayList();
+			this.member = new BitSet();
 			this.alreadyAddAllIncidentsToZ = false;
 		}
 
 		/**
-		 * A simple constructor when the initial set of edges is available.
+		 * A set containing all the edges of the given graph.
 		 * 
-		 * @param coll collection to copy
+		 * @param g the graph
 		 */
-		public EdgesToCheck(Collection<? extends E> coll) {
-			this.edgesToCheck = new ObjectRBTreeSet<>(coll);
-			this.alreadyAddAllIncidentsToZ = false;
+		public EdgesToCheck(TNGraph<E> g) {
+			this();
+			this.bind(g);
+			for (int d = 0; d < this.n; d++) {
+				for (int slot = g.firstInSlot(d); slot >= 0; slot = g.nextInSlot(d, slot)) {
+					this.add(g.inNodeAt(d, slot), d, g.inEdgeAt(d, slot));
+				}
+			}
 		}
 
 		/**
-		 * Clear the set.
+		 * A set containing the same edges of <code>input</code>, in the same order.
+		 * 
+		 * @param input set to copy
+		 */
+		public EdgesToCheck(EdgesToCheck<E> input) {
+			this();
+			this.orderedByName = input.orderedByName;
+			this.addAll(input);
+		}
+
+		/**
+		 * Clear the set. The graph remains bound.
 		 */
 		public void clear() {
-			this.edgesToCheck.clear();
+			for (int i = this.ids.size(); i-- != 0;) {
+				this.member.clear(this.ids.getInt(i));
+			}
+			this.ids.clear();
+			this.edges.clear();
 			this.alreadyAddAllIncidentsToZ = false;
 		}
 
+		/**
+		 * @return true if the iteration follows the ascending order of edge names.
+		 */
+		public boolean isOrderedByName() {
+			return this.orderedByName;
+		}
+
 		@Override
 		public Iterator<E> iterator() {
-			return this.edgesToCheck.iterator();
+			if (!this.orderedByName)
+				return ObjectIterators.unmodifiable(this.edges.iterator());
+			final ObjectArrayList<E> sorted = new ObjectArrayList<>(this.edges);
+			sorted.sort(null);
+			return sorted.iterator();
+		}
+
+		/**
+		 * @param ordered true for iterating the edges in the ascending order of their names, false for the insertion order (default).
+		 */
+		public void setOrderedByName(boolean ordered) {
+			this.orderedByName = ordered;
 		}
 
 		/**
 		 * @return the number of edges in the set.
 		 */
 		public int size() {
-			return (this.edgesToCheck != null) ? this.edgesToCheck.size() : 0;
+			return this.edges.size();
 		}
 
 		/**
-		 * Add an edge without any check.
+		 * Add an edge of the bound graph without any check.
+		 * The end-points are determined by the edge name; it is not meant to be used in propagation.
 		 * 
 		 * @param enSnD an edge
 		 * @return true if this set did not already contain the specified element
 		 */
 		final boolean add(E enSnD) {
-			return this.edgesToCheck.add(enSnD);
+			if (this.graph == null)
+				throw new IllegalStateException("The set is not bound to any graph.");
+			return this.add(this.graph.getNodeIndex(this.graph.getSource(enSnD)), this.graph.getNodeIndex(this.graph.getDest(enSnD)), enSnD);
 		}
 
 		/**
@@ -236,46 +323,129 @@ public abstract class AbstractCSTN<E extends CSTNEdge> {
 		 * @param applyReducedSetOfRules true if only the reduce set of rule must be considered
 		 */
 		final void add(E enSnD, LabeledNode nS, LabeledNode nD, LabeledNode Z, TNGraph<E> g, boolean applyReducedSetOfRules) {
+			this.bind(g);
+			final int d = g.getNodeIndex(nD);
 			// in any case, the edge has to be added.
-			this.edgesToCheck.add(enSnD);
+			this.add(g.getNodeIndex(nS), d, enSnD);
 			// then,
 			if (!nS.isObserver())
 				return;
 			// add all incident to nD
 			if (nD != Z) {
 				if (!applyReducedSetOfRules)
-					this.edgesToCheck.addAll(g.getInEdges(nD));
+					this.addInEdges(d);
 				return;
 			}
 
 			if (this.alreadyAddAllIncidentsToZ)
 				return;
-			this.edgesToCheck.addAll(g.getInEdges(Z));
+			this.addInEdges(d);
 			this.alreadyAddAllIncidentsToZ = true;
 		}
 
 		/**
-		 * Add a set of edges without any check.
+		 * Add all the edges of another set without any check.
 		 * 
-		 * @param eSet set of edges
+		 * @param input set of edges
 		 * @return true if this set changed after the add.
 		 */
-		final boolean addAll(Collection<E> eSet) {
-			return this.edgesToCheck.addAll(eSet);
+		final boolean addAll(EdgesToCheck<E> input) {
+			if (input == null || input.graph == null)
+				return false;
+			this.bind(input.graph);
+			boolean changed = false;
+			for (int i = 0, size = input.ids.size(); i < size; i++) {
+				final int id = input.ids.getInt(i);
+				changed |= this.add(id / input.n, id % input.n, input.edges.get(i));
+			}
+			return changed;
 		}
 
 		/**
 		 * Copy fields reference of into this.
 		 * After this method, this and input share the internal fields.
+		 * The iteration order of this is not modified.
 		 * 
 		 * @param input the object to cannabilise 
 		 */
 		void takeIn(EdgesToCheck<E> input) {
 			if (input == null)
 				return;
-			this.edgesToCheck = input.edgesToCheck;
+			this.edges = input.edges;
+			this.graph = input.graph;
+			this.ids = input.ids;
+			this.member = input.member;
+			this.n = input.n;
 			this.alreadyAddAllIncidentsToZ = input.alreadyAddAllIncidentsToZ;
 		}
+
+		/**
+		 * Add an edge given the indexes of its end-points in the bound graph.
+		 * 
+		 * @param s index of the source
+		 * @param d index of the destination
+		 * @param e the edge
+		 * @return true if this set did not already contain the edge.
+		 */
+		private boolean add(int s, int d, E e) {
+			if (s >= this.n || d >= this.n)
+				this.rekey(this.graph);
+			final int id = s * this.n + d;
+			if (this.member.get(id))
+				return false;
+			this.member.set(id);
+			this.ids.add(id);
+			this.edges.add(e);
+			return true;
+		}
+
+		/**
+		 * Add all the in edges of a node by a visit of its slots.
+		 * 
+		 * @param d index of the node in the bound graph
+		 */
+		private void addInEdges(int d) {
+			for (int slot = this.graph.firstInSlot(d); slot >= 0; slot = this.graph.nextInSlot(d, slot)) {
+				this.add(this.graph.inNodeAt(d, slot), d, this.graph.inEdgeAt(d, slot));
+			}
+		}
+
+		/**
+		 * Binds the set to the given graph. If the set already contains edges of another graph, their ids are determined again by the
+		 * names of the end-points.
+		 * 
+		 * @param g the graph
+		 */
+		private void bind(TNGraph<E> g) {
+			if (this.graph != g)
+				this.rekey(g);
+		}
+
+		/**
+		 * Determines again the ids of the edges in the set using the node indexes of <code>g</code> and its current number of nodes.
+		 * 
+		 * @param g the graph
+		 */
+		private void rekey(TNGraph<E> g) {
+			final int newN = g.getVertexCount();
+			if (newN > MAX_NODES)
+				throw new IllegalStateException("The graph has more than " + MAX_NODES + " nodes.");
+			final TNGraph<E> old = this.graph;
+			this.member.clear();
+			for (int i = 0, size = this.ids.size(); i < size; i++) {
+				final int id = this.ids.getInt(i);
+				int s = id / this.n, d = id % this.n;
+				if (old != g) {
+					s = g.getNodeIndex(old.getNode(s));
+					d = g.getNodeIndex(old.getNode(d));
+				}
+				final int newId = s * newN + d;
+				this.ids.set(i, newId);
+				this.member.set(newId);
+			}
+			this.graph = g;
+			this.n = newN;
+		}
 	}
 
 	/**
@@ -486,8 +656,8 @@ public abstract class AbstractCSTN<E extends CSTNEdge> {
 						continue;
 					}
 					jV = node[j];
-					Label nodeLabelConjunction = iV.getLabel().conjunction(jV.getLabel());
-					if (nodeLabelConjunction == null)
+					final long nodeLabelConjunction = Label.conjunctionBits(iV.getLabel().getBits(), jV.getLabel().getBits());
+					if (nodeLabelConjunction == Label.BITS_NULL)
 						continue;
 
 					ik = g.findEdge(iV, kV);
@@ -502,14 +672,16 @@ public abstract class AbstractCSTN<E extends CSTNEdge> {
 
 					for (final Object2IntMap.Entry<Label> ikL : ikMap) {
 						for (final Object2IntMap.Entry<Label> kjL : kjMap) {
-							ijL = ikL.getKey().conjunction(kjL.getKey());
-							if (ijL == null) {
+							// The label is built only when both conjunctions are defined.
+							long ijBits = Label.conjunctionBits(ikL.getKey().getBits(), kjL.getKey().getBits());
+							if (ijBits == Label.BITS_NULL) {
 								continue;
 							}
-							ijL = ijL.conjunction(nodeLabelConjunction);// It is necessary to propagate with node labels!
-							if (ijL == null) {
+							ijBits = Label.conjunctionBits(ijBits, nodeLabelConjunction);// It is necessary to propagate with node labels!
+							if (ijBits == Label.BITS_NULL) {
 								continue;
 							}
+							ijL = Label.valueOfBits(ijBits);
 							if (ij == null) {
 								ij = edgeFactory.get("e" + node[i].getName() + node[j].getName());
 								ij.setConstraintType(Edge.ConstraintType.derived);
@@ -532,27 +704,16 @@ public abstract class AbstractCSTN<E extends CSTNEdge> {
 	}
 
 	/**
-	 * Stops a computation if current instant is after the <code>timeoutInstant</code>
-	 * setting <code>status.timeout=true</code>.<br>
-	 * It sets also <code>status.consistency=status.finished=false</code>.
+	 * Stops a computation if the check has been cancelled by {@link #cancel()} or its deadline has passed.
+	 * In the second case, it sets <code>status.timeout=true</code>.<br>
+	 * It sets also <code>status.consistency=status.finished=false</code>.<br>
+	 * It does not allocate any object and it reads the clock only once every some calls (see {@link STNCheckStatus#isInterrupted()}).
 	 * 
-	 * @param timeoutInstant timeout
 	 * @param status status to modify
-	 * @return true if timeOut has been reached.
+	 * @return true if the check has been cancelled or timeOut has been reached.
 	 */
-	static final boolean checkTimeOutAndAdjustStatus(Instant timeoutInstant, CSTNCheckStatus status) {
-		if (Instant.now().isAfter(timeoutInstant)) {
-			if (Debug.ON) {
-				if (LOG.isLoggable(Level.FINE)) {
-					LOG.log(Level.FINE, "Time out occurred!");
-				}
-			}
-			status.timeout = true;
-			status.consistency = false;
-			status.finished = false;
-			return true;
-		}
-		return false;
+	static final boolean checkTimeOutAndAdjustStatus(CSTNCheckStatus status) {
+		return STN.checkTimeOutAndAdjustStatus(status);
 	}
 
 	/**
@@ -597,6 +758,12 @@ public abstract class AbstractCSTN<E extends CSTNEdge> {
 	 */
 	TNGraph<E> gCheckedCleaned = null;
 
+	/**
+	 * If true, the edges to check are considered in the ascending order of their names instead of the order in which they have been found.
+	 */
+	@Option(required = false, name = "-orderedEdges", usage = "Consider the edges to check in the order of their names, for reproducing the propagation order of previous versions.")
+	boolean orderedEdgesToCheck = false;
+
 	/**
 	 * Horizon value. A node that has to be executed after such time means that it has not to be executed!
 	 */
@@ -692,6 +859,17 @@ public abstract class AbstractCSTN<E extends CSTNEdge> {
 	 */
 	abstract public CSTNCheckStatus dynamicConsistencyCheck() throws WellDefinitionException;
 
+	/**
+	 * Cancels the running check.<br>
+	 * The check stops cooperatively as soon as possible: it returns a status that is not finished and has
+	 * {@link STNCheckStatus#cancelled} true. It can be called by any thread.<br>
+	 * If it is called before the check starts (e.g., just after the check has been submitted to an executor), the check stops at its beginning.
+	 * The request remains until <code>setG(...)</code> is called or {@link STNCheckStatus#cancelled} is set to false.
+	 */
+	public void cancel() {
+		this.checkStatus.cancelled = true;
+	}
+
 	/**
 	 * Getter for the field <code>checkStatus</code>, the status of a checking algorithm.
 	 *
@@ -813,6 +991,13 @@ public abstract class AbstractCSTN<E extends CSTNEdge> {
 		return this.cleanCheckedInstance;
 	}
 
+	/**
+	 * @return true if the edges to check are considered in the ascending order of their names.
+	 */
+	public boolean isOrderedEdgesToCheck() {
+		return this.orderedEdgesToCheck;
+	}
+
 	/**
 	 * <p>
 	 * isWithNodeLabels.
@@ -921,6 +1106,16 @@ public abstract class AbstractCSTN<E extends CSTNEdge> {
 		this.g = graph;
 	}
 
+	/**
+	 * Set to true for considering the edges to check in the ascending order of their names, as the previous versions did.
+	 * Otherwise, they are considered in the order in which they have been found (default).
+	 *
+	 * @param ordered true for the name order
+	 */
+	public void setOrderedEdgesToCheck(boolean ordered) {
+		this.orderedEdgesToCheck = ordered;
+	}
+
 	/**
 	 * Set to true for having the result graph cleaned of empty edges and of labeled values having unknown literals.
 	 *
@@ -1424,8 +1619,9 @@ public abstract class AbstractCSTN<E extends CSTNEdge> {
 			if (this.propagationOnlyToZ) {
 				labelModificationR0qR0(obs, Z, this.g.findEdge(obs, Z));
 			} else {
-				for (E e : this.g.getOutEdges(obs)) {
-					labelModificationR0qR0(obs, this.g.getDest(e), e);
+				final int obsIndex = this.g.getNodeIndex(obs);
+				for (int slot = this.g.firstOutSlot(obsIndex); slot >= 0; slot = this.g.nextOutSlot(obsIndex, slot)) {
+					labelModificationR0qR0(obs, this.g.getNode(this.g.outNodeAt(obsIndex, slot)), this.g.outEdgeAt(obsIndex, slot));
 				}
 			}
 		}
@@ -1571,6 +1767,21 @@ public abstract class AbstractCSTN<E extends CSTNEdge> {
 	 * @return the newLabel adjusted if the rule has been applied, original label otherwise.
 	 */
 	Label labelModificationR0qR0Core(final LabeledNode nP, final LabeledNode nX, final Label alpha, int w) {
+		return labelModificationR0qR0Core(nP, nX, alpha, w, this.checkStatus);
+	}
+
+	/**
+	 * As {@link #labelModificationR0qR0Core(LabeledNode, LabeledNode, Label, int)}, but the statistics are updated in <code>status</code>.
+	 * It does not modify the network, so it can be called concurrently by many threads, each with its own status.
+	 * 
+	 * @param nP the observation node. Per efficiency reason, there is no a security check!
+	 * @param nX the other node
+	 * @param alpha alpha value
+	 * @param w the value to check
+	 * @param status the status to update.
+	 * @return the newLabel adjusted if the rule has been applied, original label otherwise.
+	 */
+	Label labelModificationR0qR0Core(final LabeledNode nP, final LabeledNode nX, final Label alpha, int w, CSTNCheckStatus status) {
 		final char p = nP.getPropositionObserved();
 		if (this.withNodeLabels) {
 			if (nX.getLabel().contains(p)) {
@@ -1589,7 +1800,7 @@ public abstract class AbstractCSTN<E extends CSTNEdge> {
 		if (alphaPrime == null || alphaPrime.equals(alpha)) {
 			return alpha;
 		}
-		this.checkStatus.r0calls++;
+		status.r0calls++;
 		return alphaPrime;
 	}
 
@@ -1886,6 +2097,7 @@ public abstract class AbstractCSTN<E extends CSTNEdge> {
 		this.maxWeight = 0;
 		this.horizon = 0;
 		this.checkStatus.reset();
+		this.checkStatus.cancelled = false;
 	}
 
 	/**
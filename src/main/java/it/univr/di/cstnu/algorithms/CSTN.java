@@ -8,13 +8,21 @@ import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 
 import javax.xml.parsers.ParserConfigurationException;
 
+import org.kohsuke.args4j.Option;
 import org.xml.sax.SAXException;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectArraySet;
 import it.unimi.dsi.fastutil.objects.ObjectList;
 import it.unimi.dsi.fastutil.objects.ObjectSet;
@@ -50,6 +58,12 @@ import it.univr.di.labeledvalue.Literal;
  * For a very efficient version for both DC and not DC instances, consider {@link it.univr.di.cstnu.algorithms.CSTNPotential#dynamicConsistencyCheck()} that runs DC checking assuming IR
  * semantics and nodes without labels, algorithm presented at ICAPS 2020.
  * </p>
+ * <p>
+ * The label propagation of {@link #dynamicConsistencyCheck()} can be executed by more threads (see {@link #setParallelism(int)}).
+ * The parallel check gives the same DC verdict of the sequential one, but the labeled values of the checked network can be different, also
+ * the ones with labels without unknown literals, because the propagations are done in a different order (as it happens between the FIFO and
+ * the name orders of the sequential check). The checked network does not depend on the number of threads.
+ * </p>
  *
  * @author Roberto Posenato
  * @version $Id: $Id
@@ -79,6 +93,63 @@ public class CSTN extends AbstractCSTN<CSTNEdge> {
 																					// checking alg. based on potential is only one, represented in the class
 																					// CSTNPotential.
 
+	/**
+	 * Maximum number of tasks of {@link #labelPropagationByTargetEdges(EdgesToCheck, EdgesToCheck, int)} for each thread.
+	 */
+	static final int TASKS_PER_THREAD = 4;
+
+	/**
+	 * A target edge of {@link #labelPropagationByTargetEdges(EdgesToCheck, EdgesToCheck, int)} with the triangles that can modify it and the
+	 * result of their label propagation.
+	 */
+	private static class TargetEdge {
+		/**
+		 * Source and destination indexes.
+		 */
+		final int a, c;
+		/**
+		 * For the i-th triangle a⟶b⟶c, index of b.
+		 */
+		final IntArrayList b = new IntArrayList();
+		/**
+		 * For the i-th triangle a⟶b⟶c, edge a⟶b.
+		 */
+		final ObjectArrayList<CSTNEdge> ab = new ObjectArrayList<>();
+		/**
+		 * For the i-th triangle a⟶b⟶c, edge b⟶c.
+		 */
+		final ObjectArrayList<CSTNEdge> bc = new ObjectArrayList<>();
+		/**
+		 * The modified copy of the target edge, null if the triangles did not modify it.
+		 */
+		CSTNEdge result;
+		/**
+		 * The node of the negative loop found propagating to the target edge, null if no negative loop has been found.
+		 */
+		LabeledNode negativeLoopNode;
+
+		/**
+		 * @param a1 source index
+		 * @param c1 destination index
+		 */
+		TargetEdge(int a1, int c1) {
+			this.a = a1;
+			this.c = c1;
+		}
+	}
+
+	/**
+	 * Number of threads used by {@link #oneStepDynamicConsistencyByEdges(EdgesToCheck)} for the label propagation.
+	 */
+	@Option(required = false, name = "-parallelism", usage = "Number of threads used for the label propagation. If it is not positive, all available processors are used.", metaVar = "threads")
+	int parallelism = 1;
+
+	/**
+	 * Pool of the threads of {@link #labelPropagationByTargetEdges(EdgesToCheck, EdgesToCheck, int)}.
+	 * It is created by {@link #dynamicConsistencyCheckWOInit()} once for the whole check when more threads are used and shut down at its end.
+	 */
+	private ForkJoinPool propagationPool;
+
 	/**
 	 * Just for using this class also from a terminal.
 	 *
@@ -198,6 +269,33 @@ public class CSTN extends AbstractCSTN<CSTNEdge> {
 		return dynamicConsistencyCheckWOInit();
 	}
 
+	/**
+	 * @return the number of threads used for the label propagation. A non positive value means all available processors.
+	 */
+	public int getParallelism() {
+		return this.parallelism;
+	}
+
+	/**
+	 * Sets the number of threads used for the label propagation by {@link #oneStepDynamicConsistencyByEdges(EdgesToCheck)}.
+	 * With more than one thread, the propagation rule is applied on a snapshot of the network in each cycle (see
+	 * {@link #labelPropagationByTargetEdges(EdgesToCheck, EdgesToCheck, int)}).
+	 * It has no effect when {@link #propagationOnlyToZ} is true.
+	 *
+	 * @param nThreads number of threads. If it is 1 (default), the propagation is sequential. If it is not positive, the number of available
+	 *            processors.
+	 */
+	public void setParallelism(int nThreads) {
+		this.parallelism = nThreads;
+	}
+
+	/**
+	 * @return the number of threads to use for the label propagation according to {@link #parallelism}.
+	 */
+	private int propagationThreads() {
+		return (this.parallelism > 0) ? this.parallelism : Runtime.getRuntime().availableProcessors();
+	}
+
 	/**
 	 * Executes one step of the dynamic consistency check.<br>
 	 * For each possible triangle of the network, label propagation rule is applied and, on the resulting
@@ -323,12 +421,12 @@ public class CSTN extends AbstractCSTN<CSTNEdge> {
 	 * @return true if the rules were applied, false otherwise.
 	 */
 	boolean applyR0R3(CSTNEdge AB, LabeledNode A, LabeledNode B) {
-		CSTNEdge edgeCopy = this.g.getEdgeFactory().get(AB);
+		final int modificationCount = AB.getModificationCount();
 		if (A.isObserver()) {
 			labelModificationR0qR0(A, B, AB);
 		}
 		labelModificationR3qR3(A, B, AB);
-		if (!AB.hasSameValues(edgeCopy)) {
+		if (AB.getModificationCount() != modificationCount) {
 			return true;
 		}
 		return false;
@@ -347,7 +445,8 @@ public class CSTN extends AbstractCSTN<CSTNEdge> {
 		if (!this.checkStatus.initialized) {
 			throw new IllegalStateException("TNGraph<E> has not been initialized! Please, consider dynamicConsistencyCheck() method!");
 		}
-		EdgesToCheck<CSTNEdge> edgesToCheck = new EdgesToCheck<>(this.g.getEdges());
+		EdgesToCheck<CSTNEdge> edgesToCheck = new EdgesToCheck<>(this.g);
+		edgesToCheck.setOrderedByName(this.orderedEdgesToCheck);
 		final int propositionN = this.g.getObserverCount();
 		final int nodeN = this.g.getVertexCount();
 		int m = (this.getMaxWeight() != 0) ? this.getMaxWeight() : 1;
@@ -362,52 +461,61 @@ public class CSTN extends AbstractCSTN<CSTNEdge> {
 
 		int i;
 		Instant startInstant = Instant.now();
-		Instant timeoutInstant = startInstant.plusSeconds(this.timeOut);
-		for (i = 1; (i <= maxCycles) && this.checkStatus.consistency && !this.checkStatus.finished; i++) {
-			if (Debug.ON) {
-				if (LOG.isLoggable(Level.FINE)) {
-					LOG.log(Level.FINE, "*** Start Main Cycle " + i + "/" + maxCycles + " ***");
+		this.checkStatus.setDeadline(this.timeOut);
+		final int nThreads = propagationThreads();
+		this.propagationPool = (nThreads > 1 && !this.propagationOnlyToZ) ? new ForkJoinPool(nThreads) : null;
+		try {
+			for (i = 1; (i <= maxCycles) && this.checkStatus.consistency && !this.checkStatus.finished; i++) {
+				if (Debug.ON) {
+					if (LOG.isLoggable(Level.FINE)) {
+						LOG.log(Level.FINE, "*** Start Main Cycle " + i + "/" + maxCycles + " ***");
+					}
 				}
-			}
 
-			if (this.propagationOnlyToZ) {
-				oneStepDynamicConsistencyByEdgesLimitedToZ(edgesToCheck, timeoutInstant);
-			} else {
-				oneStepDynamicConsistencyByEdges(edgesToCheck, timeoutInstant);// Don't use 'this.' because such method is overrode!
-			}
+				if (this.propagationOnlyToZ) {
+					oneStepDynamicConsistencyByEdgesLimitedToZ(edgesToCheck);
+				} else {
+					oneStepDynamicConsistencyByEdges(edgesToCheck);// Don't use 'this.' because such method is overrode!
+				}
 
-			if (!this.checkStatus.finished) {
-				if (checkTimeOutAndAdjustStatus(timeoutInstant, this.checkStatus)) {
-					if (Debug.ON) {
-						String msg = "During the check # " + i + ", " + this.timeOut + " seconds timeout occured. ";
-						if (LOG.isLoggable(Level.INFO)) {
-							LOG.log(Level.INFO, msg);
+				if (!this.checkStatus.finished) {
+					if (checkTimeOutAndAdjustStatus(this.checkStatus)) {
+						if (Debug.ON) {
+							String msg = "During the check # " + i + ", " + this.timeOut + " seconds timeout occured. ";
+							if (LOG.isLoggable(Level.INFO)) {
+								LOG.log(Level.INFO, msg);
+							}
 						}
+						this.checkStatus.executionTimeNS = ChronoUnit.NANOS.between(startInstant, Instant.now());
+						this.saveGraphToFile();
+						return this.checkStatus;
 					}
-					this.checkStatus.executionTimeNS = ChronoUnit.NANOS.between(startInstant, Instant.now());
-					this.saveGraphToFile();
-					return this.checkStatus;
-				}
-				if (this.checkStatus.consistency) {
-					if (Debug.ON) {
-						if (LOG.isLoggable(Level.FINE)) {
-							StringBuilder log = new StringBuilder("During the check # " + i + ", " + edgesToCheck.size()
-									+ " edges have been add/modified. Check has to continue.\nDetails of only modified edges having values:\n");
-							for (CSTNEdge e : edgesToCheck) {
-								if (e.size() == 0)
-									continue;
-								log.append("Edge " + e + "\n");
+					if (this.checkStatus.consistency) {
+						if (Debug.ON) {
+							if (LOG.isLoggable(Level.FINE)) {
+								StringBuilder log = new StringBuilder("During the check # " + i + ", " + edgesToCheck.size()
+										+ " edges have been add/modified. Check has to continue.\nDetails of only modified edges having values:\n");
+								for (CSTNEdge e : edgesToCheck) {
+									if (e.size() == 0)
+										continue;
+									log.append("Edge " + e + "\n");
+								}
+								LOG.log(Level.FINE, log.toString());
 							}
-							LOG.log(Level.FINE, log.toString());
 						}
 					}
 				}
-			}
-			if (Debug.ON) {
-				if (LOG.isLoggable(Level.FINE)) {
-					LOG.log(Level.FINE, "*** End Main Cycle " + i + "/" + maxCycles + " ***\n\n");
+				if (Debug.ON) {
+					if (LOG.isLoggable(Level.FINE)) {
+						LOG.log(Level.FINE, "*** End Main Cycle " + i + "/" + maxCycles + " ***\n\n");
+					}
 				}
 			}
+		} finally {
+			if (this.propagationPool != null) {
+				this.propagationPool.shutdown();
+				this.propagationPool = null;
+			}
 		}
 		Instant endInstant = Instant.now();
 		this.checkStatus.executionTimeNS = Duration.between(startInstant, endInstant).toNanos();
@@ -634,8 +742,28 @@ public class CSTN extends AbstractCSTN<CSTNEdge> {
 	 * @param eAC edge nA⟶nC
 	 * @return true if a reduction has been applied.
 	 */
-	@edu.umd.cs.findbugs.annotations.SuppressFBWarnings(value = "DLS_DEAD_LOCAL_STORE", justification = "I know what I'm doing")
 	boolean labelPropagation(final LabeledNode nA, final LabeledNode nB, final LabeledNode nC, final CSTNEdge eAB, final CSTNEdge eBC, CSTNEdge eAC) {
+		return labelPropagation(nA, nB, nC, eAB, eBC, eAC, this.checkStatus);
+	}
+
+	/**
+	 * As {@link #labelPropagation(LabeledNode, LabeledNode, LabeledNode, CSTNEdge, CSTNEdge, CSTNEdge)}, but the statistics and a possible
+	 * negative loop are stored in <code>status</code>.<br>
+	 * It modifies only <code>eAC</code>, so it can be called concurrently by many threads on different <code>eAC</code> not belonging to
+	 * the network, each with its own status.
+	 * 
+	 * @param nA first node.
+	 * @param nB second node.
+	 * @param nC third node.
+	 * @param eAB edge nA⟶nB
+	 * @param eBC edge nB⟶nC
+	 * @param eAC edge nA⟶nC
+	 * @param status the status to update.
+	 * @return true if a reduction has been applied.
+	 */
+	@edu.umd.cs.findbugs.annotations.SuppressFBWarnings(value = "DLS_DEAD_LOCAL_STORE", justification = "I know what I'm doing")
+	boolean labelPropagation(final LabeledNode nA, final LabeledNode nB, final LabeledNode nC, final CSTNEdge eAB, final CSTNEdge eBC, CSTNEdge eAC,
+			CSTNCheckStatus status) {
 		// * Be careful, in order to propagate correctly possibly -∞ self-loop, it is necessary call this method also for triple like with nodes A == B or B==C!
 		// Visibility is package because there is Junit Class test that checks this method.
 
@@ -728,10 +856,10 @@ public class CSTN extends AbstractCSTN<CSTNEdge> {
 										log + "\n***\nFound a negative loop " + pairAsString(newLabelAC, sum) + " in the edge  " + eAC + "\n***");
 							}
 						}
-						this.checkStatus.consistency = false;
-						this.checkStatus.finished = true;
-						this.checkStatus.labeledValuePropagationCalls++;
-						this.checkStatus.negativeLoopNode = nA;
+						status.consistency = false;
+						status.finished = true;
+						status.labeledValuePropagationCalls++;
+						status.negativeLoopNode = nA;
 						return true;
 					}
 					sum = Constants.INT_NEG_INFINITE;
@@ -740,10 +868,10 @@ public class CSTN extends AbstractCSTN<CSTNEdge> {
 				// here sum has to be add!
 				if (eAC.mergeLabeledValue(newLabelAC, sum)) {
 					ruleApplied = true;
-					this.checkStatus.labeledValuePropagationCalls++;
+					status.labeledValuePropagationCalls++;
 					// R0qR0 rule applied to new labeled value in order to minimize the propagation of dirty values
 					if (nAisAnObserver && newLabelAC.contains(propositionA)) {
-						Label newLabelAC1 = labelModificationR0qR0Core(nA, nC, newLabelAC, sum);
+						Label newLabelAC1 = labelModificationR0qR0Core(nA, nC, newLabelAC, sum, status);
 						if (!newLabelAC1.equals(newLabelAC)) {
 							newLabelAC = newLabelAC1;
 							eAC.mergeLabeledValue(newLabelAC, sum);
@@ -794,20 +922,22 @@ public class CSTN extends AbstractCSTN<CSTNEdge> {
 	 * For each edge in edgesToCheck, rules R0--R3 are applied on it and, then, label propagation rule is applied two times:
 	 * one time having the edge as first edge, one time having the edge as second edge.<br>
 	 * All modified or new edges are returned in the set 'edgesToCheck'.<br>
+	 * If {@link #getParallelism()} is not 1, the label propagation is executed by
+	 * {@link #labelPropagationByTargetEdges(EdgesToCheck, EdgesToCheck, int)}.<br>
 	 * It is assumed that {@link #propagationOnlyToZ} is false!
 	 * 
 	 * @param edgesToCheck set of edges that have to be checked.
-	 * @param timeoutInstant time instant limit allowed to the computation.
 	 * @return the update status (it is for convenience. It is not necessary because return the same parameter status).
 	 * @throws IllegalStateException if {@link #propagationOnlyToZ} is true.
 	 */
-	CSTNCheckStatus oneStepDynamicConsistencyByEdges(final EdgesToCheck<CSTNEdge> edgesToCheck, Instant timeoutInstant) {
+	CSTNCheckStatus oneStepDynamicConsistencyByEdges(final EdgesToCheck<CSTNEdge> edgesToCheck) {
 
 		if (this.propagationOnlyToZ)
 			throw new IllegalStateException("oneStepDynamicConsistencyByEdges can be called only when propagationOnlyToZ is false.");
 
 		LabeledNode A, B, C;
-		CSTNEdge AC, CB, edgeCopy;
+		CSTNEdge AC, CB;
+		int modificationCount;
 
 		this.checkStatus.cycles++;
 
@@ -819,7 +949,7 @@ public class CSTN extends AbstractCSTN<CSTNEdge> {
 		/**
 		 * March, 06 2016 Apply the rules on all edges that have been modified in the previous cycle.
 		 */
-		EdgesToCheck<CSTNEdge> newEdgesToCheck = new EdgesToCheck<>(edgesToCheck.edgesToCheck);
+		EdgesToCheck<CSTNEdge> newEdgesToCheck = new EdgesToCheck<>(edgesToCheck);
 		EdgesToCheck<CSTNEdge> newEdgesToCheckR0R3 = new EdgesToCheck<>();
 		int i = 1, j = 1;
 		// Find a stable state using R0 e R3.
@@ -843,116 +973,122 @@ public class CSTN extends AbstractCSTN<CSTNEdge> {
 					newEdgesToCheck.add(AB, A, B, Z, this.g, this.propagationOnlyToZ);
 				}
 
-				if (checkTimeOutAndAdjustStatus(timeoutInstant, this.checkStatus)) {
+				if (checkTimeOutAndAdjustStatus(this.checkStatus)) {
 					return this.checkStatus;
 				}
 			}
 			edgesToCheck.clear();
-			edgesToCheck.addAll(newEdgesToCheckR0R3.edgesToCheck);
+			edgesToCheck.addAll(newEdgesToCheckR0R3);
 			newEdgesToCheckR0R3.clear();
 			i = 1;
 		}
 
-		edgesToCheck.addAll(newEdgesToCheck.edgesToCheck);
+		edgesToCheck.addAll(newEdgesToCheck);
 		newEdgesToCheck.clear();
 		// now it is time to propagate a stable configuration
-		for (CSTNEdge AB : edgesToCheck) {
-			if (Debug.ON) {
-				if (LOG.isLoggable(Level.FINER)) {
-					LOG.log(Level.FINER, "*** LP: considering edge " + (i++) + "/" + edgesToCheck.size() + ": " + AB.getName());
-				}
-			}
-			A = this.g.getSource(AB);
-			B = this.g.getDest(AB);
-			/**
-			 * Step 1/2: Make all propagation considering edge AB as first edge.<br>
-			 * A-->B-->C
-			 */
-			for (CSTNEdge BC : this.g.getOutEdges(B)) {
-				C = this.g.getDest(BC);
-				// It is necessary to consider also self loop to store first negative loop.
-				// In this class, (-∞,q), where q\in Q* are not more propagate on edges, but on nodes!
-
-				AC = this.g.findEdge(A, C);
-				// I need to preserve the old edge to compare below
-				if (AC != null) {
-					edgeCopy = this.g.getEdgeFactory().get(AC);
-				} else {
-					AC = makeNewEdge(A.getName() + "_" + C.getName(), CSTNEdge.ConstraintType.derived);
-					edgeCopy = null;
+		final int nThreads = propagationThreads();
+		if (nThreads > 1) {
+			if (!labelPropagationByTargetEdges(edgesToCheck, newEdgesToCheck, nThreads))
+				return this.checkStatus;
+		} else {
+			for (CSTNEdge AB : edgesToCheck) {
+				if (Debug.ON) {
+					if (LOG.isLoggable(Level.FINER)) {
+						LOG.log(Level.FINER, "*** LP: considering edge " + (i++) + "/" + edgesToCheck.size() + ": " + AB.getName());
+					}
 				}
-
-				this.labelPropagation(A, B, C, AB, BC, AC);
-
+				A = this.g.getSource(AB);
+				B = this.g.getDest(AB);
 				/**
-				 * 2016-03-08: It has been experimented that it is not necessary to clean AC values using R0 and R3
+				 * Step 1/2: Make all propagation considering edge AB as first edge.<br>
+				 * A-->B-->C
 				 */
-				boolean edgeModified = false;
-				if (edgeCopy == null && !AC.isEmpty()) {
-					// the new CB has to be added to the graph!
-					this.g.addEdge(AC, A, C);
-					edgeModified = true;
-				} else {
-					// CB was already present and it has been changed!
-					edgeModified = (edgeCopy != null && !edgeCopy.hasSameValues(AC));
-				}
+				for (CSTNEdge BC : this.g.getOutEdges(B)) {
+					C = this.g.getDest(BC);
+					// It is necessary to consider also self loop to store first negative loop.
+					// In this class, (-∞,q), where q\in Q* are not more propagate on edges, but on nodes!
 
-				if (edgeModified) {
-					applyR0R3(AC, A, C);
-					newEdgesToCheck.add(AC, A, C, Z, this.g, this.propagationOnlyToZ);
-				}
+					AC = this.g.findEdge(A, C);
+					// I need to preserve the modification count of the old edge to compare below
+					if (AC != null) {
+						modificationCount = AC.getModificationCount();
+					} else {
+						AC = makeNewEdge(A.getName() + "_" + C.getName(), CSTNEdge.ConstraintType.derived);
+						modificationCount = Constants.INT_NULL;
+					}
 
-				if (!this.checkStatus.consistency) {
-					// it must be here because a potential can be modified!
-					this.checkStatus.finished = true;
-					return this.checkStatus;
-				}
-				if (checkTimeOutAndAdjustStatus(timeoutInstant, this.checkStatus)) {
-					return this.checkStatus;
-				}
-			}
+					this.labelPropagation(A, B, C, AB, BC, AC);
 
-			/**
-			 * Step 2/2: Make all propagation considering edge AB as second edge.<br>
-			 * C-->A-->B
-			 */
-			for (CSTNEdge CA : this.g.getInEdges(A)) {
-				C = this.g.getSource(CA);
-				if (C == B)// it has been checked in the Step 1/2
-					continue;
+					/**
+					 * 2016-03-08: It has been experimented that it is not necessary to clean AC values using R0 and R3
+					 */
+					boolean edgeModified = false;
+					if (modificationCount == Constants.INT_NULL && !AC.isEmpty()) {
+						// the new CB has to be added to the graph!
+						this.g.addEdge(AC, A, C);
+						edgeModified = true;
+					} else {
+						// CB was already present and it has been changed!
+						edgeModified = (modificationCount != Constants.INT_NULL && AC.getModificationCount() != modificationCount);
+					}
 
-				CB = this.g.findEdge(C, B);
-				// I need to preserve the old edge to compare below
-				if (CB != null) {
-					edgeCopy = this.g.getEdgeFactory().get(CB);
-				} else {
-					CB = makeNewEdge(C.getName() + "_" + B.getName(), CSTNEdge.ConstraintType.derived);
-					edgeCopy = null;
+					if (edgeModified) {
+						applyR0R3(AC, A, C);
+						newEdgesToCheck.add(AC, A, C, Z, this.g, this.propagationOnlyToZ);
+					}
+
+					if (!this.checkStatus.consistency) {
+						// it must be here because a potential can be modified!
+						this.checkStatus.finished = true;
+						return this.checkStatus;
+					}
+					if (checkTimeOutAndAdjustStatus(this.checkStatus)) {
+						return this.checkStatus;
+					}
 				}
 
-				this.labelPropagation(C, A, B, CA, AB, CB);
+				/**
+				 * Step 2/2: Make all propagation considering edge AB as second edge.<br>
+				 * C-->A-->B
+				 */
+				for (CSTNEdge CA : this.g.getInEdges(A)) {
+					C = this.g.getSource(CA);
+					if (C == B)// it has been checked in the Step 1/2
+						continue;
 
-				boolean edgeModified = false;
-				if (edgeCopy == null && !CB.isEmpty()) {
-					// the new CB has to be added to the graph!
-					this.g.addEdge(CB, C, B);
-				} else {
-					// CB was already present and it has been changed!
-					edgeModified = edgeCopy != null && !edgeCopy.hasSameValues(CB);
-				}
+					CB = this.g.findEdge(C, B);
+					// I need to preserve the modification count of the old edge to compare below
+					if (CB != null) {
+						modificationCount = CB.getModificationCount();
+					} else {
+						CB = makeNewEdge(C.getName() + "_" + B.getName(), CSTNEdge.ConstraintType.derived);
+						modificationCount = Constants.INT_NULL;
+					}
 
-				if (edgeModified) {
-					applyR0R3(CB, C, B);
-					newEdgesToCheck.add(CB, C, B, Z, this.g, this.propagationOnlyToZ);
-				}
+					this.labelPropagation(C, A, B, CA, AB, CB);
 
-				if (!this.checkStatus.consistency) {
-					// it must be here because a potential can be modified!
-					this.checkStatus.finished = true;
-					return this.checkStatus;
-				}
-				if (checkTimeOutAndAdjustStatus(timeoutInstant, this.checkStatus)) {
-					return this.checkStatus;
+					boolean edgeModified = false;
+					if (modificationCount == Constants.INT_NULL && !CB.isEmpty()) {
+						// the new CB has to be added to the graph!
+						this.g.addEdge(CB, C, B);
+					} else {
+						// CB was already present and it has been changed!
+						edgeModified = modificationCount != Constants.INT_NULL && CB.getModificationCount() != modificationCount;
+					}
+
+					if (edgeModified) {
+						applyR0R3(CB, C, B);
+						newEdgesToCheck.add(CB, C, B, Z, this.g, this.propagationOnlyToZ);
+					}
+
+					if (!this.checkStatus.consistency) {
+						// it must be here because a potential can be modified!
+						this.checkStatus.finished = true;
+						return this.checkStatus;
+					}
+					if (checkTimeOutAndAdjustStatus(this.checkStatus)) {
+						return this.checkStatus;
+					}
 				}
 			}
 		}
@@ -971,6 +1107,160 @@ public class CSTN extends AbstractCSTN<CSTNEdge> {
 		return this.checkStatus;
 	}
 
+	/**
+	 * Label propagation phase of {@link #oneStepDynamicConsistencyByEdges(EdgesToCheck)} executed by <code>nThreads</code> threads.<br>
+	 * The triangles A⟶B⟶C having an edge of <code>edgesToCheck</code> as first or second edge are grouped by their target edge A⟶C.
+	 * The groups are split in chunks and each chunk is processed by a task of a {@link ForkJoinPool} that applies
+	 * {@link #labelPropagation(LabeledNode, LabeledNode, LabeledNode, CSTNEdge, CSTNEdge, CSTNEdge, CSTNCheckStatus)} to a private copy of
+	 * each target edge, reading the network only. Then, a single writer stores the modified copies into the network in the order in which
+	 * the target edges have been found, applies R0 and R3 to them and adds them to <code>newEdgesToCheck</code>.<br>
+	 * Therefore, the values derived in a cycle are propagated in the next one and not in the same one, as the sequential version does:
+	 * more cycles can be necessary and the final labeled values can differ from the sequential ones (also the ones with labels without
+	 * unknown literals), while the DC verdict is the same.<br>
+	 * Each target edge is processed independently from the others, also when a negative loop is found, and the first negative loop in the
+	 * order of the targets is reported. Therefore, the result does not depend on <code>nThreads</code>.
+	 * 
+	 * @param edgesToCheck the edges to propagate.
+	 * @param newEdgesToCheck the set where modified or new edges are added.
+	 * @param nThreads number of threads, greater than 1.
+	 * @return false if a negative loop has been found or the check has been interrupted, true otherwise.
+	 */
+	private boolean labelPropagationByTargetEdges(final EdgesToCheck<CSTNEdge> edgesToCheck, final EdgesToCheck<CSTNEdge> newEdgesToCheck,
+			int nThreads) {
+		final int n = this.g.getVertexCount();
+		final LabeledNode Z = this.g.getZ();
+		final Long2IntOpenHashMap targetIndex = new Long2IntOpenHashMap();
+		targetIndex.defaultReturnValue(-1);
+		final ObjectArrayList<TargetEdge> targets = new ObjectArrayList<>();
+		for (CSTNEdge AB : edgesToCheck) {
+			final int a = this.g.getNodeIndex(this.g.getSource(AB));
+			final int b = this.g.getNodeIndex(this.g.getDest(AB));
+			// A-->B-->C
+			for (int slot = this.g.firstOutSlot(b); slot >= 0; slot = this.g.nextOutSlot(b, slot)) {
+				addTriangle(targetIndex, targets, n, a, b, this.g.outNodeAt(b, slot), AB, this.g.outEdgeAt(b, slot));
+			}
+			// C-->A-->B
+			for (int slot = this.g.firstInSlot(a); slot >= 0; slot = this.g.nextInSlot(a, slot)) {
+				final int c = this.g.inNodeAt(a, slot);
+				if (c == b)// it has been considered above
+					continue;
+				addTriangle(targetIndex, targets, n, c, a, b, this.g.inEdgeAt(a, slot), AB);
+			}
+		}
+		// caches of the graph used by the rules are built before the concurrent reads
+		this.g.getChildrenOf(Z);
+
+		final int chunk = Math.max(1, (targets.size() + TASKS_PER_THREAD * nThreads - 1) / (TASKS_PER_THREAD * nThreads));
+		final ObjectArrayList<Callable<CSTNCheckStatus>> tasks = new ObjectArrayList<>();
+		for (int t0 = 0; t0 < targets.size(); t0 += chunk) {
+			final int first = t0, last = Math.min(t0 + chunk, targets.size());
+			tasks.add(() -> {
+				final CSTNCheckStatus status = new CSTNCheckStatus();
+				for (int t = first; t < last && !this.checkStatus.cancelled; t++) {
+					final TargetEdge target = targets.get(t);
+					final LabeledNode A = this.g.getNode(target.a), C = this.g.getNode(target.c);
+					final CSTNEdge AC = this.g.findEdge(target.a, target.c);
+					final CSTNEdge copy = (AC != null) ? this.g.getEdgeFactory().get(AC) : this.g.getEdgeFactory().get(A.getName() + "_" + C.getName());
+					final int modificationCount = copy.getModificationCount();
+					for (int k = 0; k < target.b.size(); k++) {
+						labelPropagation(A, this.g.getNode(target.b.getInt(k)), C, target.ab.get(k), target.bc.get(k), copy, status);
+						if (!status.consistency)
+							break;
+					}
+					if (copy.getModificationCount() != modificationCount && (AC != null || !copy.isEmpty()))
+						target.result = copy;
+					if (!status.consistency) {
+						// The next targets are processed anyway, so that the results do not depend on how the targets are split among tasks.
+						target.negativeLoopNode = status.negativeLoopNode;
+						status.consistency = true;
+						status.finished = false;
+						status.negativeLoopNode = null;
+					}
+				}
+				return status;
+			});
+		}
+		// the pool of the check is used; a temporary one only when this method is not called by dynamicConsistencyCheckWOInit
+		final ForkJoinPool pool = (this.propagationPool != null) ? this.propagationPool : new ForkJoinPool(nThreads);
+		try {
+			for (final Future<CSTNCheckStatus> result : pool.invokeAll(tasks)) {
+				final CSTNCheckStatus status = result.get();
+				this.checkStatus.labeledValuePropagationCalls += status.labeledValuePropagationCalls;
+				this.checkStatus.r0calls += status.r0calls;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Label propagation has been interrupted.", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Label propagation failed: " + e.getCause().getMessage(), e.getCause());
+		} finally {
+			if (pool != this.propagationPool)
+				pool.shutdown();
+		}
+		if (checkTimeOutAndAdjustStatus(this.checkStatus)) {
+			return false;
+		}
+		// the first negative loop in the order of the targets
+		LabeledNode negativeLoopNode = null;
+		for (final TargetEdge target : targets) {
+			if (target.negativeLoopNode != null) {
+				negativeLoopNode = target.negativeLoopNode;
+				break;
+			}
+		}
+
+		// single writer pass
+		for (final TargetEdge target : targets) {
+			if (target.result == null)
+				continue;
+			final LabeledNode A = this.g.getNode(target.a), C = this.g.getNode(target.c);
+			CSTNEdge AC = this.g.findEdge(target.a, target.c);
+			if (AC == null) {
+				AC = makeNewEdge(A.getName() + "_" + C.getName(), CSTNEdge.ConstraintType.derived);
+				this.g.addEdge(AC, A, C);
+			}
+			AC.setLabeledValueMap(target.result.getLabeledValueMap());
+			if (negativeLoopNode == null) {
+				applyR0R3(AC, A, C);
+				newEdgesToCheck.add(AC, A, C, Z, this.g, this.propagationOnlyToZ);
+			}
+		}
+		if (negativeLoopNode != null) {
+			this.checkStatus.consistency = false;
+			this.checkStatus.finished = true;
+			this.checkStatus.negativeLoopNode = negativeLoopNode;
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Adds the triangle a⟶b⟶c to the group of its target edge a⟶c.
+	 * 
+	 * @param targetIndex map from <code>a * n + c</code> to the position of the target edge in <code>targets</code>.
+	 * @param targets the target edges in the order in which they have been found.
+	 * @param n number of nodes.
+	 * @param a index of the first node.
+	 * @param b index of the second node.
+	 * @param c index of the third node.
+	 * @param ab edge a⟶b.
+	 * @param bc edge b⟶c.
+	 */
+	private static void addTriangle(Long2IntOpenHashMap targetIndex, ObjectArrayList<TargetEdge> targets, int n, int a, int b, int c,
+			CSTNEdge ab, CSTNEdge bc) {
+		final long key = (long) a * n + c;
+		int t = targetIndex.get(key);
+		if (t < 0) {
+			t = targets.size();
+			targetIndex.put(key, t);
+			targets.add(new TargetEdge(a, c));
+		}
+		final TargetEdge target = targets.get(t);
+		target.b.add(b);
+		target.ab.add(ab);
+		target.bc.add(bc);
+	}
+
 	/**
 	 * Executes one step of the dynamic consistency check.
 	 * For each edge B--&gt;Z in edgesToCheck, rules R0--R3 are applied on it and, then, label propagation rule
@@ -979,13 +1269,13 @@ public class CSTN extends AbstractCSTN<CSTNEdge> {
 	 * This method does not manage –∞ values (IJCAI18 algorithm).
 	 * 
 	 * @param edgesToCheck set of edges that have to be checked.
-	 * @param timeoutInstant time instant limit allowed to the computation.
 	 * @return the update status (it is for convenience. It is not necessary because return the same parameter status).
 	 */
-	CSTNCheckStatus oneStepDynamicConsistencyByEdgesLimitedToZ(final EdgesToCheck<CSTNEdge> edgesToCheck, Instant timeoutInstant) {
+	CSTNCheckStatus oneStepDynamicConsistencyByEdgesLimitedToZ(final EdgesToCheck<CSTNEdge> edgesToCheck) {
 		// This version consider only pair of edges going to Z, i.e., in the form A-->B-->Z,
 		LabeledNode B, A;
-		CSTNEdge AZ, edgeCopy;
+		CSTNEdge AZ;
+		int modificationCount;
 
 		this.checkStatus.cycles++;
 
@@ -995,7 +1285,7 @@ public class CSTN extends AbstractCSTN<CSTNEdge> {
 			}
 		}
 
-		EdgesToCheck<CSTNEdge> newEdgesToCheck = new EdgesToCheck<>(edgesToCheck.edgesToCheck);
+		EdgesToCheck<CSTNEdge> newEdgesToCheck = new EdgesToCheck<>(edgesToCheck);
 		EdgesToCheck<CSTNEdge> newEdgesToCheckR0R3 = new EdgesToCheck<>();
 		int i = 1, j = 1;
 		LabeledNode Z = this.g.getZ();
@@ -1018,7 +1308,7 @@ public class CSTN extends AbstractCSTN<CSTNEdge> {
 				// initAndCheck does not resolve completely a qStar.
 				// It is necessary to check here the edge before to consider the second edge.
 				// If the second edge is not present, in any case the current edge has been analyzed by R0 and R3 (qStar can be solved)!
-				edgeCopy = this.g.getEdgeFactory().get(BZ);
+				modificationCount = BZ.getModificationCount();
 				if (B.isObserver()) {
 					// R0 on the resulting new values
 					labelModificationR0qR0(B, Z, BZ);
@@ -1026,22 +1316,22 @@ public class CSTN extends AbstractCSTN<CSTNEdge> {
 
 				labelModificationR3qR3(B, Z, BZ);
 
-				if (!BZ.hasSameValues(edgeCopy)) {
+				if (BZ.getModificationCount() != modificationCount) {
 					newEdgesToCheckR0R3.add(BZ, B, Z, Z, this.g, this.propagationOnlyToZ);
 					newEdgesToCheck.add(BZ, B, Z, Z, this.g, this.propagationOnlyToZ);
 				}
 
-				if (checkTimeOutAndAdjustStatus(timeoutInstant, this.checkStatus)) {
+				if (checkTimeOutAndAdjustStatus(this.checkStatus)) {
 					return this.checkStatus;
 				}
 			}
 			edgesToCheck.clear();
-			edgesToCheck.addAll(newEdgesToCheckR0R3.edgesToCheck);
+			edgesToCheck.addAll(newEdgesToCheckR0R3);
 			newEdgesToCheckR0R3.clear();
 			i = 1;
 		}
 
-		edgesToCheck.addAll(newEdgesToCheck.edgesToCheck);
+		edgesToCheck.addAll(newEdgesToCheck);
 		newEdgesToCheck.clear();
 
 		// now it is time to propagate a stable configuration
@@ -1061,23 +1351,23 @@ public class CSTN extends AbstractCSTN<CSTNEdge> {
 				// Attention! It is necessary to consider also self loop, e.g. A==B and B==C to propagate rightly -∞
 
 				AZ = this.g.findEdge(A, Z);
-				// I need to preserve the old edge to compare below
+				// I need to preserve the modification count of the old edge to compare below
 				if (AZ != null) {
-					edgeCopy = this.g.getEdgeFactory().get(AZ);
+					modificationCount = AZ.getModificationCount();
 				} else {
 					AZ = makeNewEdge(A.getName() + "_" + Z.getName(), CSTNEdge.ConstraintType.derived);
-					edgeCopy = null;
+					modificationCount = Constants.INT_NULL;
 				}
 
 				this.labelPropagation(A, B, Z, AB, BZ, AZ);
 
 				boolean edgeModified = false;
-				if (edgeCopy == null && !AZ.isEmpty()) {
+				if (modificationCount == Constants.INT_NULL && !AZ.isEmpty()) {
 					// the new CB has to be added to the graph!
 					this.g.addEdge(AZ, A, Z);
 				} else {
 					// CB was already present and it has been changed!
-					edgeModified = edgeCopy != null && !edgeCopy.hasSameValues(AZ);
+					edgeModified = modificationCount != Constants.INT_NULL && AZ.getModificationCount() != modificationCount;
 				}
 
 				if (edgeModified) {
@@ -1090,7 +1380,7 @@ public class CSTN extends AbstractCSTN<CSTNEdge> {
 					return this.checkStatus;
 				}
 
-				if (checkTimeOutAndAdjustStatus(timeoutInstant, this.checkStatus)) {
+				if (checkTimeOutAndAdjustStatus(this.checkStatus)) {
 					return this.checkStatus;
 				}
 			}
@@ -221,7 +221,8 @@ public class CSTNPSU extends AbstractCSTN<CSTNPSUEdge> {
 			throw new IllegalArgumentException("The graph has a problem and it cannot be initialize: " + e.getMessage());
 		}
 
-		EdgesToCheck<CSTNPSUEdge> edgesToCheck = new EdgesToCheck<>(this.g.getEdges());
+		EdgesToCheck<CSTNPSUEdge> edgesToCheck = new EdgesToCheck<>(this.g);
+		edgesToCheck.setOrderedByName(this.orderedEdgesToCheck);
 
 		final int n = this.g.getVertexCount();
 		int k = this.g.getContingentNodeCount();
@@ -258,7 +259,7 @@ public class CSTNPSU extends AbstractCSTN<CSTNPSUEdge> {
 			// : oneStepDynamicControllability(edgesToCheck, timeoutInstant);
 
 			if (!this.checkStatus.finished) {
-				if (checkTimeOutAndAdjustStatus(timeoutInstant, this.checkStatus)) {
+				if (checkTimeOutAndAdjustStatus(this.checkStatus)) {
 					if (Debug.ON) {
 						String msg = "During the check # " + i + " time out of " + this.timeOut + " seconds occured. ";
 						if (LOG.isLoggable(Level.INFO)) {
@@ -631,9 +632,11 @@ public class CSTNPSU extends AbstractCSTN<CSTNPSUEdge> {
 	 * @return the update status (for convenience. It is not necessary because return the same parameter status).
 	 */
 	public CSTNUCheckStatus oneStepDynamicControllabilityLimitedToZ(final EdgesToCheck<CSTNPSUEdge> edgesToCheck, Instant timeoutInstant) {
+		this.checkStatus.setDeadline(timeoutInstant);
 		// This version consider only pair of edges going to Z, i.e., in the form A-->B-->Z,
 		LabeledNode B, A;
-		CSTNPSUEdge AZorZA, edgeCopy;
+		CSTNPSUEdge AZorZA;
+		int modificationCount;
 
 		this.checkStatus.cycles++;
 		if (Debug.ON) {
@@ -672,7 +675,7 @@ public class CSTNPSU extends AbstractCSTN<CSTNPSUEdge> {
 			}
 			B = (BZ) ? this.g.getSource(currentEdge) : this.g.getDest(currentEdge);
 
-			edgeCopy = this.g.getEdgeFactory().get(currentEdge);
+			modificationCount = currentEdge.getModificationCount();
 
 			// initAndCheck does not resolve completely a possible qStar. So, it is necessary to check here the edge before to consider the second edge.
 			// The check has to be done in case B==Z and it consists in applying R0, R3 and zLabeledLetterRemovalRule!
@@ -687,7 +690,7 @@ public class CSTNPSU extends AbstractCSTN<CSTNPSUEdge> {
 				rM1(B, currentEdge);
 			}
 
-			if (checkTimeOutAndAdjustStatus(timeoutInstant, this.checkStatus)) {
+			if (checkTimeOutAndAdjustStatus(this.checkStatus)) {
 				return getCheckStatus();
 			}
 
@@ -695,11 +698,11 @@ public class CSTNPSU extends AbstractCSTN<CSTNPSUEdge> {
 			if (BZ)
 				rG4(B, currentEdge);
 
-			if (BZ && !currentEdge.hasSameValues(edgeCopy)) {
+			if (BZ && currentEdge.getModificationCount() != modificationCount) {
 				newEdgesToCheck.add(currentEdge, B, Z, Z, this.g, this.propagationOnlyToZ);
 			}
 
-			if (checkTimeOutAndAdjustStatus(timeoutInstant, this.checkStatus)) {
+			if (checkTimeOutAndAdjustStatus(this.checkStatus)) {
 				return getCheckStatus();
 			}
 
@@ -724,13 +727,13 @@ public class CSTNPSU extends AbstractCSTN<CSTNPSUEdge> {
 
 				AZorZA = (BZ) ? this.g.findEdge(A, Z) : this.g.findEdge(Z, A);
 
-				// I need to preserve the old edge to compare below
+				// I need to preserve the modification count of the old edge to compare below
 				if (AZorZA != null) {
-					edgeCopy = this.g.getEdgeFactory().get(AZorZA);
+					modificationCount = AZorZA.getModificationCount();
 				} else {
 					AZorZA = makeNewEdge((BZ) ? (A.getName() + "_" + Z.getName()) : (Z.getName() + "_" + A.getName()),
 							CSTNPSUEdge.ConstraintType.derived);
-					edgeCopy = null;
+					modificationCount = Constants.INT_NULL;
 				}
 
 				if (BZ)
@@ -738,7 +741,7 @@ public class CSTNPSU extends AbstractCSTN<CSTNPSUEdge> {
 				else
 					rG5rG6rG7(Z, B, A, currentEdge, ABorBA, AZorZA);
 
-				if (checkTimeOutAndAdjustStatus(timeoutInstant, this.checkStatus)) {
+				if (checkTimeOutAndAdjustStatus(this.checkStatus)) {
 					return getCheckStatus();
 				}
 
@@ -747,7 +750,7 @@ public class CSTNPSU extends AbstractCSTN<CSTNPSUEdge> {
 				}
 
 				boolean add = false;
-				if (edgeCopy == null && !AZorZA.isEmpty()) {
+				if (modificationCount == Constants.INT_NULL && !AZorZA.isEmpty()) {
 					// the new CB has to be added to the graph!
 					if (BZ) {
 						this.g.addEdge(AZorZA, A, Z);
@@ -755,7 +758,7 @@ public class CSTNPSU extends AbstractCSTN<CSTNPSUEdge> {
 						this.g.addEdge(AZorZA, Z, A);
 					}
 					add = true;
-				} else if (edgeCopy != null && !edgeCopy.hasSameValues(AZorZA)) {
+				} else if (modificationCount != Constants.INT_NULL && AZorZA.getModificationCount() != modificationCount) {
 					// CB was already present and it has been changed!
 					add = true;
 				}
@@ -778,7 +781,7 @@ public class CSTNPSU extends AbstractCSTN<CSTNPSUEdge> {
 				}
 			}
 
-			if (checkTimeOutAndAdjustStatus(timeoutInstant, this.checkStatus)) {
+			if (checkTimeOutAndAdjustStatus(this.checkStatus)) {
 				return getCheckStatus();
 			}
 
@@ -813,7 +816,7 @@ public class CSTNPSU extends AbstractCSTN<CSTNPSUEdge> {
 			}
 		}
 
-		if (checkTimeOutAndAdjustStatus(timeoutInstant, this.checkStatus)) {
+		if (checkTimeOutAndAdjustStatus(this.checkStatus)) {
 			return getCheckStatus();
 		}
 		if (Debug.ON) {
@@ -166,10 +166,9 @@ public class CSTNPotential extends CSTNIR {
 	 * 
 	 * @param nodesToCheck input set of nodes
 	 * @param obsNodesToCheck modified observation nodes during the call
-	 * @param timeoutInstant time instant limit allowed to the computation.
 	 * @return the update status (it is for convenience. It is not necessary because return the same parameter status).
 	 */
-	CSTNCheckStatus singleSinkShortestPathStep(final NodesToCheck nodesToCheck, final NodesToCheck obsNodesToCheck, Instant timeoutInstant) {
+	CSTNCheckStatus singleSinkShortestPathStep(final NodesToCheck nodesToCheck, final NodesToCheck obsNodesToCheck) {
 		LabeledNode B;
 		/**
 		 * When a new labeled value is added in a potential, then it has to checked w.r.t. all observation potentials for verifying whether
@@ -236,7 +235,7 @@ public class CSTNPotential extends CSTNIR {
 				while (Bsons.size() != 0) {
 					nodesToCheck.enqueue(Bsons.dequeue());
 				}
-				if (checkTimeOutAndAdjustStatus(timeoutInstant, this.checkStatus)) {
+				if (checkTimeOutAndAdjustStatus(this.checkStatus)) {
 					return this.checkStatus;
 				}
 			} // end for edges outgoing from A
@@ -267,7 +266,7 @@ public class CSTNPotential extends CSTNIR {
 
 		int i = 1;
 		Instant startInstant = Instant.now();
-		Instant timeoutInstant = startInstant.plusSeconds(this.timeOut);
+		this.checkStatus.setDeadline(this.timeOut);
 
 		while (this.checkStatus.consistency && !this.checkStatus.finished && !this.checkStatus.timeout) {
 			if (Debug.ON) {
@@ -276,7 +275,7 @@ public class CSTNPotential extends CSTNIR {
 				}
 			}
 			this.checkStatus.cycles++;
-			singleSinkShortestPathStep(nodesToCheck, obsNodesToCheck, timeoutInstant);
+			singleSinkShortestPathStep(nodesToCheck, obsNodesToCheck);
 			// ASSERTIONS
 			// nodesToCheck is empty
 			// obsNodesToCheck may be not empty
@@ -285,7 +284,7 @@ public class CSTNPotential extends CSTNIR {
 				break;
 			}
 
-			potentialR3(allNodes, obsNodesToCheck, nodesToCheck, timeoutInstant);
+			potentialR3(allNodes, obsNodesToCheck, nodesToCheck);
 
 			if (!this.checkStatus.finished) {
 				this.checkStatus.finished = nodesToCheck.size() == 0;
@@ -479,13 +478,13 @@ public class CSTNPotential extends CSTNIR {
 
 	@Override
 	@Deprecated
-	CSTNCheckStatus oneStepDynamicConsistencyByEdges(final EdgesToCheck<CSTNEdge> edgesToCheck, Instant timeoutInstant) {
+	CSTNCheckStatus oneStepDynamicConsistencyByEdges(final EdgesToCheck<CSTNEdge> edgesToCheck) {
 		throw new UnsupportedOperationException("oneStepDynamicConsistencyByEdges");
 	}
 
 	@Override
 	@Deprecated
-	CSTNCheckStatus oneStepDynamicConsistencyByEdgesLimitedToZ(EdgesToCheck<CSTNEdge> edgesToCheck, Instant timeoutInstant) {
+	CSTNCheckStatus oneStepDynamicConsistencyByEdgesLimitedToZ(EdgesToCheck<CSTNEdge> edgesToCheck) {
 		throw new UnsupportedOperationException("oneStepDynamicConsistencyByEdgesLimitedToZ");
 	}
 
@@ -501,23 +500,21 @@ public class CSTNPotential extends CSTNIR {
 	 * @param nodesToCheck the set of nodes that has to be checked w.r.t. the obs node in obsNodesToCheck.
 	 * @param obsNodesToCheck the input set of observation time point to consider
 	 * @param newNodesToCheck it is fill with nodes modified by this method.
-	 * @param timeoutInstant time out instant to not overlap
 	 * @return true if at least one node was updated.
 	 */
-	boolean potentialR3(final LabeledNode[] nodesToCheck, final NodesToCheck obsNodesToCheck, final NodesToCheck newNodesToCheck,
-			Instant timeoutInstant) {
+	boolean potentialR3(final LabeledNode[] nodesToCheck, final NodesToCheck obsNodesToCheck, final NodesToCheck newNodesToCheck) {
 		boolean ruleApplied = false;
 
 		// First of all, check all obs node among them in order to have the minimum common potential among obs t.p.
-		ruleApplied = potentialR3internalCycle(obsNodesToCheck.toArray(), new NodesToCheck(obsNodesToCheck), newNodesToCheck, true, timeoutInstant);
+		ruleApplied = potentialR3internalCycle(obsNodesToCheck.toArray(), new NodesToCheck(obsNodesToCheck), newNodesToCheck, true);
 		if (!this.checkStatus.consistency)
 			return true;
-		if (checkTimeOutAndAdjustStatus(timeoutInstant, this.checkStatus)) {
+		if (checkTimeOutAndAdjustStatus(this.checkStatus)) {
 			return ruleApplied;
 		}
 
 		// Secondly, check the nodesToCheck w.r.t. obs nodes
-		ruleApplied |= potentialR3internalCycle(nodesToCheck, obsNodesToCheck, newNodesToCheck, false, timeoutInstant);
+		ruleApplied |= potentialR3internalCycle(nodesToCheck, obsNodesToCheck, newNodesToCheck, false);
 
 		return ruleApplied;
 	}
@@ -532,11 +529,10 @@ public class CSTNPotential extends CSTNIR {
 	 * @param obsNodes the observation node to which all nodes have to be checked
 	 * @param newNodesToCheck If the potential of X is modified, X is added to <code>newNodesToCheck</code>
 	 * @param obsAlignment if true, then it assumed that <code>nodesToCheck</code> contains obs nodes only and such nodes has to be aligned among them.
-	 * @param timeoutInstant maximum allowed time for the check
 	 * @return true if at least a value has been modified.
 	 */
 	private boolean potentialR3internalCycle(final LabeledNode[] nodesToCheck, final NodesToCheck obsNodes, final NodesToCheck newNodesToCheck,
-			boolean obsAlignment, Instant timeoutInstant) {
+			boolean obsAlignment) {
 		boolean ruleApplied = false;
 		String log = "";
 		while (!obsNodes.isEmpty()) {
@@ -586,7 +582,7 @@ public class CSTNPotential extends CSTNIR {
 				}
 			}
 		}
-		if (checkTimeOutAndAdjustStatus(timeoutInstant, this.checkStatus)) {
+		if (checkTimeOutAndAdjustStatus(this.checkStatus)) {
 			return ruleApplied;
 		}
 		return ruleApplied;
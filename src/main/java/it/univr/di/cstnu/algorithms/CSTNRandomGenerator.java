@@ -10,6 +10,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.security.SecureRandom;
 import java.util.Arrays;
+import java.util.Random;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -58,6 +59,7 @@ import it.univr.di.labeledvalue.Literal;
  * @author posenato
  * @version $Id: $Id
  */
+@edu.umd.cs.findbugs.annotations.SuppressFBWarnings(value = "DMI_RANDOM_USED_ONLY_ONCE", justification = "rnd is a field, replaced only by setSeed(long)")
 public class CSTNRandomGenerator {
 
 	/**
@@ -460,8 +462,9 @@ public class CSTNRandomGenerator {
 
 	/**
 	 * Random generator used in the building of labels.
+	 * By default it is not seeded; use {@link #setSeed(long)} to obtain reproducible instances.
 	 */
-	private SecureRandom rnd = new SecureRandom();
+	private Random rnd = new SecureRandom();
 
 	/**
 	 * Timeout in seconds for the check.
@@ -876,6 +879,16 @@ public class CSTNRandomGenerator {
 		return this.nQLoops;
 	}
 
+	/**
+	 * Replaces the random generator with one initialized with the given seed.
+	 * Two generators with the same parameters and the same seed build the same sequence of instances (used by benchmarks and tests).
+	 *
+	 * @param seed the initial seed.
+	 */
+	public void setSeed(long seed) {
+		this.rnd = new Random(seed);
+	}
+
 	/**
 	 * @return version and copyright string
 	 */
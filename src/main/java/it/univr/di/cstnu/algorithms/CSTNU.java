@@ -385,7 +385,8 @@ public class CSTNU extends AbstractCSTN<CSTNUEdge> {
 			throw new IllegalArgumentException("The graph has a problem and it cannot be initialize: " + e.getMessage());
 		}
 
-		EdgesToCheck<CSTNUEdge> edgesToCheck = new EdgesToCheck<>(this.g.getEdges());
+		EdgesToCheck<CSTNUEdge> edgesToCheck = new EdgesToCheck<>(this.g);
+		edgesToCheck.setOrderedByName(this.orderedEdgesToCheck);
 
 		final int n = this.g.getVertexCount();
 		int k = this.g.getContingentNodeCount();
@@ -421,7 +422,7 @@ public class CSTNU extends AbstractCSTN<CSTNUEdge> {
 					: oneStepDynamicControllability(edgesToCheck, timeoutInstant);
 
 			if (!this.checkStatus.finished) {
-				if (checkTimeOutAndAdjustStatus(timeoutInstant, this.checkStatus)) {
+				if (checkTimeOutAndAdjustStatus(this.checkStatus)) {
 					if (Debug.ON) {
 						String msg = "During the check # " + i + " time out of " + this.timeOut + " seconds occured. ";
 						if (LOG.isLoggable(Level.INFO)) {
@@ -792,9 +793,11 @@ public class CSTNU extends AbstractCSTN<CSTNUEdge> {
 	 * @return the update status (for convenience. It is not necessary because return the same parameter status).
 	 */
 	public CSTNUCheckStatus oneStepDynamicControllability(final EdgesToCheck<CSTNUEdge> edgesToCheck, Instant timeoutInstant) {
+		this.checkStatus.setDeadline(timeoutInstant);
 
 		LabeledNode A, B, C;
-		CSTNUEdge AC, CB, edgeCopy;
+		CSTNUEdge AC, CB;
+		int modificationCount;
 
 		this.checkStatus.cycles++;
 		if (Debug.ON) {
@@ -821,7 +824,7 @@ public class CSTNU extends AbstractCSTN<CSTNUEdge> {
 			B = this.g.getDest(AB);
 			// initAndCheck does not resolve completely a possible qStar. So, it is necessary to check here the edge before to consider the second edge.
 			// The check has to be done in case B==Z and it consists in applying R0, R3 and zLabeledLetterRemovalRule!
-			edgeCopy = this.g.getEdgeFactory().get(AB);
+			modificationCount = AB.getModificationCount();
 			if (B == Z) {
 				if (A.isObserver()) {
 					// R0 on the resulting new values
@@ -838,15 +841,15 @@ public class CSTNU extends AbstractCSTN<CSTNUEdge> {
 				// labeledLetterRemovalRule cleans possible redundant a-letters.
 				labeledLetterRemovalRule(A, B, AB);
 			}
-			if (checkTimeOutAndAdjustStatus(timeoutInstant, this.checkStatus)) {
+			if (checkTimeOutAndAdjustStatus(this.checkStatus)) {
 				return getCheckStatus();
 			}
 
-			if (!AB.hasSameValues(edgeCopy)) {
+			if (AB.getModificationCount() != modificationCount) {
 				newEdgesToCheck.add(AB, A, B, Z, this.g, this.propagationOnlyToZ);
 			}
 
-			if (checkTimeOutAndAdjustStatus(timeoutInstant, this.checkStatus)) {
+			if (checkTimeOutAndAdjustStatus(this.checkStatus)) {
 				return getCheckStatus();
 			}
 
@@ -863,19 +866,19 @@ public class CSTNU extends AbstractCSTN<CSTNUEdge> {
 				C = this.g.getDest(BC);
 
 				AC = this.g.findEdge(A, C);
-				// I need to preserve the old edge to compare below
+				// I need to preserve the modification count of the old edge to compare below
 				if (AC != null) {
-					edgeCopy = this.g.getEdgeFactory().get(AC);
+					modificationCount = AC.getModificationCount();
 				} else {
 					AC = makeNewEdge(A.getName() + "_" + C.getName(), Edge.ConstraintType.derived);
-					edgeCopy = null;
+					modificationCount = Constants.INT_NULL;
 				}
 
 				this.labeledLetterRemovalRule(B, C, BC);
 
 				this.labelPropagation(A, B, C, AB, BC, AC);
 
-				if (checkTimeOutAndAdjustStatus(timeoutInstant, this.checkStatus)) {
+				if (checkTimeOutAndAdjustStatus(this.checkStatus)) {
 					return getCheckStatus();
 				}
 
@@ -887,11 +890,11 @@ public class CSTNU extends AbstractCSTN<CSTNUEdge> {
 				}
 
 				boolean add = false;
-				if (edgeCopy == null && !AC.isEmpty()) {
+				if (modificationCount == Constants.INT_NULL && !AC.isEmpty()) {
 					// the new CB has to be added to the graph!
 					this.g.addEdge(AC, A, C);
 					add = true;
-				} else if (edgeCopy != null && !edgeCopy.hasSameValues(AC)) {
+				} else if (modificationCount != Constants.INT_NULL && AC.getModificationCount() != modificationCount) {
 					// CB was already present and it has been changed!
 					add = true;
 				}
@@ -912,7 +915,7 @@ public class CSTNU extends AbstractCSTN<CSTNUEdge> {
 				}
 			}
 
-			if (checkTimeOutAndAdjustStatus(timeoutInstant, this.checkStatus)) {
+			if (checkTimeOutAndAdjustStatus(this.checkStatus)) {
 				return getCheckStatus();
 			}
 
@@ -929,19 +932,19 @@ public class CSTNU extends AbstractCSTN<CSTNUEdge> {
 				C = this.g.getSource(CA);
 
 				CB = this.g.findEdge(C, B);
-				// I need to preserve the old edge to compare below
+				// I need to preserve the modification count of the old edge to compare below
 				if (CB != null) {
-					edgeCopy = this.g.getEdgeFactory().get(CB);
+					modificationCount = CB.getModificationCount();
 				} else {
 					CB = makeNewEdge(C.getName() + "_" + B.getName(), CSTNUEdge.ConstraintType.derived);
-					edgeCopy = null;
+					modificationCount = Constants.INT_NULL;
 				}
 
 				this.labeledLetterRemovalRule(C, A, CA);
 
 				labelPropagation(C, A, B, CA, AB, CB);
 
-				if (checkTimeOutAndAdjustStatus(timeoutInstant, this.checkStatus)) {
+				if (checkTimeOutAndAdjustStatus(this.checkStatus)) {
 					return getCheckStatus();
 				}
 
@@ -950,11 +953,11 @@ public class CSTNU extends AbstractCSTN<CSTNUEdge> {
 				}
 
 				boolean add = false;
-				if (edgeCopy == null && !CB.isEmpty()) {
+				if (modificationCount == Constants.INT_NULL && !CB.isEmpty()) {
 					// the new CB has to be added to the graph!
 					this.g.addEdge(CB, C, B);
 					add = true;
-				} else if (edgeCopy != null && !edgeCopy.hasSameValues(CB)) {
+				} else if (modificationCount != Constants.INT_NULL && CB.getModificationCount() != modificationCount) {
 					// CB was already present and it has been changed!
 					add = true;
 				}
@@ -973,7 +976,7 @@ public class CSTNU extends AbstractCSTN<CSTNUEdge> {
 				}
 			}
 
-			if (checkTimeOutAndAdjustStatus(timeoutInstant, this.checkStatus)) {
+			if (checkTimeOutAndAdjustStatus(this.checkStatus)) {
 				return getCheckStatus();
 			}
 
@@ -1000,11 +1003,13 @@ public class CSTNU extends AbstractCSTN<CSTNUEdge> {
 	 * @return the update status (for convenience. It is not necessary because return the same parameter status).
 	 */
 	public CSTNUCheckStatus oneStepDynamicControllabilityLimitedToZ(final EdgesToCheck<CSTNUEdge> edgesToCheck, Instant timeoutInstant) {
+		this.checkStatus.setDeadline(timeoutInstant);
 		//
 		// This version consider only pair of edges going to Z, i.e., in the form A-->B-->Z,
 		// 2018-01-25: with this method, performances worsen.
 		LabeledNode B, A;
-		CSTNUEdge AZ, edgeCopy;
+		CSTNUEdge AZ;
+		int modificationCount;
 
 		this.checkStatus.cycles++;
 		if (Debug.ON) {
@@ -1032,7 +1037,7 @@ public class CSTNU extends AbstractCSTN<CSTNUEdge> {
 			B = this.g.getSource(BZ);
 			// initAndCheck does not resolve completely a possible qStar. So, it is necessary to check here the edge before to consider the second edge.
 			// The check has to be done in case B==Z and it consists in applying R0, R3 and zLabeledLetterRemovalRule!
-			edgeCopy = this.g.getEdgeFactory().get(BZ);
+			modificationCount = BZ.getModificationCount();
 			if (B.isObserver()) {
 				// R0 on the resulting new values
 				labelModificationqR0(B, BZ);
@@ -1043,18 +1048,18 @@ public class CSTNU extends AbstractCSTN<CSTNUEdge> {
 				labelModificationqR0(B, BZ);
 			}
 
-			if (checkTimeOutAndAdjustStatus(timeoutInstant, this.checkStatus)) {
+			if (checkTimeOutAndAdjustStatus(this.checkStatus)) {
 				return getCheckStatus();
 			}
 
 			// LLR is put here because it works like R0 and R3
 			zLabeledLetterRemovalRule(B, BZ);
 
-			if (!BZ.hasSameValues(edgeCopy)) {
+			if (BZ.getModificationCount() != modificationCount) {
 				newEdgesToCheck.add(BZ, B, Z, Z, this.g, this.propagationOnlyToZ);
 			}
 
-			if (checkTimeOutAndAdjustStatus(timeoutInstant, this.checkStatus)) {
+			if (checkTimeOutAndAdjustStatus(this.checkStatus)) {
 				return getCheckStatus();
 			}
 
@@ -1077,17 +1082,17 @@ public class CSTNU extends AbstractCSTN<CSTNUEdge> {
 				A = this.g.getSource(AB);
 
 				AZ = this.g.findEdge(A, Z);
-				// I need to preserve the old edge to compare below
+				// I need to preserve the modification count of the old edge to compare below
 				if (AZ != null) {
-					edgeCopy = this.g.getEdgeFactory().get(AZ);
+					modificationCount = AZ.getModificationCount();
 				} else {
 					AZ = makeNewEdge(A.getName() + "_" + Z.getName(), CSTNUEdge.ConstraintType.derived);
-					edgeCopy = null;
+					modificationCount = Constants.INT_NULL;
 				}
 
 				labelPropagation(A, B, Z, AB, BZ, AZ);
 
-				if (checkTimeOutAndAdjustStatus(timeoutInstant, this.checkStatus)) {
+				if (checkTimeOutAndAdjustStatus(this.checkStatus)) {
 					return getCheckStatus();
 				}
 
@@ -1096,11 +1101,11 @@ public class CSTNU extends AbstractCSTN<CSTNUEdge> {
 				}
 
 				boolean add = false;
-				if (edgeCopy == null && !AZ.isEmpty()) {
+				if (modificationCount == Constants.INT_NULL && !AZ.isEmpty()) {
 					// the new CB has to be added to the graph!
 					this.g.addEdge(AZ, A, Z);
 					add = true;
-				} else if (edgeCopy != null && !edgeCopy.hasSameValues(AZ)) {
+				} else if (modificationCount != Constants.INT_NULL && AZ.getModificationCount() != modificationCount) {
 					// CB was already present and it has been changed!
 					add = true;
 				}
@@ -1119,7 +1124,7 @@ public class CSTNU extends AbstractCSTN<CSTNUEdge> {
 				}
 			}
 
-			if (checkTimeOutAndAdjustStatus(timeoutInstant, this.checkStatus)) {
+			if (checkTimeOutAndAdjustStatus(this.checkStatus)) {
 				return getCheckStatus();
 			}
 
@@ -1744,9 +1749,9 @@ public class CSTNU extends AbstractCSTN<CSTNUEdge> {
 
 				for (it.unimi.dsi.fastutil.objects.Object2IntMap.Entry<Label> entryYW : YWAllLabeledValueMap.get(aleph).entrySet()) {// entrySet read-only
 					final Label beta = entryYW.getKey();
-					Label alphaBeta;
-					alphaBeta = alpha.conjunction(beta);
-					if (alphaBeta == null)
+					// alphaBeta is built only if the new value is not discarded by the following checks.
+					final long alphaBetaBits = Label.conjunctionBits(alpha.getBits(), beta.getBits());
+					if (alphaBetaBits == Label.BITS_NULL)
 						continue;
 
 					final int v = entryYW.getIntValue();
@@ -1765,6 +1770,7 @@ public class CSTNU extends AbstractCSTN<CSTNUEdge> {
 						continue;
 					}
 
+					final Label alphaBeta = Label.valueOfBits(alphaBetaBits);
 					final int oldValue = (aleph.isEmpty()) ? eXW.getValue(alphaBeta) : eXW.getUpperCaseValue(alphaBeta, aleph);
 
 					if ((oldValue != Constants.INT_NULL) && (sum >= oldValue)) {
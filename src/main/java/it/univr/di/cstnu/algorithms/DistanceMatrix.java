@@ -0,0 +1,397 @@
+// SPDX-FileCopyrightText: 2020 Roberto Posenato <roberto.posenato@univr.it>
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+package it.univr.di.cstnu.algorithms;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+import it.univr.di.Debug;
+import it.univr.di.cstnu.graph.Edge.ConstraintType;
+import it.univr.di.cstnu.graph.LabeledNode;
+import it.univr.di.cstnu.graph.STNEdge;
+import it.univr.di.cstnu.graph.TNGraph;
+import it.univr.di.labeledvalue.Constants;
+
+/**
+ * Distance matrix of an STN stored as a flat row-major <code>int</code> array, together with a blocked (tiled) Floyd-Warshall algorithm
+ * for determining all-pairs shortest paths.
+ * <p>
+ * Row and column <code>i</code> correspond to the node having index <code>i</code> in the graph (see {@link TNGraph#getNodeIndex(LabeledNode)}).
+ * A missing edge is represented by {@link Constants#INT_POS_INFINITE}.
+ * Sums never overflow: a sum greater than or equal to {@link Constants#INT_POS_INFINITE} is never stored, while a sum less than
+ * {@link Constants#INT_NEG_INFINITE} is stored as {@link Constants#INT_NEG_INFINITE} (it can occur only when there is a negative cycle).
+ * <p>
+ * The matrix is processed in square blocks of {@link #getBlockSize()} rows so that the three blocks involved in each step stay in cache.
+ * For 2-5k node networks this is about two orders of magnitude faster than relaxing {@link STNEdge} objects in the graph.
+ * <p>
+ * {@link #floydWarshall(ForkJoinPool)} is the multi-threaded version: in each round, the blocks of the pivot row/column (phase 2) and then
+ * all the other blocks (phase 3) are relaxed concurrently because the blocks of a phase write disjoint entries and read only the pivot
+ * ones.
+ *
+ * @author posenato
+ */
+public class DistanceMatrix {
+
+	/**
+	 * Default side of a block. 64x64 int are 16KB, so the three blocks used in a step fit in a L1/L2 cache.
+	 */
+	public static final int DEFAULT_BLOCK_SIZE = 64;
+
+	/**
+	 * logger
+	 */
+	static final Logger LOG = Logger.getLogger(DistanceMatrix.class.getName());
+
+	/**
+	 * Builds the distance matrix of the given graph.
+	 * The entry (i,j) is the value of edge (i,j) if present, {@link Constants#INT_POS_INFINITE} otherwise.
+	 * The diagonal is 0 unless there is a negative self-loop.
+	 *
+	 * @param graph the graph. It must be not null.
+	 * @return the distance matrix of the graph.
+	 */
+	public static DistanceMatrix of(TNGraph<? extends STNEdge> graph) {
+		final int n = graph.getVertexCount();
+		final DistanceMatrix m = new DistanceMatrix(n);
+		final int[] d = m.d;
+		for (int i = 0; i < n; i++) {
+			final int row = i * n;
+			for (int slot = graph.firstOutSlot(i); slot >= 0; slot = graph.nextOutSlot(i, slot)) {
+				final STNEdge e = graph.outEdgeAt(i, slot);
+				if (e.isEmpty())
+					continue;
+				final int j = graph.outNodeAt(i, slot);
+				final int v = e.getValue();
+				if (v < d[row + j]) {
+					d[row + j] = v;
+				}
+			}
+		}
+		return m;
+	}
+
+	/**
+	 * Side of a block.
+	 */
+	private int blockSize = DEFAULT_BLOCK_SIZE;
+
+	/**
+	 * Row-major distances.
+	 */
+	final int[] d;
+
+	/**
+	 * Number of nodes.
+	 */
+	final int n;
+
+	/**
+	 * Index of a node with a negative distance to itself, -1 if none has been found.
+	 */
+	private int negativeCycleNode = -1;
+
+	/**
+	 * Creates a n x n matrix where all distances are {@link Constants#INT_POS_INFINITE} but the diagonal ones that are 0.
+	 *
+	 * @param size number of nodes. It must be non negative.
+	 * @throws IllegalArgumentException if size is negative or n*n is greater than the maximum array length.
+	 */
+	public DistanceMatrix(int size) {
+		if (size < 0 || (long) size * size > Integer.MAX_VALUE - 8)
+			throw new IllegalArgumentException("A distance matrix of " + size + " nodes cannot be allocated as a single array.");
+		this.n = size;
+		this.d = new int[size * size];
+		java.util.Arrays.fill(this.d, Constants.INT_POS_INFINITE);
+		for (int i = 0; i < size; i++) {
+			this.d[i * size + i] = 0;
+		}
+	}
+
+	/**
+	 * @param i source index
+	 * @param j destination index
+	 * @return the current distance from node i to node j, {@link Constants#INT_POS_INFINITE} if there is no path.
+	 */
+	public int distance(int i, int j) {
+		return this.d[i * this.n + j];
+	}
+
+	/**
+	 * Determines all-pairs shortest paths using the blocked Floyd-Warshall algorithm.
+	 * The computation stops as soon as a node with negative distance to itself is found.
+	 *
+	 * @return true if there is no negative cycle, false otherwise. In the latter case, {@link #getNegativeCycleNode()} returns a node of a
+	 *         negative cycle and the distances are not meaningful.
+	 */
+	public boolean floydWarshall() {
+		final int b = this.blockSize;
+		this.negativeCycleNode = -1;
+		for (int k0 = 0; k0 < this.n; k0 += b) {
+			final int k1 = Math.min(k0 + b, this.n);
+			// phase 1: the pivot block
+			relaxBlock(k0, k1, k0, k1, k0, k1);
+			// phase 2: the blocks in the pivot row and in the pivot column
+			for (int x0 = 0; x0 < this.n; x0 += b) {
+				if (x0 == k0)
+					continue;
+				final int x1 = Math.min(x0 + b, this.n);
+				relaxBlock(k0, k1, x0, x1, k0, k1);
+				relaxBlock(x0, x1, k0, k1, k0, k1);
+			}
+			// phase 3: all other blocks
+			for (int i0 = 0; i0 < this.n; i0 += b) {
+				if (i0 == k0)
+					continue;
+				final int i1 = Math.min(i0 + b, this.n);
+				for (int j0 = 0; j0 < this.n; j0 += b) {
+					if (j0 == k0)
+						continue;
+					relaxBlock(i0, i1, j0, Math.min(j0 + b, this.n), k0, k1);
+				}
+			}
+			if (!checkDiagonal()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Multi-threaded version of {@link #floydWarshall()} (three-phase blocked Floyd-Warshall).
+	 * The pivot block is relaxed by the calling task, while the blocks of phase 2 and phase 3 are relaxed by the threads of
+	 * <code>pool</code>.
+	 * The result is the same of {@link #floydWarshall()}.
+	 *
+	 * @param pool the pool to use. It must be not null.
+	 * @return true if there is no negative cycle, false otherwise. In the latter case, {@link #getNegativeCycleNode()} returns a node of a
+	 *         negative cycle and the distances are not meaningful.
+	 */
+	public boolean floydWarshall(ForkJoinPool pool) {
+		this.negativeCycleNode = -1;
+		return pool.invoke(ForkJoinTask.adapt(this::parallelRounds)).booleanValue();
+	}
+
+	/**
+	 * @return the side of a block.
+	 */
+	public int getBlockSize() {
+		return this.blockSize;
+	}
+
+	/**
+	 * @return the index of a node having a negative distance to itself after {@link #floydWarshall()}, -1 if there is no negative cycle.
+	 */
+	public int getNegativeCycleNode() {
+		return this.negativeCycleNode;
+	}
+
+	/**
+	 * @param size the side of a block. It must be positive.
+	 */
+	public void setBlockSize(int size) {
+		if (size <= 0)
+			throw new IllegalArgumentException("Block size must be positive.");
+		this.blockSize = size;
+	}
+
+	/**
+	 * Saves this matrix in the file format of {@link MappedDistanceMatrix}, so that it can be queried later without loading it on heap.
+	 *
+	 * @param file the file to write. If it exists, it is overwritten.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public void save(File file) throws IOException {
+		try (MappedDistanceMatrix m = MappedDistanceMatrix.create(file, this.n)) {
+			final int[] row = new int[this.n];
+			for (int i = 0; i < this.n; i++) {
+				System.arraycopy(this.d, i * this.n, row, 0, this.n);
+				m.setRow(i, row);
+			}
+		}
+	}
+
+	/**
+	 * @return number of nodes.
+	 */
+	public int size() {
+		return this.n;
+	}
+
+	/**
+	 * Writes the distances into the graph from which this matrix has been built.
+	 * An existing edge is updated only when its value is greater than the distance; a missing edge is added as
+	 * {@link ConstraintType#derived} edge only when the distance is finite.
+	 *
+	 * @param graph the graph having the same nodes (same indexes) of this matrix.
+	 * @return the number of edges modified or added.
+	 */
+	public int writeTo(TNGraph<STNEdge> graph) {
+		if (graph.getVertexCount() != this.n)
+			throw new IllegalArgumentException("The graph has " + graph.getVertexCount() + " nodes while the matrix has " + this.n + " rows.");
+		int modified = 0;
+		for (int i = 0; i < this.n; i++) {
+			final int row = i * this.n;
+			LabeledNode iV = null;
+			for (int j = 0; j < this.n; j++) {
+				final int v = this.d[row + j];
+				if (i == j || v == Constants.INT_POS_INFINITE)
+					continue;
+				STNEdge ij = graph.findEdge(i, j);
+				if (ij == null) {
+					if (iV == null)
+						iV = graph.getNode(i);
+					final LabeledNode jV = graph.getNode(j);
+					ij = STN.makeNewEdge(graph, iV.getName() + "_" + jV.getName(), ConstraintType.derived);
+					ij.setValue(v);
+					graph.addEdge(ij, iV, jV);
+					modified++;
+					if (Debug.ON) {
+						if (LOG.isLoggable(Level.FINER)) {
+							LOG.finer("Added edge " + ij);
+						}
+					}
+					continue;
+				}
+				final int old = ij.getValue();
+				if (ij.isEmpty() || old > v) {
+					ij.setValue(v);
+					modified++;
+					if (Debug.ON) {
+						if (LOG.isLoggable(Level.FINE)) {
+							LOG.fine("Edge " + ij.getName() + ": " + Constants.formatInt(old) + " --> " + Constants.formatInt(v));
+						}
+					}
+				}
+			}
+		}
+		return modified;
+	}
+
+	/**
+	 * @return false if a diagonal entry is negative, setting {@link #negativeCycleNode}.
+	 */
+	private boolean checkDiagonal() {
+		for (int i = 0; i < this.n; i++) {
+			if (this.d[i * this.n + i] < 0) {
+				this.negativeCycleNode = i;
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Executes the rounds of {@link #floydWarshall(ForkJoinPool)}. It must be called inside a {@link ForkJoinPool}.
+	 *
+	 * @return true if there is no negative cycle.
+	 */
+	boolean parallelRounds() {
+		final int b = this.blockSize;
+		final ObjectArrayList<BlockTask> tasks = new ObjectArrayList<>();
+		for (int k0 = 0; k0 < this.n; k0 += b) {
+			final int k1 = Math.min(k0 + b, this.n);
+			// phase 1: the pivot block
+			relaxBlock(k0, k1, k0, k1, k0, k1);
+			// phase 2: the blocks in the pivot row and in the pivot column
+			tasks.clear();
+			for (int x0 = 0; x0 < this.n; x0 += b) {
+				if (x0 == k0)
+					continue;
+				final int x1 = Math.min(x0 + b, this.n);
+				tasks.add(new BlockTask(k0, k1, x0, x1, k0, k1));
+				tasks.add(new BlockTask(x0, x1, k0, k1, k0, k1));
+			}
+			ForkJoinTask.invokeAll(tasks);
+			// phase 3: all other blocks
+			tasks.clear();
+			for (int i0 = 0; i0 < this.n; i0 += b) {
+				if (i0 == k0)
+					continue;
+				final int i1 = Math.min(i0 + b, this.n);
+				for (int j0 = 0; j0 < this.n; j0 += b) {
+					if (j0 == k0)
+						continue;
+					tasks.add(new BlockTask(i0, i1, j0, Math.min(j0 + b, this.n), k0, k1));
+				}
+			}
+			ForkJoinTask.invokeAll(tasks);
+			if (!checkDiagonal()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * A task relaxing one block by {@link DistanceMatrix#relaxBlock(int, int, int, int, int, int)}.
+	 */
+	private final class BlockTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int i0, i1, j0, j1, k0, k1;
+
+		/**
+		 * @param i0 first row
+		 * @param i1 last row (excluded)
+		 * @param j0 first column
+		 * @param j1 last column (excluded)
+		 * @param k0 first intermediate node
+		 * @param k1 last intermediate node (excluded)
+		 */
+		BlockTask(int i0, int i1, int j0, int j1, int k0, int k1) {
+			this.i0 = i0;
+			this.i1 = i1;
+			this.j0 = j0;
+			this.j1 = j1;
+			this.k0 = k0;
+			this.k1 = k1;
+		}
+
+		@Override
+		protected void compute() {
+			relaxBlock(this.i0, this.i1, this.j0, this.j1, this.k0, this.k1);
+		}
+	}
+
+	/**
+	 * Relaxes the entries (i,j) with i in [i0, i1) and j in [j0, j1) using the intermediate nodes k in [k0, k1).
+	 * Different blocks of the same phase can be relaxed concurrently because they write disjoint entries.
+	 *
+	 * @param i0 first row
+	 * @param i1 last row (excluded)
+	 * @param j0 first column
+	 * @param j1 last column (excluded)
+	 * @param k0 first intermediate node
+	 * @param k1 last intermediate node (excluded)
+	 */
+	final void relaxBlock(int i0, int i1, int j0, int j1, int k0, int k1) {
+		final int[] dist = this.d;
+		final int size = this.n;
+		for (int k = k0; k < k1; k++) {
+			final int rowK = k * size;
+			for (int i = i0; i < i1; i++) {
+				final int rowI = i * size;
+				final int dik = dist[rowI + k];
+				if (dik == Constants.INT_POS_INFINITE)
+					continue;
+				for (int j = j0; j < j1; j++) {
+					final int dkj = dist[rowK + j];
+					if (dkj == Constants.INT_POS_INFINITE)
+						continue;
+					final long sum = (long) dik + dkj;
+					if (sum < dist[rowI + j]) {
+						dist[rowI + j] = (sum < Constants.INT_NEG_INFINITE) ? Constants.INT_NEG_INFINITE : (int) sum;
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,269 @@
+// SPDX-FileCopyrightText: 2020 Roberto Posenato <roberto.posenato@univr.it>
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+package it.univr.di.cstnu.algorithms;
+
+import java.util.Arrays;
+
+import it.univr.di.cstnu.algorithms.PriorityQueue.Status;
+
+/**
+ * Priority queue where elements are the integers in [0, capacity) (usually node indexes, see
+ * {@link it.univr.di.cstnu.graph.TNGraph#getNodeIndex(it.univr.di.cstnu.graph.LabeledNode)}) and priorities are integers.<br>
+ * It is a 4-ary heap stored in primitive arrays: the position of each element in the heap is stored in an array indexed by the element, so
+ * {@link #insertOrDecrease(int, int)}, {@link #getStatus(int)} and {@link #getPriority(int)} never allocate nor search.
+ * <p>
+ * As {@link PriorityQueue}, it maintains memory of elements that have been inserted and removed (see {@link #getStatus(int)}) and the
+ * priority they had when removed.
+ *
+ * @author posenato
+ */
+public class IndexedPriorityQueue implements IndexedQueue {
+
+	/**
+	 * Number of children of each heap node.
+	 */
+	static final int ARITY = 4;
+
+	/**
+	 * Position value of an element never inserted.
+	 */
+	private static final int NOT_PRESENT = -1;
+
+	/**
+	 * Position value of an element inserted and removed.
+	 */
+	private static final int WAS_PRESENT = -2;
+
+	/**
+	 * Heap of elements.
+	 */
+	private final int[] heap;
+
+	/**
+	 * Position of each element in {@link #heap} or {@link #NOT_PRESENT} or {@link #WAS_PRESENT}.
+	 */
+	private final int[] position;
+
+	/**
+	 * Priority of each element.
+	 */
+	private final int[] priority;
+
+	/**
+	 * Number of elements in the heap.
+	 */
+	private int size;
+
+	/**
+	 * @param capacity the elements of the queue are the integers in [0, capacity).
+	 */
+	public IndexedPriorityQueue(int capacity) {
+		this.heap = new int[capacity];
+		this.position = new int[capacity];
+		this.priority = new int[capacity];
+		Arrays.fill(this.position, NOT_PRESENT);
+	}
+
+	/**
+	 * @return the capacity of the queue.
+	 */
+	public int capacity() {
+		return this.position.length;
+	}
+
+	/**
+	 * Makes the queue empty and forgets all removed elements.
+	 */
+	@Override
+	public void clear() {
+		Arrays.fill(this.position, NOT_PRESENT);
+		this.size = 0;
+	}
+
+	/**
+	 * Forgets a removed element: its status becomes {@link Status#notPresent}.<br>
+	 * When a queue is reused for few elements, forgetting them is cheaper than {@link #clear()}, which is linear in the capacity.
+	 *
+	 * @param item an element that is not in the queue.
+	 * @throws IllegalStateException if the element is in the queue.
+	 */
+	public void forget(int item) {
+		if (this.position[item] >= 0)
+			throw new IllegalStateException("Element " + item + " is in the queue.");
+		this.position[item] = NOT_PRESENT;
+	}
+
+	/**
+	 * Removes and returns the element with minimum priority. Its priority remains available by {@link #getPriority(int)}.
+	 *
+	 * @return the element with minimum priority.
+	 * @throws IllegalStateException if the queue is empty.
+	 */
+	@Override
+	public int extractMin() {
+		if (this.size == 0)
+			throw new IllegalStateException("The queue is empty.");
+		final int min = this.heap[0];
+		this.position[min] = WAS_PRESENT;
+		if (--this.size > 0) {
+			siftDown(this.heap[this.size], 0);
+		}
+		return min;
+	}
+
+	/**
+	 * @return the minimum priority in the queue.
+	 * @throws IllegalStateException if the queue is empty.
+	 */
+	public int getMinPriority() {
+		if (this.size == 0)
+			throw new IllegalStateException("The queue is empty.");
+		return this.priority[this.heap[0]];
+	}
+
+	/**
+	 * @param item an element that is or was in the queue.
+	 * @return the current priority of the element if it is present, the priority it had when it was removed otherwise.
+	 * @throws IllegalArgumentException if the element has never been in the queue.
+	 */
+	@Override
+	public int getPriority(int item) {
+		if (this.position[item] == NOT_PRESENT)
+			throw new IllegalArgumentException("Element " + item + " has never been in the queue.");
+		return this.priority[item];
+	}
+
+	/**
+	 * @param item an element.
+	 * @return the status of the element with respect to this queue (see {@link Status}).
+	 */
+	@Override
+	public Status getStatus(int item) {
+		final int p = this.position[item];
+		if (p >= 0)
+			return Status.isPresent;
+		return (p == NOT_PRESENT) ? Status.notPresent : Status.wasPresent;
+	}
+
+	/**
+	 * Inserts the given element with the given priority or decreases its priority if it is present and the given one is smaller.
+	 * An element that was removed is not inserted again.
+	 *
+	 * @param item an element
+	 * @param newPriority the value of priority
+	 * @return true if the operation was successful; false if the element was already removed and the new priority is lower than the
+	 *         removal one.
+	 */
+	@Override
+	public boolean insertOrDecrease(int item, int newPriority) {
+		final int p = this.position[item];
+		if (p >= 0) {
+			if (newPriority < this.priority[item]) {
+				this.priority[item] = newPriority;
+				siftUp(item, p);
+			}
+			return true;
+		}
+		if (p == WAS_PRESENT)
+			return newPriority >= this.priority[item];
+		this.priority[item] = newPriority;
+		siftUp(item, this.size++);
+		return true;
+	}
+
+	/**
+	 * @return true if the queue is empty, false otherwise.
+	 */
+	@Override
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * @return the number of elements in the queue.
+	 */
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * @return a string representing the ordered queue w.r.t. the priority.
+	 */
+	@Override
+	public String toString() {
+		final long[] entries = new long[this.size];
+		for (int i = 0; i < this.size; i++) {
+			final int item = this.heap[i];
+			entries[i] = ((long) this.priority[item] << 32) | item;
+		}
+		Arrays.sort(entries);
+		final StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < this.size; i++) {
+			if (i > 0)
+				sb.append(", ");
+			sb.append((int) (entries[i] >> 32)).append("->").append((int) entries[i]);
+		}
+		return sb.append(']').toString();
+	}
+
+	/**
+	 * Moves <code>item</code> from the hole at <code>pos</code> toward the leaves until the heap property is restored.
+	 *
+	 * @param item the element to place
+	 * @param pos the starting hole
+	 */
+	private void siftDown(int item, int pos) {
+		final int[] h = this.heap;
+		final int[] pr = this.priority;
+		final int itemPriority = pr[item];
+		int hole = pos;
+		while (true) {
+			final int first = hole * ARITY + 1;
+			if (first >= this.size)
+				break;
+			final int last = Math.min(first + ARITY, this.size);
+			int minChild = first;
+			int minPriority = pr[h[first]];
+			for (int c = first + 1; c < last; c++) {
+				final int cp = pr[h[c]];
+				if (cp < minPriority) {
+					minPriority = cp;
+					minChild = c;
+				}
+			}
+			if (minPriority >= itemPriority)
+				break;
+			h[hole] = h[minChild];
+			this.position[h[hole]] = hole;
+			hole = minChild;
+		}
+		h[hole] = item;
+		this.position[item] = hole;
+	}
+
+	/**
+	 * Moves <code>item</code> from the hole at <code>pos</code> toward the root until the heap property is restored.
+	 *
+	 * @param item the element to place
+	 * @param pos the starting hole
+	 */
+	private void siftUp(int item, int pos) {
+		final int[] h = this.heap;
+		final int itemPriority = this.priority[item];
+		int hole = pos;
+		while (hole > 0) {
+			final int parent = (hole - 1) / ARITY;
+			final int parentItem = h[parent];
+			if (this.priority[parentItem] <= itemPriority)
+				break;
+			h[hole] = parentItem;
+			this.position[parentItem] = hole;
+			hole = parent;
+		}
+		h[hole] = item;
+		this.position[item] = hole;
+	}
+}
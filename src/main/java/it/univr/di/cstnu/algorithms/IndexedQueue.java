@@ -0,0 +1,62 @@
+// SPDX-FileCopyrightText: 2020 Roberto Posenato <roberto.posenato@univr.it>
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+package it.univr.di.cstnu.algorithms;
+
+import it.univr.di.cstnu.algorithms.PriorityQueue.Status;
+
+/**
+ * Common methods of the priority queues whose elements are the integers in [0, capacity) and whose priorities are integers
+ * ({@link IndexedPriorityQueue} and {@link RadixPriorityQueue}).
+ * As {@link PriorityQueue}, an implementation maintains memory of elements that have been inserted and removed.
+ *
+ * @author posenato
+ */
+interface IndexedQueue {
+
+	/**
+	 * Makes the queue empty and forgets all removed elements.
+	 */
+	void clear();
+
+	/**
+	 * Removes and returns the element with minimum priority. Its priority remains available by {@link #getPriority(int)}.
+	 *
+	 * @return the element with minimum priority.
+	 */
+	int extractMin();
+
+	/**
+	 * @param item an element that is or was in the queue.
+	 * @return the current priority of the element if it is present, the priority it had when it was removed otherwise.
+	 */
+	int getPriority(int item);
+
+	/**
+	 * @param item an element.
+	 * @return the status of the element with respect to this queue.
+	 */
+	Status getStatus(int item);
+
+	/**
+	 * Inserts the given element with the given priority or decreases its priority if it is present and the given one is smaller.
+	 * An element that was removed is not inserted again.
+	 *
+	 * @param item an element
+	 * @param newPriority the value of priority
+	 * @return true if the operation was successful; false if the element was already removed and the new priority is lower than the
+	 *         removal one.
+	 */
+	boolean insertOrDecrease(int item, int newPriority);
+
+	/**
+	 * @return true if the queue is empty, false otherwise.
+	 */
+	boolean isEmpty();
+
+	/**
+	 * @return the number of elements in the queue.
+	 */
+	int size();
+}
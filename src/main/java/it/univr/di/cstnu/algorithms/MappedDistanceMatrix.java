@@ -0,0 +1,186 @@
+// SPDX-FileCopyrightText: 2020 Roberto Posenato <roberto.posenato@univr.it>
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+package it.univr.di.cstnu.algorithms;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import it.univr.di.cstnu.graph.LabeledNode;
+import it.univr.di.cstnu.graph.TNGraph;
+import it.univr.di.labeledvalue.Constants;
+
+/**
+ * Distance matrix of an STN stored off-heap in a memory-mapped file, for networks whose minimal network does not fit on heap.
+ * <p>
+ * The file contains a header of {@link #HEADER_SIZE} bytes (the int {@link #MAGIC}, the format version and the number of nodes n) followed
+ * by the n&times;n distances as row-major little-endian int32. Row and column <code>i</code> correspond to the node having index
+ * <code>i</code> in the graph (see {@link TNGraph#getNodeIndex(LabeledNode)}) and a missing path is represented by
+ * {@link Constants#INT_POS_INFINITE}, as in {@link DistanceMatrix}.
+ * <p>
+ * The file is mapped in segments of whole rows, each smaller than 2GB. Once built, the matrix is read-only: it offers
+ * {@link #distance(int, int)} and row scans by {@link #row(int, int[])}, without building any edge.
+ * A matrix is filled by {@link STN#johnson(TNGraph, File, int, STN.STNCheckStatus)} or by {@link DistanceMatrix#save(File)} and it can be
+ * reopened later by {@link #open(File)}.
+ *
+ * @author posenato
+ */
+public class MappedDistanceMatrix implements AutoCloseable {
+
+	/**
+	 * Size of the header in bytes.
+	 */
+	public static final int HEADER_SIZE = 16;
+
+	/**
+	 * First int of the file ("APSP" in ASCII).
+	 */
+	public static final int MAGIC = 0x41505350;
+
+	/**
+	 * Version of the file format.
+	 */
+	static final int VERSION = 1;
+
+	/**
+	 * Creates the file (overwriting it if it exists) for a matrix of the given size and maps it in read-write mode.
+	 * All distances are initially 0.
+	 *
+	 * @param file the file.
+	 * @param size number of nodes.
+	 * @return the matrix.
+	 * @throws IOException if the file cannot be created or mapped.
+	 */
+	static MappedDistanceMatrix create(File file, int size) throws IOException {
+		if (size < 0)
+			throw new IllegalArgumentException("Size cannot be negative.");
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+			raf.setLength(0);
+			raf.setLength(HEADER_SIZE + 4L * size * size);
+			final ByteBuffer header = channel.map(MapMode.READ_WRITE, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(0);
+			return new MappedDistanceMatrix(channel, MapMode.READ_WRITE, size);
+		}
+	}
+
+	/**
+	 * Maps an existing matrix file in read-only mode.
+	 *
+	 * @param file the file.
+	 * @return the matrix.
+	 * @throws IOException if the file cannot be read or it is not a distance matrix file.
+	 */
+	public static MappedDistanceMatrix open(File file) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+			if (channel.size() < HEADER_SIZE)
+				throw new IOException("File " + file + " is not a distance matrix file.");
+			final ByteBuffer header = channel.map(MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			final int magic = header.getInt(), version = header.getInt(), size = header.getInt();
+			if (magic != MAGIC || version != VERSION || size < 0 || channel.size() != HEADER_SIZE + 4L * size * size)
+				throw new IOException("File " + file + " is not a distance matrix file.");
+			return new MappedDistanceMatrix(channel, MapMode.READ_ONLY, size);
+		}
+	}
+
+	/**
+	 * Mapped segments.
+	 */
+	private final MappedByteBuffer[] buffers;
+
+	/**
+	 * Number of nodes.
+	 */
+	private final int n;
+
+	/**
+	 * Number of rows in each segment.
+	 */
+	private final int rowsPerSegment;
+
+	/**
+	 * Int views of {@link #buffers}.
+	 */
+	private final IntBuffer[] segments;
+
+	/**
+	 * @param channel the channel of the file. The mappings remain valid after its closing.
+	 * @param mode mapping mode.
+	 * @param size number of nodes.
+	 * @throws IOException if the file cannot be mapped.
+	 */
+	private MappedDistanceMatrix(FileChannel channel, MapMode mode, int size) throws IOException {
+		this.n = size;
+		final long rowBytes = 4L * size;
+		this.rowsPerSegment = (size == 0) ? 1 : (int) Math.max(1, Integer.MAX_VALUE / rowBytes);
+		final int nSegments = (size + this.rowsPerSegment - 1) / this.rowsPerSegment;
+		this.buffers = new MappedByteBuffer[nSegments];
+		this.segments = new IntBuffer[nSegments];
+		for (int s = 0; s < nSegments; s++) {
+			final int rows = Math.min(this.rowsPerSegment, size - s * this.rowsPerSegment);
+			this.buffers[s] = channel.map(mode, HEADER_SIZE + s * this.rowsPerSegment * rowBytes, rows * rowBytes);
+			this.segments[s] = this.buffers[s].order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+		}
+	}
+
+	/**
+	 * Flushes the modifications to the file, if the matrix is writable.
+	 * Mapped memory is released by the garbage collector when the matrix is no more referenced.
+	 */
+	@Override
+	public void close() {
+		for (final MappedByteBuffer b : this.buffers) {
+			if (!b.isReadOnly())
+				b.force();
+		}
+	}
+
+	/**
+	 * @param i source index
+	 * @param j destination index
+	 * @return the distance from node i to node j, {@link Constants#INT_POS_INFINITE} if there is no path.
+	 */
+	public int distance(int i, int j) {
+		return this.segments[i / this.rowsPerSegment].get((i % this.rowsPerSegment) * this.n + j);
+	}
+
+	/**
+	 * Copies the distances from node i to all nodes into <code>dest</code>.
+	 *
+	 * @param i source index
+	 * @param dest array having length at least {@link #size()}.
+	 * @return dest
+	 */
+	public int[] row(int i, int[] dest) {
+		final IntBuffer b = this.segments[i / this.rowsPerSegment].duplicate();
+		b.position((i % this.rowsPerSegment) * this.n);
+		b.get(dest, 0, this.n);
+		return dest;
+	}
+
+	/**
+	 * Writes the distances from node i. Different rows can be written by different threads.
+	 *
+	 * @param i source index
+	 * @param src array having length at least {@link #size()}.
+	 */
+	void setRow(int i, int[] src) {
+		final IntBuffer b = this.segments[i / this.rowsPerSegment].duplicate();
+		b.position((i % this.rowsPerSegment) * this.n);
+		b.put(src, 0, this.n);
+	}
+
+	/**
+	 * @return number of nodes.
+	 */
+	public int size() {
+		return this.n;
+	}
+}
@@ -0,0 +1,277 @@
+// SPDX-FileCopyrightText: 2020 Roberto Posenato <roberto.posenato@univr.it>
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+package it.univr.di.cstnu.algorithms;
+
+import java.util.Arrays;
+
+import it.univr.di.cstnu.algorithms.PriorityQueue.Status;
+
+/**
+ * Monotone priority queue where elements are the integers in [0, capacity) and priorities are integers.<br>
+ * It is a radix heap (R. K. Ahuja, K. Mehlhorn, J. Orlin, R. E. Tarjan, “Faster algorithms for the shortest path problem,”
+ * J. ACM, vol. 37, no. 2, pp. 213–223, 1990): an element is stored in the bucket given by the most significant bit in which its
+ * priority differs from the last extracted one. Buckets are doubly-linked lists stored in primitive arrays, so decreasing a
+ * priority costs O(1) and each element is moved between buckets at most 32 times.
+ * <p>
+ * The queue is <b>monotone</b>: the priority of an inserted or decreased element cannot be smaller than the last extracted
+ * priority. This is the case of Dijkstra's algorithm on non-negative (e.g., re-weighted) edges. The cost of a Dijkstra visit is then
+ * O(m + n log C), where C is the maximum edge value, instead of O(m log n).
+ * <p>
+ * As {@link PriorityQueue}, it maintains memory of elements that have been inserted and removed (see {@link #getStatus(int)}) and the
+ * priority they had when removed.
+ *
+ * @author posenato
+ */
+public class RadixPriorityQueue implements IndexedQueue {
+
+	/**
+	 * Number of buckets: bucket 0 contains elements having the last extracted priority, bucket i the ones differing from it in bit
+	 * i-1 as most significant bit.
+	 */
+	private static final int BUCKETS = Integer.SIZE + 1;
+
+	/**
+	 * Bucket value of an element never inserted.
+	 */
+	private static final int NOT_PRESENT = -1;
+
+	/**
+	 * Bucket value of an element inserted and removed.
+	 */
+	private static final int WAS_PRESENT = -2;
+
+	/**
+	 * @param priority a priority
+	 * @return the priority as unsigned int preserving the order.
+	 */
+	private static int unsigned(int priority) {
+		return priority ^ Integer.MIN_VALUE;
+	}
+
+	/**
+	 * Bucket of each element, or {@link #NOT_PRESENT} or {@link #WAS_PRESENT}.
+	 */
+	private final int[] bucket;
+
+	/**
+	 * First element of each bucket, -1 if the bucket is empty.
+	 */
+	private final int[] head = new int[BUCKETS];
+
+	/**
+	 * Last extracted priority as unsigned int (see {@link #unsigned(int)}).
+	 */
+	private int last;
+
+	/**
+	 * Next element in the same bucket, -1 if none.
+	 */
+	private final int[] next;
+
+	/**
+	 * Previous element in the same bucket, -1 if none.
+	 */
+	private final int[] prev;
+
+	/**
+	 * Priority of each element.
+	 */
+	private final int[] priority;
+
+	/**
+	 * Number of elements in the queue.
+	 */
+	private int size;
+
+	/**
+	 * @param capacity the elements of the queue are the integers in [0, capacity).
+	 */
+	public RadixPriorityQueue(int capacity) {
+		this.bucket = new int[capacity];
+		this.next = new int[capacity];
+		this.prev = new int[capacity];
+		this.priority = new int[capacity];
+		clear();
+	}
+
+	/**
+	 * @return the capacity of the queue.
+	 */
+	public int capacity() {
+		return this.bucket.length;
+	}
+
+	/**
+	 * Makes the queue empty, forgets all removed elements and resets the last extracted priority to {@link Integer#MIN_VALUE}.
+	 */
+	@Override
+	public void clear() {
+		Arrays.fill(this.bucket, NOT_PRESENT);
+		Arrays.fill(this.head, -1);
+		this.last = 0;
+		this.size = 0;
+	}
+
+	/**
+	 * Removes and returns the element with minimum priority. Its priority remains available by {@link #getPriority(int)}.
+	 *
+	 * @return the element with minimum priority.
+	 * @throws IllegalStateException if the queue is empty.
+	 */
+	@Override
+	public int extractMin() {
+		if (this.size == 0)
+			throw new IllegalStateException("The queue is empty.");
+		if (this.head[0] < 0) {
+			int b = 1;
+			while (this.head[b] < 0) {
+				b++;
+			}
+			// the new last priority is the minimum of bucket b; all its elements go to lower buckets.
+			int min = this.head[b];
+			for (int item = this.next[min]; item >= 0; item = this.next[item]) {
+				if (Integer.compareUnsigned(unsigned(this.priority[item]), unsigned(this.priority[min])) < 0)
+					min = item;
+			}
+			this.last = unsigned(this.priority[min]);
+			int item = this.head[b];
+			this.head[b] = -1;
+			while (item >= 0) {
+				final int following = this.next[item];
+				link(item);
+				item = following;
+			}
+		}
+		final int min = this.head[0];
+		unlink(min);
+		this.bucket[min] = WAS_PRESENT;
+		this.size--;
+		return min;
+	}
+
+	/**
+	 * @param item an element that is or was in the queue.
+	 * @return the current priority of the element if it is present, the priority it had when it was removed otherwise.
+	 * @throws IllegalArgumentException if the element has never been in the queue.
+	 */
+	@Override
+	public int getPriority(int item) {
+		if (this.bucket[item] == NOT_PRESENT)
+			throw new IllegalArgumentException("Element " + item + " has never been in the queue.");
+		return this.priority[item];
+	}
+
+	/**
+	 * @param item an element.
+	 * @return the status of the element with respect to this queue (see {@link Status}).
+	 */
+	@Override
+	public Status getStatus(int item) {
+		final int b = this.bucket[item];
+		if (b >= 0)
+			return Status.isPresent;
+		return (b == NOT_PRESENT) ? Status.notPresent : Status.wasPresent;
+	}
+
+	/**
+	 * Inserts the given element with the given priority or decreases its priority if it is present and the given one is smaller.
+	 * An element that was removed is not inserted again.
+	 *
+	 * @param item an element
+	 * @param newPriority the value of priority. It must not be smaller than the last extracted priority.
+	 * @return true if the operation was successful; false if the element was already removed and the new priority is lower than the
+	 *         removal one.
+	 * @throws IllegalArgumentException if <code>newPriority</code> is smaller than the last extracted priority.
+	 */
+	@Override
+	public boolean insertOrDecrease(int item, int newPriority) {
+		final int b = this.bucket[item];
+		if (b == WAS_PRESENT)
+			return newPriority >= this.priority[item];
+		if (b >= 0 && newPriority >= this.priority[item])
+			return true;
+		if (Integer.compareUnsigned(unsigned(newPriority), this.last) < 0)
+			throw new IllegalArgumentException("Priority " + newPriority + " is smaller than the last extracted one.");
+		if (b >= 0) {
+			unlink(item);
+		} else {
+			this.size++;
+		}
+		this.priority[item] = newPriority;
+		link(item);
+		return true;
+	}
+
+	/**
+	 * @return true if the queue is empty, false otherwise.
+	 */
+	@Override
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * @return the number of elements in the queue.
+	 */
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * @return a string representing the ordered queue w.r.t. the priority.
+	 */
+	@Override
+	public String toString() {
+		final long[] entries = new long[this.size];
+		int k = 0;
+		for (int b = 0; b < BUCKETS; b++) {
+			for (int item = this.head[b]; item >= 0; item = this.next[item]) {
+				entries[k++] = ((long) this.priority[item] << 32) | item;
+			}
+		}
+		Arrays.sort(entries);
+		final StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < this.size; i++) {
+			if (i > 0)
+				sb.append(", ");
+			sb.append((int) (entries[i] >> 32)).append("->").append((int) entries[i]);
+		}
+		return sb.append(']').toString();
+	}
+
+	/**
+	 * Adds <code>item</code> at the head of the bucket determined by its priority.
+	 *
+	 * @param item the element
+	 */
+	private void link(int item) {
+		final int diff = unsigned(this.priority[item]) ^ this.last;
+		final int b = (diff == 0) ? 0 : Integer.SIZE - Integer.numberOfLeadingZeros(diff);
+		final int first = this.head[b];
+		this.next[item] = first;
+		this.prev[item] = -1;
+		if (first >= 0)
+			this.prev[first] = item;
+		this.head[b] = item;
+		this.bucket[item] = b;
+	}
+
+	/**
+	 * Removes <code>item</code> from its bucket.
+	 *
+	 * @param item the element
+	 */
+	private void unlink(int item) {
+		final int p = this.prev[item], n = this.next[item];
+		if (p >= 0) {
+			this.next[p] = n;
+		} else {
+			this.head[this.bucket[item]] = n;
+		}
+		if (n >= 0)
+			this.prev[n] = p;
+	}
+}
@@ -12,7 +12,13 @@ import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Random;
 import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -25,7 +31,8 @@ import org.kohsuke.args4j.Option;
 import org.kohsuke.args4j.OptionHandlerFilter;
 import org.xml.sax.SAXException;
 
-import it.unimi.dsi.fastutil.objects.AbstractObject2IntMap.BasicEntry;
+import it.unimi.dsi.fastutil.ints.IntArrayFIFOQueue;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.objects.Object2IntLinkedOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
@@ -64,7 +71,11 @@ public class STN {
 		 */
 		AllPairsShortestPaths,
 		/**
-		 * 
+		 * All Pairs Shortest Paths by a multi-threaded blocked Floyd-Warshall (see {@link STN#getParallelism()})
+		 */
+		ParallelAllPairsShortestPaths,
+		/**
+		 * Bannister-Eppstein randomized Bellman-Ford
 		 */
 		BannisterEppstein,
 		/**
@@ -87,6 +98,14 @@ public class STN {
 		 * Johnson
 		 */
 		Johnson,
+		/**
+		 * Johnson with Dijkstra visits based on a radix heap (see {@link RadixPriorityQueue})
+		 */
+		JohnsonRadixHeap,
+		/**
+		 * Johnson with the Dijkstra visits executed by many threads (see {@link STN#getParallelism()})
+		 */
+		ParallelJohnson,
 		/**
 		 * Yen
 		 */
@@ -107,6 +126,17 @@ public class STN {
 	 * @author Roberto Posenato
 	 */
 	public static class STNCheckStatus {
+		/**
+		 * The clock is read by {@link #isInterrupted()} once every <code>TIMEOUT_CHECK_PERIOD</code> calls. It must be a power of 2.
+		 */
+		static final int TIMEOUT_CHECK_PERIOD = 64;
+
+		/**
+		 * Becomes true when the check is cancelled by the <code>cancel()</code> method of the checker.
+		 * The checking algorithms look at it cooperatively and stop as soon as possible.
+		 */
+		public volatile boolean cancelled = false;
+
 		/**
 		 * Consistency status (it is assumed true at the initialization).
 		 */
@@ -116,6 +146,13 @@ public class STN {
 		 * Counters about the # of application of different rules.
 		 */
 		public int cycles = 0;
+
+		/**
+		 * Expected number of cycles of the used algorithm, when it is known a priori (e.g., n/3 for Bannister-Eppstein).
+		 * It is 0 otherwise.
+		 */
+		public double expectedCycles = 0;
+
 		/**
 		 * Execution time in nanoseconds.
 		 */
@@ -128,9 +165,21 @@ public class STN {
 
 		/**
 		 * The list of LabeledNode representing a negative loop has been found (if the network is not consistent and the algorithm can build it).
+		 * The first node is repeated at the end of the list.
 		 */
 		public ObjectList<LabeledNode> negativeCycle = null;
 
+		/**
+		 * The edges of the negative cycle, if the network is not consistent and the algorithm can build it.
+		 * The i-th edge goes from the i-th node to the (i+1)-th node of {@link #negativeCycle}.
+		 */
+		public ObjectList<STNEdge> negativeCycleEdges = null;
+
+		/**
+		 * The sum of the values of the edges of {@link #negativeCycleEdges}, {@link Constants#INT_NULL} if there is no negative cycle.
+		 */
+		public int negativeCycleWeight = Constants.INT_NULL;
+
 		/**
 		 * The node with a negative loop in case that the grap is not consistent and the algorithm can determine only the node with negative loop.
 		 */
@@ -153,23 +202,95 @@ public class STN {
 		 */
 		public boolean timeout = false;
 
+		/**
+		 * Deadline of the check in {@link System#nanoTime()} units. It is meaningful only if {@link #withDeadline}.
+		 */
+		long deadline;
+
 		/**
 		 * Becomes true when all data structures have been initialized.
 		 */
 		boolean initialized = false;
 
 		/**
-		 * Reset all indexes.
+		 * Number of calls of {@link #isInterrupted()} since the clock has been read.
+		 */
+		int timeOutChecks;
+
+		/**
+		 * True if the check has a deadline.
+		 */
+		boolean withDeadline = false;
+
+		/**
+		 * Returns true if the check has been cancelled or its deadline has passed.<br>
+		 * It does not allocate any object and it reads the clock only once every {@value #TIMEOUT_CHECK_PERIOD} calls, so it can be called
+		 * for each processed edge or node. Therefore, the deadline can be detected with a delay of some iterations.
+		 * 
+		 * @return true if the check has to be stopped.
+		 */
+		public boolean isInterrupted() {
+			if (this.cancelled)
+				return true;
+			if (!this.withDeadline || (++this.timeOutChecks & (TIMEOUT_CHECK_PERIOD - 1)) != 0)
+				return false;
+			return System.nanoTime() - this.deadline >= 0;
+		}
+
+		/**
+		 * Sets the deadline of the check.
+		 * 
+		 * @param timeoutInstant the instant after which the check has to be stopped. If null, the check has no deadline.
+		 */
+		void setDeadline(Instant timeoutInstant) {
+			if (timeoutInstant == null) {
+				this.withDeadline = false;
+				return;
+			}
+			final long now = System.nanoTime();
+			long remaining;
+			try {
+				remaining = Duration.between(Instant.now(), timeoutInstant).toNanos();
+			} catch (final ArithmeticException e) {
+				remaining = Long.MAX_VALUE;
+			}
+			// a far deadline is equivalent to no deadline and it must not overflow.
+			this.withDeadline = remaining < Long.MAX_VALUE / 2;
+			this.deadline = now + remaining;
+			this.timeOutChecks = 0;
+		}
+
+		/**
+		 * Sets the deadline of the check.
+		 * 
+		 * @param timeOutSeconds number of seconds from now after which the check has to be stopped. If not positive, the check has no
+		 *            deadline.
+		 */
+		void setDeadline(int timeOutSeconds) {
+			this.withDeadline = timeOutSeconds > 0;
+			this.deadline = System.nanoTime() + timeOutSeconds * 1_000_000_000L;
+			this.timeOutChecks = 0;
+		}
+
+		/**
+		 * Reset all indexes.<br>
+		 * {@link #cancelled} is not reset because a check calls this method when it starts: a cancellation requested after the check has been
+		 * launched must not be lost. The flag is cleared by the <code>setG(...)</code> method of the checker.
 		 */
 		public void reset() {
+			this.withDeadline = false;
+			this.timeOutChecks = 0;
 			this.consistency = true;
 			this.cycles = 0;
+			this.expectedCycles = 0;
 			this.propagationCalls = 0;
 			this.executionTimeNS = this.stdDevExecutionTimeNS = Constants.INT_NULL;
 			this.finished = this.timeout = false;
 			this.initialized = false;
 			this.negativeLoopNode = null;
 			this.negativeCycle = null;
+			this.negativeCycleEdges = null;
+			this.negativeCycleWeight = Constants.INT_NULL;
 		}
 
 		/**
@@ -182,6 +303,8 @@ public class STN {
 			if (!this.finished)
 				sb.append(" NOT");
 			sb.append(" finished after ").append(this.cycles).append(" cycle(s).\n");
+			if (this.expectedCycles > 0)
+				sb.append("The expected number of cycles was ").append(this.expectedCycles).append(".\n");
 			if (this.finished) {
 				sb.append("The consistency check has determined that given network is ");
 				if (!this.consistency)
@@ -191,11 +314,18 @@ public class STN {
 			sb.append("Propagation has been applied ").append(this.propagationCalls).append(" times.\n");
 			if (this.timeout)
 				sb.append("The checking has been interrupted because execution time exceeds the given time limit.\n");
+			if (this.cancelled)
+				sb.append("The checking has been cancelled.\n");
 			if (!this.consistency && this.negativeLoopNode != null) {
 				sb.append("The negative loop is on node " + this.negativeLoopNode + "\n");
 			}
 			if (!this.consistency && this.negativeCycle != null) {
-				sb.append("The negative cycle is " + this.negativeCycle.toString() + "\n");
+				sb.append("The negative cycle is " + this.negativeCycle.toString());
+				if (this.negativeCycleEdges != null)
+					sb.append(" with edges ").append(this.negativeCycleEdges.toString());
+				if (this.negativeCycleWeight != Constants.INT_NULL)
+					sb.append(" and its weight is ").append(this.negativeCycleWeight);
+				sb.append("\n");
 			}
 			if (this.executionTimeNS != Constants.INT_NULL)
 				sb.append("The global execution time has been ").append(this.executionTimeNS).append(" ns (~")
@@ -288,8 +418,10 @@ public class STN {
 	 * AllPairShortestPath(AllPairsShortestPaths)<br>
 	 * Determines the minimal distance between all pair of vertexes modifying the
 	 * given using the Floyd-Warshall algorithm. If the graph contains a negative
-	 * cycle, it returns false and the graph contains the edges that have determined
-	 * the negative cycle.
+	 * cycle, it returns false and the graph is not modified.
+	 * <p>
+	 * The graph is copied into a {@link DistanceMatrix}, the blocked Floyd-Warshall algorithm is executed on it, and only the
+	 * edges whose value is improved or that are new (as {@link ConstraintType#derived} edges) are written back into the graph.
 	 * 
 	 * @param graph the graph to complete
 	 * @param checkStatus1 possible status to fill during the computation. It can be
@@ -298,71 +430,215 @@ public class STN {
 	 *         false, the edges do not represent the minimal distance between nodes.
 	 */
 	static boolean apsp(TNGraph<STNEdge> graph, STNCheckStatus checkStatus1) {
-		final LabeledNode[] node = graph.getVerticesArray();
-		final int n = node.length;
-		LabeledNode iV, jV, kV;
-		STNEdge ik, kj, ij;
-		int v;
+		return apsp(graph, checkStatus1, 1);
+	}
 
-		for (int k = 0; k < n; k++) {
-			kV = node[k];
-			for (int i = 0; i < n; i++) {
-				iV = node[i];
-				for (int j = 0; j < n; j++) {
-					if ((k == i) || (k == j)) {
-						continue;
-					}
-					jV = node[j];
+	/**
+	 * As {@link #apsp(TNGraph, STNCheckStatus)}, but the Floyd-Warshall algorithm is executed by <code>parallelism</code> threads.
+	 *
+	 * @param graph the graph to complete
+	 * @param checkStatus1 possible status to fill during the computation. It can be
+	 *            null.
+	 * @param parallelism number of threads. If it is 1, the computation is sequential. If it is not positive, the number of available
+	 *            processors is used.
+	 * @return true if the graph is consistent, false otherwise.
+	 */
+	static boolean apsp(TNGraph<STNEdge> graph, STNCheckStatus checkStatus1, int parallelism) {
+		final DistanceMatrix distance = DistanceMatrix.of(graph);
+		final int nThreads = (parallelism > 0) ? parallelism : Runtime.getRuntime().availableProcessors();
+		final boolean consistent;
+		if (nThreads == 1) {
+			consistent = distance.floydWarshall();
+		} else {
+			final ForkJoinPool pool = new ForkJoinPool(nThreads);
+			try {
+				consistent = distance.floydWarshall(pool);
+			} finally {
+				pool.shutdown();
+			}
+		}
+		if (checkStatus1 != null) {
+			checkStatus1.cycles += distance.size();
+			checkStatus1.consistency = consistent;
+			checkStatus1.finished = true;
+		}
+		if (!consistent) {
+			final LabeledNode node = graph.getNode(distance.getNegativeCycleNode());
+			if (checkStatus1 != null) {
+				checkStatus1.negativeLoopNode = node;
+			}
+			STN.LOG.info("Found a negative cycle on node " + node.getName());
+			return false;
+		}
+		final int modified = distance.writeTo(graph);
+		if (checkStatus1 != null) {
+			checkStatus1.propagationCalls += modified;
+		}
+		return true;
+	}
 
-					ik = graph.findEdge(iV, kV);
-					kj = graph.findEdge(kV, jV);
-					if ((ik == null) || (kj == null)) {
-						continue;
-					}
-					v = Constants.sumWithOverflowCheck(ik.getValue(), kj.getValue());
+	/**
+	 * Determines the minimal distance between source node and any node using the randomized Bellman-Ford algorithm presented in<br>
+	 * M. J. Bannister and D. Eppstein, “Randomized Speedup of the Bellman-Ford Algorithm,”<br>
+	 * in Proc. of the Meeting on Analytic Algorithmics and Combinatorics (ANALCO 2012), pp. 41–47, 2012.<br>
+	 * Nodes are randomly permuted (source first) and each cycle is made by a forward pass, that considers the nodes in permutation order
+	 * relaxing only the edges to later nodes, followed by a backward pass, that considers the nodes in reverse order relaxing only the
+	 * edges to earlier nodes. A node is considered in a pass only if its distance has been modified after the last time it was considered in
+	 * the same kind of pass. The algorithm stops as soon as a cycle does not modify any distance.
+	 * The expected number of cycles is at most n/3, while it is n/2 in the worst case for {@link #yenAlgorithm(boolean, boolean)}.
+	 * Hence, a negative cycle is reported when a distance is still modified after n/2+1 cycles or when the distance of the source becomes
+	 * negative.<br>
+	 * The minimal distance is stored as potential value in each node.
+	 * 
+	 * @param g1 input graph. If it is null, the method returns false.
+	 * @param source the source node. If it is null or not present in the g1, the method returns false.
+	 * @param rnd the random generator used for determining the permutation of nodes.
+	 * @param checkStatus1 status to update with statistics of algorithm. It can be null.
+	 * @return true if the graph is consistent, false otherwise.
+	 */
+	@edu.umd.cs.findbugs.annotations.SuppressFBWarnings(value = "DMI_RANDOM_USED_ONLY_ONCE", justification = "The generator is given by the caller.")
+	static boolean bannisterEppstein(TNGraph<STNEdge> g1, LabeledNode source, Random rnd, STNCheckStatus checkStatus1) {
+		if (g1 == null || source == null)
+			return false;
+		final int sourceIndex = g1.getNodeIndex(source);
+		if (sourceIndex == Constants.INT_NULL)
+			return false;
+		final int n = g1.getVertexCount();
 
-					if (i == j) {
-						if (v < 0) {
-							// check negative cycles
-							STN.LOG.info("Found a negative cycle on node " + iV.getName() + "\nDetails: ik=" + ik
-									+ ", kj=" + kj + ",  v=" + v);
-							if (checkStatus1 != null) {
-								checkStatus1.consistency = false;
-								checkStatus1.finished = true;
-							}
-							return false;
-						}
-						continue;
-					}
+		// random permutation with the source in the first position
+		final int[] perm = new int[n];
+		final int[] pos = new int[n];
+		for (int i = 0; i < n; i++) {
+			perm[i] = i;
+		}
+		perm[sourceIndex] = 0;
+		perm[0] = sourceIndex;
+		for (int i = n - 1; i > 1; i--) {
+			final int j = 1 + rnd.nextInt(i);
+			final int t = perm[i];
+			perm[i] = perm[j];
+			perm[j] = t;
+		}
+		for (int i = 0; i < n; i++) {
+			pos[perm[i]] = i;
+		}
 
-					ij = graph.findEdge(iV, jV);
-					int old = Constants.INT_POS_INFINITE;
-					if (ij == null) {
-						ij = makeNewEdge(graph, node[i].getName() + "_" + node[j].getName(), ConstraintType.derived);
-						graph.addEdge(ij, iV, jV);
-						if (Debug.ON) {
-							STN.LOG.finer("Added edge " + ij.toString());
-						}
-					} else {
-						old = ij.getValue();
+		/*
+		 * Edges are split into the forward ones (to later nodes) and the backward ones (to earlier nodes) and stored as compressed rows indexed
+		 * by node position. In this way each pass scans only the edges it can relax.
+		 */
+		final int[] fwdStart = new int[n + 1];
+		final int[] bwdStart = new int[n + 1];
+		for (int u = 0; u < n; u++) {
+			for (int slot = g1.firstOutSlot(u); slot >= 0; slot = g1.nextOutSlot(u, slot)) {
+				if (g1.outEdgeAt(u, slot).isEmpty())
+					continue;
+				final int v = g1.outNodeAt(u, slot);
+				if (pos[v] > pos[u]) {
+					fwdStart[pos[u] + 1]++;
+				} else if (pos[v] < pos[u]) {
+					bwdStart[pos[u] + 1]++;
+				}
+			}
+		}
+		for (int p = 0; p < n; p++) {
+			fwdStart[p + 1] += fwdStart[p];
+			bwdStart[p + 1] += bwdStart[p];
+		}
+		final int[] fwdDest = new int[fwdStart[n]];
+		final int[] fwdValue = new int[fwdStart[n]];
+		final int[] bwdDest = new int[bwdStart[n]];
+		final int[] bwdValue = new int[bwdStart[n]];
+		final int[] fwdFill = Arrays.copyOf(fwdStart, n);
+		final int[] bwdFill = Arrays.copyOf(bwdStart, n);
+		for (int u = 0; u < n; u++) {
+			final int pu = pos[u];
+			for (int slot = g1.firstOutSlot(u); slot >= 0; slot = g1.nextOutSlot(u, slot)) {
+				final STNEdge e = g1.outEdgeAt(u, slot);
+				if (e.isEmpty())
+					continue;
+				final int pv = pos[g1.outNodeAt(u, slot)];
+				if (pv > pu) {
+					fwdDest[fwdFill[pu]] = pv;
+					fwdValue[fwdFill[pu]++] = e.getValue();
+				} else if (pv < pu) {
+					bwdDest[bwdFill[pu]] = pv;
+					bwdValue[bwdFill[pu]++] = e.getValue();
+				}
+			}
+		}
+
+		// distances, parents, and pass flags are indexed by node position
+		final int[] distance = new int[n];
+		final int[] parent = new int[n];
+		final boolean[] toForward = new boolean[n];
+		final boolean[] toBackward = new boolean[n];
+		Arrays.fill(distance, Constants.INT_POS_INFINITE);
+		Arrays.fill(parent, -1);
+		distance[0] = 0;
+		toForward[0] = toBackward[0] = true;
+
+		final int maxCycles = n / 2 + 1;
+		if (checkStatus1 != null) {
+			checkStatus1.expectedCycles = n / 3.0;
+		}
+		int cycles = 0, relaxations = 0, lastModified = -1;
+		boolean modified = true;
+		while (modified) {
+			if (cycles >= maxCycles) {
+				// a distance is still decreasing
+				return negativeCycleFound(g1, perm, parent, lastModified, cycles, relaxations, checkStatus1);
+			}
+			if (checkTimeOutAndAdjustStatus(checkStatus1))
+				return false;
+			cycles++;
+			modified = false;
+			for (int p = 0; p < n; p++) {
+				if (!toForward[p])
+					continue;
+				toForward[p] = false;
+				final int dp = distance[p];
+				for (int k = fwdStart[p], end = fwdStart[p + 1]; k < end; k++) {
+					final int q = fwdDest[k];
+					final int v = Constants.sumWithOverflowCheck(dp, fwdValue[k]);
+					if (v < distance[q]) {
+						distance[q] = v;
+						parent[q] = p;
+						toForward[q] = toBackward[q] = modified = true;
+						lastModified = q;
+						relaxations++;
 					}
-					if (old > v) {
-						ij.setValue(v);
-						if (checkStatus1 != null) {
-							checkStatus1.propagationCalls++;
-						}
-						if (Debug.ON) {
-							STN.LOG.fine("Edge " + ij.getName() + ": " + Constants.formatInt(old) + " --> "
-									+ Constants.formatInt(v) + " because result of " + ik + " + " + kj);
+				}
+			}
+			for (int p = n; --p >= 0;) {
+				if (!toBackward[p])
+					continue;
+				toBackward[p] = false;
+				final int dp = distance[p];
+				for (int k = bwdStart[p], end = bwdStart[p + 1]; k < end; k++) {
+					final int q = bwdDest[k];
+					final int v = Constants.sumWithOverflowCheck(dp, bwdValue[k]);
+					if (v < distance[q]) {
+						if (q == 0) {
+							// the distance of the source can become negative only through a negative cycle
+							parent[q] = p;
+							return negativeCycleFound(g1, perm, parent, q, cycles, relaxations + 1, checkStatus1);
 						}
+						distance[q] = v;
+						parent[q] = p;
+						toForward[q] = toBackward[q] = modified = true;
+						lastModified = q;
+						relaxations++;
 					}
 				}
 			}
-			if (checkStatus1 != null) {
-				checkStatus1.cycles++;
-			}
+		}
+		for (int p = 0; p < n; p++) {
+			g1.getNode(perm[p]).setPotential(distance[p]);
 		}
 		if (checkStatus1 != null) {
+			checkStatus1.cycles += cycles;
+			checkStatus1.propagationCalls += relaxations;
 			checkStatus1.consistency = true;
 			checkStatus1.finished = true;
 		}
@@ -373,7 +649,8 @@ public class STN {
 	 * Determines the minimal distance between source node and any node (or any node
 	 * and the sink (called source) if backward) using the BellmanFord algorithm.
 	 * The minimal distance is stored as potential value in each node. If the graph
-	 * contains a negative cycle, it returns false.
+	 * contains a negative cycle, it returns false and, if <code>checkStatus1</code> is not null, the cycle is stored in
+	 * {@link STNCheckStatus#negativeCycle} and {@link STNCheckStatus#negativeCycleEdges}.
 	 * 
 	 * @param g1 input graph. If it is null, the method returns.
 	 * @param source the source node. If it is null or not present in the g1, the method returns.
@@ -395,8 +672,12 @@ public class STN {
 			node.setPotential(Constants.INT_POS_INFINITE);
 		}
 		source.setPotential(0);
+		// edge used for the last update of the potential of each node
+		final STNEdge[] parentEdge = new STNEdge[n];
 		LabeledNode s, d;
 		for (int i = 1; i < n; i++) {// n-1 rounds
+			if (checkTimeOutAndAdjustStatus(checkStatus1))
+				return false;
 			for (STNEdge e : edges) {
 				if (backward) {// for single sink, each edge is reversed
 					d = g1.getSource(e);
@@ -412,6 +693,7 @@ public class STN {
 								+ " --> " + Constants.formatInt(v));
 					}
 					d.setPotential(v);
+					parentEdge[g1.getNodeIndex(d)] = e;
 					if (checkStatus1 != null)
 						checkStatus1.propagationCalls++;
 				}
@@ -436,6 +718,8 @@ public class STN {
 					checkStatus1.consistency = false;
 					checkStatus1.finished = true;
 					checkStatus1.negativeLoopNode = d;
+					parentEdge[g1.getNodeIndex(d)] = e;
+					setNegativeCycle(g1, parentCycle(g1, parentEdge, g1.getNodeIndex(d), backward), checkStatus1);
 				}
 				return false;
 			}
@@ -451,8 +735,8 @@ public class STN {
 	/**
 	 * Implementation of the Bellman-Ford-Tarjan algorithm.
 	 * Such an algorithm is the Bellman-Ford aumented by a cycle detection routine called 'Subtree disassembly' written by Tarjan.
-	 * If the STN graph is not consistent and the checkStatus parameter is not null, then the negative cycle is stored in the field
-	 * {@link STNCheckStatus#negativeCycle}
+	 * If the STN graph is not consistent and the checkStatus parameter is not null, then the negative cycle is stored in the fields
+	 * {@link STNCheckStatus#negativeCycle} and {@link STNCheckStatus#negativeCycleEdges}.
 	 * 
 	 * @param g1 The STN graph
 	 * @param source the starting node. If the
@@ -492,11 +776,17 @@ public class STN {
 
 		int n = 0;
 		while (!q.isEmpty()) {
+			if (checkTimeOutAndAdjustStatus(checkStatus1)) {
+				removeInternalEdgesWithPrefix(g1, source, prefix);
+				return false;
+			}
 			LabeledNode nodeX = q.dequeue();
 
 			if (nodeX.getStatus() == LabeledNode.Status.LABELED) {
-				for (STNEdge e : g1.getOutEdges(nodeX)) {
-					LabeledNode nodeY = g1.getDest(e);
+				final int nodeXIndex = g1.getNodeIndex(nodeX);
+				for (int slot = g1.firstOutSlot(nodeXIndex); slot >= 0; slot = g1.nextOutSlot(nodeXIndex, slot)) {
+					STNEdge e = g1.outEdgeAt(nodeXIndex, slot);
+					LabeledNode nodeY = g1.getNode(g1.outNodeAt(nodeXIndex, slot));
 					int delta = Constants.sumWithOverflowCheck(nodeY.getPotential(), Constants.sumWithOverflowCheck(-nodeX.getPotential(), -e.getValue()));
 					if (delta > 0) {
 						nodeY.setPotential(Constants.sumWithOverflowCheck(nodeY.getPotential(), -delta));
@@ -525,7 +815,7 @@ public class STN {
 							if (checkStatus1 != null) {
 								checkStatus1.consistency = false;
 								checkStatus1.finished = true;
-								checkStatus1.negativeCycle = cycle;
+								setNegativeCycle(g1, cycle, checkStatus1);
 							}
 							removeInternalEdgesWithPrefix(g1, source, prefix);
 							return false;
@@ -546,23 +836,22 @@ public class STN {
 	}
 
 	/**
-	 * Stops a computation if current instant is after the
-	 * <code>timeoutInstant</code> setting <code>status.timeout=true</code>.<br>
+	 * Stops a computation if the check has been cancelled or its deadline has passed (see {@link STNCheckStatus#isInterrupted()}).
+	 * In the second case, it sets <code>status.timeout=true</code>.<br>
 	 * As courtesy, it sets also
 	 * <code>status.consistency=status.finished=false</code>.
 	 * 
-	 * @param timeoutInstant timeout instant
-	 * @param status status of the check
-	 * @return true if timeOut has been reached.
+	 * @param status status of the check. If null, it returns false.
+	 * @return true if the check has been cancelled or timeOut has been reached.
 	 */
-	static final boolean checkTimeOutAndAdjustStatus(Instant timeoutInstant, STNCheckStatus status) {
-		if (Instant.now().isAfter(timeoutInstant)) {
+	static final boolean checkTimeOutAndAdjustStatus(STNCheckStatus status) {
+		if (status != null && status.isInterrupted()) {
 			if (Debug.ON) {
 				if (LOG.isLoggable(Level.FINE)) {
-					LOG.log(Level.FINE, "Time out occurred!");
+					LOG.log(Level.FINE, (status.cancelled) ? "Check cancelled!" : "Time out occurred!");
 				}
 			}
-			status.timeout = true;
+			status.timeout = !status.cancelled;
 			status.consistency = false;
 			status.finished = false;
 			return true;
@@ -611,66 +900,142 @@ public class STN {
 	 */
 	static Object2IntMap<LabeledNode> dijkstraReadOnly(TNGraph<STNEdge> graph, LabeledNode source,
 			STNCheckStatus checkStatus1) {
-		if (graph == null)
+		if (graph == null || source == null)
 			return null;
-		final Collection<LabeledNode> nodes = graph.getVertices();
-		final int n = nodes.size();
-		if (source == null || !nodes.contains(source))
+		final int sourceIndex = graph.getNodeIndex(source);
+		if (sourceIndex == Constants.INT_NULL)
 			return null;
-		int v;
-
-		PriorityQueue<LabeledNode> nodeQueue = new PriorityQueue<>();
-
-		for (LabeledNode node : nodes) {
-			nodeQueue.insertOrDecrease(node, Constants.INT_POS_INFINITE);
+		final int n = graph.getVertexCount();
+		final int[] distance = new int[n];
+		if (!dijkstra(graph, sourceIndex, new IndexedPriorityQueue(n), distance, checkStatus1))
+			return null;
+		if (checkStatus1 != null) {
+			checkStatus1.cycles = n;
+			checkStatus1.consistency = true;
+			checkStatus1.finished = true;
 		}
-		nodeQueue.insertOrDecrease(source, 0);
-
-		LabeledNode s, d;
-		BasicEntry<LabeledNode> entry;
-		int sValue, eValue;
-
-		while (nodeQueue.size() > 0) {
-			entry = nodeQueue.extractMinEntry();
-			s = entry.getKey();
-			sValue = entry.getIntValue();
+		final Object2IntMap<LabeledNode> nodeDistances = new Object2IntLinkedOpenHashMap<>(n);
+		for (int i = 0; i < n; i++) {
+			nodeDistances.put(graph.getNode(i), distance[i]);
+		}
+		if (Debug.ON) {
+			LOG.finer("Dijkstra: determined node distances: " + nodeDistances.toString());
+		}
+		return nodeDistances;
+	}
 
+	/**
+	 * Core of the Dijkstra algorithm working on node indexes.<br>
+	 * It determines the minimal distance between the source and any node using the given queue, that must be empty.
+	 * The queue can be an {@link IndexedPriorityQueue} or, since edges are not negative, a monotone {@link RadixPriorityQueue}.
+	 * Edges outgoing from the source can be negative. Empty edges are ignored.
+	 *
+	 * @param graph input graph. Each edge must have a non-negative weight but the edges outgoing from source.
+	 * @param sourceIndex the index of the source node.
+	 * @param queue an empty queue having capacity at least equal to the number of nodes.
+	 * @param distance array (having length at least equal to the number of nodes) where the distance of each node is stored.
+	 *            {@link Constants#INT_POS_INFINITE} represents an unreachable node.
+	 * @param checkStatus1 status to update with statistics of algorithm. It can be null.
+	 * @return false if a negative edge beyond the source outgoing edges has been found, true otherwise.
+	 */
+	static boolean dijkstra(TNGraph<STNEdge> graph, int sourceIndex, IndexedQueue queue, int[] distance, STNCheckStatus checkStatus1) {
+		Arrays.fill(distance, 0, graph.getVertexCount(), Constants.INT_POS_INFINITE);
+		distance[sourceIndex] = 0;
+		// The source is scanned before any extraction, so that its negative edges do not violate a monotone queue.
+		for (int u = sourceIndex;; u = queue.extractMin()) {
+			final int du = distance[u];
 			if (Debug.ON) {
-				STN.LOG.finer("Dijkstra. Considering node " + s.getName() + " having distance " + sValue);
-			}
-			for (STNEdge e : graph.getOutEdges(s)) {
-				d = graph.getDest(e);
-				eValue = e.getValue();
-				if (!s.equalsByName(source) && eValue < 0) {// s != source is for allowing the use of Dijkstra when the
-															// edges from source are negative (it is a
-															// particular use od Dijkstra algorithm).
+				STN.LOG.finer("Dijkstra. Considering node " + graph.getNode(u).getName() + " having distance " + du);
+			}
+			for (int slot = graph.firstOutSlot(u); slot >= 0; slot = graph.nextOutSlot(u, slot)) {
+				final STNEdge e = graph.outEdgeAt(u, slot);
+				if (e.isEmpty())
+					continue;
+				final int v = graph.outNodeAt(u, slot);
+				final int eValue = e.getValue();
+				if (u != sourceIndex && eValue < 0) {
+					// u != source is for allowing the use of Dijkstra when the edges from source are negative (it is a particular use of
+					// Dijkstra algorithm).
 					if (Debug.ON) {
-						STN.LOG.finer("Dijkstra edge " + e + " has a negative value but it shouldn't. Source is " + source.getName()
-								+ ". Destination is " + d.getName());
+						STN.LOG.finer("Dijkstra edge " + e + " has a negative value but it shouldn't. Source is "
+								+ graph.getNode(sourceIndex).getName() + ". Destination is " + graph.getNode(v).getName());
 					}
-					return null;
+					return false;
 				}
-				v = Constants.sumWithOverflowCheck(sValue, eValue);
-				if (nodeQueue.getStatus(d) == PriorityQueue.Status.isPresent && nodeQueue.value(d) > v) {
+				final int newValue = Constants.sumWithOverflowCheck(du, eValue);
+				if (v != sourceIndex && newValue < distance[v] && queue.getStatus(v) != PriorityQueue.Status.wasPresent) {
 					if (Debug.ON) {
-						STN.LOG.finer("Dijkstra updates '" + d.getName() + "' node potential adding edge value " + eValue
-								+ ": " + Constants.formatInt(nodeQueue.value(d)) + " --> " + Constants.formatInt(v));
+						STN.LOG.finer("Dijkstra updates '" + graph.getNode(v).getName() + "' node potential adding edge value " + eValue
+								+ ": " + Constants.formatInt(distance[v]) + " --> " + Constants.formatInt(newValue));
 					}
-					nodeQueue.insertOrDecrease(d, v);
+					distance[v] = newValue;
+					queue.insertOrDecrease(v, newValue);
 					if (checkStatus1 != null)
 						checkStatus1.propagationCalls++;
 				}
 			}
+			if (queue.isEmpty())
+				return true;
 		}
-		if (checkStatus1 != null) {
-			checkStatus1.cycles = n;
-			checkStatus1.consistency = true;
-			checkStatus1.finished = true;
-		}
-		if (Debug.ON) {
-			LOG.finer("Dijkstra: determined node distances: " + nodeQueue.getAllDeterminedPriorities().toString());
+	}
+
+	/**
+	 * Determines a feasible potential of the graph, i.e., an assignment p of integers to nodes such that p(v) &le; p(u) + w for each edge
+	 * (u, v, w).<br>
+	 * It is the Bellman-Ford algorithm (FIFO queue version) from a virtual source connected to each node by an edge with value 0.
+	 * Therefore, the potential is the minimal distance from the virtual source and it is never positive.
+	 * Nodes are identified by their index in the graph.
+	 * 
+	 * @param g1 input graph. If it is null, the method returns null.
+	 * @param checkStatus1 status to update with statistics of algorithm. It can be null.
+	 * @return the feasible potential, null if the graph contains a negative cycle.
+	 */
+	static int[] feasiblePotential(TNGraph<STNEdge> g1, STNCheckStatus checkStatus1) {
+		if (g1 == null)
+			return null;
+		final int n = g1.getVertexCount();
+		final int[] potential = new int[n];// all 0 as from the virtual source
+		final int[] length = new int[n];// # of edges of the current shortest path from the virtual source
+		final boolean[] inQueue = new boolean[n];
+		final IntArrayFIFOQueue queue = new IntArrayFIFOQueue(n);
+		for (int i = 0; i < n; i++) {
+			queue.enqueue(i);
+			inQueue[i] = true;
+		}
+		while (!queue.isEmpty()) {
+			if (checkTimeOutAndAdjustStatus(checkStatus1))
+				return null;
+			final int u = queue.dequeueInt();
+			inQueue[u] = false;
+			final int pu = potential[u];
+			for (int slot = g1.firstOutSlot(u); slot >= 0; slot = g1.nextOutSlot(u, slot)) {
+				final STNEdge e = g1.outEdgeAt(u, slot);
+				if (e.isEmpty())
+					continue;
+				final int v = g1.outNodeAt(u, slot);
+				final int value = Constants.sumWithOverflowCheck(pu, e.getValue());
+				if (value < potential[v]) {
+					potential[v] = value;
+					length[v] = length[u] + 1;
+					if (checkStatus1 != null)
+						checkStatus1.propagationCalls++;
+					if (length[v] > n) {
+						if (checkStatus1 != null) {
+							checkStatus1.consistency = false;
+							checkStatus1.negativeLoopNode = g1.getNode(v);
+						}
+						return null;
+					}
+					if (!inQueue[v]) {
+						queue.enqueue(v);
+						inQueue[v] = true;
+					}
+				}
+			}
 		}
-		return nodeQueue.getAllDeterminedPriorities();
+		if (checkStatus1 != null)
+			checkStatus1.consistency = true;
+		return potential;
 	}
 
 	/**
@@ -686,6 +1051,42 @@ public class STN {
 	 * @return true if the graph is consistent, false otherwise.
 	 */
 	static boolean johnson(TNGraph<STNEdge> g1, int horizon, STNCheckStatus checkStatus1) {
+		return johnson(g1, horizon, false, 1, checkStatus1);
+	}
+
+	/**
+	 * As {@link #johnson(TNGraph, int, STNCheckStatus)}, but the Dijkstra visits from each node can use a {@link RadixPriorityQueue}.
+	 * Since the visits are made on the re-weighted graph, where edges are not negative, the radix heap is applicable and each visit costs
+	 * O(m + n log C), where C is the maximum re-weighted edge value.
+	 * 
+	 * @param g1 input graph
+	 * @param horizon the maximum edge value present in the graph. It is
+	 *            necessary for guaranteeing that Z reaches any nodes.
+	 * @param radixHeap true if Dijkstra visits have to use a {@link RadixPriorityQueue}, false for an {@link IndexedPriorityQueue}.
+	 * @param checkStatus1 status to update with statistics of algorithm. It can be null.
+	 * @return true if the graph is consistent, false otherwise.
+	 */
+	static boolean johnson(TNGraph<STNEdge> g1, int horizon, boolean radixHeap, STNCheckStatus checkStatus1) {
+		return johnson(g1, horizon, radixHeap, 1, checkStatus1);
+	}
+
+	/**
+	 * As {@link #johnson(TNGraph, int, boolean, STNCheckStatus)}, but the Dijkstra visits are executed by <code>parallelism</code>
+	 * threads.<br>
+	 * After the re-weighting, the visits only read the graph, so the sources are split in chunks and each chunk is visited by a task of a
+	 * {@link ForkJoinPool} having its own queue and distance array. The resulting distances are then written into the graph by a single
+	 * writer pass.
+	 * 
+	 * @param g1 input graph
+	 * @param horizon the maximum edge value present in the graph. It is
+	 *            necessary for guaranteeing that Z reaches any nodes.
+	 * @param radixHeap true if Dijkstra visits have to use a {@link RadixPriorityQueue}, false for an {@link IndexedPriorityQueue}.
+	 * @param parallelism number of threads. If it is 1, the computation is sequential. If it is not positive, the number of available
+	 *            processors is used.
+	 * @param checkStatus1 status to update with statistics of algorithm. It can be null.
+	 * @return true if the graph is consistent, false otherwise.
+	 */
+	static boolean johnson(TNGraph<STNEdge> g1, int horizon, boolean radixHeap, int parallelism, STNCheckStatus checkStatus1) {
 		// I cannot trust that Z can reach any node
 		// I add an edge Z-->node for each node with horizon value.
 		if (Debug.ON) {
@@ -719,36 +1120,72 @@ public class STN {
 		}
 
 		// Determine the distances from each node updating the edge in the finalG
-		for (LabeledNode source : g1.getVertices()) {
-			if (Debug.ON) {
-				LOG.finer("\nDetermining the distances considering node " + source.getName()
-						+ " as source node using Dijkstra.");
-			}
-			if (source.getName().equals("3"))
-				System.out.print("Eccoci");
-			// Dijkstra determines distances from source
-			Object2IntMap<LabeledNode> nodeDistanceFromSource = dijkstraReadOnly(g1, source, checkStatus1);
-
-			// for each other node, adjust the distance from source in finalG
-			for (LabeledNode d : g1.getVertices()) {
-				if (d == source)
-					continue;
-
-				// new potential value is the value of the edge in Dijkstra + the original potential
-				// difference between destination and source: DijkstraDistance + (d - s)
-				int newEdgeSDValue = Constants.sumWithOverflowCheck(nodeDistanceFromSource.getInt(d),
-						Constants.sumWithOverflowCheck(d.getPotential(), -source.getPotential()));
-				STNEdge edgeSD = finalG.findEdge(source.getName(), d.getName());
-				if (edgeSD == null) {
-					// D is reachable from S, but there is no a direct edge.
-					// Johnson assumes to save the value of the edge... so we add it as internal.
-					edgeSD = makeNewEdge(finalG, source.getName() + "_" + d.getName(), ConstraintType.internal);
-					finalG.addEdge(edgeSD, source, d);
-				}
+		final int n = g1.getVertexCount();
+		final int nThreads = (parallelism > 0) ? parallelism : Runtime.getRuntime().availableProcessors();
+		if (nThreads == 1) {
+			final IndexedQueue queue = (radixHeap) ? new RadixPriorityQueue(n) : new IndexedPriorityQueue(n);
+			final int[] nodeDistanceFromSource = new int[n];
+			for (int sourceIndex = 0; sourceIndex < n; sourceIndex++) {
 				if (Debug.ON) {
-					LOG.finer("Adjusting edge value for edge" + edgeSD + " from " + edgeSD.getValue() + " to " + newEdgeSDValue);
+					LOG.finer("\nDetermining the distances considering node " + g1.getNode(sourceIndex).getName()
+							+ " as source node using Dijkstra.");
+				}
+				if (checkTimeOutAndAdjustStatus(checkStatus1)) {
+					removeInternalEdgesWithPrefix(g1, Z, prefix);
+					return false;
+				}
+				// Dijkstra determines distances from source
+				queue.clear();
+				if (!dijkstra(g1, sourceIndex, queue, nodeDistanceFromSource, checkStatus1)) {
+					throw new IllegalStateException("Dijkstra found a negative edge in the re-weighted graph.");
+				}
+				johnsonSetEdges(g1, finalG, sourceIndex, nodeDistanceFromSource);
+			}
+		} else {
+			final int[][] distances = new int[n][];
+			final int chunk = Math.max(1, (n + 4 * nThreads - 1) / (4 * nThreads));
+			final ObjectArrayList<Callable<STNCheckStatus>> tasks = new ObjectArrayList<>();
+			for (int s0 = 0; s0 < n; s0 += chunk) {
+				final int first = s0, last = Math.min(s0 + chunk, n);
+				tasks.add(() -> {
+					final STNCheckStatus status = new STNCheckStatus();
+					final IndexedQueue queue = (radixHeap) ? new RadixPriorityQueue(n) : new IndexedPriorityQueue(n);
+					final int[] nodeDistanceFromSource = new int[n];
+					for (int sourceIndex = first; sourceIndex < last; sourceIndex++) {
+						if (checkStatus1 != null && checkStatus1.cancelled)
+							break;// the writer pass is skipped
+						queue.clear();
+						if (!dijkstra(g1, sourceIndex, queue, nodeDistanceFromSource, status)) {
+							throw new IllegalStateException("Dijkstra found a negative edge in the re-weighted graph.");
+						}
+						distances[sourceIndex] = Arrays.copyOf(nodeDistanceFromSource, n);
+					}
+					return status;
+				});
+			}
+			final ForkJoinPool pool = new ForkJoinPool(nThreads);
+			try {
+				for (final Future<STNCheckStatus> result : pool.invokeAll(tasks)) {
+					final STNCheckStatus status = result.get();
+					if (checkStatus1 != null)
+						checkStatus1.propagationCalls += status.propagationCalls;
 				}
-				edgeSD.setValue(newEdgeSDValue);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Johnson has been interrupted.", e);
+			} catch (ExecutionException e) {
+				throw new IllegalStateException("Johnson failed: " + e.getCause().getMessage(), e.getCause());
+			} finally {
+				pool.shutdown();
+			}
+			if (checkTimeOutAndAdjustStatus(checkStatus1)) {
+				removeInternalEdgesWithPrefix(g1, Z, prefix);
+				return false;
+			}
+			// single writer pass
+			for (int sourceIndex = 0; sourceIndex < n; sourceIndex++) {
+				johnsonSetEdges(g1, finalG, sourceIndex, distances[sourceIndex]);
+				distances[sourceIndex] = null;
 			}
 		}
 		// removeInternalEdgesWithPrefix(finalG, finalG.getZ(), prefix);
@@ -756,6 +1193,166 @@ public class STN {
 		return true;
 	}
 
+	/**
+	 * Determines the minimal distance between all pairs of nodes using the Johnson algorithm and writes them into a
+	 * {@link MappedDistanceMatrix} stored in <code>file</code>, without adding any edge to the graph.<br>
+	 * It is meant for networks whose minimal network does not fit on heap: only the graph, a feasible potential
+	 * ({@link #feasiblePotential(TNGraph, STNCheckStatus)}), a compressed copy of the re-weighted edges and one distance row per thread are
+	 * kept on heap. The graph is not modified.
+	 * 
+	 * @param g1 input graph
+	 * @param file the file where the distance matrix is written. If it exists, it is overwritten.
+	 * @param parallelism number of threads. If it is 1, the computation is sequential. If it is not positive, the number of available
+	 *            processors is used.
+	 * @param checkStatus1 status to update with statistics of algorithm. It can be null.
+	 * @return the distance matrix mapped in read-only mode, null if the graph contains a negative cycle (the file is not written) or if
+	 *         the check has been interrupted (the file is not complete).
+	 * @throws IOException if the file cannot be written.
+	 */
+	static MappedDistanceMatrix johnson(TNGraph<STNEdge> g1, File file, int parallelism, STNCheckStatus checkStatus1) throws IOException {
+		final int[] p = feasiblePotential(g1, checkStatus1);
+		if (p == null) {
+			if (checkStatus1 != null)
+				checkStatus1.finished = !(checkStatus1.timeout || checkStatus1.cancelled);
+			return null;
+		}
+		final int n = g1.getVertexCount();
+		// re-weighted edges in compressed sparse row format
+		final int[] first = new int[n + 1];
+		for (int u = 0; u < n; u++) {
+			int count = 0;
+			for (int slot = g1.firstOutSlot(u); slot >= 0; slot = g1.nextOutSlot(u, slot)) {
+				if (!g1.outEdgeAt(u, slot).isEmpty())
+					count++;
+			}
+			first[u + 1] = first[u] + count;
+		}
+		final int[] dest = new int[first[n]], weight = new int[first[n]];
+		for (int u = 0, k = 0; u < n; u++) {
+			for (int slot = g1.firstOutSlot(u); slot >= 0; slot = g1.nextOutSlot(u, slot)) {
+				final STNEdge e = g1.outEdgeAt(u, slot);
+				if (e.isEmpty())
+					continue;
+				final int v = g1.outNodeAt(u, slot);
+				dest[k] = v;
+				weight[k++] = Constants.sumWithOverflowCheck(e.getValue(), Constants.sumWithOverflowCheck(p[u], -p[v]));
+			}
+		}
+
+		final int nThreads = (parallelism > 0) ? parallelism : Runtime.getRuntime().availableProcessors();
+		try (MappedDistanceMatrix matrix = MappedDistanceMatrix.create(file, n)) {
+			final int chunk = Math.max(1, (n + 4 * nThreads - 1) / (4 * nThreads));
+			final ObjectArrayList<Callable<STNCheckStatus>> tasks = new ObjectArrayList<>();
+			for (int s0 = 0; s0 < n; s0 += chunk) {
+				final int firstSource = s0, lastSource = Math.min(s0 + chunk, n);
+				tasks.add(() -> {
+					final STNCheckStatus status = new STNCheckStatus();
+					final IndexedPriorityQueue queue = new IndexedPriorityQueue(n);
+					final int[] distance = new int[n];
+					for (int source = firstSource; source < lastSource; source++) {
+						if (checkStatus1 != null && checkStatus1.cancelled)
+							break;
+						queue.clear();
+						Arrays.fill(distance, Constants.INT_POS_INFINITE);
+						distance[source] = 0;
+						queue.insertOrDecrease(source, 0);
+						while (!queue.isEmpty()) {
+							final int u = queue.extractMin();
+							final int du = distance[u];
+							for (int k = first[u]; k < first[u + 1]; k++) {
+								final int v = dest[k];
+								final int newValue = Constants.sumWithOverflowCheck(du, weight[k]);
+								if (newValue < distance[v]) {
+									distance[v] = newValue;
+									queue.insertOrDecrease(v, newValue);
+									status.propagationCalls++;
+								}
+							}
+						}
+						// from re-weighted distances to actual ones
+						for (int v = 0; v < n; v++) {
+							if (distance[v] != Constants.INT_POS_INFINITE)
+								distance[v] = Constants.sumWithOverflowCheck(distance[v], Constants.sumWithOverflowCheck(p[v], -p[source]));
+						}
+						matrix.setRow(source, distance);
+					}
+					return status;
+				});
+			}
+			if (nThreads == 1) {
+				for (final Callable<STNCheckStatus> task : tasks) {
+					final STNCheckStatus status = task.call();
+					if (checkStatus1 != null)
+						checkStatus1.propagationCalls += status.propagationCalls;
+				}
+			} else {
+				final ForkJoinPool pool = new ForkJoinPool(nThreads);
+				try {
+					for (final Future<STNCheckStatus> result : pool.invokeAll(tasks)) {
+						final STNCheckStatus status = result.get();
+						if (checkStatus1 != null)
+							checkStatus1.propagationCalls += status.propagationCalls;
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("Johnson has been interrupted.", e);
+				} catch (ExecutionException e) {
+					throw new IllegalStateException("Johnson failed: " + e.getCause().getMessage(), e.getCause());
+				} finally {
+					pool.shutdown();
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new IllegalStateException("Johnson failed: " + e.getMessage(), e);
+		}
+		if (checkTimeOutAndAdjustStatus(checkStatus1))
+			return null;
+		if (checkStatus1 != null) {
+			checkStatus1.cycles = n;
+			checkStatus1.consistency = true;
+			checkStatus1.finished = true;
+		}
+		return MappedDistanceMatrix.open(file);
+	}
+
+	/**
+	 * Sets the edges from the given source in <code>finalG</code> to the distances determined by Dijkstra on the re-weighted graph
+	 * <code>g1</code>. Missing edges are added as internal ones.
+	 * 
+	 * @param g1 the re-weighted graph, where node potentials are the Bellman-Ford distances.
+	 * @param finalG the graph to update.
+	 * @param sourceIndex index of the source node in <code>g1</code>.
+	 * @param nodeDistanceFromSource the distances from the source in the re-weighted graph, indexed as nodes of <code>g1</code>.
+	 */
+	private static void johnsonSetEdges(TNGraph<STNEdge> g1, TNGraph<STNEdge> finalG, int sourceIndex, int[] nodeDistanceFromSource) {
+		final LabeledNode source = g1.getNode(sourceIndex);
+		final int n = g1.getVertexCount();
+		// for each other node, adjust the distance from source in finalG
+		for (int dIndex = 0; dIndex < n; dIndex++) {
+			if (dIndex == sourceIndex)
+				continue;
+			final LabeledNode d = g1.getNode(dIndex);
+
+			// new potential value is the value of the edge in Dijkstra + the original potential
+			// difference between destination and source: DijkstraDistance + (d - s)
+			int newEdgeSDValue = Constants.sumWithOverflowCheck(nodeDistanceFromSource[dIndex],
+					Constants.sumWithOverflowCheck(d.getPotential(), -source.getPotential()));
+			STNEdge edgeSD = finalG.findEdge(source.getName(), d.getName());
+			if (edgeSD == null) {
+				// D is reachable from S, but there is no a direct edge.
+				// Johnson assumes to save the value of the edge... so we add it as internal.
+				edgeSD = makeNewEdge(finalG, source.getName() + "_" + d.getName(), ConstraintType.internal);
+				finalG.addEdge(edgeSD, source, d);
+			}
+			if (Debug.ON) {
+				LOG.finer("Adjusting edge value for edge" + edgeSD + " from " + edgeSD.getValue() + " to " + newEdgeSDValue);
+			}
+			edgeSD.setValue(newEdgeSDValue);
+		}
+	}
+
 	/**
 	 * Determine the reverse-post-order of reachable nodes from the given root node
 	 * in graph g1. All node colors are assumed to be null. At the end, all
@@ -893,17 +1490,17 @@ public class STN {
 
 	/**
 	 * Given the unweighed parent graph (assumed to be a tree) as parent vector,
-	 * returns true if such a graph contains a negative cycle. It is assumed that
+	 * returns a node of a negative cycle, if such a graph contains it. It is assumed that
 	 * the root of tree is the node with index 0 and parent[0] == 0, i.e., root ha
 	 * itself as parent.
 	 * 
 	 * @param parent
-	 * @return true if there is a cycle.
+	 * @return the index of a node whose ancestors form a cycle, -1 if there is no cycle.
 	 */
-	private static boolean checkNegativeCycle(int[] parent) {
+	private static int checkNegativeCycle(int[] parent) {
 		if (parent[0] != 0)
 			// Z cannot have a parent!
-			return true;
+			return 0;
 		int n = parent.length;
 		int[] visitLevel = new int[n];// Initialized to 0
 
@@ -918,7 +1515,7 @@ public class STN {
 			while (p != 0) {
 				if (visitLevel[p] == level) {
 					// found a cycle
-					return true;
+					return p;
 				}
 				if (visitLevel[p] > level) {
 					// node already visited and ok
@@ -929,7 +1526,7 @@ public class STN {
 			}
 			level--;
 		}
-		return false;
+		return -1;
 	}
 
 	/**
@@ -945,11 +1542,13 @@ public class STN {
 	private static void depthFirstOrder(TNGraph<STNEdge> g1, LabeledNode node, ObjectList<LabeledNode> finalOrder,
 			boolean translate) {
 		node.setColor(Color.gray);
-		Collection<LabeledNode> adjNodes = (translate) ? g1.getPredecessors(node) : g1.getSuccessors(node);
-		for (LabeledNode adjNode : adjNodes) {
-			if (adjNode.getColor() == Color.gray)
-				continue;
-			depthFirstOrder(g1, adjNode, finalOrder, translate);
+		final int nodeIndex = g1.getNodeIndex(node);
+		int slot = (translate) ? g1.firstInSlot(nodeIndex) : g1.firstOutSlot(nodeIndex);
+		while (slot >= 0) {
+			LabeledNode adjNode = g1.getNode((translate) ? g1.inNodeAt(nodeIndex, slot) : g1.outNodeAt(nodeIndex, slot));
+			if (adjNode.getColor() != Color.gray)
+				depthFirstOrder(g1, adjNode, finalOrder, translate);
+			slot = (translate) ? g1.nextInSlot(nodeIndex, slot) : g1.nextOutSlot(nodeIndex, slot);
 		}
 		finalOrder.add(node);
 	}
@@ -1000,6 +1599,102 @@ public class STN {
 		}
 	}
 
+	/**
+	 * Determines the cycle of the predecessor graph reachable from <code>node</code> following the predecessor edges.
+	 * 
+	 * @param g1 the graph
+	 * @param parentEdge for each node index, the edge used for the last update of the node distance, or null.
+	 * @param node index of the starting node
+	 * @param backward true if the distances are toward a sink, i.e., if each node has been updated by one of its outgoing edges.
+	 * @return the nodes of the cycle in the order of the edges with the first node repeated at the end, null if a node without predecessor
+	 *         edge is met.
+	 */
+	private static ObjectList<LabeledNode> parentCycle(TNGraph<STNEdge> g1, STNEdge[] parentEdge, int node, boolean backward) {
+		final int n = parentEdge.length;
+		for (int i = 0; i < n; i++) {
+			if (parentEdge[node] == null)
+				return null;
+			node = g1.getNodeIndex((backward) ? g1.getDest(parentEdge[node]) : g1.getSource(parentEdge[node]));
+		}
+		final ObjectList<LabeledNode> cycle = new ObjectArrayList<>();
+		final int first = node;
+		do {
+			if (parentEdge[node] == null)
+				return null;
+			cycle.add(g1.getNode(node));
+			node = g1.getNodeIndex((backward) ? g1.getDest(parentEdge[node]) : g1.getSource(parentEdge[node]));
+		} while (node != first);
+		cycle.add(g1.getNode(first));
+		if (!backward) {
+			// predecessors have been visited against the edge direction
+			Collections.reverse(cycle);
+		}
+		return cycle;
+	}
+
+	/**
+	 * Stores the given negative cycle in <code>checkStatus1</code>, determining its edges and its weight.
+	 * 
+	 * @param g1 the graph
+	 * @param cycle the nodes of the cycle in the order of the edges with the first node repeated at the end. If it is null, nothing is
+	 *            done.
+	 * @param checkStatus1 status to update. It cannot be null.
+	 */
+	static void setNegativeCycle(TNGraph<STNEdge> g1, ObjectList<LabeledNode> cycle, STNCheckStatus checkStatus1) {
+		if (cycle == null)
+			return;
+		final ObjectList<STNEdge> edges = new ObjectArrayList<>(cycle.size() - 1);
+		int weight = 0;
+		for (int i = 1; i < cycle.size(); i++) {
+			final STNEdge e = g1.findEdge(cycle.get(i - 1), cycle.get(i));
+			if (e == null)
+				return;
+			edges.add(e);
+			weight = Constants.sumWithOverflowCheck(weight, e.getValue());
+		}
+		checkStatus1.negativeCycle = cycle;
+		checkStatus1.negativeCycleEdges = edges;
+		checkStatus1.negativeCycleWeight = weight;
+		if (Debug.ON) {
+			if (LOG.isLoggable(Level.FINE)) {
+				LOG.log(Level.FINE, "Negative cycle " + cycle + " having weight " + weight);
+			}
+		}
+	}
+
+	/**
+	 * Support method of {@link #bannisterEppstein(TNGraph, LabeledNode, Random, STNCheckStatus)} for reporting a negative cycle.
+	 * Following the parent links from a node modified after the cycle bound, a node of the negative cycle is reached within n steps.
+	 *
+	 * @param g1 the graph
+	 * @param perm node indexes in permutation order
+	 * @param parent parent positions
+	 * @param p position of the last modified node
+	 * @param cycles number of executed cycles
+	 * @param relaxations number of executed relaxations
+	 * @param checkStatus1 status to update. It can be null.
+	 * @return false
+	 */
+	private static boolean negativeCycleFound(TNGraph<STNEdge> g1, int[] perm, int[] parent, int p, int cycles, int relaxations,
+			STNCheckStatus checkStatus1) {
+		int node = p;
+		for (int i = perm.length; --i >= 0 && parent[node] >= 0;) {
+			node = parent[node];
+		}
+		final LabeledNode loopNode = g1.getNode(perm[node]);
+		if (Debug.ON) {
+			STN.LOG.finer("Bannister-Eppstein found a negative cycle on node " + loopNode.getName());
+		}
+		if (checkStatus1 != null) {
+			checkStatus1.cycles += cycles;
+			checkStatus1.propagationCalls += relaxations;
+			checkStatus1.consistency = false;
+			checkStatus1.finished = true;
+			checkStatus1.negativeLoopNode = loopNode;
+		}
+		return false;
+	}
+
 	/**
 	 * @param g graph
 	 * @return the parent/before/after fields of all nodes of g.
@@ -1103,6 +1798,35 @@ public class STN {
 	 */
 	int minNegativeWeight = Constants.INT_NULL;
 
+	/**
+	 * Number of threads used by {@link CheckAlgorithm#ParallelAllPairsShortestPaths}.
+	 */
+	@Option(required = false, name = "-parallelism", usage = "Number of threads used by ParallelAllPairsShortestPaths and ParallelJohnson. If it is not positive, all available processors are used.", metaVar = "threads")
+	int parallelism = 0;
+
+	/**
+	 * Feasible potential maintained by {@link #addOrTighten(LabeledNode, LabeledNode, int)}, indexed by node index.
+	 * Null if it has to be determined.
+	 */
+	int[] potential = null;
+
+	/**
+	 * Queue of the potential repairs of {@link #addOrTighten(LabeledNode, LabeledNode, int)}, sized as {@link #potential}.
+	 * After each repair, only the entries of the touched nodes are reset.
+	 */
+	private IndexedPriorityQueue repairQueue = null;
+
+	/**
+	 * Potential of each node before the current repair of {@link #addOrTighten(LabeledNode, LabeledNode, int)}.
+	 * It is meaningful only for the nodes in {@link #repairTouched}.
+	 */
+	private int[] repairOldPotential = null;
+
+	/**
+	 * Nodes whose potential has been changed by the current repair of {@link #addOrTighten(LabeledNode, LabeledNode, int)}.
+	 */
+	private final IntArrayList repairTouched = new IntArrayList();
+
 	/**
 	 * Timeout in seconds for the check.
 	 */
@@ -1142,6 +1866,101 @@ public class STN {
 	STN() {
 	}
 
+	/**
+	 * Adds the constraint <code>dest - source &le; value</code> to this STN and returns whether the STN is still consistent.<br>
+	 * If there is already an edge from <code>source</code> to <code>dest</code> with a value not greater than <code>value</code>, the
+	 * graph is not modified. Otherwise, the edge is added or its value is tightened to <code>value</code>.<br>
+	 * The check is incremental: this STN maintains a feasible potential (see {@link #feasiblePotential(TNGraph, STNCheckStatus)}) and, after
+	 * a tightening, repairs it by a Dijkstra propagation from <code>dest</code> on the reduced costs, visiting only the nodes whose potential
+	 * decreases (Ramalingam-Reps algorithm, also used by Cesta and Oddi for STNs). The new constraint makes the STN inconsistent if and only
+	 * if the potential of <code>source</code> has to decrease.<br>
+	 * The potential is determined from scratch at the first call and when the number of nodes is changed. It is discarded by
+	 * {@link #consistencyCheck(CheckAlgorithm)} and {@link #setG(TNGraph)}.
+	 * Therefore, the graph must not be modified in other ways between two calls of this method.
+	 * If the STN becomes inconsistent, {@link STNCheckStatus#consistency} is false and the potential is discarded.
+	 *
+	 * @param source source node. It must belong to the graph of this STN.
+	 * @param dest destination node. It must belong to the graph of this STN.
+	 * @param value value of the constraint.
+	 * @return true if the STN is consistent after the addition, false otherwise.
+	 * @throws IllegalArgumentException if the graph is null or a node does not belong to it.
+	 */
+	public boolean addOrTighten(LabeledNode source, LabeledNode dest, int value) {
+		if (this.g == null)
+			throw new IllegalArgumentException("The graph is null!");
+		final int sIndex = this.g.getNodeIndex(source), dIndex = this.g.getNodeIndex(dest);
+		if (sIndex == Constants.INT_NULL || dIndex == Constants.INT_NULL)
+			throw new IllegalArgumentException("Nodes " + source + " and " + dest + " must belong to the graph.");
+
+		STNEdge e = this.g.findEdge(sIndex, dIndex);
+		if (e != null && !e.isEmpty() && e.getValue() <= value && this.potential != null)
+			return this.checkStatus.consistency;
+		if (e == null) {
+			e = makeNewEdge(this.g, source.getName() + "_" + dest.getName(), ConstraintType.requirement);
+			this.g.addEdge(e, source, dest);
+		}
+		if (e.isEmpty() || e.getValue() > value) {
+			e.setValue(value);
+		}
+
+		final int[] p = this.potential;
+		if (p == null || p.length != this.g.getVertexCount()) {
+			this.potential = feasiblePotential(this.g, this.checkStatus);
+			return this.checkStatus.consistency = this.potential != null;
+		}
+		final int newDValue = Constants.sumWithOverflowCheck(p[sIndex], value);
+		if (p[dIndex] <= newDValue)
+			return true;
+
+		// Dijkstra on reduced costs: the priority of a node is the decrease of its potential.
+		// The queue is allocated once for the graph, so the cost of a repair depends only on the touched nodes.
+		if (this.repairQueue == null || this.repairQueue.capacity() != p.length) {
+			this.repairQueue = new IndexedPriorityQueue(p.length);
+			this.repairOldPotential = new int[p.length];
+		}
+		final IndexedPriorityQueue queue = this.repairQueue;
+		final int[] oldPotential = this.repairOldPotential;
+		final IntArrayList touched = this.repairTouched;
+		touched.clear();
+		oldPotential[dIndex] = p[dIndex];
+		touched.add(dIndex);
+		p[dIndex] = newDValue;
+		queue.insertOrDecrease(dIndex, p[dIndex] - oldPotential[dIndex]);
+		while (!queue.isEmpty()) {
+			final int u = queue.extractMin();
+			final int pu = p[u];
+			for (int slot = this.g.firstOutSlot(u); slot >= 0; slot = this.g.nextOutSlot(u, slot)) {
+				final STNEdge edge = this.g.outEdgeAt(u, slot);
+				if (edge.isEmpty())
+					continue;
+				final int v = this.g.outNodeAt(u, slot);
+				final int newValue = Constants.sumWithOverflowCheck(pu, edge.getValue());
+				if (newValue >= p[v])
+					continue;
+				if (v == sIndex) {
+					if (Debug.ON) {
+						LOG.finer("Constraint " + e + " closes a negative cycle through " + source.getName());
+					}
+					this.potential = null;
+					queue.clear();
+					this.checkStatus.negativeLoopNode = source;
+					return this.checkStatus.consistency = false;
+				}
+				if (queue.getStatus(v) == PriorityQueue.Status.notPresent) {
+					oldPotential[v] = p[v];
+					touched.add(v);
+				}
+				p[v] = newValue;
+				queue.insertOrDecrease(v, newValue - oldPotential[v]);
+				this.checkStatus.propagationCalls++;
+			}
+		}
+		for (int i = touched.size(); i-- > 0;) {
+			queue.forget(touched.getInt(i));
+		}
+		return this.checkStatus.consistency = true;
+	}
+
 	/**
 	 * Determines the minimal distance between all pair of vertexes modifying the
 	 * current STN.
@@ -1161,6 +1980,46 @@ public class STN {
 		return STN.apsp(this.g, this.checkStatus);
 	}
 
+	/**
+	 * As {@link #allPairsShortestPaths()} but using {@link #getParallelism()} threads.
+	 *
+	 * @return true if the STN is consistent, false otherwise. If the response is
+	 *         false, the edges do not represent the minimal distance between nodes.
+	 */
+	public boolean parallelAllPairsShortestPaths() {
+		if (this.checkStatus == null || !this.checkStatus.initialized) {
+			try {
+				initAndCheck();
+			} catch (final IllegalArgumentException e) {
+				throw new IllegalArgumentException(
+						"The STN graph has a problem and it cannot be initialize: " + e.getMessage());
+			}
+		}
+		return STN.apsp(this.g, this.checkStatus, this.parallelism);
+	}
+
+	/**
+	 * Determines the minimal distance between the node Z and any other node in this STN
+	 * using the Bannister-Eppstein randomized Bellman-Ford algorithm.<br>
+	 * The minimal distance is stored as potential value in each node.<br>
+	 * The expected number of cycles is stored in {@link STNCheckStatus#expectedCycles}.
+	 * If the graph contains a negative cycle, it returns false.
+	 *
+	 * @see #bannisterEppstein(TNGraph, LabeledNode, Random, STNCheckStatus)
+	 * @return true if the graph is consistent, false otherwise.
+	 */
+	public boolean bannisterEppstein() {
+		if (this.checkStatus == null || !this.checkStatus.initialized) {
+			try {
+				initAndCheck();
+			} catch (final IllegalArgumentException e) {
+				throw new IllegalArgumentException(
+						"The STN graph has a problem and it cannot be initialize: " + e.getMessage());
+			}
+		}
+		return STN.bannisterEppstein(this.g, this.g.getZ(), ThreadLocalRandom.current(), this.checkStatus);
+	}
+
 	/**
 	 * Determines the minimal distance in this STN between any node and the source/sink one
 	 * (node Z) using the BellmanFord algorithm.<br>
@@ -1186,8 +2045,8 @@ public class STN {
 	 * Determines the minimal distance in this STN between the node Z and any other node
 	 * using the Bellman-Ford-Tarjan (BFCT) algorithm.<br>
 	 * The minimal distance is stored as potential value in each node.
-	 * If the STN graph is not consistent and the checkStatus parameter is not null, then the negative cycle is stored in the field
-	 * {@link STNCheckStatus#negativeCycle}
+	 * If the STN graph is not consistent and the checkStatus parameter is not null, then the negative cycle is stored in the fields
+	 * {@link STNCheckStatus#negativeCycle} and {@link STNCheckStatus#negativeCycleEdges}.
 	 * 
 	 * @see #BFCT(TNGraph, LabeledNode, int, STNCheckStatus)
 	 * @return true if the network is consistent, false otherwise.
@@ -1229,15 +2088,26 @@ public class STN {
 			throw new IllegalArgumentException(
 					"The STN graph has a problem and it cannot be initialize: " + e.getMessage());
 		}
+		this.potential = null;
+		this.checkStatus.setDeadline(this.timeOut);
 		Instant startInstant = Instant.now();
 
 		switch (alg) {
 		case AllPairsShortestPaths:
 			this.checkStatus.consistency = allPairsShortestPaths();
 			break;
+		case ParallelAllPairsShortestPaths:
+			this.checkStatus.consistency = parallelAllPairsShortestPaths();
+			break;
 		case Johnson:
 			this.checkStatus.consistency = johnson();
 			break;
+		case JohnsonRadixHeap:
+			this.checkStatus.consistency = johnson(true);
+			break;
+		case ParallelJohnson:
+			this.checkStatus.consistency = parallelJohnson();
+			break;
 		case Dijkstra:
 			this.checkStatus.consistency = dijkstra();
 			break;
@@ -1257,13 +2127,13 @@ public class STN {
 			this.checkStatus.consistency = yenAlgorithm(false, true);
 			break;
 		case BannisterEppstein:
-			this.checkStatus.consistency = yenAlgorithm(true, false);
+			this.checkStatus.consistency = bannisterEppstein();
 			break;
 		default:
 			break;
 		}
 		Instant endInstant = Instant.now();
-		this.checkStatus.finished = true;
+		this.checkStatus.finished = !(this.checkStatus.timeout || this.checkStatus.cancelled);
 		this.checkStatus.executionTimeNS = Duration.between(startInstant, endInstant).toNanos();
 
 		if (!this.checkStatus.consistency) {
@@ -1310,6 +2180,17 @@ public class STN {
 		return STN.dijkstra(this.g, this.g.getZ(), this.checkStatus);
 	}
 
+	/**
+	 * Cancels the running check.<br>
+	 * The check stops cooperatively as soon as possible: it returns a status that is not finished and has
+	 * {@link STNCheckStatus#cancelled} true. It can be called by any thread.<br>
+	 * If it is called before the check starts (e.g., just after the check has been submitted to an executor), the check stops at its beginning.
+	 * The request remains until <code>setG(...)</code> is called or {@link STNCheckStatus#cancelled} is set to false.
+	 */
+	public void cancel() {
+		this.checkStatus.cancelled = true;
+	}
+
 	/**
 	 * Getter for the field <code>checkStatus</code>.
 	 *
@@ -1367,6 +2248,14 @@ public class STN {
 		return this.minNegativeWeight;
 	}
 
+	/**
+	 * @return the number of threads used by {@link CheckAlgorithm#ParallelAllPairsShortestPaths} and
+	 *         {@link CheckAlgorithm#ParallelJohnson}. A non positive value means all available processors.
+	 */
+	public int getParallelism() {
+		return this.parallelism;
+	}
+
 	/**
 	 * Returns the Muscettola predecessor graph of source in the current STN.<br>
 	 * Be aware that Muscettola predecessor graph is made by ALL shortest paths having
@@ -1402,8 +2291,10 @@ public class STN {
 		while (!nodes.isEmpty()) {
 			LabeledNode node = nodes.dequeue();
 			int nodeValue = node.getPotential();
-			for (STNEdge e : pGraph.getOutEdges(node)) {
-				LabeledNode d = pGraph.getDest(e);
+			final int nodeIndex = pGraph.getNodeIndex(node);
+			for (int slot = pGraph.firstOutSlot(nodeIndex); slot >= 0; slot = pGraph.nextOutSlot(nodeIndex, slot)) {
+				STNEdge e = pGraph.outEdgeAt(nodeIndex, slot);
+				LabeledNode d = pGraph.getNode(pGraph.outNodeAt(nodeIndex, slot));
 				if (nodeValue + e.getValue() == d.getPotential() && e.getColor() != Color.white) {
 					// e is in a shortest path
 					e.setColor(Color.white);
@@ -1528,6 +2419,18 @@ public class STN {
 	 *         false, the edges do not represent the minimal distance between nodes.
 	 */
 	public boolean johnson() {
+		return johnson(false);
+	}
+
+	/**
+	 * Determines the minimal distance between all pair of vertexes modifying the
+	 * current STN using Johnson's algorithm.
+	 *
+	 * @param radixHeap true if the Dijkstra visits have to use a {@link RadixPriorityQueue} instead of an {@link IndexedPriorityQueue}.
+	 * @return true if the STN is consistent, false otherwise. If the response is
+	 *         false, the edges do not represent the minimal distance between nodes.
+	 */
+	public boolean johnson(boolean radixHeap) {
 		if (this.checkStatus == null || !this.checkStatus.initialized) {
 			try {
 				initAndCheck();
@@ -1536,18 +2439,64 @@ public class STN {
 						"The STN graph has a problem and it cannot be initialize: " + e.getMessage());
 			}
 		}
-		return STN.johnson(this.g, this.horizon, this.checkStatus);
+		return STN.johnson(this.g, this.horizon, radixHeap, this.checkStatus);
 	}
 
 	/**
-	 * Makes the graph dispatchable applying Muscettola et al. 1998 algorithm.
+	 * Determines the minimal distance between all pair of vertexes using Johnson's algorithm and writes them into a
+	 * {@link MappedDistanceMatrix} stored in <code>file</code>. The STN is not modified, so this method can be used when the minimal
+	 * network does not fit on heap. Dijkstra visits are executed by {@link #getParallelism()} threads.
+	 *
+	 * @param file the file where the distance matrix is written. If it exists, it is overwritten.
+	 * @return the distance matrix mapped in read-only mode, null if the STN is not consistent.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public MappedDistanceMatrix johnson(File file) throws IOException {
+		if (this.checkStatus == null || !this.checkStatus.initialized) {
+			try {
+				initAndCheck();
+			} catch (final IllegalArgumentException e) {
+				throw new IllegalArgumentException(
+						"The STN graph has a problem and it cannot be initialize: " + e.getMessage());
+			}
+		}
+		return STN.johnson(this.g, file, this.parallelism, this.checkStatus);
+	}
+
+	/**
+	 * As {@link #johnson()} but the Dijkstra visits are executed by {@link #getParallelism()} threads.
+	 *
+	 * @return true if the STN is consistent, false otherwise. If the response is
+	 *         false, the edges do not represent the minimal distance between nodes.
+	 */
+	public boolean parallelJohnson() {
+		if (this.checkStatus == null || !this.checkStatus.initialized) {
+			try {
+				initAndCheck();
+			} catch (final IllegalArgumentException e) {
+				throw new IllegalArgumentException(
+						"The STN graph has a problem and it cannot be initialize: " + e.getMessage());
+			}
+		}
+		return STN.johnson(this.g, this.horizon, false, this.parallelism, this.checkStatus);
+	}
+
+	/**
+	 * Makes the graph dispatchable applying Muscettola et al. 1998 algorithm.<br>
+	 * If the default check algorithm is {@link CheckAlgorithm#ParallelAllPairsShortestPaths}, the minimal network is determined by
+	 * {@link #parallelAllPairsShortestPaths()}.<br>
+	 * An edge is removed only if it is dominated by edges that are not removed, so that mutually dominating edges of rigid components
+	 * (zero-length cycles) are not removed together and all distances are preserved.
 	 *
 	 * @return true if it was possible to make the graph dispatchable (i.e., the
 	 *         graph was consistent).
 	 */
 	public boolean makeDispatchable() {
 
-		if (!this.allPairsShortestPaths())
+		final boolean consistent = (this.defaultConsistencyCheckAlg == CheckAlgorithm.ParallelAllPairsShortestPaths)
+				? this.parallelAllPairsShortestPaths()
+				: this.allPairsShortestPaths();
+		if (!consistent)
 			return false;
 		for (STNEdge edge : this.g.getEdges()) {
 			edge.setColor(null);
@@ -1573,7 +2522,7 @@ public class STN {
 						continue;
 					int v12 = edge12.getValue();
 					boolean edge13NotDominated = true;
-					if (edge13.getColor() != Color.gray && v13 == v12 + v23) {
+					if (edge13.getColor() != Color.gray && edge12.getColor() != Color.gray && edge23.getColor() != Color.gray && v13 == v12 + v23) {
 						// edge23 dominates
 						edge13.setColor(Color.gray);
 						edge13NotDominated = false;
@@ -1588,7 +2537,7 @@ public class STN {
 						if (edge21==null)
 							continue;
 						int v21 = edge21.getValue();
-						if (edge23.getColor() != Color.gray && v23 == v21 + v13) {
+						if (edge23.getColor() != Color.gray && edge21.getColor() != Color.gray && edge13.getColor() != Color.gray && v23 == v21 + v13) {
 							// edge13 dominates
 							edge23.setColor(Color.gray);
 							if (Debug.ON) {
@@ -1622,7 +2571,7 @@ public class STN {
 						continue;
 					int v12 = edge12.getValue();
 					boolean edge32NotDominated = true;
-					if (edge32.getColor() != Color.gray && v32 == v31 + v12) {
+					if (edge32.getColor() != Color.gray && edge31.getColor() != Color.gray && edge12.getColor() != Color.gray && v32 == v31 + v12) {
 						// edge31 dominates
 						edge32.setColor(Color.gray);
 						edge32NotDominated = false;
@@ -1638,7 +2587,7 @@ public class STN {
 						if (edge21==null)
 							continue;
 						int v21 = edge21.getValue();
-						if (edge31.getColor() != Color.gray && v31 == v32 + v21) {
+						if (edge31.getColor() != Color.gray && edge32.getColor() != Color.gray && edge21.getColor() != Color.gray && v31 == v32 + v21) {
 							// edge13 dominates
 							edge31.setColor(Color.gray);
 							if (Debug.ON) {
@@ -1742,6 +2691,14 @@ public class STN {
 		this.g = graph;
 	}
 
+	/**
+	 * @param nThreads the number of threads used by {@link CheckAlgorithm#ParallelAllPairsShortestPaths} and
+	 *            {@link CheckAlgorithm#ParallelJohnson}. A non positive value means all available processors.
+	 */
+	public void setParallelism(int nThreads) {
+		this.parallelism = nThreads;
+	}
+
 	/**
 	 * Set to true for having the result graph cleaned of empty edges and labeled
 	 * values having unknown literals.
@@ -1760,11 +2717,11 @@ public class STN {
 	 * Q. Appl. Math., vol. 27, no. 4, pp. 526–530, Jan. 1970.<br>
 	 *
 	 * @param randomOrder true if nodes have to be ordered randomly. If false, nodes
-	 *            are ordered w.r.t. their name. In the case true, the
-	 *            algorithm is also known as Bannister and Eppstein
+	 *            are ordered w.r.t. their name. For the algorithm of Bannister and Eppstein,
+	 *            see {@link #bannisterEppstein()}.
 	 * @param backward true if the search has to be done in backward way.
 	 * @return true if the STN is consistent, false otherwise. It also fills
-	 *         {@link #checkStatus}.
+	 *         {@link #checkStatus}, negative cycle included.
 	 */
 	@edu.umd.cs.findbugs.annotations.SuppressFBWarnings(value = "DMI_RANDOM_USED_ONLY_ONCE", justification = "I know what I'm doing")
 	public boolean yenAlgorithm(boolean randomOrder, boolean backward) {
@@ -1782,8 +2739,12 @@ public class STN {
 			SecureRandom rnd = new SecureRandom();
 			for (int i = 0; i < n; i++) {
 				orderedNodes[i].setPotential(rnd.nextInt());
+				if (orderedNodes[i] == this.g.getZ()) {
+					orderedNodes[i] = orderedNodes[0];
+					orderedNodes[0] = this.g.getZ();
+				}
 			}
-			java.util.Arrays.sort(orderedNodes, 1, n, (o1, o2) -> o1.getPotential() - o2.getPotential());
+			java.util.Arrays.sort(orderedNodes, 1, n, (o1, o2) -> Integer.compare(o1.getPotential(), o2.getPotential()));
 		} else {
 			orderedNodes = this.g.getVerticesArray();// already ordered but Z can be in the last positions
 			int i = n;
@@ -1822,19 +2783,25 @@ public class STN {
 		int sIndex, dIndex, dOldValue, value;
 		int negativeCheckThreshold = n / 3 + 2;
 		int[] parent = new int[n];
+		// edge used for the last update of the potential of each node (graph index)
+		final STNEdge[] parentEdge = new STNEdge[n];
 		while (!nodesToCheck.isEmpty()) {
+			if (checkTimeOutAndAdjustStatus(this.checkStatus))
+				return false;
 			// G-
 			for (int i = n - 1; i >= 0; i--) {
 				s = orderedNodes[i];
 				sIndex = nodeRdnIndex.getInt(s);
 				if (sIndex == 0)
 					continue;
-				ObjectList<STNEdge> edges = (backward) ? this.g.getIncidentEdges(s) : this.g.getOutEdges(s);
+				if (!nodesToCheck.contains(s) && !nodesModified.contains(s))
+					continue;
+				Collection<STNEdge> edges = (backward) ? this.g.getInEdges(s) : this.g.getOutEdges(s);
 				for (STNEdge e : edges) {
 					d = (backward) ? this.g.getSource(e) : this.g.getDest(e);
 					dOldValue = d.getPotential();
 					dIndex = nodeRdnIndex.getInt(d);
-					if (dIndex < sIndex && (nodesToCheck.contains(s) || nodesModified.contains(s))) {
+					if (dIndex < sIndex) {
 						value = Constants.sumWithOverflowCheck(s.getPotential(), e.getValue());
 						if (value < dOldValue) {
 							if (Debug.ON) {
@@ -1849,6 +2816,7 @@ public class STN {
 							nodesModified.add(d);
 							this.checkStatus.propagationCalls++;
 							parent[dIndex] = sIndex;
+							parentEdge[this.g.getNodeIndex(d)] = e;
 						}
 					}
 				}
@@ -1859,12 +2827,14 @@ public class STN {
 				sIndex = nodeRdnIndex.getInt(s);// i
 				if (sIndex == n - 1)
 					continue;
-				ObjectList<STNEdge> edges = (backward) ? this.g.getIncidentEdges(s) : this.g.getOutEdges(s);
+				if (!nodesToCheck.contains(s) && !nodesModified.contains(s))
+					continue;
+				Collection<STNEdge> edges = (backward) ? this.g.getInEdges(s) : this.g.getOutEdges(s);
 				for (STNEdge e : edges) {
 					d = (backward) ? this.g.getSource(e) : this.g.getDest(e);
 					dOldValue = d.getPotential();
 					dIndex = nodeRdnIndex.getInt(d);
-					if (dIndex > sIndex && (nodesToCheck.contains(s) || nodesModified.contains(s))) {
+					if (dIndex > sIndex) {
 						value = Constants.sumWithOverflowCheck(s.getPotential(), e.getValue());
 						if (value < dOldValue) {
 							if (Debug.ON) {
@@ -1879,6 +2849,7 @@ public class STN {
 							nodesModified.add(d);
 							this.checkStatus.propagationCalls++;
 							parent[dIndex] = sIndex;
+							parentEdge[this.g.getNodeIndex(d)] = e;
 						}
 					}
 				}
@@ -1889,9 +2860,13 @@ public class STN {
 			this.checkStatus.cycles++;
 
 			if (this.checkStatus.cycles > negativeCheckThreshold) {
-				if (checkNegativeCycle(parent)) {
+				final int cycleNode = checkNegativeCycle(parent);
+				if (cycleNode >= 0) {
 					this.checkStatus.consistency = false;
 					this.checkStatus.finished = true;
+					this.checkStatus.negativeLoopNode = orderedNodes[cycleNode];
+					setNegativeCycle(this.g, parentCycle(this.g, parentEdge, this.g.getNodeIndex(orderedNodes[cycleNode]), backward),
+							this.checkStatus);
 					return false;
 				}
 			}
@@ -2131,8 +3106,10 @@ public class STN {
 	 */
 	void reset() {
 		this.g = null;
+		this.potential = null;
 		this.minNegativeWeight = 0;
 		this.horizon = 0;
 		this.checkStatus.reset();
+		this.checkStatus.cancelled = false;
 	}
 }
@@ -8,9 +8,14 @@ import java.io.File;
 import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map.Entry;
 import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -23,6 +28,7 @@ import org.kohsuke.args4j.Option;
 import org.kohsuke.args4j.OptionHandlerFilter;
 import org.xml.sax.SAXException;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.objects.AbstractObject2IntMap.BasicEntry;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
@@ -30,11 +36,14 @@ import it.unimi.dsi.fastutil.objects.Object2ObjectMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectList;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ObjectSet;
 import it.univr.di.Debug;
 import it.univr.di.cstnu.algorithms.STN.STNCheckStatus;
 import it.univr.di.cstnu.graph.Edge;
 import it.univr.di.cstnu.graph.Edge.ConstraintType;
 import it.univr.di.cstnu.graph.LabeledNode;
+import it.univr.di.cstnu.graph.STNEdge;
 import it.univr.di.cstnu.graph.STNUEdge;
 import it.univr.di.cstnu.graph.STNUEdge.Pair;
 import it.univr.di.cstnu.graph.STNUEdgeInt;
@@ -69,7 +78,12 @@ public class STNU {
 		/**
 		 * Luke's version of RUL^- algorithm
 		 */
-		RUL2020
+		RUL2020,
+		/**
+		 * Luke's version of RUL^- algorithm where independent back propagations are executed concurrently (see
+		 * {@link STNU#setParallelism(int)}).
+		 */
+		ParallelRUL2020
 		/**
 		 * Only for checking BellmanFord
 		 * BellmanFord
@@ -90,13 +104,39 @@ public class STNU {
 		 */
 		public int addedEdges = 0;
 
+		/**
+		 * Number of back propagations of upper-case edges executed concurrently by {@link CheckAlgorithm#ParallelRUL2020}.
+		 */
+		public int parallelBackPropagations = 0;
+
+		/**
+		 * Utilization of the threads in the concurrent phases of {@link CheckAlgorithm#ParallelRUL2020}: ratio between the sum of the execution
+		 * times of the concurrent back propagations and the elapsed time of such phases. It is at most the number of threads.<br>
+		 * It is not the speedup over the sequential check: the elapsed time does not include the single writer phases of the rounds and the
+		 * sequential management of the remaining upper-case edges. It is 0 if no back propagation has been executed concurrently.
+		 */
+		public double parallelUtilization = 0;
+
+		/**
+		 * If the network is not DC and the check algorithm is {@link CheckAlgorithm#RUL2020}, {@link CheckAlgorithm#ParallelRUL2020} or
+		 * {@link CheckAlgorithm#Morris2014}, the semi-reducible negative cycle found by the algorithm, as ordered list of edges.
+		 * Each edge is a copy of an edge of the checked graph (same name and type) containing only the value used in the cycle: the ordinary
+		 * one or the lower/upper-case one. Edges added by the check are replaced by the paths that determined them, so the cycle is made of
+		 * edges of the given network (in normal form for {@link CheckAlgorithm#Morris2014}).
+		 * The sources of the edges are in {@link #negativeCycle} and the sum of the used values is {@link #negativeCycleWeight}.
+		 * It is null if the network is DC or the cycle has not been determined.
+		 */
+		public ObjectList<STNUEdge> semiReducibleNegativeCycle = null;
+
 		/**
 		 * Reset all indexes.
 		 */
 		@Override
 		public void reset() {
 			super.reset();
-			this.cycles = this.addedEdges = 0;
+			this.cycles = this.addedEdges = this.parallelBackPropagations = 0;
+			this.parallelUtilization = 0;
+			this.semiReducibleNegativeCycle = null;
 		}
 
 		@Override
@@ -117,6 +157,11 @@ public class STNU {
 				sb.append("controllable.\n");
 			}
 			sb.append("Added edges during the check ").append(this.addedEdges).append(".\n");
+			if (this.parallelBackPropagations > 0)
+				sb.append("Back propagations executed concurrently ").append(this.parallelBackPropagations).append(" (thread utilization ")
+						.append(String.format("%.2f", this.parallelUtilization)).append(").\n");
+			if (!this.consistency && this.semiReducibleNegativeCycle != null)
+				sb.append("The semi-reducible negative cycle is ").append(this.semiReducibleNegativeCycle).append(".\n");
 			// sb.append("UpperCaseRule has been applied ").append(this.calls).append(" times.\n");
 			// sb.append("LowerCaseRule has been applied ").append(this.lowerCaseCalls).append(" times.\n");
 			// sb.append("CrossCaseRule has been applied ").append(this.crossCaseCalls).append(" times.\n");
@@ -284,6 +329,19 @@ public class STNU {
 	 */
 	private STNUCheckStatus checkStatus = new STNUCheckStatus();
 
+	/**
+	 * State of the last successful {@link CheckAlgorithm#RUL2020} check, kept for the incremental checks
+	 * ({@link #addOrTightenEdge(LabeledNode, LabeledNode, int)} and {@link #addContingentLink(LabeledNode, LabeledNode, int, int)}).
+	 * It is null if there was no such check or the network has been modified in another way.
+	 */
+	private RULGlobalInfo rulGlobalInfo = null;
+
+	/**
+	 * For each edge added or tightened by {@link CheckAlgorithm#RUL2020} or {@link CheckAlgorithm#Morris2014}, the path that determined it.
+	 * It is used to express a negative cycle in terms of the edges of the given network.
+	 */
+	private Object2ObjectMap<STNUEdge, Derivation> derivation = new Object2ObjectOpenHashMap<>();
+
 	/**
 	 */
 	@Option(required = false, name = "-cleaned", usage = "Output a cleaned result. A result cleaned graph does not contain empty edges or labeled values containing unknown literals.")
@@ -347,6 +405,12 @@ public class STNU {
 	 */
 	private int maxWeight = Constants.INT_NULL;
 
+	/**
+	 * Number of threads used by {@link CheckAlgorithm#ParallelRUL2020}.
+	 */
+	@Option(required = false, name = "-parallelism", usage = "Number of threads used by ParallelRUL2020. If it is not positive, all available processors are used.", metaVar = "threads")
+	private int parallelism = 0;
+
 	/**
 	 */
 	@Option(required = false, name = "-save", usage = "Save the checked instance.")
@@ -401,6 +465,98 @@ public class STNU {
 	STNU() {
 	}
 
+	/**
+	 * Adds a contingent link <code>(A, x, y, C)</code> to this STNU and returns whether the STNU is still dynamically controllable.<br>
+	 * The link is represented by the lower-case edge <code>(A, c:x, C)</code> and the upper-case edge <code>(C, C:-y, A)</code>.
+	 * If the last check was a successful {@link CheckAlgorithm#RUL2020} one, the check is incremental (see
+	 * {@link #addOrTightenEdge(LabeledNode, LabeledNode, int)}): the new link and the contingent links whose contingent node is reachable from
+	 * <code>C</code> are back-propagated. Otherwise, a full {@link #dynamicControllabilityCheck(CheckAlgorithm)} by RUL2020 is executed.
+	 *
+	 * @param A activation node. It must belong to the graph and it cannot be the activation node of another contingent link.
+	 * @param C contingent node. It must belong to the graph, it cannot be already contingent and there must be no edge between A and C.
+	 * @param x lower bound of the duration. It must be non-negative.
+	 * @param y upper bound of the duration. It must be greater than x.
+	 * @return true if the STNU is DC after the addition, false if it is not DC or the check has been interrupted (see
+	 *         {@link STNCheckStatus#finished}).
+	 * @throws WellDefinitionException if a full check is necessary and the network is not well defined.
+	 * @throws IllegalArgumentException if the link cannot be added.
+	 */
+	public boolean addContingentLink(LabeledNode A, LabeledNode C, int x, int y) throws WellDefinitionException {
+		if (this.g == null)
+			throw new IllegalArgumentException("The graph is null!");
+		if (this.g.getNodeIndex(A) == Constants.INT_NULL || this.g.getNodeIndex(C) == Constants.INT_NULL || A == C)
+			throw new IllegalArgumentException("Nodes " + A + " and " + C + " must be two different nodes of the graph.");
+		if (x < 0 || y <= x)
+			throw new IllegalArgumentException("Bounds [" + x + ", " + y + "] are not valid for a contingent link.");
+		if (C.isContingent() || (this.activationNode != null && (this.activationNode.containsKey(C) || this.activationNode.containsValue(A))))
+			throw new IllegalArgumentException("Node " + C + " is already contingent or " + A + " already activates a contingent link.");
+		if (this.g.findEdge(A, C) != null || this.g.findEdge(C, A) != null)
+			throw new IllegalArgumentException("There is already an edge between " + A + " and " + C + ".");
+
+		final ALetter c = new ALetter(C.getName());
+		final STNUEdge eAC = makeNewEdge(A.getName() + "_" + C.getName(), ConstraintType.contingent);
+		eAC.setLabeledValue(c, x, false);
+		this.g.addEdge(eAC, A, C);
+		final STNUEdge eCA = makeNewEdge(C.getName() + "_" + A.getName(), ConstraintType.contingent);
+		eCA.setLabeledValue(c, -y, true);
+		this.g.addEdge(eCA, C, A);
+		C.setContingent(true);
+
+		if (this.rulGlobalInfo == null)
+			return dynamicControllabilityCheck(CheckAlgorithm.RUL2020).isControllability();
+		this.lowerContingentEdge.put(C, eAC);
+		this.upperContingentEdge.put(C, eCA);
+		this.activationNode.put(C, A);
+		this.rulGlobalInfo.upperCaseEdgeFromActivation.put(A, eCA);
+		updateMaxWeight(y);
+		return rul2020Incremental(C);
+	}
+
+	/**
+	 * Adds the ordinary constraint <code>dest - source &le; value</code> to this STNU and returns whether the STNU is still dynamically
+	 * controllable.<br>
+	 * If there is already an edge from <code>source</code> to <code>dest</code> with a value not greater than <code>value</code>, the graph
+	 * is not modified. Otherwise, the edge is added or its value is tightened to <code>value</code>.<br>
+	 * If the last check was a successful {@link CheckAlgorithm#RUL2020} one (or a successful or interrupted incremental check), the check is
+	 * incremental: the RUL2020 state (node potentials and status of upper-case edges) is kept between calls, the potential is repaired from
+	 * <code>dest</code> and only the contingent links whose contingent node is reachable from <code>dest</code> are back-propagated again.
+	 * Since such back-propagations can tighten the edges into their activation nodes, the reachability also follows the upper-case edges.
+	 * Otherwise, a full {@link #dynamicControllabilityCheck(CheckAlgorithm)} by RUL2020 is executed.<br>
+	 * Each incremental check has the same timeout of a full check.
+	 * The graph must not be modified in other ways between two incremental calls.
+	 *
+	 * @param source source node. It must belong to the graph of this STNU.
+	 * @param dest destination node. It must belong to the graph of this STNU.
+	 * @param value value of the constraint.
+	 * @return true if the STNU is DC after the addition, false if it is not DC or the check has been interrupted (see
+	 *         {@link STNCheckStatus#finished}).
+	 * @throws WellDefinitionException if a full check is necessary and the network is not well defined.
+	 * @throws IllegalArgumentException if a node does not belong to the graph or the edge between the nodes is contingent.
+	 */
+	public boolean addOrTightenEdge(LabeledNode source, LabeledNode dest, int value) throws WellDefinitionException {
+		if (this.g == null)
+			throw new IllegalArgumentException("The graph is null!");
+		if (this.g.getNodeIndex(source) == Constants.INT_NULL || this.g.getNodeIndex(dest) == Constants.INT_NULL || source == dest)
+			throw new IllegalArgumentException("Nodes " + source + " and " + dest + " must be two different nodes of the graph.");
+		STNUEdge e = this.g.findEdge(source, dest);
+		if (e != null && e.isContingentEdge())
+			throw new IllegalArgumentException("Edge " + e + " is contingent. It cannot be tightened.");
+		final boolean incremental = this.rulGlobalInfo != null;
+		if (incremental && this.checkStatus.finished && e != null && e.getValue() != Constants.INT_NULL && e.getValue() <= value)
+			return true;
+		if (e == null) {
+			e = makeNewEdge(source.getName() + "_" + dest.getName(), ConstraintType.requirement);
+			this.g.addEdge(e, source, dest);
+		}
+		if (e.getValue() == Constants.INT_NULL || e.getValue() > value) {
+			e.setValue(value);
+		}
+		if (!incremental)
+			return dynamicControllabilityCheck(CheckAlgorithm.RUL2020).isControllability();
+		updateMaxWeight(-value);
+		return rul2020Incremental(dest);
+	}
+
 	/**
 	 * Checks the consistency of a STN instance within timeout seconds.
 	 * During the execution of this method, the given graph is modified. <br>
@@ -433,6 +589,7 @@ public class STNU {
 		if (!this.checkStatus.initialized) {
 			throw new IllegalStateException("The STNU has not been initialized! Please, consider dynamicConsistencyCheck() method!");
 		}
+		this.checkStatus.setDeadline(this.timeOut);
 		Instant startInstant = Instant.now();
 
 		switch (alg) {
@@ -445,13 +602,16 @@ public class STNU {
 		// case BellmanFord:// it is just for experiments
 		// this.checkStatus.setControllability(bellmanFordOL() != null);
 		// break;
+		case ParallelRUL2020:
+			this.checkStatus.setControllability(rul2020(this.parallelism));
+			break;
 		default:
 		case RUL2020:
 			this.checkStatus.setControllability(rul2020());
 			break;
 		}
 		Instant endInstant = Instant.now();
-		this.checkStatus.finished = true;
+		this.checkStatus.finished = !(this.checkStatus.timeout || this.checkStatus.cancelled);
 		this.checkStatus.executionTimeNS = Duration.between(startInstant, endInstant).toNanos();
 
 		if (!this.checkStatus.isControllability()) {
@@ -483,6 +643,17 @@ public class STNU {
 		return this.checkStatus;
 	}
 
+	/**
+	 * Cancels the running check.<br>
+	 * The check stops cooperatively as soon as possible: it returns a status that is not finished and has
+	 * {@link STNCheckStatus#cancelled} true. It can be called by any thread.<br>
+	 * If it is called before the check starts (e.g., just after the check has been submitted to an executor), the check stops at its beginning.
+	 * The request remains until <code>setG(...)</code> is called or {@link STNCheckStatus#cancelled} is set to false.
+	 */
+	public void cancel() {
+		this.checkStatus.cancelled = true;
+	}
+
 	/**
 	 * <p>
 	 * Getter for the field <code>checkStatus</code>.
@@ -553,6 +724,13 @@ public class STNU {
 		return this.maxWeight;
 	}
 
+	/**
+	 * @return the number of threads used by {@link CheckAlgorithm#ParallelRUL2020}. A non positive value means all available processors.
+	 */
+	public int getParallelism() {
+		return this.parallelism;
+	}
+
 	/**
 	 * <p>
 	 * getVersionAndCopyright.
@@ -588,6 +766,8 @@ public class STNU {
 		}
 		this.g.clearCache();
 		this.gCheckedCleaned = null;
+		this.rulGlobalInfo = null;
+		this.derivation = new Object2ObjectOpenHashMap<>();
 		this.Z = this.g.getZ();
 		this.activationNode = new Object2ObjectOpenHashMap<>();
 		this.lowerContingentEdge = new Object2ObjectOpenHashMap<>();
@@ -910,6 +1090,60 @@ public class STNU {
 		return this.cleanCheckedInstance;
 	}
 
+	/**
+	 * Transforms the current graph into a minimal dispatchable equivalent one (Morris, “Dynamic controllability and dispatchability
+	 * relationships”, CPAIOR 2014), so that a real-time dispatcher (see {@link STNUDispatcher}) has to propagate each event along few
+	 * edges.<br>
+	 * If the network has not been checked yet, a {@link #dynamicControllabilityCheck()} is executed.
+	 * Then, the ordinary edges of the checked network, completed by the ones that the lower-case and the upper-case + label-removal rules
+	 * derive on shortest paths, form an STN that is made dispatchable by {@link STN#makeDispatchable()}, i.e., it is closed w.r.t. shortest
+	 * paths and the dominated edges are removed.
+	 * Finally, all ordinary edges of the graph are replaced by the undominated ones. Contingent links are maintained.
+	 * <p>
+	 * Waits are not stored: since all distances among timepoints are preserved, they are determined again by the dispatcher.
+	 * After this transformation, {@link #addOrTightenEdge(LabeledNode, LabeledNode, int)} executes a full check.
+	 *
+	 * @return true if the network is dynamically controllable and it has been made dispatchable, false if it is not dynamically controllable
+	 *         and the graph has not been modified by this method.
+	 * @throws WellDefinitionException if the network is not well defined.
+	 */
+	public boolean makeDispatchable() throws WellDefinitionException {
+		if (!this.checkStatus.finished)
+			dynamicControllabilityCheck();
+		if (!this.checkStatus.isControllability())
+			return false;
+		final TNGraph<STNEdge> distanceGraph;
+		try {
+			distanceGraph = new STNUDispatcher(this).getDistanceGraph();
+		} catch (IllegalArgumentException e) {
+			if (Debug.ON) {
+				if (LOG.isLoggable(Level.INFO)) {
+					LOG.log(Level.INFO, "The network cannot be made dispatchable: " + e.getMessage());
+				}
+			}
+			return false;
+		}
+		if (!new STN(distanceGraph).makeDispatchable())
+			return false;
+
+		final TNGraph<STNUEdge> g1 = this.getGChecked();
+		for (final STNUEdge e : g1.getEdges()) {
+			if (!e.isContingentEdge())
+				g1.removeEdge(e);
+		}
+		for (final STNEdge e : distanceGraph.getEdges()) {
+			final LabeledNode s = g1.getNode(distanceGraph.getSource(e).getName()), d = g1.getNode(distanceGraph.getDest(e).getName());
+			if (s == d || g1.findEdge(s, d) != null)
+				// contingent bounds imply the derived constraint between the two nodes
+				continue;
+			final STNUEdge e1 = makeNewEdge(s.getName() + "_" + d.getName(), ConstraintType.derived);
+			e1.setValue(e.getValue());
+			g1.addEdge(e1, s, d);
+		}
+		this.rulGlobalInfo = null;
+		return true;
+	}
+
 	/**
 	 * The equivalent normal-form of the distance graph associated to a STNU.
 	 * In a normal-form distance-graph, each contingent link has a 0 lower bound.
@@ -1091,6 +1325,123 @@ public class STNU {
 		this.cleanCheckedInstance = clean;
 	}
 
+	/**
+	 * @param nThreads the number of threads used by {@link CheckAlgorithm#ParallelRUL2020}. A non positive value means all available
+	 *            processors.
+	 */
+	public void setParallelism(int nThreads) {
+		this.parallelism = nThreads;
+	}
+
+	/**
+	 * Adds to <code>cycle</code> the steps of the path from <code>node</code> to the target of <code>d</code> followed by the last step of
+	 * <code>d</code>, if any.
+	 * 
+	 * @param d the paths
+	 * @param node index of the starting node
+	 * @param cycle the list to update
+	 * @return false if the path is not complete.
+	 */
+	private boolean addPath(Derivation d, int node, ObjectList<PathStep> cycle) {
+		for (int i = 0; node != d.target; i++) {
+			final PathStep step = d.next[node];
+			if (step == null || i == d.next.length)
+				return false;
+			cycle.add(step);
+			node = this.g.getNodeIndex(this.g.getDest(step.edge));
+		}
+		if (d.last != null)
+			cycle.add(d.last);
+		return true;
+	}
+
+	/**
+	 * Determines the cycle reachable from <code>node</code> following the <code>next</code> steps.
+	 * 
+	 * @param next for each node index, the step to follow, or null.
+	 * @param node index of the starting node.
+	 * @return the cycle, or null if a node without step is met.
+	 */
+	private ObjectList<PathStep> cycleFrom(PathStep[] next, int node) {
+		for (int i = 0; i < next.length; i++) {
+			if (next[node] == null)
+				return null;
+			node = this.g.getNodeIndex(this.g.getDest(next[node].edge));
+		}
+		final ObjectList<PathStep> cycle = new ObjectArrayList<>();
+		final int first = node;
+		do {
+			if (next[node] == null)
+				return null;
+			cycle.add(next[node]);
+			node = this.g.getNodeIndex(this.g.getDest(next[node].edge));
+		} while (node != first);
+		return cycle;
+	}
+
+	/**
+	 * Adds to <code>edges</code> the copy of the edge of the step or, if the edge has been determined by the check, the edges of the path
+	 * that determined it.
+	 * 
+	 * @param step a step
+	 * @param edges the list to update
+	 * @param expanding the edges whose expansion is in progress
+	 */
+	private void expandStep(PathStep step, ObjectList<STNUEdge> edges, ObjectSet<STNUEdge> expanding) {
+		final Derivation d = (step.caseValue) ? null : this.derivation.get(step.edge);
+		final ObjectList<PathStep> path = new ObjectArrayList<>();
+		if (d != null && expanding.add(step.edge)) {
+			if (addPath(d, this.g.getNodeIndex(this.g.getSource(step.edge)), path)) {
+				for (final PathStep s : path) {
+					expandStep(s, edges, expanding);
+				}
+				expanding.remove(step.edge);
+				return;
+			}
+			expanding.remove(step.edge);
+		}
+		final STNUEdge e = step.edge;
+		final STNUEdge copy = new STNUEdgeInt(e.getName());
+		copy.setConstraintType(e.getConstraintType());
+		if (step.caseValue) {
+			copy.setLabeledValue(e.getNodeLabel().getFirst(), e.getLabeledValue(), e.isUpperCase());
+		} else {
+			copy.setValue(e.getValue());
+		}
+		edges.add(copy);
+	}
+
+	/**
+	 * Sets {@link STNUCheckStatus#semiReducibleNegativeCycle}, {@link STNUCheckStatus#negativeCycle} and
+	 * {@link STNUCheckStatus#negativeCycleWeight} from the given cycle.
+	 * 
+	 * @param cycle the negative cycle found by the check. If it is null, nothing is done.
+	 */
+	private void setNegativeCycle(ObjectList<PathStep> cycle) {
+		if (cycle == null)
+			return;
+		final ObjectList<STNUEdge> edges = new ObjectArrayList<>();
+		final ObjectSet<STNUEdge> expanding = new ObjectOpenHashSet<>();
+		for (final PathStep step : cycle) {
+			expandStep(step, edges, expanding);
+		}
+		final ObjectList<LabeledNode> nodes = new ObjectArrayList<>();
+		int weight = 0;
+		for (final STNUEdge e : edges) {
+			nodes.add(this.g.getSource(e.getName()));
+			weight = Constants.sumWithOverflowCheck(weight, (e.getValue() != Constants.INT_NULL) ? e.getValue() : e.getLabeledValue());
+		}
+		nodes.add(nodes.get(0));
+		this.checkStatus.semiReducibleNegativeCycle = edges;
+		this.checkStatus.negativeCycle = nodes;
+		this.checkStatus.negativeCycleWeight = weight;
+		if (Debug.ON) {
+			if (LOG.isLoggable(Level.FINE)) {
+				LOG.log(Level.FINE, "Semi-reducible negative cycle: " + edges);
+			}
+		}
+	}
+
 	/**
 	 * Create an edge assuring that its name is unique in the graph 'g'.
 	 *
@@ -1188,7 +1539,9 @@ public class STNU {
 	 * It only back-propagates along non-negative edges. It makes recursive function calls to dcbackprop. use a global vector to
 	 * keep track of status of each "negative node": *not-yet-encountered*, *already-started*, *successfully-completed*.<br>
 	 * That way, when you enter a recursive call, you can check its status (see first few lines of pseudocode for the algorithm in morris-2014) before
-	 * proceeding.
+	 * proceeding.<br>
+	 * If the graph is not DC, the semi-reducible negative cycle is stored in {@link STNUCheckStatus#semiReducibleNegativeCycle}. Its
+	 * edges are the ones of the graph in normal form.
 	 * 
 	 * @return true if the graph is dynamic controllable (DC), false otherwise.
 	 */
@@ -1199,17 +1552,20 @@ public class STNU {
 		// determine negative nodes, i.e., nodes target of negative ordinary edges or upper-case edge.
 		Object2ObjectMap<LabeledNode, ElementStatus> negativeNodes = new Object2ObjectOpenHashMap<>();
 		for (LabeledNode node : this.g.getVerticesArray()) {
-			for (STNUEdge inEdge : this.g.getInEdges(node)) {
-				if (getUpperOrOrdinaryValue(inEdge) < 0) {
+			final int nodeIndex = this.g.getNodeIndex(node);
+			for (int slot = this.g.firstInSlot(nodeIndex); slot >= 0; slot = this.g.nextInSlot(nodeIndex, slot)) {
+				if (getUpperOrOrdinaryValue(this.g.inEdgeAt(nodeIndex, slot)) < 0) {
 					negativeNodes.put(node, ElementStatus.unstarted);
 				}
 			}
 		}
 		assert negativeNodes.size() == negativeNodes.keySet().size();
 
+		this.derivation.clear();
+		final ObjectList<Derivation> frames = new ObjectArrayList<>();
 		// main morris2014 cycle
 		for (LabeledNode X : negativeNodes.keySet()) {
-			if (!morris2014DCBackpropagation(X, negativeNodes))
+			if (STN.checkTimeOutAndAdjustStatus(this.checkStatus) || !morris2014DCBackpropagation(X, negativeNodes, frames))
 				return false;
 		}
 		return true;
@@ -1221,9 +1577,11 @@ public class STNU {
 	 * 
 	 * @param X must not be null
 	 * @param negativeNodes a set of negative nodes. It must contain source.
+	 * @param frames the paths of the back propagations in progress, the last one is the one of the caller.
 	 * @return true if no negative semi-reducible was met. False, otherwise.
 	 */
-	private boolean morris2014DCBackpropagation(LabeledNode X, Object2ObjectMap<LabeledNode, ElementStatus> negativeNodes) {
+	private boolean morris2014DCBackpropagation(LabeledNode X, Object2ObjectMap<LabeledNode, ElementStatus> negativeNodes,
+			ObjectList<Derivation> frames) {
 		if (Debug.ON) {
 			LOG.finer("X node  " + X.getName() + " starts.");
 		}
@@ -1232,6 +1590,25 @@ public class STNU {
 			if (Debug.ON) {
 				LOG.info("Found a semi-reducibile negative cycle since source node " + X.getName() + " was already met.");
 			}
+			// X was extracted in the last frame; the target of each frame was extracted in the previous one.
+			final int xIndex = this.g.getNodeIndex(X);
+			if (frames.get(frames.size() - 1).target == xIndex) {
+				setNegativeCycle(cycleFrom(frames.get(frames.size() - 1).next, xIndex));
+				return false;
+			}
+			final ObjectList<PathStep> cycle = new ObjectArrayList<>();
+			int node = xIndex;
+			for (int k = frames.size(); k-- > 0;) {
+				final Derivation frame = frames.get(k);
+				if (!addPath(frame, node, cycle)) {
+					return false;
+				}
+				node = frame.target;
+				if (node == xIndex) {
+					setNegativeCycle(cycle);
+					break;
+				}
+			}
 			return false;
 		}
 		if (sourceStatus.equals(ElementStatus.finished)) {
@@ -1243,35 +1620,46 @@ public class STNU {
 		this.checkStatus.cycles++;// Counts how many time this procedure was called;
 		negativeNodes.put(X, ElementStatus.started);
 
-		Object2IntOpenHashMap<LabeledNode> distance = new Object2IntOpenHashMap<>(this.g.getVertexCount());
-		distance.defaultReturnValue(Constants.INT_POS_INFINITE);
-		distance.put(X, 0);
-
-		PriorityQueue<LabeledNode> queue = new PriorityQueue<>();
-		for (STNUEdge e2Source : this.g.getInEdges(X)) {
-			int v = getUpperOrOrdinaryValue(e2Source);
+		final int n = this.g.getVertexCount();
+		final int[] distance = new int[n];
+		Arrays.fill(distance, Constants.INT_POS_INFINITE);
+		final int xIndex = this.g.getNodeIndex(X);
+		distance[xIndex] = 0;
+		final Derivation frame = new Derivation(n, xIndex, null);
+		final PathStep[] next = frame.next;
+		frames.add(frame);
+
+		final IndexedPriorityQueue queue = new IndexedPriorityQueue(n);
+		for (int slot = this.g.firstInSlot(xIndex); slot >= 0; slot = this.g.nextInSlot(xIndex, slot)) {
+			final STNUEdge eSX = this.g.inEdgeAt(xIndex, slot);
+			int v = getUpperOrOrdinaryValue(eSX);
 			if (v >= 0)
 				continue;
-			LabeledNode s = this.g.getSource(e2Source);
+			final int sIndex = this.g.inNodeAt(xIndex, slot);
 			if (Debug.ON) {
-				LOG.finer("Queue.add(" + s.getName() + ", " + v + ")");
+				LOG.finer("Queue.add(" + this.g.getNode(sIndex).getName() + ", " + v + ")");
 			}
-			distance.put(s, v);
-			queue.insertOrDecrease(s, v);
+			distance[sIndex] = v;
+			next[sIndex] = new PathStep(eSX, eSX.isUpperCase());
+			queue.insertOrDecrease(sIndex, v);
 		}
 		assert queue.size() != 0;
 		while (queue.size() != 0) {
-			LabeledNode U = queue.extractMin();
+			if (STN.checkTimeOutAndAdjustStatus(this.checkStatus))
+				return false;
+			final int uIndex = queue.extractMin();
+			LabeledNode U = this.g.getNode(uIndex);
 			if (Debug.ON) {
 				LOG.finest("Analyze X node " + X.getName() + " and U node " + U.getName());
 			}
-			int distU = distance.getInt(U);
+			int distU = distance[uIndex];
 			if (distU >= 0) {
 				STNUEdge newE = this.g.findEdge(U, X);
 				if (newE == null) {
 					newE = makeNewEdge(U.getName() + '_' + X.getName(), ConstraintType.internal);
 					newE.setValue(distU);
 					this.g.addEdge(newE, U, X);
+					this.derivation.put(newE, frame);
 					this.checkStatus.addedEdges++;
 					if (Debug.ON) {
 						LOG.finer("Added " + newE.toString() + ". Continue with the next node.");
@@ -1279,6 +1667,7 @@ public class STNU {
 				} else {
 					if (distU < newE.getValue() || newE.getValue() == Constants.INT_NULL) {
 						newE.setValue(distU);
+						this.derivation.put(newE, frame);
 						if (Debug.ON) {
 							LOG.finer("Adjusted " + newE.toString() + ". Continue with the next node.");
 						}
@@ -1290,16 +1679,17 @@ public class STNU {
 				if (Debug.ON) {
 					LOG.finer("Node " + U.getName() + " is negative. Analyze it recursively.");
 				}
-				if (!morris2014DCBackpropagation(U, negativeNodes))
+				if (!morris2014DCBackpropagation(U, negativeNodes, frames))
 					return false;
 			}
 
-			for (STNUEdge eVU : this.g.getInEdges(U)) {
+			for (int slot = this.g.firstInSlot(uIndex); slot >= 0; slot = this.g.nextInSlot(uIndex, slot)) {
 				// it is possible that there exist edges like A---(c:4),5--->C
-				LabeledNode V = this.g.getSource(eVU);
+				STNUEdge eVU = this.g.inEdgeAt(uIndex, slot);
+				final int V = this.g.inNodeAt(uIndex, slot);
 				if (eVU.isLowerCase()) {
-					if (X != V) {
-						morris2014UpdateDistance(V, eVU.getLabeledValue(), distU, queue, distance);
+					if (xIndex != V) {
+						morris2014UpdateDistance(V, eVU.getLabeledValue(), distU, queue, distance, next, eVU, true);
 					} else {
 						if (Debug.ON) {
 							LOG.finer("Found an unsuitable edge " + eVU);
@@ -1309,12 +1699,13 @@ public class STNU {
 				int valueVU = eVU.getValue();
 				if (valueVU == Constants.INT_NULL || valueVU < 0)
 					continue;
-				morris2014UpdateDistance(V, valueVU, distU, queue, distance);
+				morris2014UpdateDistance(V, valueVU, distU, queue, distance, next, eVU, false);
 			}
 		}
 		if (Debug.ON) {
 			LOG.finer("Source node " + X.getName() + " completed.");
 		}
+		frames.remove(frames.size() - 1);
 		negativeNodes.put(X, ElementStatus.finished);
 		return true;
 	}
@@ -1322,28 +1713,100 @@ public class STNU {
 	/**
 	 * Updates the distance values between node (V) preceding the source (U) of a negative edge and the destination node (X) of the negative edge.
 	 * 
-	 * @param V
+	 * @param V index of node V
 	 * @param valueVU Assumed to be >= 0.
 	 * @param distU
 	 * @param queue
-	 * @param distance
+	 * @param distance distances indexed by node index
+	 * @param next first step of the path from each node, indexed by node index
+	 * @param eVU the edge from V to U
+	 * @param caseValue true if valueVU is the lower-case value of eVU
 	 */
-	private static void morris2014UpdateDistance(LabeledNode V, int valueVU, int distU, PriorityQueue<LabeledNode> queue,
-			Object2IntOpenHashMap<LabeledNode> distance) {
+	private static void morris2014UpdateDistance(int V, int valueVU, int distU, IndexedPriorityQueue queue, int[] distance,
+			PathStep[] next, STNUEdge eVU, boolean caseValue) {
 
 		int newValue = Constants.sumWithOverflowCheck(distU, valueVU);
-		if (newValue < distance.getInt(V)) {
+		if (newValue < distance[V]) {
 			if (Debug.ON) {
-				LOG.finer("Update distance of " + V.getName() + " using edge value " + valueVU + " and distance " + distU + ": old value: "
-						+ distance.getInt(V) + " new: " + newValue);
+				LOG.finer("Update distance of node " + V + " using edge value " + valueVU + " and distance " + distU + ": old value: "
+						+ distance[V] + " new: " + newValue);
 			}
-			distance.put(V, newValue);
-			assert distance.getInt(V) == newValue;
+			distance[V] = newValue;
+			next[V] = new PathStep(eVU, caseValue);
 			queue.insertOrDecrease(V, newValue);
 			assert queue.getPriority(V) == newValue;
 		}
 	}
 
+	/**
+	 * An edge of a path found during a check and the value of the edge used in the path.
+	 * 
+	 * @author posenato
+	 */
+	private static final class PathStep {
+		/**
+		 * The edge.
+		 */
+		final STNUEdge edge;
+
+		/**
+		 * True if the lower/upper-case value is used, false if the ordinary one is used.
+		 */
+		final boolean caseValue;
+
+		/**
+		 * @param e the edge
+		 * @param caseValue true if the lower/upper-case value is used
+		 */
+		PathStep(STNUEdge e, boolean caseValue) {
+			this.edge = e;
+			this.caseValue = caseValue;
+		}
+
+		/**
+		 * @param e an edge
+		 * @return the step using the minimum between the ordinary and the lower-case value of e.
+		 */
+		static PathStep ofMinValue(STNUEdge e) {
+			final int v = e.getValue();
+			return new PathStep(e, e.isLowerCase() && (v == Constants.INT_NULL || e.getLabeledValue() < v));
+		}
+	}
+
+	/**
+	 * The shortest paths to a target node determined by a back propagation: for each node, the first step of its path to the target.
+	 * Optionally, the paths are followed by a last step (the upper-case edge in RUL2020).
+	 * 
+	 * @author posenato
+	 */
+	private static final class Derivation {
+		/**
+		 * First step of the path from each node (by index) to {@link #target}.
+		 */
+		final PathStep[] next;
+
+		/**
+		 * Index of the target node.
+		 */
+		final int target;
+
+		/**
+		 * Step after the target, it can be null.
+		 */
+		final PathStep last;
+
+		/**
+		 * @param n number of nodes
+		 * @param target index of the target node
+		 * @param last step after the target, it can be null.
+		 */
+		Derivation(int n, int target, PathStep last) {
+			this.next = new PathStep[n];
+			this.target = target;
+			this.last = last;
+		}
+	}
+
 	/**
 	 * Data structure for RUL algorithm.
 	 * 
@@ -1365,11 +1828,17 @@ public class STNU {
 		 */
 		Object2ObjectMap<LabeledNode, STNUEdge> upperCaseEdgeFromActivation;
 
+		/**
+		 * Paths of the back propagations in progress, in order of start.
+		 */
+		ObjectList<Derivation> frames;
+
 		RULGlobalInfo(Object2IntMap<LabeledNode> potential, int nUpperCaseEdges) {
 			this.nodePotential = potential;
 			this.upperCaseEdgeStatus = new Object2ObjectOpenHashMap<>(nUpperCaseEdges);
 			this.upperCaseEdgeStatus.defaultReturnValue(ElementStatus.unstarted);
 			this.upperCaseEdgeFromActivation = null;
+			this.frames = new ObjectArrayList<>();
 		}
 	}
 
@@ -1394,16 +1863,38 @@ public class STNU {
 		 */
 		Object2ObjectMap<LabeledNode, STNUEdge> unstartedUCEdges;
 
+		/**
+		 * First step of the path from each node to C determined when the node has been extracted with its distance,
+		 * followed by the upper-case edge.
+		 */
+		Derivation paths;
+
+		/**
+		 * First step of the path from each node in the queue to C.
+		 */
+		PathStep[] candidate;
+
+		/**
+		 * True if the back propagation is speculative, i.e., it must not modify the check status.
+		 */
+		boolean speculative;
+
 		/**
 		 * Default constructor
 		 * 
 		 * @param defaultDistance default distance when map does not contasin the key
+		 * @param n number of nodes
+		 * @param cIndex index of the contingent node C
+		 * @param upperCaseEdge the upper-case edge (C,C:-y,A)
 		 */
-		RULLocalInfo(int defaultDistance) {
+		RULLocalInfo(int defaultDistance, int n, int cIndex, STNUEdge upperCaseEdge) {
 			this.distanceFrom = new Object2IntOpenHashMap<>();
 			this.distanceFrom.defaultReturnValue(defaultDistance);
 			this.ccLoop = false;
 			this.unstartedUCEdges = null;
+			this.paths = new Derivation(n, cIndex, new PathStep(upperCaseEdge, true));
+			this.candidate = new PathStep[n];
+			this.speculative = false;
 		}
 
 	}
@@ -1450,6 +1941,8 @@ public class STNU {
 			LOG.finer("Stack S: " + S.toString());
 		}
 		while (S.size() != 0) {
+			if (STN.checkTimeOutAndAdjustStatus(this.checkStatus))
+				return false;
 			this.checkStatus.cycles++;// Counts how many time this procedure was called;
 
 			LabeledNode C = S.top();
@@ -1534,10 +2027,13 @@ public class STNU {
 		}
 		PriorityQueue<LabeledNode> Q = new PriorityQueue<>();
 		LabeledNode W;
-		for (STNUEdge e : this.g.getInEdges(C)) {
+		STNUEdge e;
+		final int cIndex = this.g.getNodeIndex(C);
+		for (int slot = this.g.firstInSlot(cIndex); slot >= 0; slot = this.g.nextInSlot(cIndex, slot)) {
+			e = this.g.inEdgeAt(cIndex, slot);
 			if (!e.isOrdinaryEdge())
 				continue;
-			W = this.g.getSource(e);
+			W = this.g.getNode(this.g.inNodeAt(cIndex, slot));
 			Q.insertOrDecrease(W, Constants.sumWithOverflowCheck(h.getInt(W), e.getValue()));
 		}
 		if (Debug.ON) {
@@ -1617,9 +2113,11 @@ public class STNU {
 			return newEdges;
 		}
 		assert !W.isContingent();
-		for (STNUEdge eVW : this.g.getInEdges(W)) {
+		final int wIndex = this.g.getNodeIndex(W);
+		for (int slot = this.g.firstInSlot(wIndex); slot >= 0; slot = this.g.nextInSlot(wIndex, slot)) {
+			STNUEdge eVW = this.g.inEdgeAt(wIndex, slot);
 			assert eVW.isLowerCase() == false;
-			LabeledNode V = this.g.getSource(eVW);
+			LabeledNode V = this.g.getNode(this.g.inNodeAt(wIndex, slot));
 			if (V == C)
 				continue;
 			int eVWvalue = eVW.getValue();
@@ -1673,14 +2171,17 @@ public class STNU {
 	/**
 	 * RUL^- algorithm: updatePotential procedure<br>
 	 * 
+	 * If a negative cycle is found, it is stored in {@link STNUCheckStatus#semiReducibleNegativeCycle}.
+	 * 
 	 * @param h out-of-date potential
 	 * @param A an activation time point
-	 * @return the update potential considering edges terminating at A.
+	 * @return the update potential considering edges terminating at A, null if a negative cycle is found.
 	 */
 	private Object2IntMap<LabeledNode> rul2018UpdatePotential(Object2IntMap<LabeledNode> h, LabeledNode A) {
 
 		Object2IntMap<LabeledNode> newH = new Object2IntOpenHashMap<>(h);
 		PriorityQueue<LabeledNode> newQ = new PriorityQueue<>();
+		final PathStep[] next = new PathStep[this.g.getVertexCount()];
 
 		newQ.insertOrDecrease(A, 0);
 		LabeledNode V;
@@ -1688,8 +2189,10 @@ public class STNU {
 		while (newQ.size() != 0) {
 			BasicEntry<LabeledNode> entry = newQ.extractMinEntry();
 			LabeledNode W = entry.getKey();
-			for (STNUEdge eVW : this.g.getInEdges(W)) {
-				V = this.g.getSource(eVW);
+			final int wIndex = this.g.getNodeIndex(W);
+			for (int slot = this.g.firstInSlot(wIndex); slot >= 0; slot = this.g.nextInSlot(wIndex, slot)) {
+				STNUEdge eVW = this.g.inEdgeAt(wIndex, slot);
+				V = this.g.getNode(this.g.inNodeAt(wIndex, slot));
 				if (eVW.isLowerCase()) {
 					// redundant code but useful for checking the correctness
 					w = eVW.getLabeledValue();
@@ -1697,8 +2200,14 @@ public class STNU {
 					int newVpot = Constants.sumWithOverflowCheck(newH.getInt(W), -w);
 					if (Vpot < newVpot) {
 						newH.put(V, newVpot);
+						final int vIndex = this.g.inNodeAt(wIndex, slot);
+						next[vIndex] = new PathStep(eVW, true);
 						int newKey = Constants.sumWithOverflowCheck(h.getInt(V), -newVpot);
-						newQ.insertOrDecrease(V, newKey);
+						if (!newQ.insertOrDecrease(V, newKey)) {
+							// a negative cycle can be closed by a lower-case edge too.
+							setNegativeCycle(cycleFrom(next, vIndex));
+							return null;
+						}
 					}
 				}
 				w = eVW.getValue();
@@ -1708,9 +2217,13 @@ public class STNU {
 				int newVpot = Constants.sumWithOverflowCheck(newH.getInt(W), -w);
 				if (Vpot < newVpot) {
 					newH.put(V, newVpot);
+					final int vIndex = this.g.inNodeAt(wIndex, slot);
+					next[vIndex] = new PathStep(eVW, false);
 					int newKey = Constants.sumWithOverflowCheck(h.getInt(V), -newVpot);
-					if (!newQ.insertOrDecrease(V, newKey))
+					if (!newQ.insertOrDecrease(V, newKey)) {
+						setNegativeCycle(cycleFrom(next, vIndex));
 						return null;
+					}
 				}
 			}
 		}
@@ -1721,7 +2234,8 @@ public class STNU {
 	 * Determines the minimal distance between source node (added by the method) and any node using the BellmanFord algorithm.
 	 * The minimal distance is determined considering the ordinary an the lower case values of the input STNU.
 	 * The minimal distance is returned as map (node, value).
-	 * If the graph contains a negative cycle, it returns null.
+	 * If the graph contains a negative cycle, it returns null and the cycle is stored in
+	 * {@link STNUCheckStatus#semiReducibleNegativeCycle}.
 	 * 
 	 * @return the potential if the network is consistent, null otherwise.
 	 */
@@ -1735,6 +2249,8 @@ public class STNU {
 		for (LabeledNode V : this.g.getVertices()) {
 			h.put(V, 0);
 		}
+		// edge used for the last update of each node potential
+		final STNUEdge[] next = new STNUEdge[n];
 
 		LabeledNode s, d;
 		int w;
@@ -1751,6 +2267,7 @@ public class STNU {
 						LOG.finest("BF: " + s.getName() + " value from " + Constants.formatInt(h.getInt(s)) + " to " + Constants.formatInt(v));
 					}
 					h.put(s, v);
+					next[this.g.getNodeIndex(s)] = e;
 				}
 			}
 		}
@@ -1767,6 +2284,13 @@ public class STNU {
 					STN.LOG.finer("BF inconsitency:" + s.getName() + " value from "
 							+ Constants.formatInt(h.getInt(s)) + " to " + Constants.formatInt(v));
 				}
+				next[this.g.getNodeIndex(s)] = e;
+				final PathStep[] steps = new PathStep[n];
+				for (int i = 0; i < n; i++) {
+					if (next[i] != null)
+						steps[i] = PathStep.ofMinValue(next[i]);
+				}
+				setNegativeCycle(cycleFrom(steps, this.g.getNodeIndex(s)));
 				this.checkStatus.setControllability(false);
 				this.checkStatus.finished = true;
 				return null;
@@ -1784,6 +2308,24 @@ public class STNU {
 	 * @return true if the graph is dynamic controllable (DC), false otherwise.
 	 */
 	boolean rul2020() {
+		return rul2020(1);
+	}
+
+	/**
+	 * Luke's version of RUL^- algorithm: recRULdcCheck procedure.<br>
+	 * If <code>parallelism</code> is not 1, the back propagations of the upper-case edges are executed in rounds. In each round, the back
+	 * propagations of all not finished upper-case edges are executed concurrently by
+	 * {@link #rul2020SpeculativeBackPropagation(STNUEdge, int, RULGlobalInfo, IndexedPriorityQueue)} on the current graph. Then, their results
+	 * are applied one at a time: a result is applied only if none of the time-points whose incoming edges it has considered has received new
+	 * edges in the same round, i.e., if the region of its back propagation is disjoint from the activation time-points of the results
+	 * already applied. Otherwise, or if the back propagation depends on a not finished upper-case edge, it is repeated in the next round.
+	 * When a round applies no result, the remaining upper-case edges are managed sequentially.
+	 * 
+	 * @param parallelism number of threads. If it is 1, the computation is sequential. If it is not positive, the number of available
+	 *            processors is used.
+	 * @return true if the graph is dynamic controllable (DC), false otherwise.
+	 */
+	private boolean rul2020(int parallelism) {
 		this.contingentAlsoAsOrdinary = false; // RUL consider only labeled value in contingent links.
 		int k;
 
@@ -1791,6 +2333,8 @@ public class STNU {
 			return false;
 		k = this.getG().getContingentNodeCount();
 
+		this.rulGlobalInfo = null;
+		this.derivation.clear();
 		RULGlobalInfo globalInfo = new RULGlobalInfo(bellmanFordOL(), k);
 		if (globalInfo.nodePotential == null) {
 			if (Debug.ON) {
@@ -1798,17 +2342,17 @@ public class STNU {
 			}
 			return false;
 		}
+		// Prepare some auxiliary data structure necessary for rul2020OneStepBackProp
+		globalInfo.upperCaseEdgeFromActivation = new Object2ObjectOpenHashMap<>();
 		if (k == 0) {
 			// it is an STN
 			if (Debug.ON) {
 				LOG.info("The CSTNU ha no contingent time point! Finished!");
 			}
+			this.rulGlobalInfo = globalInfo;
 			return true;
 		}
 
-		// Prepare some auxiliary data structure necessary for rul2020OneStepBackProp
-		globalInfo.upperCaseEdgeFromActivation = new Object2ObjectOpenHashMap<>();
-
 		for (Entry<LabeledNode, STNUEdge> entry : this.upperContingentEdge.entrySet()) {
 			STNUEdge upperCaseEdge = entry.getValue();
 			LabeledNode actNode = this.activationNode.get(entry.getKey());
@@ -1818,14 +2362,216 @@ public class STNU {
 		assert k == globalInfo.upperCaseEdgeFromActivation.size() : "Number of contingents is not equal to the number of upper case edges: " + k + ","
 				+ globalInfo.upperCaseEdgeFromActivation.size();
 
+		final int nThreads = (parallelism > 0) ? parallelism : Runtime.getRuntime().availableProcessors();
+		if (nThreads > 1 && k > 1 && !rul2020ParallelRounds(globalInfo, nThreads)) {
+			return false;
+		}
 		for (STNUEdge upperCaseEdge : this.upperContingentEdge.values()) {
 			if (!rul2020BackPropagation(upperCaseEdge, globalInfo)) {
 				return false;
 			}
 		}
+		this.rulGlobalInfo = globalInfo;
+		return true;
+	}
+
+	/**
+	 * Parallel rounds of {@link #rul2020(int)}.
+	 * It updates {@link STNUCheckStatus#parallelBackPropagations} and {@link STNUCheckStatus#parallelUtilization}.
+	 * 
+	 * @param globalInfo global data structure for the algorithm
+	 * @param nThreads number of threads, greater than 1.
+	 * @return false if a negative circuit was found, true otherwise. Some upper-case edges may be still not finished.
+	 */
+	private boolean rul2020ParallelRounds(RULGlobalInfo globalInfo, int nThreads) {
+		final int n = this.g.getVertexCount();
+		final ObjectList<STNUEdge> ucEdges = new ObjectArrayList<>(this.upperContingentEdge.values());
+		final int[] DeltaC = new int[ucEdges.size()];
+		for (int i = 0; i < DeltaC.length; i++) {
+			final STNUEdge e = ucEdges.get(i);
+			DeltaC[i] = -e.getLabeledValue() - this.g.findEdge(this.g.getDest(e), this.g.getSource(e)).getLabeledValue();
+		}
+		final ForkJoinPool pool = new ForkJoinPool(nThreads);
+		long taskNS = 0, parallelNS = 0;
+		try {
+			while (true) {
+				if (STN.checkTimeOutAndAdjustStatus(this.checkStatus))
+					return false;
+				final IntArrayList todo = new IntArrayList();
+				for (int i = 0; i < DeltaC.length; i++) {
+					if (globalInfo.upperCaseEdgeStatus.get(ucEdges.get(i)) != ElementStatus.finished)
+						todo.add(i);
+				}
+				if (todo.isEmpty())
+					break;
+				// concurrent back propagations: graph and globalInfo are only read
+				final RULLocalInfo[] result = new RULLocalInfo[DeltaC.length];
+				final ObjectArrayList<Callable<Long>> tasks = new ObjectArrayList<>();
+				final int chunk = Math.max(1, (todo.size() + 4 * nThreads - 1) / (4 * nThreads));
+				for (int t0 = 0; t0 < todo.size(); t0 += chunk) {
+					final int first = t0, last = Math.min(t0 + chunk, todo.size());
+					tasks.add(() -> {
+						final long start = System.nanoTime();
+						final IndexedPriorityQueue queue = new IndexedPriorityQueue(n);
+						for (int j = first; j < last && !this.checkStatus.cancelled; j++) {
+							final int i = todo.getInt(j);
+							result[i] = rul2020SpeculativeBackPropagation(ucEdges.get(i), DeltaC[i], globalInfo, queue);
+						}
+						return System.nanoTime() - start;
+					});
+				}
+				final long start = System.nanoTime();
+				for (final Future<Long> time : pool.invokeAll(tasks)) {
+					taskNS += time.get();
+				}
+				parallelNS += System.nanoTime() - start;
+
+				// sequential application of the independent results
+				final boolean[] modified = new boolean[n];
+				int applied = 0;
+				for (int j = 0; j < todo.size(); j++) {
+					final int i = todo.getInt(j);
+					final RULLocalInfo localInfo = result[i];
+					if (localInfo == null)
+						continue;
+					final STNUEdge ucEdge = ucEdges.get(i);
+					final LabeledNode C = this.g.getSource(ucEdge);
+					boolean independent = !modified[this.g.getNodeIndex(C)];
+					for (Object2IntMap.Entry<LabeledNode> entry : localInfo.distanceFrom.object2IntEntrySet()) {
+						if (!independent)
+							break;
+						if (entry.getIntValue() < DeltaC[i] && modified[this.g.getNodeIndex(entry.getKey())])
+							independent = false;
+					}
+					if (!independent)
+						continue;
+					this.checkStatus.cycles++;
+					globalInfo.upperCaseEdgeStatus.put(ucEdge, ElementStatus.started);
+					if (!rul2020ApplyBackPropagation(ucEdge, localInfo, globalInfo))
+						return false;
+					modified[this.g.getNodeIndex(this.g.getDest(ucEdge))] = true;
+					applied++;
+				}
+				this.checkStatus.parallelBackPropagations += applied;
+				if (Debug.ON) {
+					if (LOG.isLoggable(Level.FINER)) {
+						LOG.log(Level.FINER, "Parallel round: " + applied + " back propagations applied over " + todo.size());
+					}
+				}
+				if (applied == 0)
+					break;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("RUL2020 has been interrupted.", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("RUL2020 failed: " + e.getCause().getMessage(), e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+		if (parallelNS > 0)
+			this.checkStatus.parallelUtilization = (double) taskNS / parallelNS;
 		return true;
 	}
 
+	/**
+	 * Incremental version of {@link #rul2020()} after the addition of edges into <code>head</code> to a network that was DC.<br>
+	 * It has its own deadline given by {@link #timeOut}. It uses and, if the network is still DC, keeps {@link #rulGlobalInfo}.
+	 * If the check is interrupted, the controllability is not determined ({@link STNCheckStatus#finished} is false) and
+	 * {@link #rulGlobalInfo} is kept, so that the next incremental check completes the interrupted back propagations.
+	 * 
+	 * @param head the node whose incoming edges have been added or tightened.
+	 * @return true if the graph is still DC, false if it is not DC or the check has been interrupted.
+	 */
+	private boolean rul2020Incremental(LabeledNode head) {
+		this.checkStatus.setDeadline(this.timeOut);
+		this.checkStatus.timeout = false;
+		final Instant startInstant = Instant.now();
+		final RULGlobalInfo globalInfo = this.rulGlobalInfo;
+		this.rulGlobalInfo = null;
+		final boolean dc = rul2020Update(globalInfo, head);
+		this.checkStatus.finished = !(this.checkStatus.timeout || this.checkStatus.cancelled);
+		if (this.checkStatus.finished) {
+			if (dc) {
+				this.rulGlobalInfo = globalInfo;
+			}
+			this.checkStatus.setControllability(dc);
+		} else {
+			// The state is still valid: the interrupted back propagations become unstarted and they are done by the next incremental check.
+			globalInfo.upperCaseEdgeStatus.values().removeIf(status -> status == ElementStatus.started);
+			globalInfo.frames.clear();
+			this.rulGlobalInfo = globalInfo;
+		}
+		this.checkStatus.executionTimeNS = Duration.between(startInstant, Instant.now()).toNanos();
+		if (Debug.ON) {
+			if (LOG.isLoggable(Level.FINE)) {
+				LOG.log(Level.FINE, "Incremental check after the update of edges into " + head + ". Status: " + this.checkStatus);
+			}
+		}
+		return dc;
+	}
+
+	/**
+	 * Core of {@link #rul2020Incremental(LabeledNode)}.
+	 * 
+	 * @param globalInfo the state of the last successful check.
+	 * @param head the node whose incoming edges have been added or tightened.
+	 * @return true if the graph is still DC, false otherwise.
+	 */
+	private boolean rul2020Update(RULGlobalInfo globalInfo, LabeledNode head) {
+		globalInfo.nodePotential = rul2018UpdatePotential(globalInfo.nodePotential, head);
+		if (globalInfo.nodePotential == null) {
+			if (Debug.ON) {
+				LOG.finer("The determination of new potential from " + head + " found an inconsistency. Giving up!");
+			}
+			return false;
+		}
+		rul2020MarkReachableUpperCaseEdges(head, globalInfo);
+		for (STNUEdge upperCaseEdge : this.upperContingentEdge.values()) {
+			if (!rul2020BackPropagation(upperCaseEdge, globalInfo)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Marks as unstarted the upper-case edges whose back propagation has to be redone after the update of edges into <code>head</code>.<br>
+	 * A back propagation from a contingent node C can use an edge into <code>head</code> only if C is reachable from <code>head</code>
+	 * considering ordinary and lower-case edges.
+	 * Redoing it can add or tighten edges into the activation node of C, so the visit continues through the upper-case edges too.
+	 * In this way, a not-marked upper-case edge never depends on a marked one, and a cycle of dependencies introduced by the update
+	 * involves only marked edges and is detected as in the full check.
+	 * 
+	 * @param head the starting node.
+	 * @param globalInfo the global checking data structure
+	 */
+	private void rul2020MarkReachableUpperCaseEdges(LabeledNode head, RULGlobalInfo globalInfo) {
+		final int n = this.g.getVertexCount();
+		final boolean[] visited = new boolean[n];
+		final int[] stack = new int[n];
+		int top = 0;
+		final int hIndex = this.g.getNodeIndex(head);
+		visited[hIndex] = true;
+		stack[top++] = hIndex;
+		while (top > 0) {
+			final int u = stack[--top];
+			final STNUEdge upperCaseEdge = this.upperContingentEdge.get(this.g.getNode(u));
+			if (upperCaseEdge != null) {
+				globalInfo.upperCaseEdgeStatus.remove(upperCaseEdge);
+			}
+			for (int slot = this.g.firstOutSlot(u); slot >= 0; slot = this.g.nextOutSlot(u, slot)) {
+				if (this.g.outEdgeAt(u, slot).isEmpty())
+					continue;
+				final int v = this.g.outNodeAt(u, slot);
+				if (!visited[v]) {
+					visited[v] = true;
+					stack[top++] = v;
+				}
+			}
+		}
+	}
+
 	/**
 	 * Luke's version of RUL^- back propagation algorithm.<br>
 	 * Side effects: Modifies contents of graph and globalInfo.
@@ -1858,23 +2604,16 @@ public class STNU {
 			assert (DeltaC > 0);
 			LOG.finest("Delta upper-case edge: " + DeltaC);
 		}
-		RULLocalInfo localInfo = new RULLocalInfo(Constants.INT_POS_INFINITE);
+		final int n = this.g.getVertexCount();
+		RULLocalInfo localInfo = new RULLocalInfo(Constants.INT_POS_INFINITE, n, this.g.getNodeIndex(C), currentUEdge);
+		globalInfo.frames.add(localInfo.paths);
 
 		// queue contains the adjusted distance from X to C
-		PriorityQueue<LabeledNode> queue = new PriorityQueue<>();
-
-		for (STNUEdge e : this.g.getInEdges(C)) {
-			if (!e.isOrdinaryEdge())
-				continue;
-			LabeledNode X = this.g.getSource(e);
-			queue.insertOrDecrease(X, Constants.sumWithOverflowCheck(globalInfo.nodePotential.getInt(X), e.getValue()));
-		}
-		if (Debug.ON) {
-			LOG.finest("Queue: " + queue);
-		}
+		final IndexedPriorityQueue queue = new IndexedPriorityQueue(n);
+		rul2020InitBackPropagationQueue(C, queue, globalInfo, localInfo);
 		boolean cycle = true;
 		do {
-			if (!rul2020OneStepBackProp(C, DeltaC, queue, globalInfo, localInfo))
+			if (STN.checkTimeOutAndAdjustStatus(this.checkStatus) || !rul2020OneStepBackProp(C, DeltaC, queue, globalInfo, localInfo))
 				return false;
 			if (localInfo.unstartedUCEdges.size() != 0) {
 				for (STNUEdge e : localInfo.unstartedUCEdges.values()) {
@@ -1884,8 +2623,11 @@ public class STNU {
 				}
 				queue.clear();
 				for (LabeledNode X : localInfo.unstartedUCEdges.keySet()) {
-					queue.insertOrDecrease(X, Constants.sumWithOverflowCheck(localInfo.distanceFrom.getInt(X), globalInfo.nodePotential.getInt(X)));
+					final int xIndex = this.g.getNodeIndex(X);
+					queue.insertOrDecrease(xIndex,
+							Constants.sumWithOverflowCheck(localInfo.distanceFrom.getInt(X), globalInfo.nodePotential.getInt(X)));
 					localInfo.distanceFrom.put(X, Constants.INT_POS_INFINITE);
+					localInfo.candidate[xIndex] = localInfo.paths.next[xIndex];
 				}
 			} else {
 				cycle = false;
@@ -1894,7 +2636,28 @@ public class STNU {
 		if (Debug.ON) {
 			LOG.finest("localInfo.distanceFrom: " + localInfo.distanceFrom);
 		}
-		if (localInfo.ccLoop && rul2020FwdPropNotDC(C, DeltaC, localInfo.distanceFrom, globalInfo.nodePotential))
+		if (!rul2020ApplyBackPropagation(currentUEdge, localInfo, globalInfo))
+			return false;
+		globalInfo.frames.remove(globalInfo.frames.size() - 1);
+		return true;
+	}
+
+	/**
+	 * Final part of {@link #rul2020BackPropagation(STNUEdge, RULGlobalInfo)}: given the distances to C determined by the back propagation of
+	 * (C,C:-y,A), it checks the C-C loop, if any, adds or tightens the edges (X, A) and updates the potential.<br>
+	 * Side effects: Modifies contents of graph and globalInfo.
+	 * 
+	 * @param currentUEdge an upper-case edge (C,C:-y,A).
+	 * @param localInfo the result of the back propagation.
+	 * @param globalInfo global data structure for the algorithm
+	 * @return true if no negative circuit was found (graph is still DC), false otherwise.
+	 */
+	private boolean rul2020ApplyBackPropagation(STNUEdge currentUEdge, RULLocalInfo localInfo, RULGlobalInfo globalInfo) {
+		LabeledNode C = this.g.getSource(currentUEdge);
+		LabeledNode A = this.g.getDest(currentUEdge);
+		int y = -currentUEdge.getLabeledValue();
+		int DeltaC = y - this.g.findEdge(A, C).getLabeledValue();
+		if (localInfo.ccLoop && rul2020FwdPropNotDC(C, DeltaC, localInfo, globalInfo.nodePotential))
 			return false;
 
 		boolean addedEdge = false;
@@ -1910,6 +2673,7 @@ public class STNU {
 				eXA = makeNewEdge(X.getName() + "_" + A.getName());
 				eXA.setValue(newValueXA);
 				this.g.addEdge(eXA, X, A);
+				this.derivation.put(eXA, localInfo.paths);
 				this.checkStatus.addedEdges++;
 				if (Debug.ON) {
 					LOG.fine("Added edge: " + eXA);
@@ -1920,6 +2684,7 @@ public class STNU {
 				}
 				if (newValueXA < eXA.getValue()) {
 					eXA.setValue(newValueXA);
+					this.derivation.put(eXA, localInfo.paths);
 				}
 			}
 			addedEdge = true;
@@ -1937,6 +2702,55 @@ public class STNU {
 		return true;
 	}
 
+	/**
+	 * Inserts into <code>queue</code> the sources of the ordinary edges into C with their adjusted distance from C.
+	 * 
+	 * @param C contingent time-point
+	 * @param queue an empty priority queue
+	 * @param globalInfo the global checking data structure
+	 * @param localInfo the local checking data structure. Its candidate steps are set.
+	 */
+	private void rul2020InitBackPropagationQueue(LabeledNode C, IndexedPriorityQueue queue, RULGlobalInfo globalInfo,
+			RULLocalInfo localInfo) {
+		final int cIndex = this.g.getNodeIndex(C);
+		for (int slot = this.g.firstInSlot(cIndex); slot >= 0; slot = this.g.nextInSlot(cIndex, slot)) {
+			STNUEdge e = this.g.inEdgeAt(cIndex, slot);
+			if (!e.isOrdinaryEdge())
+				continue;
+			final int xIndex = this.g.inNodeAt(cIndex, slot);
+			queue.insertOrDecrease(xIndex, Constants.sumWithOverflowCheck(globalInfo.nodePotential.getInt(this.g.getNode(xIndex)), e.getValue()));
+			localInfo.candidate[xIndex] = new PathStep(e, false);
+		}
+		if (Debug.ON) {
+			LOG.finest("Queue: " + queue);
+		}
+	}
+
+	/**
+	 * Read-only version of {@link #rul2020BackPropagation(STNUEdge, RULGlobalInfo)} used by {@link #rul2020(int)}.
+	 * It determines the distances to C without modifying the graph or <code>globalInfo</code>, so that many of them can be executed
+	 * concurrently, each one with its own queue and distance map.
+	 * 
+	 * @param currentUEdge an upper-case edge (C,C:-y,A).
+	 * @param DeltaC the difference y-x of the contingent link.
+	 * @param globalInfo global data structure for the algorithm. It is only read.
+	 * @param queue an indexed queue having the size of the graph.
+	 * @return the distances to C, or null if the back propagation reaches an activation time-point whose upper-case edge is not finished or
+	 *         it finds a negative circuit. In such cases, the back propagation must be executed by
+	 *         {@link #rul2020BackPropagation(STNUEdge, RULGlobalInfo)}.
+	 */
+	private RULLocalInfo rul2020SpeculativeBackPropagation(STNUEdge currentUEdge, int DeltaC, RULGlobalInfo globalInfo,
+			IndexedPriorityQueue queue) {
+		final LabeledNode C = this.g.getSource(currentUEdge);
+		final RULLocalInfo localInfo = new RULLocalInfo(Constants.INT_POS_INFINITE, queue.capacity(), this.g.getNodeIndex(C), currentUEdge);
+		localInfo.speculative = true;
+		queue.clear();
+		rul2020InitBackPropagationQueue(C, queue, globalInfo, localInfo);
+		if (!rul2020OneStepBackProp(C, DeltaC, queue, globalInfo, localInfo) || localInfo.unstartedUCEdges.size() != 0)
+			return null;
+		return localInfo;
+	}
+
 	/**
 	 * Luke's version of RUL^- one step back propagation algorithm.<br>
 	 * Side effects: Modifies contents of localInfo.
@@ -1948,7 +2762,7 @@ public class STNU {
 	 * @param localInfo the local checking data structure
 	 * @return false iff back-propagation from C reveals STNU to be non-DC.
 	 */
-	private boolean rul2020OneStepBackProp(LabeledNode C, int DeltaC, PriorityQueue<LabeledNode> Q, RULGlobalInfo globalInfo,
+	private boolean rul2020OneStepBackProp(LabeledNode C, int DeltaC, IndexedPriorityQueue Q, RULGlobalInfo globalInfo,
 			RULLocalInfo localInfo) {
 
 		localInfo.unstartedUCEdges = new Object2ObjectOpenHashMap<>();
@@ -1958,9 +2772,9 @@ public class STNU {
 					+ "\tQueue: " + Q);
 		}
 		while (Q.size() != 0) {
-			BasicEntry<LabeledNode> minEntry = Q.extractMinEntry();
-			LabeledNode X = minEntry.getKey();
-			int Xkey = minEntry.getIntValue();
+			final int xIndex = Q.extractMin();
+			LabeledNode X = this.g.getNode(xIndex);
+			int Xkey = Q.getPriority(xIndex);
 			int deltaXC = Xkey - globalInfo.nodePotential.getInt(X);
 			STNUEdge upperCaseEdgeFromX = globalInfo.upperCaseEdgeFromActivation.get(X);
 
@@ -1977,6 +2791,7 @@ public class STNU {
 			}
 
 			localInfo.distanceFrom.put(X, deltaXC);
+			localInfo.paths.next[xIndex] = localInfo.candidate[xIndex];
 			if (Debug.ON) {
 				LOG.finest("OneStepBackProp. New distanceFrom for " + X + ": " + deltaXC);
 			}
@@ -1996,6 +2811,8 @@ public class STNU {
 					if (Debug.ON) {
 						LOG.finest("OneStepBackProp. Node X == C and deltaXC < 0. Giving up! deltaC: " + deltaXC);
 					}
+					if (!localInfo.speculative)
+						setNegativeCycle(cycleFrom(localInfo.paths.next, xIndex));
 					return false;
 				}
 				localInfo.ccLoop = true;
@@ -2016,10 +2833,13 @@ public class STNU {
 						if (Debug.ON) {
 							LOG.finer("Found case 3b. Giving up!");
 						}
+						if (!localInfo.speculative)
+							setNegativeCycle(rul2020StartedCycle(xIndex, upperCaseEdgeFromX, globalInfo));
 						return false;// case 3b
 					}
 				}
 				// case 3c or 4
+				final STNUEdge lowerCaseEdge = this.lowerContingentEdge.get(X);
 				for (BasicEntry<LabeledNode> entry : rul2020NewApplyRelaxLower(X, DeltaC, deltaXC)) {
 					LabeledNode W = entry.getKey();
 					int deltaWC = entry.getIntValue();
@@ -2035,11 +2855,18 @@ public class STNU {
 							LOG.finest("OneStepBackProp. potential(" + W + "): " + globalInfo.nodePotential.getInt(W)
 									+ "\t newKey for " + W + ": " + newKey);
 						}
+						final int wIndex = this.g.getNodeIndex(W);
 						if (Debug.ON) {
-							PriorityQueue.Status Wstatus = Q.getStatus(W);
+							PriorityQueue.Status Wstatus = Q.getStatus(wIndex);
 							LOG.finest("OneStepBackProp. queue status of node " + W + ": " + Wstatus);
 						}
-						Q.insertOrDecrease(W, newKey);
+						final PriorityQueue.Status wStatus = Q.getStatus(wIndex);
+						if (wStatus == PriorityQueue.Status.notPresent
+								|| (wStatus == PriorityQueue.Status.isPresent && newKey < Q.getPriority(wIndex))) {
+							localInfo.candidate[wIndex] = (lowerCaseEdge != null) ? new PathStep(lowerCaseEdge, true)
+									: new PathStep(this.g.findEdge(W, X), false);
+						}
+						Q.insertOrDecrease(wIndex, newKey);
 						if (Debug.ON) {
 							LOG.finest("OneStepBackProp. Queue after adding " + W + ":" + Q);
 						}
@@ -2051,6 +2878,32 @@ public class STNU {
 
 	}
 
+	/**
+	 * Determines the negative cycle of case 3b of {@link #rul2020OneStepBackProp(LabeledNode, int, IndexedPriorityQueue, RULGlobalInfo, RULLocalInfo)}:
+	 * the back propagation of the last started upper-case edge has reached the activation time-point of a started upper-case edge.
+	 * The cycle is made by the path from such activation time-point to the contingent time-point of the last started upper-case edge,
+	 * followed by its upper-case edge, by the path from its activation time-point to the contingent time-point of the previous started
+	 * upper-case edge, and so on, up to the started upper-case edge.
+	 * 
+	 * @param xIndex index of the activation time-point
+	 * @param upperCaseEdgeFromX the started upper-case edge
+	 * @param globalInfo the global checking data structure
+	 * @return the cycle, null if it cannot be determined.
+	 */
+	private ObjectList<PathStep> rul2020StartedCycle(int xIndex, STNUEdge upperCaseEdgeFromX, RULGlobalInfo globalInfo) {
+		final ObjectList<PathStep> cycle = new ObjectArrayList<>();
+		int node = xIndex;
+		for (int k = globalInfo.frames.size(); k-- > 0;) {
+			final Derivation frame = globalInfo.frames.get(k);
+			if (!addPath(frame, node, cycle))
+				return null;
+			if (frame.last.edge == upperCaseEdgeFromX)
+				return cycle;
+			node = this.g.getNodeIndex(this.g.getDest(frame.last.edge));
+		}
+		return null;
+	}
+
 	/**
 	 * Luke's implementation of RUL^- algorithm: fwdPropNotDC<br>
 	 * 
@@ -2076,10 +2929,12 @@ public class STNU {
 			}
 			edges.add(new BasicEntry<>(this.activationNode.get(V), Constants.sumWithOverflowCheck(lowerCaseEdge.getLabeledValue(), deltaVC)));
 		} else {
-			for (STNUEdge e : this.g.getInEdges(V)) {
+			final int vIndex = this.g.getNodeIndex(V);
+			for (int slot = this.g.firstInSlot(vIndex); slot >= 0; slot = this.g.nextInSlot(vIndex, slot)) {
+				STNUEdge e = this.g.inEdgeAt(vIndex, slot);
 				if (!e.isOrdinaryEdge())
 					continue;
-				LabeledNode W = this.g.getSource(e);
+				LabeledNode W = this.g.getNode(this.g.inNodeAt(vIndex, slot));
 				// Apply RELAX^-
 				if (Debug.ON) {
 					LOG.finest("rul2020NewApplyRelaxLower. Apply RELAX considering: " + e);
@@ -2159,25 +3014,31 @@ public class STNU {
 	/**
 	 * Luke's implementation of RUL^- algorithm: Algorithm 13.<br>
 	 * 
+	 * If a negative loop is found, it is stored in {@link STNUCheckStatus#semiReducibleNegativeCycle}.
+	 * 
 	 * @param C a contingent node
 	 * @param DeltaC the difference y-x of contingent link associated to C
-	 * @param distanceFrom distances from X to C computed during back-propagation.
+	 * @param localInfo the result of the back-propagation, containing the distances from X to C.
 	 * @param globalPotential global potential
 	 * @return true iff forward propagation discovered a negative loop. Otherwise, the lower case from A to C is reduce away.
 	 */
-	private boolean rul2020FwdPropNotDC(LabeledNode C, int DeltaC, Object2IntMap<LabeledNode> distanceFrom,
-			Object2IntMap<LabeledNode> globalPotential) {
-
-		PriorityQueue<LabeledNode> queue = new PriorityQueue<>();
-		queue.insertOrDecrease(C, -globalPotential.getInt(C));
+	private boolean rul2020FwdPropNotDC(LabeledNode C, int DeltaC, RULLocalInfo localInfo, Object2IntMap<LabeledNode> globalPotential) {
+		final Object2IntMap<LabeledNode> distanceFrom = localInfo.distanceFrom;
+		final int n = this.g.getVertexCount();
+		// Keys are distances from C re-weighted by the global potential, so they never decrease below the last extracted one.
+		final RadixPriorityQueue queue = new RadixPriorityQueue(n);
+		final int cIndex = this.g.getNodeIndex(C);
+		queue.insertOrDecrease(cIndex, -globalPotential.getInt(C));
+		// last edge of the path from C to each node
+		final STNUEdge[] pred = new STNUEdge[n];
 
 		if (Debug.ON) {
 			LOG.finest("rul2020fwdPropNotDC: Node C: " + C + ", DeltaC: " + DeltaC);
 		}
 		while (queue.size() != 0) {
-			BasicEntry<LabeledNode> minEntry = queue.extractMinEntry();
-			LabeledNode X = minEntry.getKey();
-			int Xkey = minEntry.getIntValue();
+			final int xIndex = queue.extractMin();
+			LabeledNode X = this.g.getNode(xIndex);
+			int Xkey = queue.getPriority(xIndex);
 			int deltaCX = Xkey + globalPotential.getInt(X);
 			if (Debug.ON) {
 				LOG.finest("rul2020fwdPropNotDC: Node X: " + X + ", Xkey: " + Xkey + ", deltaCX: " + deltaCX + ", distanceFrom: " + distanceFrom.getInt(X));
@@ -2193,21 +3054,51 @@ public class STNU {
 				if (Debug.ON) {
 					LOG.finest("rul2020fwdPropNotDC: Node X: " + X + ", deltaCX: " + deltaCX + " is less than " + DeltaC + ". Return true!");
 				}
+				// cycle: lower-case edge A-->C, path C-->X, path X-->C and upper-case edge C-->A
+				final ObjectList<PathStep> path = new ObjectArrayList<>();
+				for (int v = xIndex; v != cIndex && pred[v] != null && path.size() < n; v = this.g.getNodeIndex(this.g.getSource(pred[v]))) {
+					path.add(PathStep.ofMinValue(pred[v]));
+				}
+				final ObjectList<PathStep> cycle = new ObjectArrayList<>();
+				cycle.add(new PathStep(this.lowerContingentEdge.get(C), true));
+				for (int i = path.size(); i-- > 0;) {
+					cycle.add(path.get(i));
+				}
+				if (addPath(localInfo.paths, xIndex, cycle))
+					setNegativeCycle(cycle);
 				return true;
 			}
-			for (STNUEdge e : this.g.getOutEdges(X)) {
-				int eValue = getMinValueBetweenOrdinaryAndLowerCaseValue(e);// It is ok
+			for (int slot = this.g.firstOutSlot(xIndex); slot >= 0; slot = this.g.nextOutSlot(xIndex, slot)) {
+				final STNUEdge eXY = this.g.outEdgeAt(xIndex, slot);
+				int eValue = getMinValueBetweenOrdinaryAndLowerCaseValue(eXY);// It is ok
 				if (eValue == Constants.INT_NULL)// is an upper edge
 					continue;
-				LabeledNode Y = this.g.getDest(e);
+				final int yIndex = this.g.outNodeAt(xIndex, slot);
 				int newKey = Constants.sumWithOverflowCheck(deltaCX, eValue);
-				newKey = Constants.sumWithOverflowCheck(newKey, -globalPotential.getInt(Y));// lower case o no-case value
-				queue.insertOrDecrease(Y, newKey);
+				newKey = Constants.sumWithOverflowCheck(newKey, -globalPotential.getInt(this.g.getNode(yIndex)));// lower case o no-case value
+				final PriorityQueue.Status yStatus = queue.getStatus(yIndex);
+				if (yStatus == PriorityQueue.Status.notPresent
+						|| (yStatus == PriorityQueue.Status.isPresent && newKey < queue.getPriority(yIndex))) {
+					pred[yIndex] = eXY;
+				}
+				queue.insertOrDecrease(yIndex, newKey);
 			}
 		}
 		return false;
 	}
 
+	/**
+	 * Updates {@link #maxWeight} and {@link #horizon} after the addition of a constraint having the given absolute negative value.
+	 * 
+	 * @param negativeWeight the absolute value of a negative value of a constraint.
+	 */
+	private void updateMaxWeight(int negativeWeight) {
+		if (negativeWeight > this.maxWeight) {
+			this.maxWeight = negativeWeight;
+			this.horizon = (int) (((long) this.maxWeight) * (this.g.getVertexCount() - 1));
+		}
+	}
+
 	/**
 	 * Resets all internal structures.
 	 */
@@ -2217,8 +3108,10 @@ public class STNU {
 		this.maxWeight = 0;
 		this.horizon = 0;
 		this.checkStatus.reset();
+		this.checkStatus.cancelled = false;
 		this.activationNode = null;
 		this.lowerContingentEdge = null;
+		this.rulGlobalInfo = null;
 	}
 
 	/**
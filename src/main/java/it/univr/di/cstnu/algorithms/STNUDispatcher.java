@@ -0,0 +1,720 @@
+// SPDX-FileCopyrightText: 2020 Roberto Posenato <roberto.posenato@univr.it>
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+package it.univr.di.cstnu.algorithms;
+
+import java.util.Arrays;
+
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectList;
+import it.univr.di.cstnu.algorithms.PriorityQueue.Status;
+import it.univr.di.cstnu.graph.LabeledNode;
+import it.univr.di.cstnu.graph.STNEdge;
+import it.univr.di.cstnu.graph.STNEdgeInt;
+import it.univr.di.cstnu.graph.STNUEdge;
+import it.univr.di.cstnu.graph.TNGraph;
+import it.univr.di.labeledvalue.Constants;
+
+/**
+ * Real-time execution (dispatching) of a dynamically controllable STNU.
+ * <p>
+ * The dispatcher is built on the graph resulting from a successful check ({@link STNU#getGChecked()}) and it maintains, for each
+ * timepoint, an execution window <code>[lowerBound, upperBound]</code> w.r.t. the execution of Z at time 0.
+ * The controller communicates the executed timepoints by {@link #execute(LabeledNode, int)} and the observed contingent ones by
+ * {@link #observe(LabeledNode, int)}; {@link #getEnabledTimepoints(int)} returns the timepoints that can be executed at a given time.
+ * <p>
+ * The checked graph is not closed w.r.t. shortest paths, so, at construction, the ordinary constraints are stored in primitive adjacency
+ * arrays indexed by node index and they are completed, up to a fixpoint, by the ordinary edges that the lower-case rule and the
+ * upper-case + label-removal rules derive on shortest paths (distances are determined by Dijkstra visits re-weighted by a feasible
+ * potential). Then, for each contingent link (A, x, y, C) and each timepoint X, the wait <code>X &ge; A + y - d(X,C)</code> is determined,
+ * where d(X,C) is the length of the shortest path from X to C (cross-case rule included). Such a wait must be respected until C occurs.
+ * Finally, the predecessors of each timepoint (the ones that must occur strictly before it) are determined by a Dijkstra visit stopped
+ * as soon as no negative distance can be found. This preprocessing costs O(n m log n) for each fixpoint round and it is done once.
+ * <p>
+ * After each event, windows are updated propagating only the bounds that actually change (upper bounds along outgoing edges, lower
+ * bounds along incoming ones). The set of timepoints whose predecessors are all executed is maintained incrementally, so a query costs
+ * only the scan of such a set and of its waits.
+ * <p>
+ * Events must be communicated in non-decreasing order of time.
+ *
+ * @author posenato
+ */
+public class STNUDispatcher {
+
+	/**
+	 * Lower bound of the execution window of each node.
+	 */
+	private final int[] lb;
+
+	/**
+	 * Upper bound of the execution window of each node.
+	 */
+	private final int[] ub;
+
+	/**
+	 * Execution time of each node, {@link Constants#INT_NULL} if it is not executed yet.
+	 */
+	private final int[] time;
+
+	/**
+	 * For each contingent node, the index of its contingent link; -1 for other nodes.
+	 */
+	private final int[] contingentLink;
+
+	/**
+	 * For each node, the indexes of the contingent links it activates.
+	 */
+	private final int[][] activatedLinks;
+
+	/**
+	 * Activation node, contingent node, lower and upper bound of each contingent link.
+	 */
+	private final int[] linkActivation, linkContingent, linkX, linkY;
+
+	/**
+	 * Adjacency arrays of ordinary edges: out-edges of node u are at positions [outStart[u], outStart[u+1]).
+	 */
+	private int[] outStart, outNode, outValue;
+
+	/**
+	 * Adjacency arrays of ordinary edges: in-edges of node u are at positions [inStart[u], inStart[u+1]).
+	 */
+	private int[] inStart, inNode, inValue;
+
+	/**
+	 * Waits of node u are at positions [waitStart[u], waitStart[u+1]): u must wait <code>waitValue</code> after the activation of link
+	 * <code>waitLink</code> if its contingent node has not occurred.
+	 */
+	private final int[] waitStart, waitLink, waitValue;
+
+	/**
+	 * For each node Y, the controllable nodes X having Y as predecessor (see {@link #pending}).
+	 */
+	private final int[][] followers;
+
+	/**
+	 * Number of not-executed predecessors of each controllable node. Y is a predecessor of X if the shortest path from X to Y made of
+	 * ordinary edges is negative (Y must occur before X) and there is no other predecessor W of X such that the shortest path from X to
+	 * Y passes through W and the shortest path from W to Y is negative (Y is implicitly required by W).
+	 */
+	private final int[] pending;
+
+	/**
+	 * Controllable not-executed nodes without pending predecessors, at positions [0, candidateSize).
+	 */
+	private final int[] candidate;
+
+	/**
+	 * Position of each node in {@link #candidate}, -1 if absent.
+	 */
+	private final int[] candidatePosition;
+
+	/**
+	 * Number of candidates.
+	 */
+	private int candidateSize;
+
+	/**
+	 * Time of the last event.
+	 */
+	private int currentTime;
+
+	/**
+	 * Number of executed or observed nodes.
+	 */
+	private int executedCount;
+
+	/**
+	 * Graph to dispatch.
+	 */
+	private final TNGraph<STNUEdge> g;
+
+	/**
+	 * Work queue and membership flags for the propagation.
+	 */
+	private final int[] queue;
+
+	/**
+	 * @see #queue
+	 */
+	private final boolean[] inQueue;
+
+	/**
+	 * Builds a dispatcher for the given checked STNU and executes Z at time 0.
+	 *
+	 * @param stnu an STNU whose dynamic controllability check finished with a positive answer.
+	 * @throws IllegalArgumentException if the STNU has not been checked or it is not dynamically controllable.
+	 */
+	public STNUDispatcher(STNU stnu) {
+		if (stnu == null || !stnu.getCheckStatus().finished || !stnu.getCheckStatus().isControllability())
+			throw new IllegalArgumentException("The STNU must be checked and dynamically controllable.");
+		this.g = stnu.getGChecked();
+		final int n = this.g.getVertexCount();
+		this.lb = new int[n];
+		this.ub = new int[n];
+		this.time = new int[n];
+		Arrays.fill(this.lb, Constants.INT_NEG_INFINITE);
+		Arrays.fill(this.ub, Constants.INT_POS_INFINITE);
+		Arrays.fill(this.time, Constants.INT_NULL);
+
+		// ordinary edges
+		final Int2IntOpenHashMap[] edges = new Int2IntOpenHashMap[n];
+		for (int u = 0; u < n; u++) {
+			edges[u] = new Int2IntOpenHashMap();
+			edges[u].defaultReturnValue(Constants.INT_POS_INFINITE);
+			for (int slot = this.g.firstOutSlot(u); slot >= 0; slot = this.g.nextOutSlot(u, slot)) {
+				final int value = this.g.outEdgeAt(u, slot).getValue();
+				if (value != Constants.INT_NULL)
+					edges[u].put(this.g.outNodeAt(u, slot), value);
+			}
+		}
+
+		// contingent links
+		final int k = stnu.getActivationNode().size();
+		this.linkActivation = new int[k];
+		this.linkContingent = new int[k];
+		this.linkX = new int[k];
+		this.linkY = new int[k];
+		this.contingentLink = new int[n];
+		Arrays.fill(this.contingentLink, -1);
+		final IntArrayList[] activated = new IntArrayList[n];
+		int l = 0;
+		for (final LabeledNode C : stnu.getActivationNode().keySet()) {
+			final int c = this.g.getNodeIndex(C), a = this.g.getNodeIndex(stnu.getActivationNode().get(C));
+			this.linkContingent[l] = c;
+			this.linkActivation[l] = a;
+			this.linkX[l] = stnu.getLowerContingentEdge().get(C).getLabeledValue();
+			this.linkY[l] = -stnu.getUpperContingentEdge().get(C).getLabeledValue();
+			this.contingentLink[c] = l;
+			if (activated[a] == null)
+				activated[a] = new IntArrayList();
+			activated[a].add(l++);
+		}
+		this.activatedLinks = new int[n][];
+		for (int u = 0; u < n; u++) {
+			this.activatedLinks[u] = (activated[u] == null) ? new int[0] : activated[u].toIntArray();
+		}
+
+		// closure: ordinary edges derived by the lower-case and by the upper-case + label-removal rules on shortest paths
+		final int[] distance = new int[n];
+		final IndexedPriorityQueue Q = new IndexedPriorityQueue(n);
+		int[] potential;
+		boolean changed;
+		do {
+			this.setAdjacency(edges);
+			potential = this.feasiblePotential();
+			changed = false;
+			for (l = 0; l < k; l++) {
+				final int a = this.linkActivation[l], c = this.linkContingent[l];
+				this.distances(c, false, potential, Q, distance);
+				for (int v = 0; v < n; v++) {
+					// v must occur before C: it cannot be later than A + x + distance[v]
+					if (distance[v] < 0 && v != a)
+						changed |= tighten(edges, a, v, this.linkX[l] + distance[v]);
+				}
+				this.distances(c, true, potential, Q, distance);
+				for (int u = 0; u < n; u++) {
+					// u must wait y - distance[u] after A, unless C occurs; C cannot occur before A + x
+					if (distance[u] != Constants.INT_POS_INFINITE && u != a && u != c && this.contingentLink[u] < 0)
+						changed |= tighten(edges, u, a, Math.max(distance[u] - this.linkY[l], -this.linkX[l]));
+				}
+			}
+		} while (changed);
+
+		// waits longer than x; the other ones are now ordinary edges
+		final IntArrayList[] waits = new IntArrayList[n];
+		int nWaits = 0;
+		for (l = 0; l < k; l++) {
+			this.distances(this.linkContingent[l], true, potential, Q, distance);
+			for (int u = 0; u < n; u++) {
+				if (distance[u] == Constants.INT_POS_INFINITE || u == this.linkContingent[l] || this.contingentLink[u] >= 0)
+					continue;
+				final int w = this.linkY[l] - distance[u];
+				if (w <= this.linkX[l])
+					continue;
+				if (waits[u] == null)
+					waits[u] = new IntArrayList();
+				waits[u].add(l);
+				waits[u].add(w);
+				nWaits++;
+			}
+		}
+		this.waitStart = new int[n + 1];
+		this.waitLink = new int[nWaits];
+		this.waitValue = new int[nWaits];
+		for (int u = 0, i = 0; u < n; u++) {
+			this.waitStart[u] = i;
+			if (waits[u] != null) {
+				for (int j = 0; j < waits[u].size(); j += 2, i++) {
+					this.waitLink[i] = waits[u].getInt(j);
+					this.waitValue[i] = waits[u].getInt(j + 1);
+				}
+			}
+			this.waitStart[u + 1] = i;
+		}
+
+		// predecessors
+		this.pending = new int[n];
+		final IntArrayList[] followers = new IntArrayList[n];
+		int pMin = 0;
+		for (int u = 0; u < n; u++) {
+			pMin = Math.min(pMin, potential[u]);
+		}
+		final int[] parent = new int[n], maxNegAncestor = new int[n];
+		for (int u = 0; u < n; u++) {
+			if (this.contingentLink[u] >= 0)
+				continue;
+			Q.clear();
+			Q.insertOrDecrease(u, 0);
+			parent[u] = -1;
+			while (!Q.isEmpty() && Q.getMinPriority() < potential[u] - pMin) {
+				final int v = Q.extractMin();
+				final int dv = Q.getPriority(v);
+				if (v != u) {
+					// distance from u to v and the maximum negative distance from u to a proper ancestor of v in the shortest-path tree
+					final int d = dv - potential[u] + potential[v];
+					final int pv = parent[v];
+					final int anc = (pv == u) ? Constants.INT_NEG_INFINITE : maxNegAncestor[pv];
+					maxNegAncestor[v] = (d < 0) ? Math.max(anc, d) : anc;
+					if (d < 0 && anc <= d) {
+						// v must precede u and it is not implied by another predecessor in between
+						this.pending[u]++;
+						if (followers[v] == null)
+							followers[v] = new IntArrayList();
+						followers[v].add(u);
+					}
+				}
+				for (int i = this.outStart[v]; i < this.outStart[v + 1]; i++) {
+					final int z = this.outNode[i];
+					final int dz = dv + this.outValue[i] + potential[v] - potential[z];
+					if (Q.getStatus(z) == Status.notPresent || (Q.getStatus(z) == Status.isPresent && dz < Q.getPriority(z))) {
+						Q.insertOrDecrease(z, dz);
+						parent[z] = v;
+					}
+				}
+			}
+		}
+		this.followers = new int[n][];
+		for (int u = 0; u < n; u++) {
+			this.followers[u] = (followers[u] == null) ? new int[0] : followers[u].toIntArray();
+		}
+
+		this.candidate = new int[n];
+		this.candidatePosition = new int[n];
+		Arrays.fill(this.candidatePosition, -1);
+		for (int u = 0; u < n; u++) {
+			if (this.pending[u] == 0 && this.contingentLink[u] < 0)
+				this.addCandidate(u);
+		}
+		this.queue = new int[n];
+		this.inQueue = new boolean[n];
+		this.currentTime = 0;
+		this.execute(stnu.getZ(), 0);
+	}
+
+	/**
+	 * Sets the value of edge (u, v) to <code>value</code> if it is smaller than the current one.
+	 *
+	 * @param edges for each node, the map destination &rarr; value of its ordinary edges.
+	 * @param u source index
+	 * @param v destination index
+	 * @param value the new value
+	 * @return true if the edge has been added or modified.
+	 */
+	private static boolean tighten(Int2IntOpenHashMap[] edges, int u, int v, int value) {
+		if (value >= edges[u].get(v))
+			return false;
+		edges[u].put(v, value);
+		return true;
+	}
+
+	/**
+	 * @return the time of the last event.
+	 */
+	public int getCurrentTime() {
+		return this.currentTime;
+	}
+
+	/**
+	 * Returns the ordinary constraints used by this dispatcher as an STN distance graph: the ordinary edges of the checked network and
+	 * the ones derived by the lower-case and upper-case + label-removal rules. Contingent links and waits are not represented.
+	 * Nodes are new nodes having the same names of the STNU ones.
+	 *
+	 * @return the distance graph.
+	 */
+	TNGraph<STNEdge> getDistanceGraph() {
+		final TNGraph<STNEdge> distanceGraph = new TNGraph<>(this.g.getName(), STNEdgeInt.class);
+		final int n = this.g.getVertexCount();
+		final LabeledNode[] node = new LabeledNode[n];
+		for (int u = 0; u < n; u++) {
+			node[u] = new LabeledNode(this.g.getNode(u).getName());
+			distanceGraph.addVertex(node[u]);
+		}
+		distanceGraph.setZ(node[this.g.getNodeIndex(this.g.getZ())]);
+		for (int u = 0; u < n; u++) {
+			for (int i = this.outStart[u]; i < this.outStart[u + 1]; i++) {
+				final STNEdge e = new STNEdgeInt(node[u].getName() + "_" + node[this.outNode[i]].getName());
+				e.setValue(this.outValue[i]);
+				distanceGraph.addEdge(e, node[u], node[this.outNode[i]]);
+			}
+		}
+		return distanceGraph;
+	}
+
+	/**
+	 * Returns the controllable timepoints that can be executed at the given time. The cost is linear in the number of not-executed
+	 * timepoints whose predecessors are all executed and in their waits.
+	 *
+	 * @param t the time. It must be not smaller than {@link #getCurrentTime()}.
+	 * @return the list of timepoints that can be executed at time t, possibly empty.
+	 */
+	public ObjectList<LabeledNode> getEnabledTimepoints(int t) {
+		final ObjectList<LabeledNode> enabled = new ObjectArrayList<>();
+		if (t < this.currentTime)
+			return enabled;
+		for (int i = 0; i < this.candidateSize; i++) {
+			final int u = this.candidate[i];
+			if (this.isEnabled(u, t))
+				enabled.add(this.g.getNode(u));
+		}
+		return enabled;
+	}
+
+	/**
+	 * @param node a timepoint
+	 * @return the execution time of the node, {@link Constants#INT_NULL} if it has not been executed or observed yet.
+	 */
+	public int getExecutionTime(LabeledNode node) {
+		return this.time[this.index(node)];
+	}
+
+	/**
+	 * @param node a timepoint
+	 * @return the current lower bound of the execution window of the node, {@link Constants#INT_NEG_INFINITE} if it is not bounded.
+	 */
+	public int getLowerBound(LabeledNode node) {
+		return this.lb[this.index(node)];
+	}
+
+	/**
+	 * @param node a timepoint
+	 * @return the current upper bound of the execution window of the node, {@link Constants#INT_POS_INFINITE} if it is not bounded.
+	 */
+	public int getUpperBound(LabeledNode node) {
+		return this.ub[this.index(node)];
+	}
+
+	/**
+	 * @return true if all timepoints have been executed or observed.
+	 */
+	public boolean isCompleted() {
+		return this.executedCount == this.lb.length;
+	}
+
+	/**
+	 * A controllable timepoint X is enabled at time t if it has not been executed, all timepoints that must precede it are executed,
+	 * t is in its execution window and, for each contingent link (A, x, y, C) such that C has not occurred, A has been executed and
+	 * t respects the wait of X w.r.t. A.
+	 *
+	 * @param node a timepoint
+	 * @param t the time. It must be not smaller than {@link #getCurrentTime()}.
+	 * @return true if the node can be executed at time t.
+	 */
+	public boolean isEnabled(LabeledNode node, int t) {
+		final int u = this.index(node);
+		return t >= this.currentTime && this.candidatePosition[u] >= 0 && this.isEnabled(u, t);
+	}
+
+	/**
+	 * @param node a timepoint
+	 * @return true if the node has been executed or observed.
+	 */
+	public boolean isExecuted(LabeledNode node) {
+		return this.time[this.index(node)] != Constants.INT_NULL;
+	}
+
+	/**
+	 * Executes the given controllable timepoint at time t and updates the execution windows.
+	 *
+	 * @param node a controllable timepoint
+	 * @param t the execution time
+	 * @throws IllegalArgumentException if the node is not enabled at time t (see {@link #isEnabled(LabeledNode, int)}).
+	 */
+	public void execute(LabeledNode node, int t) {
+		if (!this.isEnabled(node, t))
+			throw new IllegalArgumentException("Node " + node + " cannot be executed at time " + t + ".");
+		final int u = this.index(node);
+		this.setExecuted(u, t);
+		for (final int l : this.activatedLinks[u]) {
+			final int c = this.linkContingent[l];
+			this.lb[c] = Math.max(this.lb[c], t + this.linkX[l]);
+			this.ub[c] = Math.min(this.ub[c], t + this.linkY[l]);
+			this.propagate(c);
+		}
+	}
+
+	/**
+	 * Registers the occurrence of the given contingent timepoint at time t and updates the execution windows.
+	 *
+	 * @param node a contingent timepoint
+	 * @param t the occurrence time
+	 * @throws IllegalArgumentException if the node is not contingent, it has been already observed, its activation timepoint has not been
+	 *             executed, t is outside the contingent range or it is smaller than {@link #getCurrentTime()}.
+	 */
+	public void observe(LabeledNode node, int t) {
+		final int c = this.index(node);
+		final int l = this.contingentLink[c];
+		if (l < 0 || this.time[c] != Constants.INT_NULL)
+			throw new IllegalArgumentException("Node " + node + " is not a contingent node to observe.");
+		final int tA = this.time[this.linkActivation[l]];
+		if (tA == Constants.INT_NULL || t < tA + this.linkX[l] || t > tA + this.linkY[l] || t < this.currentTime)
+			throw new IllegalArgumentException("Node " + node + " cannot occur at time " + t + ".");
+		this.setExecuted(c, t);
+	}
+
+	/**
+	 * Adds a node to the candidates.
+	 *
+	 * @param u node index
+	 */
+	private void addCandidate(int u) {
+		this.candidatePosition[u] = this.candidateSize;
+		this.candidate[this.candidateSize++] = u;
+	}
+
+	/**
+	 * Determines the distances from <code>source</code> to all nodes (or from all nodes to <code>source</code> if <code>backward</code>)
+	 * by a Dijkstra visit on the edges re-weighted by the given potential.
+	 * Forward distances use only ordinary edges. Backward distances are used for waits w.r.t. the contingent node <code>source</code>, so
+	 * they also use the lower-case edges of the other contingent links (cross-case rule).
+	 *
+	 * @param source index of the source (destination if backward) node
+	 * @param backward true for distances to source
+	 * @param potential a feasible potential of the ordinary edges
+	 * @param Q a queue having capacity equal to the number of nodes. It is cleared before the use.
+	 * @param distance the array where to store the distances, {@link Constants#INT_POS_INFINITE} for nodes not connected to source.
+	 */
+	private void distances(int source, boolean backward, int[] potential, IndexedPriorityQueue Q, int[] distance) {
+		final int[] start = (backward) ? this.inStart : this.outStart;
+		final int[] node = (backward) ? this.inNode : this.outNode;
+		final int[] value = (backward) ? this.inValue : this.outValue;
+		final int sign = (backward) ? -1 : 1;
+		Arrays.fill(distance, Constants.INT_POS_INFINITE);
+		Q.clear();
+		Q.insertOrDecrease(source, 0);
+		while (!Q.isEmpty()) {
+			final int v = Q.extractMin();
+			final int dv = Q.getPriority(v);
+			distance[v] = dv + sign * (potential[v] - potential[source]);
+			for (int i = start[v]; i < start[v + 1]; i++) {
+				final int u = node[i];
+				Q.insertOrDecrease(u, dv + value[i] + sign * (potential[v] - potential[u]));
+			}
+			final int l = this.contingentLink[v];
+			if (backward && l >= 0 && v != source && distance[v] < this.linkY[this.contingentLink[source]]) {
+				// cross-case rule: the lower-case edge of another contingent link followed by a negative path to the activation of source
+				final int u = this.linkActivation[l];
+				Q.insertOrDecrease(u, dv + this.linkX[l] - potential[v] + potential[u]);
+			}
+		}
+	}
+
+	/**
+	 * Determines a feasible potential of the ordinary and lower-case edges, i.e., p such that p[v] &le; p[u] + w for each edge (u, v, w),
+	 * by a queue-based Bellman-Ford from a virtual source connected to all nodes by 0-weight edges.
+	 * The lower-case edges are considered as ordinary ones: this is the projection where each contingent duration is minimal.
+	 *
+	 * @return the potential.
+	 * @throws IllegalArgumentException if the ordinary edges contain a negative cycle.
+	 */
+	private int[] feasiblePotential() {
+		final int n = this.lb.length;
+		final int[] p = new int[n];
+		final int[] fifo = new int[n];
+		final boolean[] queued = new boolean[n];
+		int head = 0, size = n;
+		long extractions = 0;
+		for (int u = 0; u < n; u++) {
+			fifo[u] = u;
+			queued[u] = true;
+		}
+		while (size > 0) {
+			if (++extractions > (long) n * n + n)
+				throw new IllegalArgumentException("The network is not dynamically controllable: its ordinary constraints are inconsistent.");
+			final int u = fifo[head];
+			head = (head + 1) % n;
+			size--;
+			queued[u] = false;
+			for (int i = this.outStart[u]; i < this.outStart[u + 1] + this.activatedLinks[u].length; i++) {
+				final boolean ordinary = i < this.outStart[u + 1];
+				final int v = (ordinary) ? this.outNode[i] : this.linkContingent[this.activatedLinks[u][i - this.outStart[u + 1]]];
+				final int w = (ordinary) ? this.outValue[i] : this.linkX[this.activatedLinks[u][i - this.outStart[u + 1]]];
+				if (p[u] + w < p[v]) {
+					p[v] = p[u] + w;
+					if (!queued[v]) {
+						queued[v] = true;
+						fifo[(head + size++) % n] = v;
+					}
+				}
+			}
+		}
+		return p;
+	}
+
+	/**
+	 * @param node a node of the dispatched graph
+	 * @return its index
+	 * @throws IllegalArgumentException if the node does not belong to the dispatched graph.
+	 */
+	private int index(LabeledNode node) {
+		final int u = (node == null) ? Constants.INT_NULL : this.g.getNodeIndex(node);
+		if (u == Constants.INT_NULL)
+			throw new IllegalArgumentException("Node " + node + " does not belong to the dispatched network.");
+		return u;
+	}
+
+	/**
+	 * @param u index of a candidate node
+	 * @param t a time not smaller than the current one
+	 * @return true if u can be executed at time t.
+	 */
+	private boolean isEnabled(int u, int t) {
+		if (t < this.lb[u] || t > this.ub[u])
+			return false;
+		for (int i = this.waitStart[u]; i < this.waitStart[u + 1]; i++) {
+			final int l = this.waitLink[i];
+			if (this.time[this.linkContingent[l]] != Constants.INT_NULL)
+				continue;
+			final int tA = this.time[this.linkActivation[l]];
+			if (tA == Constants.INT_NULL || t < tA + this.waitValue[i])
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Propagates the bounds of node <code>source</code> to the not-executed nodes: upper bounds along outgoing edges and lower bounds
+	 * along incoming ones. Only nodes whose bound changes are visited.
+	 *
+	 * @param source index of the node whose bounds have been modified
+	 */
+	private void propagate(int source) {
+		final int n = this.lb.length;
+		int head = 0, size = 1;
+		this.queue[0] = source;
+		this.inQueue[source] = true;
+		while (size > 0) {
+			final int u = this.queue[head];
+			head = (head + 1) % n;
+			size--;
+			this.inQueue[u] = false;
+			if (this.ub[u] == Constants.INT_POS_INFINITE)
+				continue;
+			for (int i = this.outStart[u]; i < this.outStart[u + 1]; i++) {
+				final int v = this.outNode[i];
+				final int newUB = this.ub[u] + this.outValue[i];
+				if (this.time[v] == Constants.INT_NULL && newUB < this.ub[v]) {
+					this.ub[v] = newUB;
+					if (!this.inQueue[v]) {
+						this.inQueue[v] = true;
+						this.queue[(head + size++) % n] = v;
+					}
+				}
+			}
+		}
+		head = 0;
+		size = 1;
+		this.queue[0] = source;
+		this.inQueue[source] = true;
+		while (size > 0) {
+			final int u = this.queue[head];
+			head = (head + 1) % n;
+			size--;
+			this.inQueue[u] = false;
+			if (this.lb[u] == Constants.INT_NEG_INFINITE)
+				continue;
+			for (int i = this.inStart[u]; i < this.inStart[u + 1]; i++) {
+				final int v = this.inNode[i];
+				final int newLB = this.lb[u] - this.inValue[i];
+				if (this.time[v] == Constants.INT_NULL && newLB > this.lb[v]) {
+					this.lb[v] = newLB;
+					if (!this.inQueue[v]) {
+						this.inQueue[v] = true;
+						this.queue[(head + size++) % n] = v;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes a node from the candidates.
+	 *
+	 * @param u node index
+	 */
+	private void removeCandidate(int u) {
+		final int pos = this.candidatePosition[u];
+		final int last = this.candidate[--this.candidateSize];
+		this.candidate[pos] = last;
+		this.candidatePosition[last] = pos;
+		this.candidatePosition[u] = -1;
+	}
+
+	/**
+	 * Sets the adjacency arrays of ordinary edges.
+	 *
+	 * @param edges for each node u, the map destination &rarr; value of the ordinary edges from u.
+	 */
+	private void setAdjacency(Int2IntOpenHashMap[] edges) {
+		final int n = edges.length;
+		this.outStart = new int[n + 1];
+		this.inStart = new int[n + 1];
+		for (int u = 0; u < n; u++) {
+			this.outStart[u + 1] = this.outStart[u] + edges[u].size();
+			for (final int v : edges[u].keySet()) {
+				this.inStart[v + 1]++;
+			}
+		}
+		for (int u = 0; u < n; u++) {
+			this.inStart[u + 1] += this.inStart[u];
+		}
+		final int m = this.outStart[n];
+		this.outNode = new int[m];
+		this.outValue = new int[m];
+		this.inNode = new int[m];
+		this.inValue = new int[m];
+		final int[] inFill = Arrays.copyOf(this.inStart, n);
+		for (int u = 0, o = 0; u < n; u++) {
+			for (final Int2IntMap.Entry entry : edges[u].int2IntEntrySet()) {
+				final int v = entry.getIntKey(), value = entry.getIntValue();
+				this.outNode[o] = v;
+				this.outValue[o++] = value;
+				this.inNode[inFill[v]] = u;
+				this.inValue[inFill[v]++] = value;
+			}
+		}
+	}
+
+	/**
+	 * Fixes the execution time of node u, updates the pending counters of the nodes that follow it and propagates the new bounds.
+	 *
+	 * @param u node index
+	 * @param t the execution time
+	 */
+	private void setExecuted(int u, int t) {
+		this.time[u] = this.lb[u] = this.ub[u] = t;
+		this.currentTime = t;
+		this.executedCount++;
+		if (this.candidatePosition[u] >= 0)
+			this.removeCandidate(u);
+		for (final int v : this.followers[u]) {
+			if (--this.pending[v] == 0 && this.time[v] == Constants.INT_NULL)
+				this.addCandidate(v);
+		}
+		this.propagate(u);
+	}
+}
@@ -11,6 +11,7 @@ import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
 import java.security.SecureRandom;
 import java.util.Collections;
+import java.util.Random;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -59,6 +60,7 @@ import it.univr.di.labeledvalue.Constants;
  * @author posenato
  * @version 2.1
  */
+@edu.umd.cs.findbugs.annotations.SuppressFBWarnings(value = "DMI_RANDOM_USED_ONLY_ONCE", justification = "rnd is a field, replaced only by setSeed(long)")
 public class STNURandomGenerator {
 
 	/**
@@ -585,8 +587,9 @@ public class STNURandomGenerator {
 
 	/**
 	 * Random generator used in the building of labels.
+	 * By default it is not seeded; use {@link #setSeed(long)} to obtain reproducible instances.
 	 */
-	private SecureRandom rnd = new SecureRandom();
+	private Random rnd = new SecureRandom();
 
 	/**
 	 * Son probability
@@ -731,6 +734,16 @@ public class STNURandomGenerator {
 		return this.nCtgNodes;
 	}
 
+	/**
+	 * Replaces the random generator with one initialized with the given seed.
+	 * Two generators with the same parameters and the same seed build the same sequence of instances (used by benchmarks and tests).
+	 *
+	 * @param seed the initial seed.
+	 */
+	public void setSeed(long seed) {
+		this.rnd = new Random(seed);
+	}
+
 	/**
 	 * @return version and copyright string
 	 */
@@ -917,7 +930,7 @@ public class STNURandomGenerator {
 	 * @return a pair of DC and not DC of CSTN instances. If the first member is null, it means that a generic error in the building
 	 *         has occurred. If alsoNotDcInstance is false, the returned not DC instance is null.
 	 */
-	private ObjectPair<TNGraph<STNUEdge>> buildAPairRndTNInstances(boolean alsoNotDcInstance) {
+	ObjectPair<TNGraph<STNUEdge>> buildAPairRndTNInstances(boolean alsoNotDcInstance) {
 
 		LOG.info("Start building a new random instance");
 		TNGraph<STNUEdge> randomGraph = new TNGraph<>(EdgeSupplier.DEFAULT_STNU_EDGE_CLASS),
@@ -0,0 +1,604 @@
+// SPDX-FileCopyrightText: 2020 Roberto Posenato <roberto.posenato@univr.it>
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+package it.univr.di.cstnu.graph;
+
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.util.Arrays;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+/**
+ * Internal representation of the edges of a {@link TNGraph}.
+ * <p>
+ * Nodes are identified by their index in [0, order), where order is the number of nodes of the graph.
+ * The edges of a node are visited by <em>slots</em>: a slot is an opaque int that identifies one edge in the out (in) adjacency of a node.
+ * A typical visit of the out edges of node <code>row</code> is:
+ *
+ * <pre>
+ * for (int s = adj.firstOut(row, order); s &gt;= 0; s = adj.nextOut(row, s, order)) {
+ * 	E e = adj.outEdge(row, s);
+ * 	int dest = adj.outNode(row, s);
+ * }
+ * </pre>
+ *
+ * Slots are visited in ascending order of node index (descending for {@link #lastOut(int, int)}/{@link #prevOut(int, int)}).
+ * Slots are valid only until the next modification of the adjacency.
+ * <p>
+ * There are two implementations:
+ * <dl>
+ * <dt>{@link Dense}</dt>
+ * <dd>the classic adjacency matrix. Edge access is a matrix access, but the space is quadratic in the number of nodes and the visit of the neighbors of a
+ * node is linear in the number of nodes.</dd>
+ * <dt>{@link Sparse}</dt>
+ * <dd>per-node out/in adjacency lists sorted by node index and a hash (node pair--&gt;edge) for the edge access. The space is linear in the number of
+ * edges and the visit of the neighbors of a node is linear in its degree.</dd>
+ * </dl>
+ *
+ * @author posenato
+ * @param <E> type of edge
+ */
+abstract class Adjacency<E extends Edge> implements Serializable {
+
+	/**
+	 * Adjacency matrix.
+	 *
+	 * @param <E> type of edge
+	 */
+	static final class Dense<E extends Edge> extends Adjacency<E> {
+
+		/**
+		 *
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Edge class for allocating the matrix.
+		 */
+		private final Class<? extends E> edgeImplClass;
+
+		/**
+		 * The matrix.
+		 */
+		private E[][] matrix;
+
+		/**
+		 * @param edgeClass the class of edges
+		 * @param size initial number of rows and columns
+		 */
+		Dense(Class<? extends E> edgeClass, int size) {
+			this.edgeImplClass = edgeClass;
+			this.matrix = createMatrix(size);
+		}
+
+		@Override
+		int capacity() {
+			return this.matrix.length;
+		}
+
+		@Override
+		int firstIn(int col, int order) {
+			return nextIn(col, -1, order);
+		}
+
+		@Override
+		int firstOut(int row, int order) {
+			return nextOut(row, -1, order);
+		}
+
+		@Override
+		E get(int row, int col) {
+			return this.matrix[row][col];
+		}
+
+		@Override
+		void grow(int newCapacity) {
+			int currentSize = this.matrix.length;
+			E[][] newMatrix = createMatrix(newCapacity);
+			for (int i = currentSize; i-- != 0;) {
+				for (int j = currentSize; j-- != 0;)
+					newMatrix[i][j] = this.matrix[i][j];
+			}
+			this.matrix = newMatrix;
+		}
+
+		@Override
+		int inDegree(int col, int order) {
+			int count = 0;
+			for (int i = order; --i >= 0;) {
+				if (this.matrix[i][col] != null)
+					count++;
+			}
+			return count;
+		}
+
+		@Override
+		E inEdge(int col, int slot) {
+			return this.matrix[slot][col];
+		}
+
+		@Override
+		int inNode(int col, int slot) {
+			return slot;
+		}
+
+		@Override
+		int lastOut(int row, int order) {
+			return prevOut(row, order);
+		}
+
+		@Override
+		int nextIn(int col, int slot, int order) {
+			for (int i = slot + 1; i < order; i++) {
+				if (this.matrix[i][col] != null)
+					return i;
+			}
+			return -1;
+		}
+
+		@Override
+		int nextOut(int row, int slot, int order) {
+			final E[] r = this.matrix[row];
+			for (int i = slot + 1; i < order; i++) {
+				if (r[i] != null)
+					return i;
+			}
+			return -1;
+		}
+
+		@Override
+		int outDegree(int row, int order) {
+			final E[] r = this.matrix[row];
+			int count = 0;
+			for (int i = order; --i >= 0;) {
+				if (r[i] != null)
+					count++;
+			}
+			return count;
+		}
+
+		@Override
+		E outEdge(int row, int slot) {
+			return this.matrix[row][slot];
+		}
+
+		@Override
+		int outNode(int row, int slot) {
+			return slot;
+		}
+
+		@Override
+		int prevOut(int row, int slot) {
+			final E[] r = this.matrix[row];
+			for (int i = slot; --i >= 0;) {
+				if (r[i] != null)
+					return i;
+			}
+			return -1;
+		}
+
+		@Override
+		void set(int row, int col, E e) {
+			this.matrix[row][col] = e;
+		}
+
+		@Override
+		void transpose(int order) {
+			for (int i = 1; i < order; i++) {
+				for (int j = 0; j < i; j++) {
+					E eIJ = this.matrix[i][j];
+					this.matrix[i][j] = this.matrix[j][i];
+					this.matrix[j][i] = eIJ;
+				}
+			}
+		}
+
+		@Override
+		TNGraph.AdjacencyType type() {
+			return TNGraph.AdjacencyType.dense;
+		}
+
+		/**
+		 * @param size
+		 * @return a bi-dimensional size x size vector for containing E elements.
+		 */
+		@SuppressWarnings("unchecked")
+		private E[][] createMatrix(int size) {
+			return (E[][]) Array.newInstance(this.edgeImplClass, size, size);
+		}
+	}
+
+	/**
+	 * Adjacency lists with an edge hash.
+	 *
+	 * @param <E> type of edge
+	 */
+	static final class Sparse<E extends Edge> extends Adjacency<E> {
+
+		/**
+		 * The adjacency list of a node: adjacent node indexes in ascending order and the corresponding edges.
+		 *
+		 * @param <E> type of edge
+		 */
+		private static final class Slots<E> implements Serializable {
+			/**
+			 *
+			 */
+			private static final long serialVersionUID = 1L;
+			/**
+			 *
+			 */
+			final ObjectArrayList<E> edge = new ObjectArrayList<>(4);
+			/**
+			 *
+			 */
+			final IntArrayList node = new IntArrayList(4);
+
+			/**
+			 * @param n node index
+			 * @return the position of n in the list if present, (-(insertion point) - 1) otherwise.
+			 */
+			int find(int n) {
+				return Arrays.binarySearch(this.node.elements(), 0, this.node.size(), n);
+			}
+		}
+
+		/**
+		 *
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * @param row
+		 * @param col
+		 * @return the key of the pair (row, col) in the edge hash.
+		 */
+		private static long key(int row, int col) {
+			return ((long) row << 32) | (col & 0xFFFFFFFFL);
+		}
+
+		/**
+		 * Map (node pair--&gt;edge).
+		 */
+		private Long2ObjectMap<E> edges;
+
+		/**
+		 * In adjacency lists.
+		 */
+		private Slots<E>[] in;
+
+		/**
+		 * Out adjacency lists.
+		 */
+		private Slots<E>[] out;
+
+		/**
+		 * @param size initial number of nodes
+		 */
+		Sparse(int size) {
+			this.out = createSlots(size);
+			this.in = createSlots(size);
+			this.edges = new Long2ObjectOpenHashMap<>();
+		}
+
+		@Override
+		int capacity() {
+			return this.out.length;
+		}
+
+		@Override
+		int firstIn(int col, int order) {
+			return firstSlot(this.in[col]);
+		}
+
+		@Override
+		int firstOut(int row, int order) {
+			return firstSlot(this.out[row]);
+		}
+
+		@Override
+		E get(int row, int col) {
+			return this.edges.get(key(row, col));
+		}
+
+		@Override
+		void grow(int newCapacity) {
+			this.out = Arrays.copyOf(this.out, newCapacity);
+			this.in = Arrays.copyOf(this.in, newCapacity);
+		}
+
+		@Override
+		int inDegree(int col, int order) {
+			final Slots<E> s = this.in[col];
+			return (s == null) ? 0 : s.node.size();
+		}
+
+		@Override
+		E inEdge(int col, int slot) {
+			return this.in[col].edge.get(slot);
+		}
+
+		@Override
+		int inNode(int col, int slot) {
+			return this.in[col].node.getInt(slot);
+		}
+
+		@Override
+		int lastOut(int row, int order) {
+			final Slots<E> s = this.out[row];
+			return (s == null) ? -1 : s.node.size() - 1;
+		}
+
+		@Override
+		int nextIn(int col, int slot, int order) {
+			return nextSlot(this.in[col], slot);
+		}
+
+		@Override
+		int nextOut(int row, int slot, int order) {
+			return nextSlot(this.out[row], slot);
+		}
+
+		@Override
+		int outDegree(int row, int order) {
+			final Slots<E> s = this.out[row];
+			return (s == null) ? 0 : s.node.size();
+		}
+
+		@Override
+		E outEdge(int row, int slot) {
+			return this.out[row].edge.get(slot);
+		}
+
+		@Override
+		int outNode(int row, int slot) {
+			return this.out[row].node.getInt(slot);
+		}
+
+		@Override
+		int prevOut(int row, int slot) {
+			return slot - 1;
+		}
+
+		@Override
+		void set(int row, int col, E e) {
+			final long k = key(row, col);
+			if (e == null) {
+				if (this.edges.remove(k) != null) {
+					removeSlot(this.out, row, col);
+					removeSlot(this.in, col, row);
+				}
+				return;
+			}
+			this.edges.put(k, e);
+			putSlot(this.out, row, col, e);
+			putSlot(this.in, col, row, e);
+		}
+
+		@Override
+		void transpose(int order) {
+			final Slots<E>[] tmp = this.out;
+			this.out = this.in;
+			this.in = tmp;
+			final Long2ObjectMap<E> newEdges = new Long2ObjectOpenHashMap<>(this.edges.size());
+			for (int i = 0; i < order; i++) {
+				final Slots<E> s = this.out[i];
+				if (s == null)
+					continue;
+				for (int j = s.node.size(); j-- != 0;) {
+					newEdges.put(key(i, s.node.getInt(j)), s.edge.get(j));
+				}
+			}
+			this.edges = newEdges;
+		}
+
+		@Override
+		TNGraph.AdjacencyType type() {
+			return TNGraph.AdjacencyType.sparse;
+		}
+
+		/**
+		 * @param size
+		 * @return an array of size empty slot lists.
+		 */
+		@SuppressWarnings("unchecked")
+		private static <E> Slots<E>[] createSlots(int size) {
+			return new Slots[size];
+		}
+
+		/**
+		 * @param s
+		 * @return the first slot of s, -1 if s is empty.
+		 */
+		private static int firstSlot(Slots<?> s) {
+			return (s == null || s.node.isEmpty()) ? -1 : 0;
+		}
+
+		/**
+		 * @param s
+		 * @param slot
+		 * @return the slot after slot in s, -1 if there is no slot after it.
+		 */
+		private static int nextSlot(Slots<?> s, int slot) {
+			return (s == null || slot + 1 >= s.node.size()) ? -1 : slot + 1;
+		}
+
+		/**
+		 * Puts (n, e) in the list of owner, replacing the edge if n is already present.
+		 *
+		 * @param lists
+		 * @param owner
+		 * @param n
+		 * @param e
+		 */
+		private static <E> void putSlot(Slots<E>[] lists, int owner, int n, E e) {
+			Slots<E> s = lists[owner];
+			if (s == null) {
+				s = new Slots<>();
+				lists[owner] = s;
+			}
+			int p = s.find(n);
+			if (p >= 0) {
+				s.edge.set(p, e);
+				return;
+			}
+			p = -p - 1;
+			s.node.add(p, n);
+			s.edge.add(p, e);
+		}
+
+		/**
+		 * Removes n from the list of owner.
+		 *
+		 * @param lists
+		 * @param owner
+		 * @param n
+		 */
+		private static <E> void removeSlot(Slots<E>[] lists, int owner, int n) {
+			final Slots<E> s = lists[owner];
+			if (s == null)
+				return;
+			final int p = s.find(n);
+			if (p < 0)
+				return;
+			s.node.removeInt(p);
+			s.edge.remove(p);
+		}
+	}
+
+	/**
+	 *
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * @return the number of nodes that can be represented without growing.
+	 */
+	abstract int capacity();
+
+	/**
+	 * @param col index of a node
+	 * @param order number of nodes
+	 * @return the first slot of in edges of col, -1 if there is no in edge.
+	 */
+	abstract int firstIn(int col, int order);
+
+	/**
+	 * @param row index of a node
+	 * @param order number of nodes
+	 * @return the first slot of out edges of row, -1 if there is no out edge.
+	 */
+	abstract int firstOut(int row, int order);
+
+	/**
+	 * @param row source index
+	 * @param col destination index
+	 * @return the edge (row, col) if present, null otherwise.
+	 */
+	abstract E get(int row, int col);
+
+	/**
+	 * Enlarges the adjacency for containing newCapacity nodes.
+	 *
+	 * @param newCapacity new capacity. It must be greater than the current one.
+	 */
+	abstract void grow(int newCapacity);
+
+	/**
+	 * @param col index of a node
+	 * @param order number of nodes
+	 * @return the number of in edges of col.
+	 */
+	abstract int inDegree(int col, int order);
+
+	/**
+	 * @param col index of a node
+	 * @param slot a valid slot
+	 * @return the in edge of col at slot.
+	 */
+	abstract E inEdge(int col, int slot);
+
+	/**
+	 * @param col index of a node
+	 * @param slot a valid slot
+	 * @return the index of the source node of the in edge of col at slot.
+	 */
+	abstract int inNode(int col, int slot);
+
+	/**
+	 * @param row index of a node
+	 * @param order number of nodes
+	 * @return the last slot of out edges of row, -1 if there is no out edge.
+	 */
+	abstract int lastOut(int row, int order);
+
+	/**
+	 * @param col index of a node
+	 * @param slot current slot
+	 * @param order number of nodes
+	 * @return the slot of in edges of col after slot, -1 if there is none.
+	 */
+	abstract int nextIn(int col, int slot, int order);
+
+	/**
+	 * @param row index of a node
+	 * @param slot current slot
+	 * @param order number of nodes
+	 * @return the slot of out edges of row after slot, -1 if there is none.
+	 */
+	abstract int nextOut(int row, int slot, int order);
+
+	/**
+	 * @param row index of a node
+	 * @param order number of nodes
+	 * @return the number of out edges of row.
+	 */
+	abstract int outDegree(int row, int order);
+
+	/**
+	 * @param row index of a node
+	 * @param slot a valid slot
+	 * @return the out edge of row at slot.
+	 */
+	abstract E outEdge(int row, int slot);
+
+	/**
+	 * @param row index of a node
+	 * @param slot a valid slot
+	 * @return the index of the destination node of the out edge of row at slot.
+	 */
+	abstract int outNode(int row, int slot);
+
+	/**
+	 * @param row index of a node
+	 * @param slot current slot
+	 * @return the slot of out edges of row before slot, -1 if there is none.
+	 */
+	abstract int prevOut(int row, int slot);
+
+	/**
+	 * Sets the edge (row, col).
+	 *
+	 * @param row source index
+	 * @param col destination index
+	 * @param e the edge. If null, the edge (row, col) is removed.
+	 */
+	abstract void set(int row, int col, E e);
+
+	/**
+	 * Transposes the adjacency.
+	 *
+	 * @param order number of nodes
+	 */
+	abstract void transpose(int order);
+
+	/**
+	 * @return the type of this representation.
+	 */
+	abstract TNGraph.AdjacencyType type();
+}
@@ -179,6 +179,7 @@ public abstract class BasicCSTNUEdgePluggable extends CSTNEdgePluggable implemen
 	@Override
 	public final void clearUpperCaseValues() {
 		this.upperCaseValue.clear();
+		this.modificationCount++;
 	}
 
 	/** {@inheritDoc} */
@@ -317,7 +318,7 @@ public abstract class BasicCSTNUEdgePluggable extends CSTNEdgePluggable implemen
 			}
 			return false;
 		}
-		return this.upperCaseValue.mergeTriple(l, nodeName, i, false);
+		return this.mergeTriple(this.upperCaseValue, l, nodeName, i, false);
 	}
 
 	/** {@inheritDoc} */
@@ -340,27 +341,50 @@ public abstract class BasicCSTNUEdgePluggable extends CSTNEdgePluggable implemen
 			return false;
 		}
 		this.setUpperCaseValueAsConsidered(l, nodeName, i);// once it has been added, it is useless to add it again!
-		return this.upperCaseValue.mergeTriple(l, nodeName, i, true);
+		return this.mergeTriple(this.upperCaseValue, l, nodeName, i, true);
+	}
+
+	/**
+	 * Merges (l, nodeName, i) in the given upper-case or lower-case value map of this edge and increases the modification count if the
+	 * map has been modified.
+	 *
+	 * @param map the upper-case or lower-case value map of this edge
+	 * @param l label
+	 * @param nodeName a-label
+	 * @param i value
+	 * @param force see {@link LabeledALabelIntTreeMap#mergeTriple(Label, ALabel, int, boolean)}
+	 * @return true if the triple has been stored.
+	 */
+	final boolean mergeTriple(LabeledALabelIntTreeMap map, final Label l, ALabel nodeName, final int i, boolean force) {
+		final int oldSize = map.size();
+		final boolean added = map.mergeTriple(l, nodeName, i, force);
+		if (added || oldSize != map.size())
+			this.modificationCount++;
+		return added;
 	}
 
 	/** {@inheritDoc} */
 	@Override
 	public final boolean putLabeledValue(final Label l, final int i) {
 		this.consideredLabeledValue.put(l, i); // once a value has been inserted, it is useless to insert it again in the future.
-		return this.labeledValue.put(l, i);
+		return this.putInLabeledValueMap(l, i);
 	}
 
 	/** {@inheritDoc} */
 	@Override
 	public final int removeUpperCaseValue(final Label l, final ALabel n) {
 		// this.consideredUpperCaseValue.removeInt(new InternalEntry(l, n));
-		return this.upperCaseValue.remove(l, n);
+		final int old = this.upperCaseValue.remove(l, n);
+		if (old != Constants.INT_NULL)
+			this.modificationCount++;
+		return old;
 	}
 
 	/** {@inheritDoc} */
 	@Override
 	public final void setUpperCaseValueMap(final LabeledALabelIntTreeMap inputLabeledValue) {
 		this.upperCaseValue = (inputLabeledValue == null) ? new LabeledALabelIntTreeMap() : inputLabeledValue;
+		this.modificationCount++;
 	}
 
 	/** {@inheritDoc} */
@@ -87,6 +87,16 @@ public interface CSTNEdge extends Edge {
 	 */
 	public int getMinValueSubsumedBy(final Label l);
 
+	/**
+	 * Returns the number of modifications of the values of this edge.<br>
+	 * The count is increased by each method that adds, removes or replaces values (also upper-case and lower-case ones in the subclasses).
+	 * Therefore, a rule application can detect whether it has modified the edge comparing the counts before and after it, without copying
+	 * the edge. A different count does not guarantee that the values are different.
+	 *
+	 * @return the modification count.
+	 */
+	public int getModificationCount();
+
 	/**
 	 * <p>getValue.</p>
 	 *
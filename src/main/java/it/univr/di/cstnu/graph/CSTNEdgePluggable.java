@@ -55,6 +55,11 @@ public class CSTNEdgePluggable extends AbstractEdge implements CSTNEdge {
 	 */
 	protected LabeledIntMap labeledValue;
 
+	/**
+	 * Number of modifications of the values. See {@link #getModificationCount()}.
+	 */
+	protected int modificationCount;
+
 	/**
 	 * 
 	 */
@@ -100,6 +105,7 @@ public class CSTNEdgePluggable extends AbstractEdge implements CSTNEdge {
 		super.clear();
 		this.labeledValue.clear();
 		this.consideredLabeledValue.clear();
+		this.modificationCount++;
 	}
 
 	/** {@inheritDoc} */
@@ -156,6 +162,12 @@ public class CSTNEdgePluggable extends AbstractEdge implements CSTNEdge {
 		return this.labeledValue.getMinValueSubsumedBy(l);
 	}
 
+	/** {@inheritDoc} */
+	@Override
+	public int getModificationCount() {
+		return this.modificationCount;
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public int getValue(final Label label) {
@@ -206,7 +218,7 @@ public class CSTNEdgePluggable extends AbstractEdge implements CSTNEdge {
 			return false;
 		}
 		this.consideredLabeledValue.put(l, i); // once a value has been inserted, it is useless to insert it again in the future.
-		return this.labeledValue.put(l, i);
+		return this.putInLabeledValueMap(l, i);
 	}
 
 	/** {@inheritDoc} */
@@ -250,7 +262,23 @@ public class CSTNEdgePluggable extends AbstractEdge implements CSTNEdge {
 	@Override
 	public boolean putLabeledValue(final Label l, final int i) {
 		this.consideredLabeledValue.put(l, i); // once a value has been inserted, it is useless to insert it again in the future.
-		return this.labeledValue.put(l, i);
+		return this.putInLabeledValueMap(l, i);
+	}
+
+	/**
+	 * Puts (l,i) in the labeled value map and increases the modification count if the map has been modified.
+	 * The map can remove redundant values even when (l,i) is not stored, so also its size is considered.
+	 *
+	 * @param l label
+	 * @param i value
+	 * @return true if (l,i) has been stored.
+	 */
+	final boolean putInLabeledValueMap(final Label l, final int i) {
+		final int oldSize = this.labeledValue.size();
+		final boolean added = this.labeledValue.put(l, i);
+		if (added || oldSize != this.labeledValue.size())
+			this.modificationCount++;
+		return added;
 	}
 
 	/**
@@ -266,7 +294,10 @@ public class CSTNEdgePluggable extends AbstractEdge implements CSTNEdge {
 			}
 		}
 		this.consideredLabeledValue.removeInt(l); // If it is removed, we assume that it can be reconsidered to be added.
-		return this.labeledValue.remove(l);
+		final int old = this.labeledValue.remove(l);
+		if (old != Constants.INT_NULL)
+			this.modificationCount++;
+		return old;
 	}
 
 	/** {@inheritDoc} */
@@ -277,6 +308,7 @@ public class CSTNEdgePluggable extends AbstractEdge implements CSTNEdge {
 		} else {
 			this.labeledValue = inputLabeledValue;
 		}
+		this.modificationCount++;
 	}
 
 	/** {@inheritDoc} */
@@ -296,6 +328,7 @@ public class CSTNEdgePluggable extends AbstractEdge implements CSTNEdge {
 			this.constraintType = e1.constraintType;
 			this.labeledValue = e1.labeledValue;
 			this.consideredLabeledValue = e1.consideredLabeledValue;
+			this.modificationCount++;
 		}
 	}
 
@@ -123,6 +123,7 @@ public class CSTNPSUEdgePluggable extends BasicCSTNUEdgePluggable implements CST
 	@Override
 	public void clearLowerCaseValues() {
 		this.lowerCaseValue.clear();
+		this.modificationCount++;
 	}
 
 	/** {@inheritDoc} */
@@ -252,7 +253,7 @@ public class CSTNPSUEdgePluggable extends BasicCSTNUEdgePluggable implements CST
 			}
 			return false;
 		}
-		boolean added = this.lowerCaseValue.mergeTriple(l, nodeName, i, false);
+		boolean added = this.mergeTriple(this.lowerCaseValue, l, nodeName, i, false);
 		// if (added && !this.lowerCaseValue.isEmpty()) {
 		// this.setConstraintType(ConstraintType.contingent);
 		// this.setChanged();
@@ -281,7 +282,7 @@ public class CSTNPSUEdgePluggable extends BasicCSTNUEdgePluggable implements CST
 			return false;
 		}
 		this.setLowerCaseValueAsConsidered(l, nodeName, i);// once it has been added, it is useless to add it again!
-		return this.lowerCaseValue.mergeTriple(l, nodeName, i, true);
+		return this.mergeTriple(this.lowerCaseValue, l, nodeName, i, true);
 	}
 
 	/** {@inheritDoc} */
@@ -306,13 +307,17 @@ public class CSTNPSUEdgePluggable extends BasicCSTNUEdgePluggable implements CST
 	@Override
 	public final int removeLowerCaseValue(final Label l, final ALabel n) {
 		// this.consideredLowerCaseValue.removeInt(new InternalEntry(l, n));
-		return this.lowerCaseValue.remove(l, n);
+		final int old = this.lowerCaseValue.remove(l, n);
+		if (old != Constants.INT_NULL)
+			this.modificationCount++;
+		return old;
 	}
 
 	/** {@inheritDoc} */
 	@Override
 	public void setLowerCaseValue(LabeledALabelIntTreeMap lowerCaseValue1) {
 		this.lowerCaseValue = (lowerCaseValue1 == null) ? new LabeledALabelIntTreeMap() : lowerCaseValue1;
+		this.modificationCount++;
 	}
 
 	/** {@inheritDoc} */
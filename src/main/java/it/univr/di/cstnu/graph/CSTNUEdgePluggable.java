@@ -158,6 +158,7 @@ public class CSTNUEdgePluggable extends BasicCSTNUEdgePluggable implements CSTNU
 
 		int i = this.lowerCaseValue.getValue();
 		this.lowerCaseValue = LabeledLowerCaseValue.emptyLabeledLowerCaseValue;
+		this.modificationCount++;
 		this.setConstraintType(ConstraintType.requirement);
 		this.pcs.firePropertyChange("lowerLabel:remove", null, this.lowerCaseValue );
 		return i;
@@ -180,6 +181,7 @@ public class CSTNUEdgePluggable extends BasicCSTNUEdgePluggable implements CSTNU
 	@Override
 	public void setLowerCaseValue(final LabeledLowerCaseValue inputLabeledValue) {
 		this.lowerCaseValue = inputLabeledValue;
+		this.modificationCount++;
 		if (!this.lowerCaseValue.isEmpty()) {
 			this.setConstraintType(ConstraintType.contingent);
 			this.pcs.firePropertyChange("lowerLabel:add", null, this.lowerCaseValue );
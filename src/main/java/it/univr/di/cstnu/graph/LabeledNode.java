@@ -132,6 +132,13 @@ public class LabeledNode extends AbstractComponent {
 	 */
 	private Status status;
 
+	/**
+	 * Index of this node in the adjacency matrix of the {@link TNGraph} containing it.
+	 * It is managed only by {@link TNGraph} and it allows the graph to find the node row/column without hashing the node name.
+	 * {@link Constants#INT_NULL} if the node has not been added to a graph.
+	 */
+	int index;
+
 	/**
 	 * Constructor for cloning.
 	 *
@@ -147,6 +154,7 @@ public class LabeledNode extends AbstractComponent {
 		this.contingent = n.contingent;
 		this.potential = n.potential;
 		this.labeledPotential = new LabeledALabelIntTreeMap(n.getUpperCaseLabeledPotential());
+		this.index = Constants.INT_NULL;
 	}
 
 	/**
@@ -164,6 +172,7 @@ public class LabeledNode extends AbstractComponent {
 		this.contingent = false;
 		this.labeledPotential = new LabeledALabelIntTreeMap();
 		this.labeledPotential.put(ALabel.emptyLabel, new LabeledIntMapSupplier<>(labeledValueMapImpl).get());
+		this.index = Constants.INT_NULL;
 	}
 
 	/**
@@ -12,11 +12,11 @@ package it.univr.di.cstnu.graph;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.io.File;
-import java.lang.reflect.Array;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -47,8 +47,10 @@ import it.univr.di.labeledvalue.Label;
 import it.univr.di.labeledvalue.Literal;
 
 /**
- * Represents (dense) temporal network graphs where nodes are {@link it.univr.di.cstnu.graph.LabeledNode} and edges are (an extension of)
+ * Represents temporal network graphs where nodes are {@link it.univr.di.cstnu.graph.LabeledNode} and edges are (an extension of)
  * {@link it.univr.di.cstnu.graph.Edge}.
+ * The edges can be stored in an adjacency matrix (default, suitable for small or dense networks) or in adjacency lists (suitable for large networks with
+ * few edges per node). See {@link AdjacencyType}.
  * This class implements the interface {@link edu.uci.ics.jung.graph.DirectedGraph} in order to allow the representation of Graph by Jung library.
  *
  * @author posenato
@@ -104,6 +106,28 @@ public class TNGraph<E extends Edge> extends AbstractTypedGraph<LabeledNode, E>
 		CSTNPSU
 	}
 
+	/**
+	 * Possible representations of the edges of the graph.
+	 * The representation is fixed at construction time.
+	 *
+	 * @author posenato
+	 */
+	public enum AdjacencyType {
+		/**
+		 * Adjacency matrix. The access to an edge given its endpoints costs a matrix access, but the memory is quadratic in the number of nodes and
+		 * the visit of the edges of a node is linear in the number of nodes.
+		 * It is the best choice for small networks or for networks with many edges.
+		 */
+		dense,
+
+		/**
+		 * Per-node out/in adjacency lists plus a hash (node pair--&gt;edge) for {@link TNGraph#findEdge(int, int)}.
+		 * The memory is linear in the number of edges and the visit of the edges of a node is linear in its degree.
+		 * It is the best choice for large networks with few edges per node.
+		 */
+		sparse
+	}
+
 	/**
 	 * Represents the association of an edge with its position in the adjacency matrix of the graph.
 	 * index with its corresponding node.
@@ -179,9 +203,14 @@ public class TNGraph<E extends Edge> extends AbstractTypedGraph<LabeledNode, E>
 	}
 
 	/**
-	 * The graph is represented by its adjacency matrix.
+	 * The graph is represented by its adjacency.
 	 */
-	private E[][] adjacency;
+	private Adjacency<E> adjacency;
+
+	/**
+	 * Kind of adjacency.
+	 */
+	private AdjacencyType adjacencyType;
 
 	/**
 	 * Alphabet for A-Label
@@ -260,11 +289,23 @@ public class TNGraph<E extends Edge> extends AbstractTypedGraph<LabeledNode, E>
 
 	/**
 	 * Creates a new object using inputEdgeImplClass class for representing the edges of the graph.
+	 * Edges are stored in an adjacency matrix.
 	 * @param <E1> type of edge
 	 *
 	 * @param inputEdgeImplClass a {@link java.lang.Class} object.
 	 */
 	public <E1 extends E> TNGraph(Class<E1> inputEdgeImplClass) {// , Class<M1> inputLabeledValueMapImplClass
+		this(inputEdgeImplClass, AdjacencyType.dense);
+	}
+
+	/**
+	 * Creates a new object using inputEdgeImplClass class for representing the edges of the graph.
+	 * @param <E1> type of edge
+	 *
+	 * @param inputEdgeImplClass a {@link java.lang.Class} object.
+	 * @param adjacencyKind the representation of edges. If null, {@link AdjacencyType#dense} is used.
+	 */
+	public <E1 extends E> TNGraph(Class<E1> inputEdgeImplClass, AdjacencyType adjacencyKind) {
 		super(EdgeType.DIRECTED);
 		if (CSTNPSUEdge.class.isAssignableFrom(inputEdgeImplClass))
 			this.type = NetworkType.CSTNPSU;
@@ -280,6 +321,7 @@ public class TNGraph<E extends Edge> extends AbstractTypedGraph<LabeledNode, E>
 		this.edgeFactory = new EdgeSupplier<>(inputEdgeImplClass);// , inputLabeledValueMapImplClass
 		this.nodeFactory = new LabeledNodeSupplier();// inputLabeledValueMapImplClass
 		this.order = 0;
+		this.adjacencyType = (adjacencyKind == null) ? AdjacencyType.dense : adjacencyKind;
 		this.adjacency = createAdjacency(10);
 		this.nodeName2index = new Object2IntOpenHashMap<>();
 		this.nodeName2index.defaultReturnValue(Constants.INT_NULL);
@@ -307,13 +349,14 @@ public class TNGraph<E extends Edge> extends AbstractTypedGraph<LabeledNode, E>
 
 	/**
 	 * A constructor that copy a given graph g using copy constructor even for internal structures. If g is null, this new graph will be empty.
+	 * The new graph has the same kind of adjacency of g.
 	 * @param <E1> type of edge
 	 *
 	 * @param g the graph to be cloned
 	 * @param edgeImplClass class
 	 */
 	public <E1 extends E> TNGraph(final TNGraph<E> g, Class<E1> edgeImplClass) {
-		this(edgeImplClass);
+		this(edgeImplClass, g.adjacencyType);
 		this.name = g.name;
 		this.aLabelAlphabet = g.aLabelAlphabet;
 		this.inputFile = g.inputFile;
@@ -351,6 +394,19 @@ public class TNGraph<E extends Edge> extends AbstractTypedGraph<LabeledNode, E>
 		this.name = graphName;
 	}
 
+	/**
+	 * Constructor for TNGraph.
+	 * @param <E1> type of edge
+	 *
+	 * @param graphName a name for the graph
+	 * @param inputEdgeImplClass type of edges
+	 * @param adjacencyKind the representation of edges. If null, {@link AdjacencyType#dense} is used.
+	 */
+	public <E1 extends E> TNGraph(final String graphName, Class<E1> inputEdgeImplClass, AdjacencyType adjacencyKind) {
+		this(inputEdgeImplClass, adjacencyKind);
+		this.name = graphName;
+	}
+
 	/**
 	 * Constructor for TNGraph.
 	 * @param <E1> type of edge
@@ -451,13 +507,13 @@ public class TNGraph<E extends Edge> extends AbstractTypedGraph<LabeledNode, E>
 			return false;
 		}
 
-		E old = this.adjacency[sourceIndex][destIndex];
+		E old = this.adjacency.get(sourceIndex, destIndex);
 		if (old != null) {
 			LOG.severe("Between node " + v1Name + " and node " + v2Name + " there exists the edge " + old + ". Remove it before adding a new one.");
 			return false;
 		}
 		// removeEdgeFromIndex(old);
-		this.adjacency[sourceIndex][destIndex] = e;
+		this.adjacency.set(sourceIndex, destIndex, e);
 
 		this.edge2index.put(e.getName(), new EdgeIndex(e, sourceIndex, destIndex));
 		this.lowerCaseEdges = null;
@@ -480,15 +536,9 @@ public class TNGraph<E extends Edge> extends AbstractTypedGraph<LabeledNode, E>
 			return false;
 		}
 
-		int currentSize = this.adjacency.length;
+		int currentSize = this.adjacency.capacity();
 		if (currentSize == this.order) {
-			int newSize = (int) (currentSize * growFactor);
-			E[][] newAdjancency = createAdjacency(newSize);
-			for (int i = currentSize; i-- != 0;) {
-				for (int j = currentSize; j-- != 0;)
-					newAdjancency[i][j] = this.adjacency[i][j];
-			}
-			this.adjacency = newAdjancency;
+			this.adjacency.grow((int) (currentSize * growFactor));
 		}
 		// now it is possible to add node in position 'order'
 		if (Debug.ON) {
@@ -498,6 +548,7 @@ public class TNGraph<E extends Edge> extends AbstractTypedGraph<LabeledNode, E>
 		}
 		this.nodeName2index.put(vertex.name, this.order);
 		this.index2node.put(this.order, vertex);
+		vertex.index = this.order;
 		this.order++;
 		clearCache();
 		vertex.addObserver("nodeName", this);
@@ -685,7 +736,28 @@ public class TNGraph<E extends Edge> extends AbstractTypedGraph<LabeledNode, E>
 	public E findEdge(LabeledNode s, LabeledNode d) {
 		if (s == null || s.getName() == null || d == null || d.getName() == null)
 			return null;
-		return findEdge(s.getName(), d.getName());
+		int sourceNI = this.getNodeIndex(s);
+		if (sourceNI == Constants.INT_NULL)
+			return null;
+		int destNI = this.getNodeIndex(d);
+		if (destNI == Constants.INT_NULL)
+			return null;
+		return this.adjacency.get(sourceNI, destNI);
+	}
+
+	/**
+	 * Find the edge given the index of source node and the index of destination one.<br>
+	 * Node indexes are the ones returned by {@link #getNodeIndex(LabeledNode)} and they are valid until a node is removed from the graph.
+	 * With the dense adjacency, this method does not make any hashing, so it is the fastest way to access to an edge inside loops on nodes.
+	 *
+	 * @param sourceIndex index of source node.
+	 * @param destIndex index of destination node.
+	 * @return the edge if it exists, null if it does not exist or any index is not valid.
+	 */
+	public E findEdge(int sourceIndex, int destIndex) {
+		if (sourceIndex < 0 || sourceIndex >= this.order || destIndex < 0 || destIndex >= this.order)
+			return null;
+		return this.adjacency.get(sourceIndex, destIndex);
 	}
 
 	/**
@@ -704,7 +776,7 @@ public class TNGraph<E extends Edge> extends AbstractTypedGraph<LabeledNode, E>
 		int destNI = this.nodeName2index.getInt(d);
 		if (destNI == Constants.INT_NULL)
 			return null;
-		return this.adjacency[sourceNI][destNI];
+		return this.adjacency.get(sourceNI, destNI);
 	}
 
 	/**
@@ -873,23 +945,9 @@ public class TNGraph<E extends Edge> extends AbstractTypedGraph<LabeledNode, E>
 	@Override
 	public ObjectList<E> getIncidentEdges(LabeledNode vertex) {
 		int index;
-		ObjectArrayList<E> coll = new ObjectArrayList<>();
-		if (vertex == null || (index = this.nodeName2index.getInt(vertex.name)) == Constants.INT_NULL)
-			return coll;
-
-		E e;
-		for (int i = 0; i < this.order; i++) {
-			e = this.adjacency[index][i];
-			if (e != null)
-				coll.add(e);
-			if (i == index)
-				continue;
-			e = this.adjacency[i][index];
-			if (e != null)
-				coll.add(e);
-		}
-		return coll;
-
+		if (vertex == null || (index = this.getNodeIndex(vertex)) == Constants.INT_NULL)
+			return new ObjectArrayList<>();
+		return this.incidentEdges(index);
 	}
 
 	/** {@inheritDoc} */
@@ -897,13 +955,11 @@ public class TNGraph<E extends Edge> extends AbstractTypedGraph<LabeledNode, E>
 	public Collection<E> getInEdges(LabeledNode vertex) {
 		int nodeIndex;
 		ObjectArrayList<E> inEdges = new ObjectArrayList<>();
-		if (vertex == null || (nodeIndex = this.nodeName2index.getInt(vertex.name)) == Constants.INT_NULL)
+		if (vertex == null || (nodeIndex = this.getNodeIndex(vertex)) == Constants.INT_NULL)
 			return inEdges;
-		E e;
-		for (int i = 0; i < this.order; i++) {
-			e = this.adjacency[i][nodeIndex];
-			if (e != null)
-				inEdges.add(e);
+		final Adjacency<E> adj = this.adjacency;
+		for (int s = adj.firstIn(nodeIndex, this.order); s >= 0; s = adj.nextIn(nodeIndex, s, this.order)) {
+			inEdges.add(adj.inEdge(nodeIndex, s));
 		}
 		return inEdges;
 	}
@@ -933,10 +989,11 @@ public class TNGraph<E extends Edge> extends AbstractTypedGraph<LabeledNode, E>
 		if (this.lowerCaseEdges == null) {
 			this.lowerCaseEdges = new ObjectArrayList<>();
 			if (getType() == NetworkType.CSTNU || getType() == NetworkType.CSTNPSU) {
+				final Adjacency<E> adj = this.adjacency;
 				BasicCSTNUEdge edge;
 				for (int i = 0; i < this.order; i++) {
-					for (int j = 0; j < this.order; j++) {
-						if ((edge = (BasicCSTNUEdge) this.adjacency[i][j]) != null && edge.lowerCaseValueSize() == 1 && edge.isContingentEdge()) {
+					for (int s = adj.firstOut(i, this.order); s >= 0; s = adj.nextOut(i, s, this.order)) {
+						if ((edge = (BasicCSTNUEdge) adj.outEdge(i, s)).lowerCaseValueSize() == 1 && edge.isContingentEdge()) {
 							this.lowerCaseEdges.add(edge);
 						}
 					}
@@ -955,18 +1012,33 @@ public class TNGraph<E extends Edge> extends AbstractTypedGraph<LabeledNode, E>
 		return this.name;
 	}
 
+	/**
+	 * @return the kind of adjacency used for representing the edges.
+	 */
+	public AdjacencyType getAdjacencyType() {
+		return this.adjacencyType;
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public Collection<LabeledNode> getNeighbors(LabeledNode vertex) {
 		int nodeIndex;
-		if (vertex == null || (nodeIndex = this.nodeName2index.getInt(vertex.name)) == Constants.INT_NULL)
+		if (vertex == null || (nodeIndex = this.getNodeIndex(vertex)) == Constants.INT_NULL)
 			return null;
 		ObjectArraySet<LabeledNode> neighbors = new ObjectArraySet<>();
-		for (int i = 0; i < this.order; i++) {
-			if (this.adjacency[nodeIndex][i] != null)
-				neighbors.add(this.index2node.get(i));
-			if (this.adjacency[i][nodeIndex] != null)
-				neighbors.add(this.index2node.get(i));
+		final Adjacency<E> adj = this.adjacency;
+		int out = adj.firstOut(nodeIndex, this.order), in = adj.firstIn(nodeIndex, this.order);
+		int outNode, inNode;
+		while (out >= 0 || in >= 0) {
+			outNode = (out >= 0) ? adj.outNode(nodeIndex, out) : Integer.MAX_VALUE;
+			inNode = (in >= 0) ? adj.inNode(nodeIndex, in) : Integer.MAX_VALUE;
+			if (outNode <= inNode) {
+				neighbors.add(this.index2node.get(outNode));
+				out = adj.nextOut(nodeIndex, out, this.order);
+			} else {
+				neighbors.add(this.index2node.get(inNode));
+				in = adj.nextIn(nodeIndex, in, this.order);
+			}
 		}
 		return neighbors;
 	}
@@ -983,6 +1055,37 @@ public class TNGraph<E extends Edge> extends AbstractTypedGraph<LabeledNode, E>
 		return this.index2node.get(this.nodeName2index.getInt(s));
 	}
 
+	/**
+	 * Returns the node associated to the index.
+	 *
+	 * @param index the index of the node (see {@link #getNodeIndex(LabeledNode)}).
+	 * @return the node associated to the index if present, null otherwise.
+	 */
+	public LabeledNode getNode(final int index) {
+		if (index < 0 || index >= this.order)
+			return null;
+		return this.index2node.get(index);
+	}
+
+	/**
+	 * Returns the index of the node in this graph.<br>
+	 * The index is an integer in [0, {@link #getVertexCount()}) that does not change until a node is removed.
+	 * When a node is removed, the last node takes the index of the removed one.<br>
+	 * If the given node was added to this graph, the index is read from the node itself without any hashing.
+	 * Otherwise, the node is searched by name.
+	 *
+	 * @param node a node.
+	 * @return the index of the node, {@link Constants#INT_NULL} if the node is null or it is not present.
+	 */
+	public int getNodeIndex(final LabeledNode node) {
+		if (node == null)
+			return Constants.INT_NULL;
+		int i = node.index;
+		if (i >= 0 && i < this.order && this.index2node.get(i) == node)
+			return i;
+		return this.nodeName2index.getInt(node.name);
+	}
+
 	/**
 	 * <p>
 	 * Getter for the field <code>nodeFactory</code>.
@@ -1084,67 +1187,187 @@ public class TNGraph<E extends Edge> extends AbstractTypedGraph<LabeledNode, E>
 	public ObjectList<E> getOutEdges(LabeledNode vertex) {
 		int nodeIndex;
 		ObjectArrayList<E> outEdges = new ObjectArrayList<>();
-		if (vertex == null || (nodeIndex = this.nodeName2index.getInt(vertex.name)) == Constants.INT_NULL)
+		if (vertex == null || (nodeIndex = this.getNodeIndex(vertex)) == Constants.INT_NULL)
 			return outEdges;
-		E e;
-		for (int i = this.order; --i >= 0;) {
-			e = this.adjacency[nodeIndex][i];
-			if (e != null)
-				outEdges.add(e);
+		final Adjacency<E> adj = this.adjacency;
+		for (int s = adj.lastOut(nodeIndex, this.order); s >= 0; s = adj.prevOut(nodeIndex, s)) {
+			outEdges.add(adj.outEdge(nodeIndex, s));
 		}
 		return outEdges;
 	}
 
+	/**
+	 * Returns the first slot of the out edges of the node having index <code>nodeIndex</code>.
+	 * <p>
+	 * Slots allow the visit of the out edges of a node without allocating any object:
+	 *
+	 * <pre>
+	 * for (int slot = g.firstOutSlot(nodeIndex); slot &gt;= 0; slot = g.nextOutSlot(nodeIndex, slot)) {
+	 * 	E e = g.outEdgeAt(nodeIndex, slot);
+	 * 	LabeledNode d = g.getNode(g.outNodeAt(nodeIndex, slot));
+	 * }
+	 * </pre>
+	 *
+	 * Edges are visited in the same order of {@link #getOutEdges(LabeledNode)}.
+	 * Slots are valid until an edge is added to or removed from the graph; therefore, the graph must not be modified during the visit.
+	 * For efficiency, indexes are not checked.
+	 *
+	 * @param nodeIndex index of a node (see {@link #getNodeIndex(LabeledNode)}).
+	 * @return the first slot, or -1 if the node has no out edges.
+	 */
+	public int firstOutSlot(int nodeIndex) {
+		return this.adjacency.lastOut(nodeIndex, this.order);
+	}
+
+	/**
+	 * See {@link #firstOutSlot(int)}.
+	 *
+	 * @param nodeIndex index of a node.
+	 * @param slot the current slot.
+	 * @return the slot after <code>slot</code>, or -1 if there are no more out edges.
+	 */
+	public int nextOutSlot(int nodeIndex, int slot) {
+		return this.adjacency.prevOut(nodeIndex, slot);
+	}
+
+	/**
+	 * See {@link #firstOutSlot(int)}.
+	 *
+	 * @param nodeIndex index of a node.
+	 * @param slot a valid slot.
+	 * @return the out edge at <code>slot</code>.
+	 */
+	public E outEdgeAt(int nodeIndex, int slot) {
+		return this.adjacency.outEdge(nodeIndex, slot);
+	}
+
+	/**
+	 * See {@link #firstOutSlot(int)}.
+	 *
+	 * @param nodeIndex index of a node.
+	 * @param slot a valid slot.
+	 * @return the index of the destination node of the out edge at <code>slot</code>.
+	 */
+	public int outNodeAt(int nodeIndex, int slot) {
+		return this.adjacency.outNode(nodeIndex, slot);
+	}
+
+	/**
+	 * Returns the first slot of the in edges of the node having index <code>nodeIndex</code>.
+	 * It is the analogous of {@link #firstOutSlot(int)} for in edges.
+	 * Edges are visited in the same order of {@link #getInEdges(LabeledNode)}.
+	 *
+	 * @param nodeIndex index of a node (see {@link #getNodeIndex(LabeledNode)}).
+	 * @return the first slot, or -1 if the node has no in edges.
+	 */
+	public int firstInSlot(int nodeIndex) {
+		return this.adjacency.firstIn(nodeIndex, this.order);
+	}
+
+	/**
+	 * See {@link #firstInSlot(int)}.
+	 *
+	 * @param nodeIndex index of a node.
+	 * @param slot the current slot.
+	 * @return the slot after <code>slot</code>, or -1 if there are no more in edges.
+	 */
+	public int nextInSlot(int nodeIndex, int slot) {
+		return this.adjacency.nextIn(nodeIndex, slot, this.order);
+	}
+
+	/**
+	 * See {@link #firstInSlot(int)}.
+	 *
+	 * @param nodeIndex index of a node.
+	 * @param slot a valid slot.
+	 * @return the in edge at <code>slot</code>.
+	 */
+	public E inEdgeAt(int nodeIndex, int slot) {
+		return this.adjacency.inEdge(nodeIndex, slot);
+	}
+
+	/**
+	 * See {@link #firstInSlot(int)}.
+	 *
+	 * @param nodeIndex index of a node.
+	 * @param slot a valid slot.
+	 * @return the index of the source node of the in edge at <code>slot</code>.
+	 */
+	public int inNodeAt(int nodeIndex, int slot) {
+		return this.adjacency.inNode(nodeIndex, slot);
+	}
+
+	/**
+	 * Calls <code>action</code> on each out edge of <code>vertex</code> and its destination node, in the order of {@link #getOutEdges(LabeledNode)}.
+	 * No collection is allocated. The action must not add or remove edges.
+	 *
+	 * @param vertex a node of the graph.
+	 * @param action the action to perform.
+	 */
+	public void forEachOutEdge(LabeledNode vertex, BiConsumer<? super E, LabeledNode> action) {
+		int nodeIndex;
+		if (vertex == null || (nodeIndex = this.getNodeIndex(vertex)) == Constants.INT_NULL)
+			return;
+		final Adjacency<E> adj = this.adjacency;
+		for (int s = adj.lastOut(nodeIndex, this.order); s >= 0; s = adj.prevOut(nodeIndex, s)) {
+			action.accept(adj.outEdge(nodeIndex, s), this.index2node.get(adj.outNode(nodeIndex, s)));
+		}
+	}
+
+	/**
+	 * Calls <code>action</code> on each in edge of <code>vertex</code> and its source node, in the order of {@link #getInEdges(LabeledNode)}.
+	 * No collection is allocated. The action must not add or remove edges.
+	 *
+	 * @param vertex a node of the graph.
+	 * @param action the action to perform.
+	 */
+	public void forEachInEdge(LabeledNode vertex, BiConsumer<? super E, LabeledNode> action) {
+		int nodeIndex;
+		if (vertex == null || (nodeIndex = this.getNodeIndex(vertex)) == Constants.INT_NULL)
+			return;
+		final Adjacency<E> adj = this.adjacency;
+		for (int s = adj.firstIn(nodeIndex, this.order); s >= 0; s = adj.nextIn(nodeIndex, s, this.order)) {
+			action.accept(adj.inEdge(nodeIndex, s), this.index2node.get(adj.inNode(nodeIndex, s)));
+		}
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public int outDegree(LabeledNode vertex) {
 		int nodeIndex;
-		if (vertex == null || (nodeIndex = this.nodeName2index.getInt(vertex.name)) == Constants.INT_NULL)
+		if (vertex == null || (nodeIndex = this.getNodeIndex(vertex)) == Constants.INT_NULL)
 			return Constants.INT_NULL;
-		int count = 0;
-		for (int i = this.order; --i >= 0;) {
-			if (this.adjacency[nodeIndex][i] != null)
-				count++;
-		}
-		return count;
+		return this.adjacency.outDegree(nodeIndex, this.order);
 	}
 
 	/** {@inheritDoc} */
 	@Override
 	public int inDegree(LabeledNode vertex) {
 		int nodeIndex;
-		if (vertex == null || (nodeIndex = this.nodeName2index.getInt(vertex.name)) == Constants.INT_NULL)
+		if (vertex == null || (nodeIndex = this.getNodeIndex(vertex)) == Constants.INT_NULL)
 			return Constants.INT_NULL;
-		int count = 0;
-		for (int i = this.order; --i >= 0;) {
-			if (this.adjacency[i][nodeIndex] != null)
-				count++;
-		}
-		return count;
+		return this.adjacency.inDegree(nodeIndex, this.order);
 	}
 
 	/** {@inheritDoc} */
 	@Override
 	public int degree(LabeledNode vertex) {
 		int nodeIndex;
-		if (vertex == null || (nodeIndex = this.nodeName2index.getInt(vertex.name)) == Constants.INT_NULL)
+		if (vertex == null || (nodeIndex = this.getNodeIndex(vertex)) == Constants.INT_NULL)
 			return Constants.INT_NULL;
-		int count = 0;
-		for (int i = this.order; --i >= 0;) {
-			if (this.adjacency[nodeIndex][i] != null)
-				count++;
-			if (this.adjacency[i][nodeIndex] != null)
-				count++;
-		}
-		return count;
+		return this.adjacency.outDegree(nodeIndex, this.order) + this.adjacency.inDegree(nodeIndex, this.order);
 	}
 
 	/** {@inheritDoc} */
 	@Override
 	public Collection<LabeledNode> getPredecessors(LabeledNode vertex) {
 		ObjectArrayList<LabeledNode> predecessor = new ObjectArrayList<>();
-		for (E e : this.getInEdges(vertex)) {
-			predecessor.add(this.getSource(e));
+		int nodeIndex;
+		if (vertex == null || (nodeIndex = this.getNodeIndex(vertex)) == Constants.INT_NULL)
+			return predecessor;
+		final Adjacency<E> adj = this.adjacency;
+		for (int s = adj.firstIn(nodeIndex, this.order); s >= 0; s = adj.nextIn(nodeIndex, s, this.order)) {
+			predecessor.add(this.index2node.get(adj.inNode(nodeIndex, s)));
 		}
 		return predecessor;
 	}
@@ -1190,8 +1413,12 @@ public class TNGraph<E extends Edge> extends AbstractTypedGraph<LabeledNode, E>
 	@Override
 	public Collection<LabeledNode> getSuccessors(LabeledNode vertex) {
 		ObjectArrayList<LabeledNode> successors = new ObjectArrayList<>();
-		for (E e : this.getOutEdges(vertex)) {
-			successors.add(this.getDest(e));
+		int nodeIndex;
+		if (vertex == null || (nodeIndex = this.getNodeIndex(vertex)) == Constants.INT_NULL)
+			return successors;
+		final Adjacency<E> adj = this.adjacency;
+		for (int s = adj.lastOut(nodeIndex, this.order); s >= 0; s = adj.prevOut(nodeIndex, s)) {
+			successors.add(this.index2node.get(adj.outNode(nodeIndex, s)));
 		}
 		return successors;
 	}
@@ -1333,15 +1560,12 @@ public class TNGraph<E extends Edge> extends AbstractTypedGraph<LabeledNode, E>
 	public boolean isDest(LabeledNode vertex, E edge) {
 		if (vertex == null || edge == null)
 			return false;
-		int nodeIndex = this.nodeName2index.getInt(vertex.name);
+		int nodeIndex = this.getNodeIndex(vertex);
 		if (nodeIndex == Constants.INT_NULL)
 			return false;
 
-		for (int i = 0; i < this.order; i++) {
-			if (edge.equalsByName(this.adjacency[i][nodeIndex]))
-				return true;
-		}
-		return false;
+		EdgeIndex ei = this.edge2index.get(edge.getName());
+		return ei != null && ei.colAdj == nodeIndex;
 	}
 
 	/** {@inheritDoc} */
@@ -1349,15 +1573,12 @@ public class TNGraph<E extends Edge> extends AbstractTypedGraph<LabeledNode, E>
 	public boolean isSource(LabeledNode vertex, E edge) {
 		if (vertex == null || edge == null)
 			return false;
-		int nodeIndex = this.nodeName2index.getInt(vertex.name);
+		int nodeIndex = this.getNodeIndex(vertex);
 		if (nodeIndex == Constants.INT_NULL)
 			return false;
 
-		for (int i = 0; i < this.order; i++) {
-			if (edge.equalsByName(this.adjacency[nodeIndex][i]))
-				return true;
-		}
-		return false;
+		EdgeIndex ei = this.edge2index.get(edge.getName());
+		return ei != null && ei.rowAdj == nodeIndex;
 	}
 
 	/** {@inheritDoc} */
@@ -1381,7 +1602,7 @@ public class TNGraph<E extends Edge> extends AbstractTypedGraph<LabeledNode, E>
 		if (edgeName == null || (ei = this.edge2index.get(edgeName)) == null)
 			return false;
 
-		this.adjacency[ei.rowAdj][ei.colAdj] = null;
+		this.adjacency.set(ei.rowAdj, ei.colAdj, null);
 		removeEdgeFromIndex(this.getEdge(edgeName));
 		this.lowerCaseEdges = null;
 		return true;
@@ -1407,10 +1628,10 @@ public class TNGraph<E extends Edge> extends AbstractTypedGraph<LabeledNode, E>
 	@Override
 	public boolean removeVertex(LabeledNode removingNode) {
 		/**
-		 * I don't touch the adjacency size. I just move last col and row to the col and row that have to be removed.
+		 * I don't touch the adjacency size. I just move the edges of the last node to the row and col of the node that has to be removed.
 		 */
 		int removingNodeIndex;
-		if (removingNode == null || (removingNodeIndex = this.nodeName2index.getInt(removingNode.name)) == Constants.INT_NULL) {
+		if (removingNode == null || (removingNodeIndex = this.getNodeIndex(removingNode)) == Constants.INT_NULL) {
 			LOG.fine("I cannot remove vertex " + removingNode + " because it is null or its index is null.");
 			return false;
 		}
@@ -1419,46 +1640,34 @@ public class TNGraph<E extends Edge> extends AbstractTypedGraph<LabeledNode, E>
 		removingNode.removeObserver("nodeName", this);
 		removingNode.removeObserver("nodeProposition", this);
 		int last = this.order - 1;
-		// Start to move node to remove at the end of adjacency matrix and to remove all its edges.
-		if (removingNodeIndex == last) {
-			for (int i = 0; i < last; i++) {
-				// I just nullify last col and last row
-				removeEdgeFromIndex(this.adjacency[i][last]);
-				removeEdgeFromIndex(this.adjacency[last][i]);
-				this.adjacency[i][last] = this.adjacency[last][i] = null;
-			}
-			removeEdgeFromIndex(this.adjacency[last][last]);
-			this.adjacency[last][last] = null;
-		} else {
-			for (int i = 0; i < last; i++) {
-				if (i == removingNodeIndex) {
-					removeEdgeFromIndex(this.adjacency[i][i]);
-					this.adjacency[i][i] = this.adjacency[last][last];
-					updateEdgeInIndex(this.adjacency[i][i], i, i);
-					removeEdgeFromIndex(this.adjacency[i][last]);
-					removeEdgeFromIndex(this.adjacency[last][i]);
-					this.adjacency[last][last] = this.adjacency[i][last] = this.adjacency[last][i] = null;
-					continue;
-				}
-				removeEdgeFromIndex(this.adjacency[i][removingNodeIndex]);
-				this.adjacency[i][removingNodeIndex] = this.adjacency[i][last];
-				updateEdgeInIndex(this.adjacency[i][removingNodeIndex], i, removingNodeIndex);
-				this.adjacency[i][last] = null;
-
-				removeEdgeFromIndex(this.adjacency[removingNodeIndex][i]);
-				this.adjacency[removingNodeIndex][i] = this.adjacency[last][i];
-				updateEdgeInIndex(this.adjacency[removingNodeIndex][i], removingNodeIndex, i);
-				this.adjacency[last][i] = null;
+		// Start to remove all edges of the node to remove and to move the edges of the last node in its position.
+		EdgeIndex ei;
+		for (E e : this.incidentEdges(removingNodeIndex)) {
+			ei = this.edge2index.get(e.getName());
+			this.adjacency.set(ei.rowAdj, ei.colAdj, null);
+			removeEdgeFromIndex(e);
+		}
+		if (removingNodeIndex != last) {
+			int row, col;
+			for (E e : this.incidentEdges(last)) {
+				ei = this.edge2index.get(e.getName());
+				row = (ei.rowAdj == last) ? removingNodeIndex : ei.rowAdj;
+				col = (ei.colAdj == last) ? removingNodeIndex : ei.colAdj;
+				this.adjacency.set(ei.rowAdj, ei.colAdj, null);
+				this.adjacency.set(row, col, e);
+				ei.rowAdj = row;
+				ei.colAdj = col;
 			}
 		}
-		// End to move node to remove at the end of adjacency matrix and to remove all its edges.
-		this.index2node.remove(removingNodeIndex);
+		// End to remove all edges of the node to remove and to move the edges of the last node in its position.
+		this.index2node.remove(removingNodeIndex).index = Constants.INT_NULL;
 		this.nodeName2index.removeInt(removingNode.name);
 		if (removingNodeIndex != last) {
 			LabeledNode nodeMovedToRemovedNodePosition = this.index2node.get(last);
 			this.index2node.remove(last);
 			this.index2node.put(removingNodeIndex, nodeMovedToRemovedNodePosition);
 			this.nodeName2index.put(nodeMovedToRemovedNodePosition.name, removingNodeIndex);
+			nodeMovedToRemovedNodePosition.index = removingNodeIndex;
 		}
 		this.order = last;
 		clearCache();
@@ -1478,16 +1687,12 @@ public class TNGraph<E extends Edge> extends AbstractTypedGraph<LabeledNode, E>
 	 * All other attributes of an edge are not modified.
 	 */
 	public void transpose() {
-		int n = this.getVertexCount();
-		for (int i = 1; i < n; i++) {
-			for (int j = 0; j < i; j++) {
-				E eIJ = this.adjacency[i][j];
-				E eJI = this.adjacency[j][i];
-				this.adjacency[i][j] = eJI;
-				this.adjacency[j][i] = eIJ;
-				updateEdgeInIndex(eIJ, j, i);
-				updateEdgeInIndex(eJI, i, j);
-			}
+		this.adjacency.transpose(this.order);
+		int row;
+		for (EdgeIndex ei : this.edge2index.values()) {
+			row = ei.rowAdj;
+			ei.rowAdj = ei.colAdj;
+			ei.colAdj = row;
 		}
 	}
 
@@ -1533,7 +1738,8 @@ public class TNGraph<E extends Edge> extends AbstractTypedGraph<LabeledNode, E>
 	 */
 	@SuppressWarnings("unchecked")
 	public void takeIn(final TNGraph<? extends E> g) {
-		this.adjacency = g.adjacency;
+		this.adjacency = ((TNGraph<E>) g).adjacency;
+		this.adjacencyType = g.adjacencyType;
 		this.aLabelAlphabet = g.aLabelAlphabet;
 		this.childrenOfObserver = g.childrenOfObserver;
 		this.edge2index = ((TNGraph<E>) g).edge2index;
@@ -1704,34 +1910,46 @@ public class TNGraph<E extends Edge> extends AbstractTypedGraph<LabeledNode, E>
 
 	/**
 	 * @param size
-	 * @return a bi-dimensional size x size vector for containing T elements.
+	 * @return an adjacency of kind {@link #adjacencyType} for containing size nodes.
 	 */
-	@SuppressWarnings("unchecked")
-	private E[][] createAdjacency(int size) {
-		return (E[][]) Array.newInstance(this.edgeFactory.getEdgeImplClass(), size, size);
+	private Adjacency<E> createAdjacency(int size) {
+		if (this.adjacencyType == AdjacencyType.sparse)
+			return new Adjacency.Sparse<>(size);
+		return new Adjacency.Dense<>(this.edgeFactory.getEdgeImplClass(), size);
 	}
 
 	/**
-	 * @param e
+	 * @param index index of a node
+	 * @return the out and in edges of the node, ordered as the index of the other endpoint. A self-loop is present only once.
 	 */
-	private void removeEdgeFromIndex(E e) {
-		if (e == null || e.getName() == null)
-			return;
-		((AbstractEdge) e).removeObserver("edgeType", this);
-		((AbstractEdge) e).removeObserver("edgeName", this);
-		this.edge2index.remove(e.getName());
+	private ObjectArrayList<E> incidentEdges(int index) {
+		ObjectArrayList<E> coll = new ObjectArrayList<>();
+		final Adjacency<E> adj = this.adjacency;
+		int out = adj.firstOut(index, this.order), in = adj.firstIn(index, this.order);
+		int outNode, inNode;
+		while (out >= 0 || in >= 0) {
+			outNode = (out >= 0) ? adj.outNode(index, out) : Integer.MAX_VALUE;
+			inNode = (in >= 0) ? adj.inNode(index, in) : Integer.MAX_VALUE;
+			if (outNode <= inNode) {
+				coll.add(adj.outEdge(index, out));
+				out = adj.nextOut(index, out, this.order);
+			} else {
+				if (inNode != index)
+					coll.add(adj.inEdge(index, in));
+				in = adj.nextIn(index, in, this.order);
+			}
+		}
+		return coll;
 	}
 
 	/**
 	 * @param e
-	 * @param row
-	 * @param col
 	 */
-	private void updateEdgeInIndex(E e, int row, int col) {
+	private void removeEdgeFromIndex(E e) {
 		if (e == null || e.getName() == null)
 			return;
-		EdgeIndex ei = this.edge2index.get(e.getName());
-		ei.rowAdj = row;
-		ei.colAdj = col;
+		((AbstractEdge) e).removeObserver("edgeType", this);
+		((AbstractEdge) e).removeObserver("edgeName", this);
+		this.edge2index.remove(e.getName());
 	}
 }
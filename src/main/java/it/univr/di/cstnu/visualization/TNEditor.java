@@ -771,7 +771,7 @@ public class TNEditor extends JFrame {
 					return;
 				}
 				TNEditor.this.cstnuStatus = new CSTNUCheckStatus();
-				TNEditor.this.edgesToCheck = new it.univr.di.cstnu.algorithms.AbstractCSTN.EdgesToCheck<>(TNEditor.this.checkedGraph.getEdges());
+				TNEditor.this.edgesToCheck = new it.univr.di.cstnu.algorithms.AbstractCSTN.EdgesToCheck<>((TNGraph<CSTNUEdge>) TNEditor.this.checkedGraph);
 			}
 			TNEditor.this.cycle++;
 
@@ -6,14 +6,15 @@ package it.univr.di.labeledvalue;
 
 import java.io.Serializable;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.logging.Logger;
 
 import org.jetbrains.annotations.Nullable;
 import org.netbeans.validation.api.Problems;
 import org.netbeans.validation.api.Validator;
 
-import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
-import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.HashCommon;
 
 /**
  * Represents a immutable propositional <em>label</em> in the CSTN/CSTNU framework.<br>
@@ -143,6 +144,138 @@ import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
  */
 public class Label implements Comparable<Label>, Serializable {
 
+	/**
+	 * Lock-free cache of created labels.
+	 * <p>
+	 * It is an open-addressing table of labels where a label is found by its (bit1, bit0) pair using a bounded linear probing.
+	 * Empty slots are filled by compare-and-set, so concurrent threads never corrupt the table and never wait on a lock.
+	 * Since labels are immutable and {@link Label#equals(Object)} compares the state ints, a race can only produce two equal label objects, not a
+	 * wrong label.
+	 * <p>
+	 * When a probe sequence is full, the table is doubled if it is smaller than the maximum capacity, otherwise the first slot of the sequence is
+	 * overwritten (the cache is lossy when bounded).
+	 *
+	 * @author posenato
+	 */
+	private static final class LabelCache {
+		/**
+		 * Initial number of slots. It must be a power of 2.
+		 */
+		static final int INITIAL_CAPACITY = 1 << 10;
+
+		/**
+		 * Maximum number of slots visited looking for a label.
+		 */
+		static final int MAX_PROBES = 8;
+
+		/**
+		 * Maximum number of slots. It is a power of 2.
+		 */
+		volatile int maxCapacity = 1 << 30;
+
+		/**
+		 * The table.
+		 */
+		final AtomicReference<AtomicReferenceArray<Label>> table = new AtomicReference<>(new AtomicReferenceArray<>(INITIAL_CAPACITY));
+
+		/**
+		 * @param b1
+		 * @param b0
+		 * @return the starting slot of the probe sequence for (b1, b0), not masked.
+		 */
+		private static int hash(int b1, int b0) {
+			return (int) HashCommon.mix(cacheIndex(b1, b0));
+		}
+
+		/**
+		 * @param b1 state int
+		 * @param b0 state int
+		 * @return the label represented by the two state ints.
+		 */
+		Label get(int b1, int b0) {
+			final AtomicReferenceArray<Label> t = this.table.get();
+			final int mask = t.length() - 1;
+			final int h = hash(b1, b0) & mask;
+			Label l;
+			for (int p = 0; p < MAX_PROBES; p++) {
+				final int i = (h + p) & mask;
+				l = t.get(i);
+				if (l == null) {
+					l = new Label(b1, b0);
+					if (t.compareAndSet(i, null, l))
+						return l;
+					l = t.get(i);
+				}
+				if (l.bit1 == b1 && l.bit0 == b0)
+					return l;
+			}
+			l = new Label(b1, b0);
+			if (t.length() < this.maxCapacity) {
+				grow(t);
+			} else {
+				t.set(h, l);
+			}
+			return l;
+		}
+
+		/**
+		 * Replaces the table old with a table having double size and containing the labels of old.
+		 * If another thread already replaced old, it does nothing.
+		 *
+		 * @param old the table to replace.
+		 */
+		private void grow(AtomicReferenceArray<Label> old) {
+			final int n = old.length() << 1;
+			final AtomicReferenceArray<Label> t = new AtomicReferenceArray<>(n);
+			for (int j = old.length(); j-- != 0;) {
+				final Label l = old.get(j);
+				if (l != null)
+					put(t, l);
+			}
+			this.table.compareAndSet(old, t);
+		}
+
+		/**
+		 * Adds l to t if there is a free slot in its probe sequence.
+		 *
+		 * @param t
+		 * @param l
+		 */
+		private static void put(AtomicReferenceArray<Label> t, Label l) {
+			final int mask = t.length() - 1;
+			final int h = hash(l.bit1, l.bit0) & mask;
+			for (int p = 0; p < MAX_PROBES; p++) {
+				if (t.compareAndSet((h + p) & mask, null, l))
+					return;
+			}
+		}
+
+		/**
+		 * Sets the maximum number of slots and empties the cache.
+		 *
+		 * @param capacity the maximum number of slots. It is rounded to the next power of 2 and it is at least {@link #MAX_PROBES}.
+		 *            A non-positive value means no bound.
+		 */
+		void setMaxCapacity(int capacity) {
+			final int max = (capacity <= 0) ? 1 << 30 : HashCommon.nextPowerOfTwo(Math.max(capacity, MAX_PROBES));
+			this.maxCapacity = max;
+			this.table.set(new AtomicReferenceArray<>(Math.min(INITIAL_CAPACITY, max)));
+		}
+
+		/**
+		 * @return the number of labels in the cache.
+		 */
+		int size() {
+			final AtomicReferenceArray<Label> t = this.table.get();
+			int c = 0;
+			for (int j = t.length(); j-- != 0;) {
+				if (t.get(j) != null)
+					c++;
+			}
+			return c;
+		}
+	}
+
 	/**
 	 * 
 	 */
@@ -152,7 +285,7 @@ public class Label implements Comparable<Label>, Serializable {
 	 * Label object cache
 	 * This declaration must stay here, before any other!
 	 */
-	private static final Long2ObjectMap<Label> CREATED_LABEL = new Long2ObjectOpenHashMap<>();
+	private static final LabelCache CREATED_LABEL = new LabelCache();
 
 	/**
 	 * A constant empty label to represent an empty label that cannot be modified.
@@ -240,7 +373,7 @@ public class Label implements Comparable<Label>, Serializable {
 	 * @return the index associated to the two index b0 and b1.
 	 */
 	private static long cacheIndex(int b1, int b0) {
-		return (((long) b1) << 32) + b0;// << must be within ()
+		return (((long) b1) << 32) | (b0 & 0xFFFFFFFFL);// b0 must not be sign-extended when the 32nd proposition is present
 	}
 
 	/**
@@ -281,6 +414,93 @@ public class Label implements Comparable<Label>, Serializable {
 		return (int) (index >>> 32);
 	}
 
+	/**
+	 * Value returned by {@link #conjunctionBits(long, long)} when the conjunction is not defined.
+	 * It is also the representation of the label made of all possible propositions in unknown state, but it cannot be confused with the result of a
+	 * defined conjunction because such result never contains unknown literals.
+	 * Therefore, it has to be checked on the results of {@link #conjunctionBits(long, long)} before calling {@link #valueOfBits(long)}, which converts
+	 * it into the above all-unknown label.
+	 */
+	public static final long BITS_NULL = -1L;
+
+	/**
+	 * Bit-level version of {@link #conjunction(Label)} working on the representations returned by {@link #getBits()}.<br>
+	 * It does not create or look up any label. Therefore, it is useful in hot loops where many conjunctions are discarded by other
+	 * checks: the resulting label can be obtained by {@link #valueOfBits(long)} only when it has to be stored.
+	 *
+	 * @param bits1 the bits of the first label
+	 * @param bits2 the bits of the second label
+	 * @return the bits of the conjunction of the two labels if they are consistent, {@link #BITS_NULL} otherwise.<br>
+	 *         {@link #BITS_NULL} also if one of the two labels contains unknown literals.
+	 */
+	public static long conjunctionBits(final long bits1, final long bits2) {
+		final long union = bits1 | bits2;
+		if ((getB0(union) & getB1(union)) != 0) {
+			// there is at least one unknown or a pair of opposite literals
+			return BITS_NULL;
+		}
+		return union;
+	}
+
+	/**
+	 * Bit-level version of {@link #conjunctionExtended(Label)}.
+	 *
+	 * @param bits1 the bits of the first label
+	 * @param bits2 the bits of the second label
+	 * @return the bits of the extended conjunction of the two labels.
+	 */
+	public static long conjunctionExtendedBits(final long bits1, final long bits2) {
+		return bits1 | bits2;
+	}
+
+	/**
+	 * Bit-level version of {@link #containsUnknown()}.
+	 *
+	 * @param bits the bits of a label
+	 * @return true if the label contains one unknown literal at least.
+	 */
+	public static boolean containsUnknownBits(final long bits) {
+		return (getB0(bits) & getB1(bits)) != 0;
+	}
+
+	/**
+	 * Bit-level version of {@link #isConsistentWith(Label)}.
+	 *
+	 * @param bits1 the bits of the first label
+	 * @param bits2 the bits of the second label
+	 * @return true if the two labels are consistent.
+	 */
+	public static boolean isConsistentBits(final long bits1, final long bits2) {
+		final int b01 = getB0(bits1), b11 = getB1(bits1);
+		final int b02 = getB0(bits2), b12 = getB1(bits2);
+		// a bit=1 in both xor corresponds to a literal present in one label and the opposite (or absent) in the other.
+		// Positions of unknown literals are not considered.
+		return ((b01 ^ b02) & (b11 ^ b12) & ~(b01 & b11) & ~(b02 & b12)) == 0;
+	}
+
+	/**
+	 * Bit-level version of {@link #subsumes(Label)}.
+	 *
+	 * @param bits1 the bits of the subsuming label
+	 * @param bits2 the bits of the subsumed label
+	 * @return true if the first label subsumes the second one.
+	 */
+	public static boolean subsumesBits(final long bits1, final long bits2) {
+		final int b01 = getB0(bits1), b11 = getB1(bits1);
+		final int b02 = getB0(bits2), b12 = getB1(bits2);
+		// each literal of the second label must be present in the first one with the same state or as unknown.
+		return (((b01 ^ b02) | (b11 ^ b12)) & (b02 | b12) & ~(b01 & b11)) == 0;
+	}
+
+	/**
+	 * @param bits the bits of a label, as returned by {@link #getBits()} or by the bit-level methods.
+	 *            Any long value represents a label; the results of {@link #conjunctionBits(long, long)} must be compared with {@link #BITS_NULL} before.
+	 * @return the (cached) label represented by the given bits.
+	 */
+	public static Label valueOfBits(final long bits) {
+		return valueOf(bits);
+	}
+
 	/**
 	 * Parse a string representing a label and return an equivalent Label object if no errors are found, null otherwise.<br>
 	 * The regular expression syntax for a label is specified in {@link #LABEL_RE}.
@@ -425,12 +645,30 @@ public class Label implements Comparable<Label>, Serializable {
 	 * @return the label represented by the two state ints.
 	 */
 	static private Label valueOf(long index) {
-		Label cached = CREATED_LABEL.get(index);
-		if (cached == null) {
-			cached = new Label(getB1(index), getB0(index));
-			CREATED_LABEL.put(index, cached);
-		}
-		return cached;
+		if (index == 0 && emptyLabel != null)
+			return emptyLabel;// emptyLabel must be unique because it is compared by ==
+		return CREATED_LABEL.get(getB1(index), getB0(index));
+	}
+
+	/**
+	 * Bounds the cache of labels.
+	 * Labels are cached for avoiding the creation of equal objects. By default, the cache grows as necessary.
+	 * When many different labels are created (e.g., checking many networks in the same JVM), it may be useful to bound the cache.
+	 * A bounded cache replaces old labels with new ones.
+	 * The cache is emptied by this method.
+	 * The cache can be used by many threads concurrently.
+	 *
+	 * @param maxLabels maximum number of cached labels. It is rounded to a power of 2. A non-positive value means no bound.
+	 */
+	public static void setCacheCapacity(int maxLabels) {
+		CREATED_LABEL.setMaxCapacity(maxLabels);
+	}
+
+	/**
+	 * @return the number of labels present in the cache.
+	 */
+	public static int getCacheSize() {
+		return CREATED_LABEL.size();
 	}
 
 	/**
@@ -470,7 +708,7 @@ public class Label implements Comparable<Label>, Serializable {
 	private Label(final int b1, final int b0) {
 		this.bit0 = b0;
 		this.bit1 = b1;
-		this.count = (byte) Long.bitCount(b0 | b1);
+		this.count = (byte) Integer.bitCount(b0 | b1);
 		int mask = 1 << 31;
 		byte mi = -1;
 		for (byte i = 32; ((--i) >= 0);) {
@@ -557,13 +795,8 @@ public class Label implements Comparable<Label>, Serializable {
 	public Label conjunction(final Label label) {
 		if (label == null)
 			return null;
-		int unionB0 = this.bit0 | label.bit0;
-		int unionB1 = this.bit1 | label.bit1;
-		if ((unionB0 & unionB1) != 0) {
-			// there is at least one unknown or a pair of opposite literals
-			return null;
-		}
-		return valueOf(cacheIndex(unionB1, unionB0));
+		final long bits = conjunctionBits(getBits(), label.getBits());
+		return (bits == BITS_NULL) ? null : valueOf(bits);
 	}
 
 	/**
@@ -661,6 +894,16 @@ public class Label implements Comparable<Label>, Serializable {
 		return l.getState() == get(Literal.index(l.getName()));
 	}
 
+	/**
+	 * The returned value can be used with the bit-level methods like {@link #conjunctionBits(long, long)} and converted back to a label by
+	 * {@link #valueOfBits(long)}.
+	 *
+	 * @return the representation of this label as a long: the upper 32 bits are the bit1 of the literals, the lower ones the bit0.
+	 */
+	public long getBits() {
+		return cacheIndex(this.bit1, this.bit0);
+	}
+
 	/**
 	 * <p>containsUnknown.</p>
 	 *
@@ -1065,21 +1308,12 @@ public class Label implements Comparable<Label>, Serializable {
 	public boolean subsumes(final Label label) {
 		if ((label == null) || label.isEmpty())
 			return true;
-		int max = (this.maxIndex > label.maxIndex) ? this.maxIndex : label.maxIndex;
-		for (byte i = (byte) (max + 1); (--i) >= 0;) {
-			char thisState = get(i);
-			char labelState = label.get(i);
-			if (thisState == labelState || labelState == Literal.ABSENT)
-				continue;
-			/**
-			 * When labelState[i] != thisState[i], before saying that it is false, it must be checked if thisState[i] is a ¿.
-			 * ¿p subsumes p, ¿p subsumes ¬p, ¿p subsumes ¿p
-			 * p NOT subsumes ¿p, ¬p NOT subsumes ¿p.
-			 */
-			if (thisState != Literal.UNKNONW)
-				return false;
-		}
-		return true;
+		/**
+		 * When labelState[i] != thisState[i], before saying that it is false, it must be checked if thisState[i] is a ¿.
+		 * ¿p subsumes p, ¿p subsumes ¬p, ¿p subsumes ¿p
+		 * p NOT subsumes ¿p, ¬p NOT subsumes ¿p.
+		 */
+		return subsumesBits(getBits(), label.getBits());
 	}
 
 	/**
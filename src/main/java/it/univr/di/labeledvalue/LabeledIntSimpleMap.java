@@ -6,6 +6,7 @@ package it.univr.di.labeledvalue;
 
 import java.util.logging.Logger;
 
+import it.unimi.dsi.fastutil.ints.IntArraySet;
 import it.unimi.dsi.fastutil.ints.IntSet;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntMap.Entry;
@@ -206,7 +207,7 @@ public class LabeledIntSimpleMap extends AbstractLabeledIntMap {
 	/** {@inheritDoc} */
 	@Override
 	public IntSet values() {
-		return (IntSet) this.mainMap.values();
+		return new IntArraySet(this.mainMap.values());
 	}
 
 }
@@ -20,9 +20,12 @@ import org.junit.runners.Suite.SuiteClasses;
 		CSTNU2CSTNTest.class,
 		CSTNUTest.class,
 		CSTNwoNodeLabelTest.class,
+		IndexedPriorityQueueTest.class,
 		ObjectArrayFifoSetQueueTest.class,
 		PriorityQueueTest.class,
+		RadixPriorityQueueTest.class,
 		STNTest.class,
+		STNUDispatcherTest.class,
 		STNUTest.class
 })
 public class AllTests {
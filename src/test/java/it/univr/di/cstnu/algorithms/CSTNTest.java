@@ -5,13 +5,17 @@ package it.univr.di.cstnu.algorithms;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.File;
+
 import org.junit.Before;
 import org.junit.Test;
 
 import it.unimi.dsi.fastutil.objects.ObjectAVLTreeSet;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import it.univr.di.cstnu.algorithms.AbstractCSTN.CSTNCheckStatus;
 import it.univr.di.cstnu.algorithms.AbstractCSTN.EdgesToCheck;
 import it.univr.di.cstnu.algorithms.AbstractCSTN.NodesToCheck;
@@ -19,6 +23,7 @@ import it.univr.di.cstnu.graph.CSTNEdge;
 import it.univr.di.cstnu.graph.CSTNEdgePluggable;
 import it.univr.di.cstnu.graph.LabeledNode;
 import it.univr.di.cstnu.graph.TNGraph;
+import it.univr.di.cstnu.graph.TNGraphMLReader;
 import it.univr.di.labeledvalue.AbstractLabeledIntMap;
 import it.univr.di.labeledvalue.Constants;
 import it.univr.di.labeledvalue.Label;
@@ -876,4 +881,121 @@ public class CSTNTest {
 		assertEquals("Qstar check", this.ok.getLabeledValueMap(), PZnew.getLabeledValueMap());
 
 	}
+
+	/**
+	 * The parallel label propagation must give the same verdict of the sequential one on R1 and on some random networks.
+	 * Values determined by the parallel propagation can differ from the sequential ones because the two propagation orders differ,
+	 * but they must not depend on the number of threads: the checked networks with 2, 4 and 8 threads must have the same labeled values.
+	 * 
+	 * @throws Exception if the input file is not available or a network is not well defined
+	 */
+	@Test
+	public void testParallelLabelPropagation() throws Exception {
+		final ObjectArrayList<TNGraph<CSTNEdge>> graphs = new ObjectArrayList<>();
+		graphs.add(new TNGraphMLReader<CSTNEdge>().readGraph(new File("src/test/resources/R1.cstn"), CSTNEdgePluggable.class));
+		final CSTNRandomGenerator generator = new CSTNRandomGenerator(1, 1, 20, 4, 2, 4, 1, .2, 150);
+		for (long seed = 2; seed <= 4; seed++) {
+			generator.setSeed(seed);
+			final ObjectPair<TNGraph<CSTNEdge>> pair = generator.buildAPairRndCSTNInstances(true);
+			graphs.add(pair.getFirst());
+			graphs.add(pair.getSecond());
+		}
+		final int[] parallelism = { 2, 4, 8 };
+		int instance = 0;
+		for (final TNGraph<CSTNEdge> graph : graphs) {
+			instance++;
+			if (graph == null)
+				continue;
+			final CSTN sequential = new CSTN(new TNGraph<>(graph, CSTNEdgePluggable.class));
+			final boolean consistency = sequential.dynamicConsistencyCheck().consistency;
+			TNGraph<CSTNEdge> reference = null;
+			for (final int p : parallelism) {
+				final CSTN parallel = new CSTN(new TNGraph<>(graph, CSTNEdgePluggable.class));
+				parallel.setParallelism(p);
+				final String msg = "Instance " + instance + ", parallelism " + p;
+				assertEquals(msg, consistency, parallel.dynamicConsistencyCheck().consistency);
+				assertTrue(msg, parallel.getCheckStatus().finished);
+				final TNGraph<CSTNEdge> checked = parallel.getGChecked();
+				if (reference == null) {
+					reference = checked;
+					continue;
+				}
+				assertEquals(msg, reference.getEdgeCount(), checked.getEdgeCount());
+				for (final CSTNEdge e : checked.getEdges()) {
+					final CSTNEdge refEdge = reference.getEdge(e.getName());
+					assertNotNull(msg + ", edge " + e.getName(), refEdge);
+					assertEquals(msg + ", edge " + e.getName(), refEdge.getLabeledValueMap(), e.getLabeledValueMap());
+				}
+			}
+		}
+	}
+
+	/**
+	 * The worklist contains each edge once, keeps the insertion order unless it is ordered by name, adds the in edges of the destination
+	 * when the source is an observer and remains consistent when nodes are added to the graph after the binding.
+	 */
+	@Test
+	public void testEdgesToCheck() {
+		final LabeledNode Y = this.g.getNodeFactory().get("Y");
+		this.g.addVertex(this.P);
+		this.g.addVertex(this.X);
+		this.g.addVertex(Y);
+		final CSTNEdge YX = this.g.getEdgeFactory().get("YX");
+		final CSTNEdge ZX = this.g.getEdgeFactory().get("ZX");
+		final CSTNEdge PY = this.g.getEdgeFactory().get("PY");
+		this.g.addEdge(YX, Y, this.X);
+		this.g.addEdge(ZX, this.Z, this.X);
+		this.g.addEdge(PY, this.P, Y);
+
+		final EdgesToCheck<CSTNEdge> all = new EdgesToCheck<>(this.g);
+		assertEquals(3, all.size());
+
+		this.edgesToCheck.add(YX, Y, this.X, this.Z, this.g, false);
+		this.edgesToCheck.add(YX, Y, this.X, this.Z, this.g, false);
+		assertEquals(1, this.edgesToCheck.size());
+		this.edgesToCheck.add(PY, this.P, Y, this.Z, this.g, false);
+		assertEquals("[YX, PY]", edgeNames(this.edgesToCheck));
+		this.edgesToCheck.setOrderedByName(true);
+		assertEquals("[PY, YX]", edgeNames(this.edgesToCheck));
+		this.edgesToCheck.setOrderedByName(false);
+
+		// P is an observer: all in edges of X are added.
+		final CSTNEdge PX = this.g.getEdgeFactory().get("PX");
+		this.g.addEdge(PX, this.P, this.X);
+		this.edgesToCheck.add(PX, this.P, this.X, this.Z, this.g, false);
+		assertEquals("[YX, PY, PX, ZX]", edgeNames(this.edgesToCheck));
+
+		// a node added after the binding
+		final LabeledNode W = this.g.getNodeFactory().get("W");
+		this.g.addVertex(W);
+		final CSTNEdge WX = this.g.getEdgeFactory().get("WX");
+		this.g.addEdge(WX, W, this.X);
+		this.edgesToCheck.add(WX, W, this.X, this.Z, this.g, false);
+		this.edgesToCheck.add(YX, Y, this.X, this.Z, this.g, false);
+		assertEquals("[YX, PY, PX, ZX, WX]", edgeNames(this.edgesToCheck));
+
+		final EdgesToCheck<CSTNEdge> copy = new EdgesToCheck<>(all);
+		assertTrue(copy.addAll(this.edgesToCheck));
+		assertFalse(copy.addAll(this.edgesToCheck));
+		assertEquals(5, copy.size());
+
+		this.edgesToCheck.clear();
+		assertEquals(0, this.edgesToCheck.size());
+		this.edgesToCheck.add(ZX, this.Z, this.X, this.Z, this.g, false);
+		assertEquals("[ZX]", edgeNames(this.edgesToCheck));
+	}
+
+	/**
+	 * @param set a set of edges
+	 * @return the names of the edges in the iteration order
+	 */
+	static String edgeNames(EdgesToCheck<CSTNEdge> set) {
+		final StringBuilder sb = new StringBuilder("[");
+		for (final CSTNEdge e : set) {
+			if (sb.length() > 1)
+				sb.append(", ");
+			sb.append(e.getName());
+		}
+		return sb.append("]").toString();
+	}
 }
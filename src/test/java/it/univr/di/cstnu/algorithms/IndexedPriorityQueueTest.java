@@ -0,0 +1,151 @@
+/**
+ *
+ */
+package it.univr.di.cstnu.algorithms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author posenato
+ */
+public class IndexedPriorityQueueTest {
+
+	/**
+	 *
+	 */
+	IndexedPriorityQueue heap;
+
+	/**
+	 * Elements
+	 */
+	private static final int A = 0, B = 1, C = 2;
+
+	/**
+	 */
+	@Before
+	public void setUp() {
+		this.heap = new IndexedPriorityQueue(10);
+	}
+
+	/**
+	 * Test method for {@link it.univr.di.cstnu.algorithms.IndexedPriorityQueue#insertOrDecrease(int, int)}.
+	 */
+	@Test
+	public void testAdd() {
+		this.heap.insertOrDecrease(A, 0);
+		this.heap.insertOrDecrease(B, 1);
+		this.heap.insertOrDecrease(C, -1);
+		assertEquals("Aggiunta elementi:", "[-1->2, 0->0, 1->1]", this.heap.toString());
+		assertEquals("Aggiunta elementi:", 0, this.heap.getPriority(A));
+		assertEquals("Aggiunta elementi:", "isPresent", this.heap.getStatus(A).toString());
+		assertEquals("Aggiunta elementi:", "notPresent", this.heap.getStatus(3).toString());
+	}
+
+	/**
+	 * Test method for {@link it.univr.di.cstnu.algorithms.IndexedPriorityQueue#clear()}.
+	 */
+	@Test
+	public void testClear() {
+		this.testAdd();
+		this.heap.extractMin();
+		this.heap.clear();
+		assertEquals("Cancellazione elementi:", "[]", this.heap.toString());
+		assertEquals("Cancellazione elementi:", "notPresent", this.heap.getStatus(A).toString());
+		assertEquals("Cancellazione elementi:", "notPresent", this.heap.getStatus(C).toString());
+	}
+
+	/**
+	 * Test method for {@link it.univr.di.cstnu.algorithms.IndexedPriorityQueue#forget(int)}.
+	 */
+	@Test
+	public void testForget() {
+		this.testAdd();
+		final int min = this.heap.extractMin();
+		this.heap.forget(min);
+		assertEquals("notPresent", this.heap.getStatus(min).toString());
+		assertEquals(2, this.heap.size());
+		this.heap.insertOrDecrease(min, 7);
+		assertEquals(7, this.heap.getPriority(min));
+		try {
+			this.heap.forget(min);
+			fail("An element in the queue cannot be forgotten.");
+		} catch (IllegalStateException e) {
+			assertEquals("isPresent", this.heap.getStatus(min).toString());
+		}
+	}
+
+	/**
+	 */
+	@Test
+	public void testDecreasePriority() {
+		this.testAdd();
+		this.heap.insertOrDecrease(B, -10);
+		assertEquals("Decrease priority:", "[-10->1, -1->2, 0->0]", this.heap.toString());
+		this.heap.insertOrDecrease(B, 5);
+		assertEquals("A greater priority is ignored:", -10, this.heap.getPriority(B));
+	}
+
+	/**
+	 * Test method for {@link it.univr.di.cstnu.algorithms.IndexedPriorityQueue#extractMin()}.
+	 */
+	@Test
+	public void testExtractMin() {
+		this.testDecreasePriority();
+		assertEquals(-10, this.heap.getMinPriority());
+		int min = this.heap.extractMin();
+		assertEquals("testExtractMin:", "[-1->2, 0->0]", this.heap.toString());
+		assertEquals("min: ", B, min);
+		assertEquals("min: ", -10, this.heap.getPriority(B));
+		assertEquals("Estrazione elementi:", "wasPresent", this.heap.getStatus(B).toString());
+		assertTrue(this.heap.insertOrDecrease(B, -5));
+		assertFalse(this.heap.insertOrDecrease(B, -11));
+		assertEquals("A removed element is not inserted again:", 2, this.heap.size());
+	}
+
+	/**
+	 * Test method for {@link it.univr.di.cstnu.algorithms.IndexedPriorityQueue#isEmpty()} and
+	 * {@link it.univr.di.cstnu.algorithms.IndexedPriorityQueue#size()}.
+	 */
+	@Test
+	public void testSize() {
+		assertTrue(this.heap.isEmpty());
+		this.testAdd();
+		assertFalse(this.heap.isEmpty());
+		assertEquals("size", 3, this.heap.size());
+		this.heap.clear();
+		assertEquals("size", 0, this.heap.size());
+	}
+
+	/**
+	 * Random insertions and decreases must be extracted in priority order.
+	 */
+	@Test
+	public void testRandomOrder() {
+		final int n = 1000;
+		final IndexedPriorityQueue q = new IndexedPriorityQueue(n);
+		final int[] expected = new int[n];
+		final Random rnd = new Random(1);
+		for (int i = 0; i < n; i++) {
+			expected[i] = rnd.nextInt(10000) - 5000;
+			q.insertOrDecrease(i, expected[i] + rnd.nextInt(100));
+		}
+		for (int i = 0; i < n; i++) {
+			q.insertOrDecrease(i, expected[i]);
+		}
+		Arrays.sort(expected);
+		for (int i = 0; i < n; i++) {
+			final int item = q.extractMin();
+			assertEquals("Extraction " + i, expected[i], q.getPriority(item));
+		}
+		assertTrue(q.isEmpty());
+	}
+}
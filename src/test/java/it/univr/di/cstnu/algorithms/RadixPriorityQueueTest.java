@@ -0,0 +1,148 @@
+/**
+ *
+ */
+package it.univr.di.cstnu.algorithms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author posenato
+ */
+public class RadixPriorityQueueTest {
+
+	/**
+	 *
+	 */
+	RadixPriorityQueue heap;
+
+	/**
+	 * Elements
+	 */
+	private static final int A = 0, B = 1, C = 2;
+
+	/**
+	 */
+	@Before
+	public void setUp() {
+		this.heap = new RadixPriorityQueue(10);
+	}
+
+	/**
+	 * Test method for {@link it.univr.di.cstnu.algorithms.RadixPriorityQueue#insertOrDecrease(int, int)}.
+	 */
+	@Test
+	public void testAdd() {
+		this.heap.insertOrDecrease(A, 0);
+		this.heap.insertOrDecrease(B, 1);
+		this.heap.insertOrDecrease(C, -1);
+		assertEquals("Aggiunta elementi:", "[-1->2, 0->0, 1->1]", this.heap.toString());
+		assertEquals("Aggiunta elementi:", 0, this.heap.getPriority(A));
+		assertEquals("Aggiunta elementi:", "isPresent", this.heap.getStatus(A).toString());
+		assertEquals("Aggiunta elementi:", "notPresent", this.heap.getStatus(3).toString());
+	}
+
+	/**
+	 * Test method for {@link it.univr.di.cstnu.algorithms.RadixPriorityQueue#clear()}.
+	 */
+	@Test
+	public void testClear() {
+		this.testAdd();
+		this.heap.extractMin();
+		this.heap.clear();
+		assertEquals("Cancellazione elementi:", "[]", this.heap.toString());
+		assertEquals("Cancellazione elementi:", "notPresent", this.heap.getStatus(A).toString());
+		assertEquals("Cancellazione elementi:", "notPresent", this.heap.getStatus(C).toString());
+		this.heap.insertOrDecrease(A, -100);
+		assertEquals("After clear, any priority is admitted:", A, this.heap.extractMin());
+	}
+
+	/**
+	 */
+	@Test
+	public void testDecreasePriority() {
+		this.testAdd();
+		this.heap.insertOrDecrease(B, -10);
+		assertEquals("Decrease priority:", "[-10->1, -1->2, 0->0]", this.heap.toString());
+		this.heap.insertOrDecrease(B, 5);
+		assertEquals("A greater priority is ignored:", -10, this.heap.getPriority(B));
+	}
+
+	/**
+	 * Test method for {@link it.univr.di.cstnu.algorithms.RadixPriorityQueue#extractMin()}.
+	 */
+	@Test
+	public void testExtractMin() {
+		this.testDecreasePriority();
+		int min = this.heap.extractMin();
+		assertEquals("testExtractMin:", "[-1->2, 0->0]", this.heap.toString());
+		assertEquals("min: ", B, min);
+		assertEquals("min: ", -10, this.heap.getPriority(B));
+		assertEquals("Estrazione elementi:", "wasPresent", this.heap.getStatus(B).toString());
+		assertTrue(this.heap.insertOrDecrease(B, -5));
+		assertFalse(this.heap.insertOrDecrease(B, -11));
+		assertEquals("A removed element is not inserted again:", 2, this.heap.size());
+	}
+
+	/**
+	 * A priority smaller than the last extracted one violates the monotonicity.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testMonotonicity() {
+		this.testAdd();
+		this.heap.extractMin();
+		this.heap.insertOrDecrease(5, -2);
+	}
+
+	/**
+	 * Test method for {@link it.univr.di.cstnu.algorithms.RadixPriorityQueue#isEmpty()} and
+	 * {@link it.univr.di.cstnu.algorithms.RadixPriorityQueue#size()}.
+	 */
+	@Test
+	public void testSize() {
+		assertTrue(this.heap.isEmpty());
+		this.testAdd();
+		assertFalse(this.heap.isEmpty());
+		assertEquals("size", 3, this.heap.size());
+		this.heap.clear();
+		assertEquals("size", 0, this.heap.size());
+	}
+
+	/**
+	 * Interleaved monotone insertions, decreases and extractions must be extracted in priority order, as in Dijkstra's algorithm.
+	 */
+	@Test
+	public void testRandomMonotoneOrder() {
+		final int n = 1000;
+		final RadixPriorityQueue q = new RadixPriorityQueue(n);
+		final IndexedPriorityQueue ref = new IndexedPriorityQueue(n);
+		final Random rnd = new Random(1);
+		int last = -5000;
+		int next = 0;
+		while (next < n || !q.isEmpty()) {
+			if (next < n && (q.isEmpty() || rnd.nextInt(3) > 0)) {
+				final int p = last + rnd.nextInt(1 << rnd.nextInt(20));
+				q.insertOrDecrease(next, p);
+				ref.insertOrDecrease(next, p);
+				if (rnd.nextBoolean()) {
+					q.insertOrDecrease(next, last + (p - last) / 2);
+					ref.insertOrDecrease(next, last + (p - last) / 2);
+				}
+				next++;
+				continue;
+			}
+			assertEquals(ref.size(), q.size());
+			final int item = q.extractMin();
+			assertEquals("Extraction of " + item, ref.getMinPriority(), q.getPriority(item));
+			ref.extractMin();
+			last = q.getPriority(item);
+		}
+		assertTrue(ref.isEmpty());
+	}
+}
@@ -3,8 +3,15 @@ package it.univr.di.cstnu.algorithms;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -13,7 +20,9 @@ import it.unimi.dsi.fastutil.objects.ObjectList;
 import it.univr.di.cstnu.graph.LabeledNode;
 import it.univr.di.cstnu.graph.STNEdge;
 import it.univr.di.cstnu.graph.STNEdgeInt;
+import it.univr.di.cstnu.graph.TNGraph;
 import it.univr.di.cstnu.graph.TNGraphMLReader;
+import it.univr.di.labeledvalue.Constants;
 
 /**
  * @author posenato, ocampo
@@ -90,4 +99,452 @@ public class STNTest {
 
 	}
 
+	/**
+	 * @param n number of nodes
+	 * @param seed random seed
+	 * @return a random consistent STN with n nodes, where each edge is present with probability 0.1. Edge values are built from a random
+	 *         potential, so that there is no negative cycle even if there are negative edges.
+	 */
+	static TNGraph<STNEdge> randomSTN(int n, long seed) {
+		final Random rnd = new Random(seed);
+		final TNGraph<STNEdge> g = new TNGraph<>(STNEdgeInt.class);
+		final LabeledNode[] node = new LabeledNode[n];
+		final int[] potential = new int[n];
+		for (int i = 0; i < n; i++) {
+			potential[i] = rnd.nextInt(100);
+			node[i] = new LabeledNode("n" + i);
+			g.addVertex(node[i]);
+		}
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				if (i != j && rnd.nextDouble() < .1) {
+					final STNEdge e = g.getEdgeFactory().get("n" + i + "_n" + j);
+					e.setValue(potential[j] - potential[i] + rnd.nextInt(50));
+					g.addEdge(e, node[i], node[j]);
+				}
+			}
+		}
+		return g;
+	}
+
+	/**
+	 * The blocked Floyd-Warshall must give the same distances of the plain one for any block size, and apsp must write them into the graph.
+	 */
+	@Test
+	public void testBlockedFloydWarshall() {
+		final int n = 150;
+		TNGraph<STNEdge> g = randomSTN(n, 7);
+		// plain Floyd-Warshall as reference
+		final long[][] ref = new long[n][n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				final STNEdge e = g.findEdge(i, j);
+				ref[i][j] = (i == j) ? 0 : (e == null) ? Long.MAX_VALUE : e.getValue();
+			}
+		}
+		for (int k = 0; k < n; k++) {
+			for (int i = 0; i < n; i++) {
+				for (int j = 0; j < n; j++) {
+					if (ref[i][k] != Long.MAX_VALUE && ref[k][j] != Long.MAX_VALUE && ref[i][k] + ref[k][j] < ref[i][j])
+						ref[i][j] = ref[i][k] + ref[k][j];
+				}
+			}
+		}
+		boolean consistent = true;
+		for (int i = 0; i < n; i++) {
+			consistent &= ref[i][i] >= 0;
+		}
+		assertTrue("The reference instance must be consistent", consistent);
+
+		for (int b : new int[] { 1, 7, 64, 200 }) {
+			final DistanceMatrix m = DistanceMatrix.of(g);
+			m.setBlockSize(b);
+			assertTrue(m.floydWarshall());
+			for (int i = 0; i < n; i++) {
+				for (int j = 0; j < n; j++) {
+					assertEquals("Block size " + b + ", entry (" + i + ", " + j + ")",
+							(ref[i][j] == Long.MAX_VALUE) ? Constants.INT_POS_INFINITE : ref[i][j], m.distance(i, j));
+				}
+			}
+		}
+
+		assertTrue(STN.apsp(g, null));
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				final STNEdge e = g.findEdge(i, j);
+				if (i == j || ref[i][j] == Long.MAX_VALUE) {
+					continue;
+				}
+				assertNotNull(e);
+				assertEquals(ref[i][j], e.getValue());
+			}
+		}
+	}
+
+	/**
+	 * @throws Exception if the input file is not available
+	 */
+	@Test
+	public void testAPSPWithNegativeCycle() throws Exception {
+		this.stn.fInput = new File(this.fileName2);
+		this.stn.setG(this.graphMLReader.readGraph(this.stn.fInput, STNEdgeInt.class));
+		this.stn.initAndCheck();
+		final int edges = this.stn.getG().getEdgeCount();
+		assertFalse(this.stn.allPairsShortestPaths());
+		assertNotNull(this.stn.getCheckStatus().negativeLoopNode);
+		assertEquals("A negative cycle does not modify the graph", edges, this.stn.getG().getEdgeCount());
+	}
+
+	/**
+	 * The parallel blocked Floyd-Warshall must give the same result of the sequential one.
+	 */
+	@Test
+	public void testParallelFloydWarshall() {
+		final int n = 300;
+		final TNGraph<STNEdge> g = randomSTN(n, 11);
+		final DistanceMatrix seq = DistanceMatrix.of(g);
+		seq.setBlockSize(16);
+		assertTrue(seq.floydWarshall());
+		final DistanceMatrix par = DistanceMatrix.of(g);
+		par.setBlockSize(16);
+		final java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(4);
+		try {
+			assertTrue(par.floydWarshall(pool));
+		} finally {
+			pool.shutdown();
+		}
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				assertEquals("Entry (" + i + ", " + j + ")", seq.distance(i, j), par.distance(i, j));
+			}
+		}
+
+		this.stn.setG(g);
+		this.stn.setParallelism(3);
+		assertTrue(this.stn.consistencyCheck(STN.CheckAlgorithm.ParallelAllPairsShortestPaths).consistency);
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				final STNEdge e = g.findEdge(i, j);
+				if (i != j && seq.distance(i, j) != Constants.INT_POS_INFINITE) {
+					assertEquals(seq.distance(i, j), e.getValue());
+				}
+			}
+		}
+	}
+
+	/**
+	 * @throws Exception if the input file is not available
+	 */
+	@Test
+	public void testParallelAPSPWithNegativeCycle() throws Exception {
+		this.stn.fInput = new File(this.fileName2);
+		this.stn.setG(this.graphMLReader.readGraph(this.stn.fInput, STNEdgeInt.class));
+		this.stn.setParallelism(2);
+		assertFalse(this.stn.consistencyCheck(STN.CheckAlgorithm.ParallelAllPairsShortestPaths).consistency);
+		assertNotNull(this.stn.getCheckStatus().negativeLoopNode);
+	}
+
+	/**
+	 * Bannister-Eppstein must give the same distances of Bellman-Ford for any permutation of nodes.
+	 */
+	@Test
+	public void testBannisterEppstein() {
+		final int n = 200;
+		final TNGraph<STNEdge> g = randomSTN(n, 13);
+		final LabeledNode source = g.getNode("n0");
+		assertTrue(STN.bellmanFord(g, source, false, null));
+		final int[] ref = new int[n];
+		for (int i = 0; i < n; i++) {
+			ref[i] = g.getNode(i).getPotential();
+		}
+		for (long seed = 0; seed < 5; seed++) {
+			final STN.STNCheckStatus status = new STN.STNCheckStatus();
+			assertTrue(STN.bannisterEppstein(g, source, new Random(seed), status));
+			for (int i = 0; i < n; i++) {
+				assertEquals("Node " + g.getNode(i).getName(), ref[i], g.getNode(i).getPotential());
+			}
+			assertEquals(n / 3.0, status.expectedCycles, 0);
+			assertTrue(status.cycles <= n / 2 + 1);
+		}
+	}
+
+	/**
+	 * A cancelled check or a check whose deadline has passed must stop without declaring the network inconsistent or finished.
+	 */
+	@Test
+	public void testInterruption() {
+		final int n = 200;
+		final TNGraph<STNEdge> g = randomSTN(n, 13);
+		final LabeledNode source = g.getNode("n0");
+		STN.STNCheckStatus status = new STN.STNCheckStatus();
+		status.cancelled = true;
+		assertFalse(STN.bellmanFord(g, source, false, status));
+		assertFalse(status.timeout);
+		assertFalse(status.finished);
+		assertNull(status.negativeCycle);
+
+		status = new STN.STNCheckStatus();
+		status.setDeadline(Instant.now().minusSeconds(1));
+		assertFalse(STN.bellmanFord(g, source, false, status));
+		assertTrue(status.timeout);
+		assertFalse(status.finished);
+		assertFalse(status.consistency);
+
+		status.reset();
+		status.setDeadline(Instant.now().plusSeconds(3600));
+		assertTrue(STN.bellmanFord(g, source, false, status));
+		assertFalse(status.timeout);
+		assertTrue(status.finished);
+
+		status.reset();
+		status.cancelled = true;
+		assertFalse(STN.bannisterEppstein(g, source, new Random(0), status));
+		assertFalse(status.finished);
+		assertNull(STN.feasiblePotential(g, status));
+	}
+
+	/**
+	 * A check cancelled just after it has been submitted to an executor must stop, also when the cancellation arrives before the check has
+	 * reset its status. After a new setG, the check must run to completion.
+	 *
+	 * @throws Exception if the check cannot be executed
+	 */
+	@Test
+	public void testCancelAfterSubmit() throws Exception {
+		final TNGraph<STNEdge> g = randomSTN(300, 17);
+		final STN stn1 = new STN(new TNGraph<>(g, STNEdgeInt.class));
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			final Future<STN.STNCheckStatus> result = executor.submit(() -> stn1.consistencyCheck(STN.CheckAlgorithm.BellmanFord));
+			stn1.cancel();
+			final STN.STNCheckStatus status = result.get();
+			assertTrue(status.cancelled);
+			assertFalse(status.timeout);
+			assertFalse(status.finished);
+
+			stn1.setG(new TNGraph<>(g, STNEdgeInt.class));
+			final STN.STNCheckStatus status1 = executor.submit(() -> stn1.consistencyCheck(STN.CheckAlgorithm.BellmanFord)).get();
+			assertFalse(status1.cancelled);
+			assertTrue(status1.finished);
+			assertTrue(status1.consistency);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * @throws Exception if the input file is not available
+	 */
+	@Test
+	public void testBannisterEppsteinWithNegativeCycle() throws Exception {
+		this.stn.fInput = new File(this.fileName2);
+		this.stn.setG(this.graphMLReader.readGraph(this.stn.fInput, STNEdgeInt.class));
+		assertFalse(this.stn.consistencyCheck(STN.CheckAlgorithm.BannisterEppstein).consistency);
+		assertNotNull(this.stn.getCheckStatus().negativeLoopNode);
+
+		this.stn.fInput = new File(this.fileName);
+		this.stn.setG(this.graphMLReader.readGraph(this.stn.fInput, STNEdgeInt.class));
+		assertFalse(this.stn.bannisterEppstein());
+		assertNotNull(this.stn.getCheckStatus().negativeLoopNode);
+	}
+
+	/**
+	 * Checks that the negative cycle in the status of the last check is closed, made of edges of the graph and negative.
+	 * 
+	 * @param stn a checked not consistent STN
+	 * @param msg prefix of messages
+	 */
+	static void assertNegativeCycle(STN stn, String msg) {
+		final STN.STNCheckStatus status = stn.getCheckStatus();
+		final ObjectList<LabeledNode> cycle = status.negativeCycle;
+		final ObjectList<STNEdge> edges = status.negativeCycleEdges;
+		assertNotNull(msg, cycle);
+		assertNotNull(msg, edges);
+		assertEquals(msg, cycle.get(0), cycle.get(cycle.size() - 1));
+		assertEquals(msg, cycle.size() - 1, edges.size());
+		int weight = 0;
+		for (int i = 0; i < edges.size(); i++) {
+			assertEquals(msg + ": " + cycle, stn.getG().findEdge(cycle.get(i), cycle.get(i + 1)), edges.get(i));
+			weight += edges.get(i).getValue();
+		}
+		assertEquals(msg, weight, status.negativeCycleWeight);
+		assertTrue(msg + ": " + cycle + " has weight " + weight, weight < 0);
+	}
+
+	/**
+	 * Bellman-Ford, BFCT and Yen must return the negative cycle, its edges and its weight.
+	 * 
+	 * @throws Exception if the input file is not available
+	 */
+	@Test
+	public void testNegativeCycleEdges() throws Exception {
+		final STN.CheckAlgorithm[] algs = { STN.CheckAlgorithm.BellmanFord, STN.CheckAlgorithm.BellmanFordSingleSink, STN.CheckAlgorithm.BFCT,
+				STN.CheckAlgorithm.Yen, STN.CheckAlgorithm.YenSingleSink };
+		for (final STN.CheckAlgorithm alg : algs) {
+			for (final String file : new String[] { this.fileName, this.fileName2 }) {
+				this.stn.setG(this.graphMLReader.readGraph(new File(file), STNEdgeInt.class));
+				assertFalse(this.stn.consistencyCheck(alg).consistency);
+				assertNegativeCycle(this.stn, alg + " on " + file);
+			}
+			for (long seed = 0; seed < 5; seed++) {
+				final TNGraph<STNEdge> g = randomSTN(60, seed);
+				final LabeledNode[] node = { g.getNode("n1"), g.getNode("n2"), g.getNode("n3") };
+				final int[] value = { -5, -5, 9 };
+				for (int i = 0; i < 3; i++) {
+					STNEdge e = g.findEdge(node[i], node[(i + 1) % 3]);
+					if (e == null) {
+						e = g.getEdgeFactory().get(node[i].getName() + "_" + node[(i + 1) % 3].getName());
+						g.addEdge(e, node[i], node[(i + 1) % 3]);
+					}
+					e.setValue(value[i]);
+				}
+				// forward searches consider only the cycles reachable from Z
+				final LabeledNode Z = new LabeledNode(STN.ZERO_NODE_NAME);
+				g.addVertex(Z);
+				g.setZ(Z);
+				for (final LabeledNode n : node) {
+					final STNEdge e = g.getEdgeFactory().get(Z.getName() + "_" + n.getName());
+					e.setValue(1000);
+					g.addEdge(e, Z, n);
+				}
+				this.stn.setG(g);
+				assertFalse(this.stn.consistencyCheck(alg).consistency);
+				assertNegativeCycle(this.stn, alg + " on random " + seed);
+			}
+		}
+	}
+
+	/**
+	 * Johnson with radix heap and parallel Johnson must give the same minimal network of Johnson and of Floyd-Warshall.
+	 */
+	@Test
+	public void testJohnsonVariants() {
+		final int n = 150;
+		final STN.CheckAlgorithm[] algs = { STN.CheckAlgorithm.AllPairsShortestPaths, STN.CheckAlgorithm.Johnson,
+				STN.CheckAlgorithm.JohnsonRadixHeap, STN.CheckAlgorithm.ParallelJohnson };
+		final TNGraph<STNEdge>[] g = new TNGraph[algs.length];
+		final int[] propagations = new int[algs.length];
+		for (int k = 0; k < algs.length; k++) {
+			g[k] = randomSTN(n, 19);
+			this.stn.setG(g[k]);
+			this.stn.setParallelism(3);
+			assertTrue(algs[k].toString(), this.stn.consistencyCheck(algs[k]).consistency);
+			propagations[k] = this.stn.getCheckStatus().propagationCalls;
+		}
+		assertEquals("Parallel Johnson makes the same relaxations", propagations[1], propagations[3]);
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				if (i == j)
+					continue;
+				final STNEdge ref = g[0].findEdge("n" + i, "n" + j);
+				for (int k = 1; k < algs.length; k++) {
+					final STNEdge e = g[k].findEdge("n" + i, "n" + j);
+					assertEquals(algs[k] + " (" + i + ", " + j + ")", (ref == null) ? Constants.INT_POS_INFINITE : ref.getValue(),
+							(e == null) ? Constants.INT_POS_INFINITE : e.getValue());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Johnson writing into a memory-mapped file must give the distances of Floyd-Warshall without modifying the graph, and a saved
+	 * distance matrix must be read back equal.
+	 * 
+	 * @throws Exception if the temporary file cannot be written or the input file is not available
+	 */
+	@Test
+	public void testMappedDistanceMatrix() throws Exception {
+		final int n = 150;
+		final TNGraph<STNEdge> g = randomSTN(n, 23);
+		final int edges = g.getEdgeCount();
+		final DistanceMatrix ref = DistanceMatrix.of(g);
+		assertTrue(ref.floydWarshall());
+		final File file = File.createTempFile("apsp", ".bin");
+		file.deleteOnExit();
+		for (final int parallelism : new int[] { 1, 3 }) {
+			final STN.STNCheckStatus status = new STN.STNCheckStatus();
+			try (MappedDistanceMatrix m = STN.johnson(g, file, parallelism, status)) {
+				assertEquals(n, m.size());
+				assertEquals("The graph is not modified", edges, g.getEdgeCount());
+				final int[] row = new int[n];
+				for (int i = 0; i < n; i++) {
+					m.row(i, row);
+					for (int j = 0; j < n; j++) {
+						assertEquals("Entry (" + i + ", " + j + ")", ref.distance(i, j), m.distance(i, j));
+						assertEquals(ref.distance(i, j), row[j]);
+					}
+				}
+			}
+		}
+		ref.save(file);
+		try (MappedDistanceMatrix m = MappedDistanceMatrix.open(file)) {
+			for (int i = 0; i < n; i++) {
+				for (int j = 0; j < n; j++) {
+					assertEquals(ref.distance(i, j), m.distance(i, j));
+				}
+			}
+		}
+
+		this.stn.fInput = new File(this.fileName2);
+		this.stn.setG(this.graphMLReader.readGraph(this.stn.fInput, STNEdgeInt.class));
+		assertNull("Negative cycle", this.stn.johnson(file));
+		assertNotNull(this.stn.getCheckStatus().negativeLoopNode);
+	}
+
+	/**
+	 * Incremental check must agree with a check from scratch after each tightening, and the maintained potential must be feasible.
+	 */
+	@Test
+	public void testAddOrTighten() {
+		final int n = 100;
+		final TNGraph<STNEdge> g = randomSTN(n, 17);
+		this.stn.setG(g);
+		final Random rnd = new Random(3);
+		boolean consistent = true;
+		for (int k = 0; k < 500 && consistent; k++) {
+			final int i = rnd.nextInt(n), j = rnd.nextInt(n);
+			if (i == j)
+				continue;
+			final STNEdge e = g.findEdge(i, j);
+			final int value = ((e == null) ? 100 : e.getValue()) - rnd.nextInt(60);
+			consistent = this.stn.addOrTighten(g.getNode(i), g.getNode(j), value);
+			assertEquals("Update " + k, STN.feasiblePotential(g, null) != null, consistent);
+			assertEquals(value, Math.min(value, g.findEdge(i, j).getValue()));
+			if (consistent) {
+				final int[] p = this.stn.potential;
+				for (final STNEdge e1 : g.getEdges()) {
+					assertTrue(e1.toString(), p[g.getNodeIndex(g.getDest(e1))] <= p[g.getNodeIndex(g.getSource(e1))] + e1.getValue());
+				}
+			}
+		}
+		assertFalse("The random tightenings must make the STN inconsistent", consistent);
+		assertFalse(this.stn.getCheckStatus().consistency);
+		assertNotNull(this.stn.getCheckStatus().negativeLoopNode);
+	}
+
+	/**
+	 * The potential maintained by addOrTighten is a feasible schedule.
+	 */
+	@Test
+	public void testAddOrTightenPotential() {
+		final TNGraph<STNEdge> g = new TNGraph<>(STNEdgeInt.class);
+		final LabeledNode a = new LabeledNode("A"), b = new LabeledNode("B"), c = new LabeledNode("C");
+		g.addVertex(a);
+		g.addVertex(b);
+		g.addVertex(c);
+		this.stn.setG(g);
+		assertTrue(this.stn.addOrTighten(a, b, 10));
+		assertTrue(this.stn.addOrTighten(b, c, 10));
+		assertTrue(this.stn.addOrTighten(c, a, -20));
+		assertTrue(this.stn.addOrTighten(b, a, -5));
+		assertTrue("Not a tightening", this.stn.addOrTighten(a, b, 15));
+		assertEquals(10, g.findEdge(a, b).getValue());
+		final int[] p = this.stn.potential;
+		for (final STNEdge e : g.getEdges()) {
+			final int u = g.getNodeIndex(g.getSource(e)), v = g.getNodeIndex(g.getDest(e));
+			assertTrue(e.toString(), p[v] <= p[u] + e.getValue());
+		}
+		assertFalse(this.stn.addOrTighten(b, c, 9));
+	}
+
 }
@@ -0,0 +1,234 @@
+/**
+ *
+ */
+package it.univr.di.cstnu.algorithms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectList;
+import it.univr.di.cstnu.graph.Edge.ConstraintType;
+import it.univr.di.cstnu.graph.LabeledNode;
+import it.univr.di.cstnu.graph.STNUEdge;
+import it.univr.di.cstnu.graph.STNUEdgeInt;
+import it.univr.di.cstnu.graph.TNGraph;
+import it.univr.di.labeledvalue.Constants;
+
+/**
+ * @author posenato
+ */
+public class STNUDispatcherTest {
+
+	/**
+	 * Z, activation A, contingent C in [2,5] after A, X such that C-1 &le; X &le; C+3.
+	 */
+	TNGraph<STNUEdge> g;
+
+	/**
+	 *
+	 */
+	LabeledNode Z, A, C, X;
+
+	/**
+	 * @param graph the graph
+	 * @param s source
+	 * @param d destination
+	 * @param v value
+	 * @param contingent true if the edge is contingent
+	 */
+	static void addEdge(TNGraph<STNUEdge> graph, LabeledNode s, LabeledNode d, int v, boolean contingent) {
+		final STNUEdge e = new STNUEdgeInt(s.getName() + "_" + d.getName(), v);
+		if (contingent)
+			e.setConstraintType(ConstraintType.contingent);
+		graph.addEdge(e, s, d);
+	}
+
+	/**
+	 * @throws Exception nope
+	 */
+	@Before
+	public void setUp() throws Exception {
+		this.g = new TNGraph<>(STNUEdgeInt.class);
+		this.Z = new LabeledNode("Z");
+		this.A = new LabeledNode("A");
+		this.C = new LabeledNode("C");
+		this.X = new LabeledNode("X");
+		for (final LabeledNode node : new LabeledNode[] { this.Z, this.A, this.C, this.X }) {
+			this.g.addVertex(node);
+		}
+		this.g.setZ(this.Z);
+		addEdge(this.g, this.Z, this.A, 10, false);
+		addEdge(this.g, this.A, this.Z, 0, false);
+		addEdge(this.g, this.Z, this.X, 20, false);
+		addEdge(this.g, this.X, this.Z, 0, false);
+		addEdge(this.g, this.A, this.C, 5, true);
+		addEdge(this.g, this.C, this.A, -2, true);
+		addEdge(this.g, this.X, this.C, 1, false);
+		addEdge(this.g, this.C, this.X, 3, false);
+	}
+
+	/**
+	 * X must wait for C or A+4.
+	 *
+	 * @throws WellDefinitionException nope
+	 */
+	@Test
+	public void testWait() throws WellDefinitionException {
+		STNU stnu = new STNU(this.g);
+		assertTrue(stnu.dynamicControllabilityCheck().isControllability());
+		STNUDispatcher dispatcher = new STNUDispatcher(stnu);
+		assertEquals(0, dispatcher.getExecutionTime(this.Z));
+		assertEquals("[❮A❯]", dispatcher.getEnabledTimepoints(0).toString());
+		dispatcher.execute(this.A, 1);
+		assertEquals(3, dispatcher.getLowerBound(this.C));
+		assertEquals(6, dispatcher.getUpperBound(this.C));
+		assertEquals("X >= A + x by label removal", 3, dispatcher.getLowerBound(this.X));
+		assertEquals(9, dispatcher.getUpperBound(this.X));
+		assertFalse(dispatcher.isEnabled(this.X, 4));
+		assertTrue(dispatcher.isEnabled(this.X, 5));
+		dispatcher.observe(this.C, 4);
+		assertEquals(3, dispatcher.getLowerBound(this.X));
+		assertEquals(7, dispatcher.getUpperBound(this.X));
+		assertTrue(dispatcher.isEnabled(this.X, 4));
+		dispatcher.execute(this.X, 4);
+		assertTrue(dispatcher.isCompleted());
+
+		stnu = new STNU(this.g);
+		stnu.dynamicControllabilityCheck();
+		dispatcher = new STNUDispatcher(stnu);
+		dispatcher.execute(this.A, 1);
+		assertTrue(dispatcher.getEnabledTimepoints(4).isEmpty());
+		dispatcher.execute(this.X, 5);
+		dispatcher.observe(this.C, 6);
+		assertTrue(dispatcher.isCompleted());
+	}
+
+	/**
+	 * Executes the given checked network 10 times by random choices and checks that all deadlines are met and that all constraints
+	 * of the original network are satisfied.
+	 *
+	 * @param stnu a checked DC STNU
+	 * @param raw the original network
+	 * @param rnd random generator
+	 * @param instance number of the instance for messages
+	 */
+	static void randomExecutions(STNU stnu, TNGraph<STNUEdge> raw, Random rnd, int instance) {
+		final TNGraph<STNUEdge> checked = stnu.getGChecked();
+		for (int run = 0; run < 10; run++) {
+			final STNUDispatcher dispatcher = new STNUDispatcher(stnu);
+			final Object2IntMap<LabeledNode> occurrence = new Object2IntOpenHashMap<>();
+			int t = 0;
+			while (!dispatcher.isCompleted()) {
+				for (final LabeledNode ctg : stnu.getActivationNode().keySet()) {
+					if (occurrence.containsKey(ctg) && occurrence.getInt(ctg) == t && !dispatcher.isExecuted(ctg))
+						dispatcher.observe(ctg, t);
+				}
+				boolean executed = true;
+				while (executed) {
+					executed = false;
+					final ObjectList<LabeledNode> enabled = dispatcher.getEnabledTimepoints(t);
+					for (final LabeledNode node : enabled) {
+						if ((dispatcher.getUpperBound(node) == t || rnd.nextInt(4) == 0) && dispatcher.isEnabled(node, t)) {
+							dispatcher.execute(node, t);
+							executed = true;
+						}
+					}
+				}
+				for (final LabeledNode ctg : stnu.getActivationNode().keySet()) {
+					final LabeledNode act = stnu.getActivationNode().get(ctg);
+					if (dispatcher.isExecuted(act) && !occurrence.containsKey(ctg)) {
+						final int x = stnu.getLowerContingentEdge().get(ctg).getLabeledValue();
+						final int y = -stnu.getUpperContingentEdge().get(ctg).getLabeledValue();
+						occurrence.put(ctg, dispatcher.getExecutionTime(act) + x + rnd.nextInt(y - x + 1));
+					}
+				}
+				for (final LabeledNode node : checked.getVertices()) {
+					if (!dispatcher.isExecuted(node))
+						assertTrue("Instance " + instance + ", deadline of " + node + " missed at " + t, dispatcher.getUpperBound(node) > t);
+				}
+				t++;
+			}
+			for (final STNUEdge e : raw.getEdges()) {
+				if (e.isContingentEdge() || e.getValue() == Constants.INT_NULL)
+					continue;
+				final int s = dispatcher.getExecutionTime(checked.getNode(raw.getSource(e).getName()));
+				final int d = dispatcher.getExecutionTime(checked.getNode(raw.getDest(e).getName()));
+				assertTrue("Instance " + instance + ", constraint " + e + " violated: " + s + ", " + d, d - s <= e.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Random executions of random DC networks must satisfy all the constraints of the original network.
+	 *
+	 * @throws WellDefinitionException if a network is not well defined
+	 */
+	@Test
+	public void testRandomExecutions() throws WellDefinitionException {
+		final STNURandomGenerator generator = new STNURandomGenerator(1, 0, 20, 3, .2, 150, 50);
+		generator.setSeed(11);
+		final Random rnd = new Random(3);
+		for (int instance = 0; instance < 5; instance++) {
+			TNGraph<STNUEdge> raw = null;
+			while (raw == null) {
+				raw = generator.buildAPairRndTNInstances(false).getFirst();
+			}
+			final STNU stnu = new STNU(new TNGraph<>(raw, STNUEdgeInt.class));
+			if (!stnu.dynamicControllabilityCheck().isControllability())
+				continue;
+			randomExecutions(stnu, raw, rnd, instance);
+		}
+	}
+
+	/**
+	 * A network made dispatchable must remain DC, it must have fewer ordinary edges than the minimal network of the distance graph used
+	 * by the dispatcher and its random executions must satisfy all the constraints of the original network.
+	 *
+	 * @throws WellDefinitionException if a network is not well defined
+	 */
+	@Test
+	public void testMakeDispatchable() throws WellDefinitionException {
+		STNU stnu = new STNU(this.g);
+		assertTrue(stnu.makeDispatchable());
+		assertTrue(stnu.getCheckStatus().isControllability());
+		final STNUDispatcher dispatcher = new STNUDispatcher(stnu);
+		dispatcher.execute(this.A, 1);
+		assertEquals(3, dispatcher.getLowerBound(this.X));
+		assertEquals(9, dispatcher.getUpperBound(this.X));
+		assertFalse(dispatcher.isEnabled(this.X, 4));
+		assertTrue(dispatcher.isEnabled(this.X, 5));
+
+		final STNURandomGenerator generator = new STNURandomGenerator(1, 0, 20, 3, .2, 150, 50);
+		generator.setSeed(11);
+		final Random rnd = new Random(3);
+		for (int instance = 0; instance < 5; instance++) {
+			TNGraph<STNUEdge> raw = null;
+			while (raw == null) {
+				raw = generator.buildAPairRndTNInstances(false).getFirst();
+			}
+			stnu = new STNU(new TNGraph<>(raw, STNUEdgeInt.class));
+			if (!stnu.dynamicControllabilityCheck().isControllability())
+				continue;
+			final STN minimal = new STN(new STNUDispatcher(stnu).getDistanceGraph());
+			assertTrue(minimal.allPairsShortestPaths());
+			final int minimalEdges = minimal.getG().getEdgeCount();
+			assertTrue(stnu.makeDispatchable());
+			int ordinaryEdges = 0;
+			for (final STNUEdge e : stnu.getGChecked().getEdges()) {
+				if (!e.isContingentEdge())
+					ordinaryEdges++;
+			}
+			assertTrue("Instance " + instance + ": " + ordinaryEdges + " edges vs " + minimalEdges, ordinaryEdges < minimalEdges);
+			assertTrue(new STNU(new TNGraph<>(stnu.getGChecked(), STNUEdgeInt.class)).dynamicControllabilityCheck().isControllability());
+			randomExecutions(stnu, raw, rnd, instance);
+		}
+	}
+}
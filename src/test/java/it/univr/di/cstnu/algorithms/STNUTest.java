@@ -4,20 +4,27 @@
 package it.univr.di.cstnu.algorithms;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.util.Random;
 
 import org.junit.Before;
 import org.junit.Test;
 
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectList;
+import it.univr.di.cstnu.graph.Edge.ConstraintType;
 import it.univr.di.cstnu.graph.LabeledNode;
 import it.univr.di.cstnu.graph.STNUEdge;
 import it.univr.di.cstnu.graph.STNUEdgeInt;
 import it.univr.di.cstnu.graph.TNGraph;
 import it.univr.di.cstnu.graph.TNGraphMLReader;
+import it.univr.di.labeledvalue.Constants;
 
 /**
  * @author posenato
@@ -169,4 +176,307 @@ public class STNUTest {
 		assertEquals(graph, this.stnuGraph.toString());
 	}
 
+
+	/**
+	 * @param raw the generated network
+	 * @param ops the operations to apply: {source, dest, value} for a requirement constraint, {activation, contingent, x, y} for a new
+	 *            contingent link to a new node.
+	 * @return a copy of raw with all operations applied.
+	 */
+	static TNGraph<STNUEdge> applyOps(TNGraph<STNUEdge> raw, ObjectList<Object[]> ops) {
+		final TNGraph<STNUEdge> g = new TNGraph<>(raw, STNUEdgeInt.class);
+		for (final Object[] op : ops) {
+			final LabeledNode s = g.getNode((String) op[0]);
+			if (op.length == 3) {
+				final LabeledNode d = g.getNode((String) op[1]);
+				final int v = ((Integer) op[2]).intValue();
+				final STNUEdge e = g.findEdge(s, d);
+				if (e == null) {
+					g.addEdge(new STNUEdgeInt(s.getName() + "_" + d.getName(), v), s, d);
+				} else if (e.getValue() == Constants.INT_NULL || v < e.getValue()) {
+					e.setValue(v);
+				}
+			} else {
+				final LabeledNode c = new LabeledNode((String) op[1]);
+				g.addVertex(c);
+				final STNUEdge ac = new STNUEdgeInt(s.getName() + "_" + c.getName(), ((Integer) op[3]).intValue());
+				ac.setConstraintType(ConstraintType.contingent);
+				g.addEdge(ac, s, c);
+				final STNUEdge ca = new STNUEdgeInt(c.getName() + "_" + s.getName(), -((Integer) op[2]).intValue());
+				ca.setConstraintType(ConstraintType.contingent);
+				g.addEdge(ca, c, s);
+			}
+		}
+		return g;
+	}
+
+	/**
+	 * Incremental checks must agree with full RUL2020 checks after each added constraint or contingent link.
+	 * 
+	 * @throws WellDefinitionException if a network is not well defined
+	 */
+	@Test
+	public void testIncrementalDC() throws WellDefinitionException {
+		final STNURandomGenerator generator = new STNURandomGenerator(1, 0, 20, 3, .2, 150, 50);
+		generator.setSeed(5);
+		final Random rnd = new Random(7);
+		int checks = 0, links = 0, notDC = 0;
+		for (int instance = 0; instance < 4; instance++) {
+			TNGraph<STNUEdge> raw = null;
+			while (raw == null) {
+				raw = generator.buildAPairRndTNInstances(false).getFirst();
+			}
+			final ObjectList<Object[]> ops = new ObjectArrayList<>();
+			final STNU inc = new STNU(applyOps(raw, ops));
+			assertTrue(inc.dynamicControllabilityCheck().isControllability());
+			final TNGraph<STNUEdge> g = inc.getG();
+			boolean dc = true;
+			for (int k = 0; k < 300 && dc; k++) {
+				final int n = g.getVertexCount();
+				final LabeledNode s = g.getNode(rnd.nextInt(n)), d = g.getNode(rnd.nextInt(n));
+				if (k % 5 == 4) {
+					if (inc.getActivationNode().containsValue(s) || s.isContingent())
+						continue;
+					final int x = 1 + rnd.nextInt(10), y = x + 1 + rnd.nextInt(20);
+					final LabeledNode c = new LabeledNode("C" + k);
+					g.addVertex(c);
+					ops.add(new Object[] { s.getName(), c.getName(), Integer.valueOf(x), Integer.valueOf(y) });
+					dc = inc.addContingentLink(s, c, x, y);
+					links++;
+				} else {
+					final STNUEdge e = g.findEdge(s, d);
+					if (s == d || (e != null && e.isContingentEdge()))
+						continue;
+					final int value = (e == null || e.getValue() == Constants.INT_NULL) ? 200 + rnd.nextInt(100) : e.getValue() - rnd.nextInt(10);
+					ops.add(new Object[] { s.getName(), d.getName(), Integer.valueOf(value) });
+					dc = inc.addOrTightenEdge(s, d, value);
+				}
+				final STNU full = new STNU(applyOps(raw, ops));
+				assertEquals("Instance " + instance + ", operation " + k, full.dynamicControllabilityCheck(STNU.CheckAlgorithm.RUL2020).isControllability(),
+						dc);
+				checks++;
+			}
+			if (!dc)
+				notDC++;
+		}
+		assertTrue(checks > 100);
+		assertTrue(links > 10);
+		assertTrue(notDC > 0);
+	}
+
+	/**
+	 * Incremental checks must agree with full RUL2020 checks also when the added constraints are tight enough to make the network not DC.
+	 * 
+	 * @throws WellDefinitionException if a network is not well defined
+	 */
+	@Test
+	public void testIncrementalDCTightUpdates() throws WellDefinitionException {
+		final int[][] configs = { { 20, 31, 40 }, { 40, 51, 20 } };// nodes, seed, instances
+		int dcAnswers = 0, notDC = 0;
+		for (final int[] config : configs) {
+			final STNURandomGenerator generator = new STNURandomGenerator(1, 0, config[0], 3, .2, 150, 50);
+			generator.setSeed(config[1]);
+			final Random rnd = new Random(config[1]);
+			for (int instance = 0; instance < config[2]; instance++) {
+				TNGraph<STNUEdge> raw = null;
+				while (raw == null) {
+					raw = generator.buildAPairRndTNInstances(false).getFirst();
+				}
+				final ObjectList<Object[]> ops = new ObjectArrayList<>();
+				final STNU inc = new STNU(applyOps(raw, ops));
+				if (!inc.dynamicControllabilityCheck(STNU.CheckAlgorithm.RUL2020).isControllability())
+					continue;
+				final TNGraph<STNUEdge> g = inc.getG();
+				boolean dc = true;
+				for (int k = 0; k < 200 && dc; k++) {
+					final int n = g.getVertexCount();
+					final LabeledNode s = g.getNode(rnd.nextInt(n)), d = g.getNode(rnd.nextInt(n));
+					final STNUEdge e = g.findEdge(s, d);
+					if (s == d || (e != null && e.isContingentEdge()))
+						continue;
+					final int value = -100 + rnd.nextInt(200);
+					ops.add(new Object[] { s.getName(), d.getName(), Integer.valueOf(value) });
+					dc = inc.addOrTightenEdge(s, d, value);
+					final STNU full = new STNU(applyOps(raw, ops));
+					assertEquals("Nodes " + config[0] + ", seed " + config[1] + ", instance " + instance + ", operation " + k,
+							full.dynamicControllabilityCheck(STNU.CheckAlgorithm.RUL2020).isControllability(), dc);
+					if (dc)
+						dcAnswers++;
+				}
+				if (!dc)
+					notDC++;
+			}
+		}
+		assertTrue(dcAnswers > 50);
+		assertTrue(notDC > 30);
+	}
+
+	/**
+	 * Each incremental check has its own deadline, and an interrupted incremental check does not determine the controllability and is
+	 * completed by the next one.
+	 * 
+	 * @throws Exception if a network is not well defined or the thread is interrupted
+	 */
+	@Test
+	public void testIncrementalDCInterruption() throws Exception {
+		final STNURandomGenerator generator = new STNURandomGenerator(1, 0, 20, 3, .2, 150, 50);
+		generator.setSeed(5);
+		TNGraph<STNUEdge> raw = null;
+		while (raw == null) {
+			raw = generator.buildAPairRndTNInstances(false).getFirst();
+		}
+		final STNU inc = new STNU(new TNGraph<>(raw, STNUEdgeInt.class), 1);
+		assertTrue(inc.dynamicControllabilityCheck(STNU.CheckAlgorithm.RUL2020).isControllability());
+		final TNGraph<STNUEdge> g = inc.getG();
+		// the deadline of the full check expires
+		Thread.sleep(1100);
+		final int n = g.getVertexCount();
+		int updates = 0;
+		for (int i = 0; i < n && updates < 50; i++) {
+			for (int j = 0; j < n && updates < 50; j++) {
+				final LabeledNode s = g.getNode(i), d = g.getNode(j);
+				if (s == d || g.findEdge(s, d) != null)
+					continue;
+				assertTrue(inc.addOrTightenEdge(s, d, 100000));
+				assertTrue(inc.getCheckStatus().finished);
+				updates++;
+			}
+		}
+		assertEquals(50, updates);
+
+		final LabeledNode A = inc.getActivationNode().values().iterator().next();
+		final LabeledNode X = g.getNode(0) == A ? g.getNode(1) : g.getNode(0);
+		final TNGraph<STNUEdge> expectedGraph = new TNGraph<>(g, STNUEdgeInt.class);
+		final STNUEdge expectedEdge = expectedGraph.findEdge(X.getName(), A.getName());
+		if (expectedEdge == null) {
+			expectedGraph.addEdge(new STNUEdgeInt(X.getName() + "_" + A.getName(), -40), expectedGraph.getNode(X.getName()),
+					expectedGraph.getNode(A.getName()));
+		} else if (expectedEdge.getValue() == Constants.INT_NULL || expectedEdge.getValue() > -40) {
+			expectedEdge.setValue(-40);
+		}
+		final boolean expected = new STNU(expectedGraph).dynamicControllabilityCheck(STNU.CheckAlgorithm.RUL2020).isControllability();
+
+		inc.cancel();
+		assertFalse(inc.addOrTightenEdge(X, A, -40));
+		assertFalse(inc.getCheckStatus().finished);
+		inc.getCheckStatus().cancelled = false;
+		// the edge is already present: the interrupted check is completed
+		assertEquals(expected, inc.addOrTightenEdge(X, A, -40));
+		assertTrue(inc.getCheckStatus().finished);
+	}
+
+	/**
+	 * ParallelRUL2020 must agree with RUL2020 and its checked graph must be DC.
+	 * Each random DC instance is also made not DC by a node X such that A + x + 1 &le; X &le; C for a contingent link (A, x, y, C).
+	 * 
+	 * @throws WellDefinitionException if a network is not well defined
+	 */
+	@Test
+	public void testParallelRUL2020() throws WellDefinitionException {
+		final STNURandomGenerator generator = new STNURandomGenerator(1, 0, 40, 10, .2, 150, 50);
+		generator.setSeed(3);
+		int parallel = 0;
+		for (int instance = 0; instance < 3; instance++) {
+			TNGraph<STNUEdge> dcInstance = null;
+			while (dcInstance == null) {
+				dcInstance = generator.buildAPairRndTNInstances(false).getFirst();
+			}
+			final TNGraph<STNUEdge> notDCInstance = new TNGraph<>(dcInstance, STNUEdgeInt.class);
+			for (final STNUEdge e : notDCInstance.getEdges()) {
+				if (e.isContingentEdge() && e.getValue() > 0) {
+					final LabeledNode A = notDCInstance.getSource(e), C = notDCInstance.getDest(e);
+					final int x = -notDCInstance.findEdge(C, A).getValue();
+					final LabeledNode X = new LabeledNode("X");
+					notDCInstance.addVertex(X);
+					notDCInstance.addEdge(new STNUEdgeInt("X_A", -x - 1), X, A);
+					notDCInstance.addEdge(new STNUEdgeInt("C_X", 0), C, X);
+					break;
+				}
+			}
+			final ObjectList<TNGraph<STNUEdge>> instances = new ObjectArrayList<>();
+			instances.add(dcInstance);
+			instances.add(notDCInstance);
+			for (final TNGraph<STNUEdge> raw : instances) {
+				final boolean dc = new STNU(new TNGraph<>(raw, STNUEdgeInt.class)).dynamicControllabilityCheck(STNU.CheckAlgorithm.RUL2020)
+						.isControllability();
+				assertEquals("Instance " + instance, raw == dcInstance, dc);
+				final STNU stnu = new STNU(new TNGraph<>(raw, STNUEdgeInt.class));
+				stnu.setParallelism(4);
+				assertEquals("Instance " + instance, dc, stnu.dynamicControllabilityCheck(STNU.CheckAlgorithm.ParallelRUL2020).isControllability());
+				parallel += stnu.getCheckStatus().parallelBackPropagations;
+				if (dc) {
+					assertTrue(new STNU(new TNGraph<>(stnu.getGChecked(), STNUEdgeInt.class)).dynamicControllabilityCheck(STNU.CheckAlgorithm.RUL2020)
+							.isControllability());
+				}
+			}
+		}
+		assertTrue(parallel > 0);
+	}
+
+	/**
+	 * Checks that the certificate of a not DC check is a closed cycle of edges of the checked graph having negative length.
+	 * 
+	 * @param stnu a checked not DC network
+	 * @param msg prefix of messages
+	 */
+	static void assertSemiReducibleNegativeCycle(STNU stnu, String msg) {
+		final STNU.STNUCheckStatus status = stnu.getCheckStatus();
+		assertFalse(msg, status.isControllability());
+		final ObjectList<STNUEdge> cycle = status.semiReducibleNegativeCycle;
+		assertTrue(msg + ": no certificate", cycle != null && !cycle.isEmpty());
+		assertEquals(msg, cycle.size() + 1, status.negativeCycle.size());
+		final TNGraph<STNUEdge> checked = stnu.getGChecked();
+		long length = 0;
+		for (int i = 0; i < cycle.size(); i++) {
+			final STNUEdge e = cycle.get(i);
+			assertEquals(msg + ": " + cycle, status.negativeCycle.get(i), checked.getSource(e.getName()));
+			assertEquals(msg + ": " + cycle, status.negativeCycle.get(i + 1), checked.getDest(e.getName()));
+			length += (e.getValue() != Constants.INT_NULL) ? e.getValue() : e.getLabeledValue();
+		}
+		assertTrue(msg + ": " + cycle + " has length " + length, length < 0);
+		assertEquals(msg, length, status.negativeCycleWeight);
+	}
+
+	/**
+	 * Not DC networks must have a semi-reducible negative cycle as certificate.
+	 * 
+	 * @throws WellDefinitionException if a network is not well defined
+	 */
+	@Test
+	public void testSemiReducibleNegativeCycle() throws WellDefinitionException {
+		final STNURandomGenerator generator = new STNURandomGenerator(1, 0, 20, 3, .2, 150, 50);
+		generator.setSeed(7);
+		final STNU.CheckAlgorithm[] algorithms = { STNU.CheckAlgorithm.RUL2020, STNU.CheckAlgorithm.ParallelRUL2020, STNU.CheckAlgorithm.Morris2014 };
+		for (int instance = 0; instance < 10; instance++) {
+			ObjectPair<TNGraph<STNUEdge>> pair = null;
+			while (pair == null || pair.getFirst() == null) {
+				pair = generator.buildAPairRndTNInstances(instance % 2 == 0);
+			}
+			final ObjectList<TNGraph<STNUEdge>> instances = new ObjectArrayList<>();
+			if (pair.getSecond() != null)
+				instances.add(pair.getSecond());
+			// A + x + 1 <= X <= C for a contingent link (A, x, y, C)
+			final TNGraph<STNUEdge> notDCInstance = new TNGraph<>(pair.getFirst(), STNUEdgeInt.class);
+			for (final STNUEdge e : notDCInstance.getEdges()) {
+				if (e.isContingentEdge() && e.getValue() > 0) {
+					final LabeledNode A = notDCInstance.getSource(e), C = notDCInstance.getDest(e);
+					final int x = -notDCInstance.findEdge(C, A).getValue();
+					final LabeledNode X = new LabeledNode("X");
+					notDCInstance.addVertex(X);
+					notDCInstance.addEdge(new STNUEdgeInt("X_A", -x - 1), X, A);
+					notDCInstance.addEdge(new STNUEdgeInt("C_X", 0), C, X);
+					break;
+				}
+			}
+			instances.add(notDCInstance);
+			for (final TNGraph<STNUEdge> raw : instances) {
+				for (final STNU.CheckAlgorithm algorithm : algorithms) {
+					final STNU stnu = new STNU(new TNGraph<>(raw, STNUEdgeInt.class));
+					stnu.setParallelism(4);
+					stnu.dynamicControllabilityCheck(algorithm);
+					assertSemiReducibleNegativeCycle(stnu, "Instance " + instance + ", " + algorithm);
+				}
+			}
+		}
+	}
 }
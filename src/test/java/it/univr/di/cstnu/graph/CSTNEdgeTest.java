@@ -11,6 +11,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import it.univr.di.cstnu.graph.Edge.ConstraintType;
+import it.univr.di.labeledvalue.Constants;
 import it.univr.di.labeledvalue.Label;
 
 /**
@@ -110,4 +111,22 @@ public class CSTNEdgeTest {
 		this.e.mergeLabeledValue(Label.emptyLabel, 1);
 		assertEquals("❮e; requirement; {(1, ⊡) }; ❯", this.e.toString());
 	}
+
+	/**
+	 * Test method for {@link it.univr.di.cstnu.graph.CSTNEdge#getModificationCount()}.
+	 */
+	@Test
+	public final void testModificationCount() {
+		int count = this.e.getModificationCount();
+		assertTrue(this.e.mergeLabeledValue(Label.emptyLabel, 1));
+		assertTrue(count != this.e.getModificationCount());
+		count = this.e.getModificationCount();
+		// already represented
+		assertFalse(this.e.mergeLabeledValue(Label.parse("a"), 3));
+		assertEquals(count, this.e.getModificationCount());
+		assertEquals(Constants.INT_NULL, this.e.removeLabeledValue(Label.parse("a")));
+		assertEquals(count, this.e.getModificationCount());
+		assertEquals(1, this.e.removeLabeledValue(Label.emptyLabel));
+		assertTrue(count != this.e.getModificationCount());
+	}
 }
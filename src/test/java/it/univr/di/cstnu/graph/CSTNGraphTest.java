@@ -189,6 +189,173 @@ public class CSTNGraphTest {
 		assertEquals(g.getEdgeCount(), 6);
 	}
 
+	/**
+	 * 
+	 */
+	@SuppressWarnings({ "static-method" })
+	@Test
+	public void findEdgeByIndex() {
+		TNGraph<CSTNEdge> g = new TNGraph<>("prova", edgeImplClass);
+
+		LabeledNode X = g.getNodeFactory().get("X");
+		LabeledNode Y = g.getNodeFactory().get("Y");
+		LabeledNode Z = g.getNodeFactory().get("Z");
+		g.addVertex(Z);
+		g.addVertex(X);
+		g.addVertex(Y);
+		CSTNEdge zx = edgeFactory.get("ZX");
+		CSTNEdge yx = edgeFactory.get("YX");
+		g.addEdge(zx, Z, X);
+		g.addEdge(yx, Y, X);
+
+		int zI = g.getNodeIndex(Z), xI = g.getNodeIndex(X), yI = g.getNodeIndex(Y);
+		assertEquals(Z, g.getNode(zI));
+		assertEquals(zx, g.findEdge(zI, xI));
+		assertEquals(yx, g.findEdge(yI, xI));
+		assertNull(g.findEdge(xI, zI));
+		assertNull(g.findEdge(xI, 10));
+		assertEquals(xI, g.getNodeIndex(g.getNodeFactory().get("X")));// a copy is found by name
+		assertEquals(Constants.INT_NULL, g.getNodeIndex(g.getNodeFactory().get("W")));
+
+		// Z removal moves Y (last node) to Z position
+		g.removeVertex(Z);
+		assertEquals(Constants.INT_NULL, g.getNodeIndex(Z));
+		yI = g.getNodeIndex(Y);
+		assertEquals(zI, yI);
+		assertEquals(Y, g.getNode(yI));
+		assertEquals(yx, g.findEdge(yI, g.getNodeIndex(X)));
+		assertEquals(yx, g.findEdge(Y, X));
+		assertNull(g.findEdge(Z, X));
+	}
+
+	/**
+	 * Checks that sparse adjacency behaves as the dense one.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void sparseAdjacency() {
+		TNGraph<CSTNEdge> dense = new TNGraph<>("dense", edgeImplClass);
+		TNGraph<CSTNEdge> sparse = new TNGraph<>("sparse", edgeImplClass, TNGraph.AdjacencyType.sparse);
+		assertEquals(TNGraph.AdjacencyType.dense, dense.getAdjacencyType());
+		assertEquals(TNGraph.AdjacencyType.sparse, sparse.getAdjacencyType());
+
+		int n = 25;
+		java.util.Random rnd = new java.util.Random(7);
+		for (int i = 0; i < n; i++) {
+			dense.addVertex(dense.getNodeFactory().get("N" + i));
+			sparse.addVertex(sparse.getNodeFactory().get("N" + i));
+		}
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				if (rnd.nextInt(5) != 0 && i != 3)
+					continue;
+				String name = "N" + i + "-N" + j;
+				dense.addEdge(edgeFactory.get(name), "N" + i, "N" + j);
+				sparse.addEdge(edgeFactory.get(name), "N" + i, "N" + j);
+			}
+		}
+		assertSameAdjacency(dense, sparse);
+
+		dense.removeVertex(dense.getNode("N3"));
+		sparse.removeVertex(sparse.getNode("N3"));
+		dense.removeVertex(dense.getNode("N" + (n - 2)));
+		sparse.removeVertex(sparse.getNode("N" + (n - 2)));
+		dense.removeEdge("N1-N1");
+		sparse.removeEdge("N1-N1");
+		assertSameAdjacency(dense, sparse);
+
+		dense.transpose();
+		sparse.transpose();
+		assertSameAdjacency(dense, sparse);
+
+		TNGraph<CSTNEdge> copy = new TNGraph<>(sparse, edgeImplClass);
+		assertEquals(TNGraph.AdjacencyType.sparse, copy.getAdjacencyType());
+		assertEquals(sparse, copy);
+	}
+
+	/**
+	 * Checks slot and visitor APIs.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void slotVisit() {
+		TNGraph<CSTNEdge> g = new TNGraph<>("prova", edgeImplClass);
+		LabeledNode X = g.getNodeFactory().get("X");
+		LabeledNode Y = g.getNodeFactory().get("Y");
+		LabeledNode Z = g.getNodeFactory().get("Z");
+		g.addVertex(Z);
+		g.addVertex(X);
+		g.addVertex(Y);
+		CSTNEdge zx = edgeFactory.get("ZX");
+		CSTNEdge zy = edgeFactory.get("ZY");
+		CSTNEdge yx = edgeFactory.get("YX");
+		g.addEdge(zx, Z, X);
+		g.addEdge(zy, Z, Y);
+		g.addEdge(yx, Y, X);
+
+		int zI = g.getNodeIndex(Z), xI = g.getNodeIndex(X);
+		assertEquals(g.getOutEdges(Z), slotEdges(g, zI, true));
+		assertEquals(g.getInEdges(X), slotEdges(g, xI, false));
+		assertEquals(-1, g.firstOutSlot(xI));
+		int slot = g.firstInSlot(xI);
+		assertEquals(zx, g.inEdgeAt(xI, slot));
+		assertEquals(zI, g.inNodeAt(xI, slot));
+
+		StringBuilder sb = new StringBuilder();
+		g.forEachOutEdge(Z, (e, d) -> sb.append(e.getName()).append(d.getName()));
+		g.forEachInEdge(X, (e, s1) -> sb.append(e.getName()).append(s1.getName()));
+		assertEquals("ZYYZXXZXZYXY", sb.toString());
+	}
+
+	/**
+	 * @param g
+	 * @param nodeIndex
+	 * @param out
+	 * @return the out/in edges of node collected by slots.
+	 */
+	private static java.util.List<CSTNEdge> slotEdges(TNGraph<CSTNEdge> g, int nodeIndex, boolean out) {
+		java.util.List<CSTNEdge> list = new java.util.ArrayList<>();
+		if (out) {
+			for (int slot = g.firstOutSlot(nodeIndex); slot >= 0; slot = g.nextOutSlot(nodeIndex, slot))
+				list.add(g.outEdgeAt(nodeIndex, slot));
+		} else {
+			for (int slot = g.firstInSlot(nodeIndex); slot >= 0; slot = g.nextInSlot(nodeIndex, slot))
+				list.add(g.inEdgeAt(nodeIndex, slot));
+		}
+		return list;
+	}
+
+	/**
+	 * @param g1
+	 * @param g2
+	 */
+	private static void assertSameAdjacency(TNGraph<CSTNEdge> g1, TNGraph<CSTNEdge> g2) {
+		assertEquals(g1.getEdgeCount(), g2.getEdgeCount());
+		assertEquals(g1.getVertexCount(), g2.getVertexCount());
+		for (LabeledNode node1 : g1.getVertices()) {
+			LabeledNode node2 = g2.getNode(node1.getName());
+			assertEquals(g1.getNodeIndex(node1), g2.getNodeIndex(node2));
+			assertEquals(g1.getOutEdges(node1).toString(), g2.getOutEdges(node2).toString());
+			assertEquals(g1.getInEdges(node1).toString(), g2.getInEdges(node2).toString());
+			assertEquals(g1.getIncidentEdges(node1).toString(), g2.getIncidentEdges(node2).toString());
+			assertEquals(g1.getNeighbors(node1).toString(), g2.getNeighbors(node2).toString());
+			assertEquals(g1.degree(node1), g2.degree(node2));
+			assertEquals(g2.getOutEdges(node2), slotEdges(g2, g2.getNodeIndex(node2), true));
+			assertEquals(g2.getInEdges(node2), slotEdges(g2, g2.getNodeIndex(node2), false));
+			assertEquals(g1.getSuccessors(node1).toString(), g2.getSuccessors(node2).toString());
+			assertEquals(g1.getPredecessors(node1).toString(), g2.getPredecessors(node2).toString());
+			for (LabeledNode dest1 : g1.getVertices()) {
+				CSTNEdge e1 = g1.findEdge(node1, dest1);
+				CSTNEdge e2 = g2.findEdge(g1.getNodeIndex(node1), g1.getNodeIndex(dest1));
+				assertEquals(String.valueOf(e1), String.valueOf(e2));
+				if (e1 != null) {
+					assertTrue(g2.isSource(node2, e2));
+					assertEquals(g1.getDest(e1).getName(), g2.getDest(e2).getName());
+				}
+			}
+		}
+	}
+
 	/**
 	 * 
 	 */
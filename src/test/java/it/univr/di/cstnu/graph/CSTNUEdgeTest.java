@@ -301,4 +301,28 @@ public class CSTNUEdgeTest {
 		assertEquals("❮e; requirement; {(1, ⊡) }; UL: {(A, 0, ⊡) }; ❯", this.e.toString());
 	}
 
+	/**
+	 * Test method for {@link it.univr.di.cstnu.graph.CSTNEdge#getModificationCount()} with upper-case and lower-case values.
+	 */
+	@Test
+	public final void testModificationCount() {
+		final ALabel a = new ALabel("A", this.alphabet);
+		int count = this.e.getModificationCount();
+		assertTrue(this.e.mergeUpperCaseValue(Label.emptyLabel, a, -3));
+		assertTrue(count != this.e.getModificationCount());
+		count = this.e.getModificationCount();
+		assertFalse(this.e.mergeUpperCaseValue(Label.emptyLabel, a, -1));
+		assertEquals(count, this.e.getModificationCount());
+		// it makes the upper-case value redundant
+		assertTrue(this.e.mergeLabeledValue(Label.emptyLabel, -5));
+		assertEquals(0, this.e.upperCaseValueSize());
+		assertTrue(count != this.e.getModificationCount());
+		count = this.e.getModificationCount();
+		this.e.setLowerCaseValue(Label.emptyLabel, a, 2);
+		assertTrue(count != this.e.getModificationCount());
+		count = this.e.getModificationCount();
+		this.e.removeLowerCaseValue();
+		assertTrue(count != this.e.getModificationCount());
+	}
+
 }
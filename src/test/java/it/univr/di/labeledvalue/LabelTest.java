@@ -9,6 +9,12 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -30,6 +36,53 @@ public class LabelTest {
 		assertArrayEquals(new Label[] { Label.parse("ab"), Label.parse("¬ab"), Label.parse("a¬b"), Label.parse("¬a¬b") }, abV);
 	}
 
+	/**
+	 * Test method for the label cache used concurrently and in bounded mode.
+	 * 
+	 * @throws java.lang.Exception nope
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public final void testConcurrentCache() throws Exception {
+		final String[] labels = { "a", "¬b", "a¬b", "ab¬c", "¿ab", "¬a¬b¬c¬d", "abcdef", "a¬f¿g" };
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		List<Future<Boolean>> results = new ArrayList<>();
+		for (int t = 0; t < 8; t++) {
+			results.add(pool.submit(() -> {
+				for (int i = 0; i < 2000; i++) {
+					for (String l : labels) {
+						Label label = Label.parse(l);
+						if (!label.toString().equals(Label.parse(l).toString()) || !label.equals(Label.parse(l)))
+							return Boolean.FALSE;
+					}
+					if (Label.parse("ab").conjunction(Label.parse("c")) != Label.parse("abc").conjunction(Label.emptyLabel)
+							&& !Label.parse("ab").conjunction(Label.parse("c")).equals(Label.parse("abc")))
+						return Boolean.FALSE;
+				}
+				return Boolean.TRUE;
+			}));
+		}
+		for (Future<Boolean> r : results)
+			assertTrue(r.get().booleanValue());
+		pool.shutdown();
+		assertTrue(Label.parse("a") == Label.parse("a"));
+
+		Label.setCacheCapacity(16);
+		try {
+			Label first = Label.parse("a¬c");
+			for (char c = 'd'; c <= 'z'; c++) {
+				Label l = Label.parse("" + c + "¬b");
+				assertEquals(2, l.size());
+				assertEquals(l, Label.parse("¬b" + c));
+			}
+			assertEquals(first, Label.parse("a¬c"));
+			assertTrue(Label.getCacheSize() <= 16);
+			assertTrue(Label.emptyLabel == Label.parse("a").remove('a'));
+		} finally {
+			Label.setCacheCapacity(0);
+		}
+	}
+
 	/**
 	 * Test method for {@link it.univr.di.labeledvalue.Label#compareTo(it.univr.di.labeledvalue.Label)}.
 	 */
@@ -641,4 +694,54 @@ public class LabelTest {
 		Assert.assertEquals("{a, ¬a, ¿a, b, ¬b, ¿b, c, ¬c, ¿c, ab, a¬b, ac, ¬ab, ¬a¬b, ¬ac}", order.toString());
 		Assert.assertEquals(15, order.size());
 	}
+
+	/**
+	 * Bit-level methods must agree with the corresponding label methods on all pairs of labels built on 'a', 'b', and 'F'.
+	 * 'F' is the last possible proposition.
+	 */
+	@Test
+	public final void bitsMethods() {
+		final char[] states = { Literal.ABSENT, Literal.STRAIGHT, Literal.NEGATED, Literal.UNKNONW };
+		final Label[] labels = new Label[64];
+		int n = 0;
+		for (final char a : states) {
+			for (final char b : states) {
+				for (final char f : states) {
+					labels[n++] = Label.emptyLabel.conjunctionExtended('a', a).conjunctionExtended('b', b).conjunctionExtended('F', f);
+				}
+			}
+		}
+		for (final Label l1 : labels) {
+			assertEquals(l1, Label.valueOfBits(l1.getBits()));
+			assertEquals(l1.containsUnknown(), Label.containsUnknownBits(l1.getBits()));
+			for (final Label l2 : labels) {
+				final String msg = l1 + ", " + l2;
+				final long conjunction = Label.conjunctionBits(l1.getBits(), l2.getBits());
+				assertEquals(msg, l1.conjunction(l2), (conjunction == Label.BITS_NULL) ? null : Label.valueOfBits(conjunction));
+				assertEquals(msg, l1.conjunctionExtended(l2), Label.valueOfBits(Label.conjunctionExtendedBits(l1.getBits(), l2.getBits())));
+				assertEquals(msg, l1.isConsistentWith(l2), Label.isConsistentBits(l1.getBits(), l2.getBits()));
+				assertEquals(msg, l1.subsumes(l2), Label.subsumesBits(l1.getBits(), l2.getBits()));
+			}
+		}
+		final Label aF = Label.parse("a¬F");
+		assertEquals(2, aF.size());
+		assertEquals(Literal.NEGATED, aF.getState('F'));
+		assertEquals(aF, Label.valueOf('a', Literal.STRAIGHT).conjunction(Label.valueOf('F', Literal.NEGATED)));
+		assertTrue(Label.parse("¿a¬F").subsumes(aF));
+		assertFalse(aF.subsumes(Label.parse("F")));
+
+		// BITS_NULL is also the label with all propositions unknown, which an extended conjunction can produce.
+		Label allUnknown1 = Label.emptyLabel, allUnknown2 = Label.emptyLabel;
+		for (char c = 'a'; c <= 'z'; c++) {
+			allUnknown1 = allUnknown1.conjunctionExtended(c, Literal.UNKNONW);
+		}
+		for (char c = 'A'; c <= 'F'; c++) {
+			allUnknown2 = allUnknown2.conjunctionExtended(c, Literal.UNKNONW);
+		}
+		final long allUnknownBits = Label.conjunctionExtendedBits(allUnknown1.getBits(), allUnknown2.getBits());
+		assertEquals(Label.BITS_NULL, allUnknownBits);
+		final Label allUnknown = Label.valueOfBits(allUnknownBits);
+		assertEquals(allUnknown1.conjunctionExtended(allUnknown2), allUnknown);
+		assertEquals(Label.NUMBER_OF_POSSIBLE_PROPOSITIONS, allUnknown.size());
+	}
 }
@@ -73,4 +73,19 @@ public class LabeledIntSimpleMapTest {
 		assertEquals("{b, ¬a, a, ⊡}", entrySet.toString());
 	}
 
+	/**
+	 * values() must be an IntSet even if the main map has repeated values.
+	 */
+	@Test
+	public void testValues() {
+		this.map.put(Label.emptyLabel, 0);
+		this.map.put(Label.parse("a"), -1);
+		this.map.put(Label.parse("¬a"), -1);
+		this.map.put(Label.parse("b"), -2);
+
+		assertEquals(3, this.map.values().size());
+		assertEquals(-2, this.map.getMinValue());
+		assertEquals(0, this.map.getMaxValue());
+	}
+
 }